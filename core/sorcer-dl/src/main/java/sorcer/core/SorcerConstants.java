@@ -724,5 +724,53 @@ public interface SorcerConstants {
 	public static final String P_SCRATCH_TTL = "scratch.ttl";
 	// 30 days as seconds
 	public static final long SCRATCH_TTL_DEFAULT = TimeUnit.DAYS.toSeconds(30);
+	public static final String P_FILE_CACHE_DIR = "file.cache.dir";
+	public static final String P_FILE_CACHE_SIZE = "file.cache.size";
+	// 1 GB
+	public static final long FILE_CACHE_SIZE_DEFAULT = 1L << 30;
+	public static final String P_EXEC_POOL_SIZE = "exec.pool.size";
+	public static final int EXEC_POOL_SIZE_DEFAULT = 4;
+	public static final String P_EXEC_POOL_MAX_USES = "exec.pool.maxUses";
+	public static final String P_TRACE_FILE = "sorcer.trace.file";
+	public static final String P_TRACE_SAMPLE = "sorcer.trace.sample";
+	public static final String P_TRACE_MAX = "sorcer.trace.max";
+	public static final int TRACE_MAX_DEFAULT = 64;
+	// seconds to wait for deployed services and for undeployments
+	public static final String P_PROVISIONING_TIMEOUT = "provisioning.timeout";
+	public static final int PROVISIONING_TIMEOUT_DEFAULT = 120;
+	public static final String P_UNDEPLOY_TIMEOUT = "provisioning.undeploy.timeout";
+	public static final int UNDEPLOY_TIMEOUT_DEFAULT = 60;
+	public static final String P_TRANSFER_CHUNK_SIZE = "transfer.chunk.size";
+	// 8 MB
+	public static final long TRANSFER_CHUNK_SIZE_DEFAULT = 8L << 20;
+	public static final String P_TRANSFER_PARALLELISM = "transfer.parallelism";
+	public static final String P_TRANSFER_RETRIES = "transfer.retries";
+	public static final int TRANSFER_RETRIES_DEFAULT = 5;
+	// share of superseded values in a FileTable data log that triggers compaction
+	public static final String P_TABLE_COMPACTION_RATIO = "table.compaction.ratio";
+	public static final double TABLE_COMPACTION_RATIO_DEFAULT = 0.5;
+	public static final String P_TABLE_COMPACTION_MIN = "table.compaction.min";
+	// 4 MB
+	public static final long TABLE_COMPACTION_MIN_DEFAULT = 4L << 20;
+	// near cache of space elements read by shared contexts
+	public static final String P_SPACE_CONTEXT_CACHE = "space.context.cache";
+	// seconds a cached space element is used before it is read again, 0 for no expiry
+	public static final String P_SPACE_CONTEXT_CACHE_TTL = "space.context.cache.ttl";
+	public static final int SPACE_CONTEXT_CACHE_TTL_DEFAULT = 30;
+	// number of shared context writes flushed to the space in one batch
+	public static final String P_SPACE_CONTEXT_BATCH = "space.context.batch";
+	public static final int SPACE_CONTEXT_BATCH_DEFAULT = 64;
+	// number of stored objects cached by the sos:// resolver
+	public static final String P_SOS_CACHE_SIZE = "sos.cache.size";
+	public static final int SOS_CACHE_SIZE_DEFAULT = 1024;
+	// seconds a cached stored object is used before it is retrieved again, 0 for no expiry
+	public static final String P_SOS_CACHE_TTL = "sos.cache.ttl";
+	public static final int SOS_CACHE_TTL_DEFAULT = 30;
+	// maximum number of objects retrieved from a storage provider in one call
+	public static final String P_SOS_BATCH_SIZE = "sos.batch.size";
+	public static final int SOS_BATCH_SIZE_DEFAULT = 256;
+	// number of memoized proc values kept in memory
+	public static final String P_PROC_MEMO_SIZE = "proc.memo.size";
+	public static final int PROC_MEMO_SIZE_DEFAULT = 1024;
 
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import java.io.Serializable;
+
+/**
+ * A timed step of an exertion execution: a job dispatch, a dispatched exertion
+ * or a provider call. Spans of the same top-level exertion share the trace ID
+ * and refer to the span they were started in by the parent ID.
+ */
+public class TraceSpan implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	public static final String DISPATCHER = "dispatcher";
+	public static final String EXERTION = "exertion";
+	public static final String PROVIDER = "provider";
+
+	public final String traceId;
+	public final String id;
+	public final String parentId;
+	public final String kind;
+	public final String name;
+	public final String provider;
+	public final String host;
+	public final long start;
+	public long end;
+	public boolean failed;
+
+	public TraceSpan(String traceId, String id, String parentId, String kind,
+			String name, String provider, String host) {
+		this.traceId = traceId;
+		this.id = id;
+		this.parentId = parentId;
+		this.kind = kind;
+		this.name = name;
+		this.provider = provider;
+		this.host = host;
+		this.start = System.currentTimeMillis();
+	}
+
+	public boolean isEnded() {
+		return end != 0;
+	}
+
+	public long getDuration() {
+		return isEnded() ? end - start : System.currentTimeMillis() - start;
+	}
+
+	public String toString() {
+		return kind + " " + name + (provider != null ? " by: " + provider : "")
+				+ " [" + getDuration() + " ms" + (failed ? ", failed" : "")
+				+ "] " + traceId + "/" + id + (parentId != null ? "<" + parentId : "");
+	}
+}
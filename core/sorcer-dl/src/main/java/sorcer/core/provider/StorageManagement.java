@@ -34,6 +34,8 @@ public interface StorageManagement {
 	final static String object_deleted = "object/deleted";
 	final static String object_url = "object/url";
 	final static String object_uuid = "object/uuid";
+	final static String object_uuids = "object/uuids";
+	final static String objects_retrieved = "objects/retrieved";
 	final static String object_type = "object/type";
 	final static String store_type = "store/type";
 	final static String store_size = "store/size";
@@ -42,6 +44,15 @@ public interface StorageManagement {
 	public Context contextRetrieve(Context context) throws RemoteException,
 			ContextException;
 
+	/**
+	 * Retrieves the objects with the {@link net.jini.id.Uuid}s listed at
+	 * {@link #object_uuids} with a single call. The found objects are
+	 * returned at {@link #objects_retrieved} as a map by their Uuids; objects
+	 * not found are absent from the map.
+	 */
+	public Context contextRetrieveAll(Context context) throws RemoteException,
+			ContextException;
+
 	public Context contextStore(Context context) throws RemoteException,
 			ContextException, MalformedURLException;
 
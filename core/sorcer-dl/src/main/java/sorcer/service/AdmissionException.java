@@ -0,0 +1,32 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.service;
+
+/**
+ * The <code>AdmissionException</code> is thrown by a rendezvous provider that
+ * rejects an exertion because its admission limits are reached. The exertion
+ * was not started, so the requestor may retry it later or with another
+ * provider.
+ */
+public class AdmissionException extends ExertionException {
+
+	private static final long serialVersionUID = -4627816253404541270L;
+
+	public AdmissionException(String message, Exertion exertion) {
+		super(message, exertion);
+	}
+}
@@ -40,6 +40,7 @@ public interface Exec {
     final static int ASIS		   		=  14;
 
     final static int PROVISION          =  15;
+    final static int QUEUED             =  16;
     
     final static int ERROR            	= -1;  
     public static final int POISONED	= -2;
@@ -55,7 +56,7 @@ public interface Exec {
 	 * executing exertions (see sorcer.core.provider.exertmonitor.ExertMonitor)
 	 */
 	public enum State {
-		FAILED, INITIAL, INSPACE, RUNNING, DONE, STOPPED, SUSPENDED, RESUMED, NEXT_STEP, INSPACE_FOR_SLA, RETURNED, UPDATED, ASYNC, NULL, ASIS, PROVISION;
+		FAILED, INITIAL, INSPACE, RUNNING, DONE, STOPPED, SUSPENDED, RESUMED, NEXT_STEP, INSPACE_FOR_SLA, RETURNED, UPDATED, ASYNC, NULL, ASIS, PROVISION, QUEUED;
 		
 		static public String name(int state) {
 			for (State s : State.values()) {
@@ -878,6 +878,14 @@ public class operator extends sorcer.operator {
 		return out;
 	}
 
+	public static <T extends List> ColumnarDataTable columnarTable(T... elems) {
+		return new ColumnarDataTable(dataTable(elems));
+	}
+
+	public static ColumnarDataTable columnarTable(DataTable table) {
+		return new ColumnarDataTable(table);
+	}
+
 	public static OutType out(Type type) {
 		return new OutType(type);
 	}
@@ -1121,7 +1129,7 @@ public class operator extends sorcer.operator {
 	public static void remove(ServiceContext parModel, String... paths)
 			throws RemoteException, ContextException {
 		for (String path : paths)
-			parModel.getData().remove(path);
+			parModel.remove(path);
 	}
 
     public static Map<String, List<DependencyEntry>> dependencies(Domain model) {
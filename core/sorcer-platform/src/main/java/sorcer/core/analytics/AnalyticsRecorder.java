@@ -36,7 +36,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class AnalyticsRecorder {
     private Logger logger = LoggerFactory.getLogger(AnalyticsRecorder.class);
-    private final Map<String, MethodInvocationRecord> activityMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, MethodInvocationRecord> activityMap = new ConcurrentHashMap<>();
     private ServiceID serviceID;
     private String hostName;
     private final MonitorAgent monitorAgent;
@@ -78,21 +78,18 @@ public class AnalyticsRecorder {
     public void completed(String m, int id) {
         MethodInvocationRecord record = getMethodInvocationRecord(m);
         record.complete(id);
-        activityMap.put(m, record);
         monitorAgent.completed(record.create(serviceID, hostName));
     }
 
     /*public void completed(String m, long startTime) {
         MethodInvocationRecord record = getMethodInvocationRecord(m);
         record.complete(startTime);
-        activityMap.put(m, record);
         monitorAgent.completed(record.create(serviceID, hostName));
     }*/
 
     public void failed(String m, int id) {
         MethodInvocationRecord record = getMethodInvocationRecord(m);
         record.failed(id);
-        activityMap.put(m, record);
         monitorAgent.update(Monitor.Status.FAILED, record.create(serviceID, hostName));
     }
 
@@ -119,13 +116,12 @@ public class AnalyticsRecorder {
     }
 
     private MethodInvocationRecord getMethodInvocationRecord(String m) {
-        MethodInvocationRecord methodInvocationRecord;
-        synchronized(activityMap) {
-            methodInvocationRecord = activityMap.get(m);
-            if (methodInvocationRecord == null) {
-                methodInvocationRecord = new MethodInvocationRecord(m);
-                activityMap.put(m, methodInvocationRecord);
-            }
+        MethodInvocationRecord methodInvocationRecord = activityMap.get(m);
+        if (methodInvocationRecord == null) {
+            MethodInvocationRecord created = new MethodInvocationRecord(m);
+            methodInvocationRecord = activityMap.putIfAbsent(m, created);
+            if (methodInvocationRecord == null)
+                methodInvocationRecord = created;
         }
         return methodInvocationRecord;
     }
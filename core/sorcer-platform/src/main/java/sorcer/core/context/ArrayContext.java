@@ -17,12 +17,22 @@
 
 package sorcer.core.context;
 
+import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import sorcer.core.SorcerConstants;
+import sorcer.service.Context;
 import sorcer.service.ContextException;
 import sorcer.service.IndexedContext;
+import sorcer.service.Reactive;
+import sorcer.service.Setter;
+import sorcer.util.SorcerUtil;
 
 /**
  * The Array context has an array like access to a service context. Accessing
@@ -49,6 +59,12 @@ import sorcer.service.IndexedContext;
  * implicit path: array/out/[i]/comment<br>
  *<li>the description of the i-th element: by ovd(i) and the setter ovd(i, description);<br>
  * implicit path: array/out/[i]/description
+ * </ol>
+ * The elements are held densely in {@link ArrayData}, as doubles while all
+ * values of a section are doubles, and their directions in bitsets, so that
+ * setting an element does not depend on the size of the context. The element
+ * paths and their direction associations are presented on demand by the
+ * path-based methods of the context.
  */
 public class ArrayContext extends ServiceContext implements IndexedContext,
 		SorcerConstants {
@@ -58,11 +74,20 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	// maximal eval index in a context, excluding comments and descriptions
 	protected int maxIndex = 0;
 
+	// directions of the element values by section, inout is marked in both
+	private final BitSet[] inMarks = { new BitSet(), new BitSet(), new BitSet() };
+
+	private final BitSet[] outMarks = { new BitSet(), new BitSet(), new BitSet() };
+
+	// directions of the element values at sparse indices by path, so that the bitsets are not grown to them
+	private Map<String, String> sparseMarks;
+
 	/**
 	 * Initializes a context array with the name 'Array Context'.
 	 */
 	public ArrayContext() {
 		super("Array Context");
+		data = new ArrayData();
 	}
 
 	/**
@@ -73,10 +98,22 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 */
 	public ArrayContext(String name) {
 		super(name);
+		data = new ArrayData();
 	}
 
 	public ArrayContext(String name, String subjectPath, Object subjectValue) {
 		super(name, subjectPath, subjectValue);
+		data = new ArrayData();
+	}
+
+	/**
+	 * Returns the dense data of this context, restored from a plain map if
+	 * the context was received as a delta.
+	 */
+	protected ArrayData getArrayData() {
+		if (!(data instanceof ArrayData))
+			data = new ArrayData(data);
+		return (ArrayData) data;
 	}
 	
 	/**
@@ -89,7 +126,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public Object v(int index) throws ContextException {
-		return getValue(vp(index));
+		return getElement(ArrayData.VALUES, index);
 	}
 
 	/**
@@ -104,10 +141,22 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public void v(int index, Object value) throws ContextException {
-		String path = vp(index);
-		Contexts.putInValue(this, path, value);
-		if (index > maxIndex)
-			maxIndex = index;
+		putElement(ArrayData.VALUES, index, value, DA_IN);
+	}
+
+	/**
+	 * Replaces the eval at the specified position in this context with the
+	 * specified double held without boxing (v - Value).
+	 *
+	 * @param index
+	 *            index of eval to replace.
+	 * @param value
+	 *            eval to be stored at the specified position.
+	 *
+	 * @throws ContextException
+	 */
+	public void v(int index, double value) throws ContextException {
+		putElement(ArrayData.VALUES, index, value, DA_IN);
 	}
 
 	/**
@@ -121,7 +170,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public Object iv(int index) throws ContextException {
-		return getValue(ivp(index));
+		return getElement(ArrayData.INPUTS, index);
 	}
 
 	/**
@@ -136,11 +185,11 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public String iv(int index, Object value) throws ContextException {
-		String path = ivp(index);
-		Contexts.putInValue(this, path, value);
-		if (index > maxIndex)
-			maxIndex = index;
-		return path;
+		return putElement(ArrayData.INPUTS, index, value, DA_IN);
+	}
+
+	public String iv(int index, double value) throws ContextException {
+		return putElement(ArrayData.INPUTS, index, value, DA_IN);
 	}
 
 	/**
@@ -154,7 +203,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public Object ov(int index) throws ContextException {
-		return getValue(ovp(index));
+		return getElement(ArrayData.OUTPUTS, index);
 	}
 
 	/**
@@ -169,10 +218,60 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public String ov(int index, Object value) throws ContextException {
-		String path = ovp(index);
-		Contexts.putOutValue(this, path, value);
-		if (index > maxIndex)
-			maxIndex = index;
+		return putElement(ArrayData.OUTPUTS, index, value, DA_OUT);
+	}
+
+	public String ov(int index, double value) throws ContextException {
+		return putElement(ArrayData.OUTPUTS, index, value, DA_OUT);
+	}
+
+	private Object getElement(int section, int index) throws ContextException {
+		ArrayData elements = getArrayData();
+		if (elements.isPrimitive(section))
+			return elements.getElement(section, ArrayData.VALUE, index);
+		return getValue(ArrayData.path(section, index));
+	}
+
+	private String putElement(int section, int index, Object value, String direction)
+			throws ContextException {
+		ArrayData elements = getArrayData();
+		Object current = elements.getElement(section, ArrayData.VALUE, index);
+		if (value != null && current instanceof Reactive && current instanceof Setter) {
+			try {
+				((Setter) current).setValue(value);
+			} catch (RemoteException ex) {
+				throw new ContextException(ex);
+			}
+		} else {
+			elements.putElement(section, ArrayData.VALUE, index, value == null ? none : value);
+		}
+		return elementChanged(section, ArrayData.VALUE, index, direction);
+	}
+
+	private String putElement(int section, int index, double value, String direction) {
+		getArrayData().putDouble(section, index, value);
+		return elementChanged(section, ArrayData.VALUE, index, direction);
+	}
+
+	private String getField(int section, int field, int index) {
+		Object value = getArrayData().getElement(section, field, index);
+		return value == none ? null : (String) value;
+	}
+
+	private void putField(int section, int field, int index, String value) {
+		getArrayData().putElement(section, field, index, value == null ? none : value);
+		elementChanged(section, field, index, null);
+	}
+
+	private String elementChanged(int section, int field, int index, String direction) {
+		if (field == ArrayData.VALUE) {
+			setDirection(section, index, direction);
+			if (index > maxIndex)
+				maxIndex = index;
+		}
+		String path = ArrayData.path(section, field, index);
+		if (changedPaths != null)
+			changedPaths.add(path);
 		return path;
 	}
 
@@ -211,7 +310,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public String vc(int index) throws ContextException {
-		return (String) getValue(cp(index));
+		return getField(ArrayData.VALUES, ArrayData.COMMENT, index);
 	}
 
 	/**
@@ -224,7 +323,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public void vc(int index, String comment) throws ContextException {
-		putValue(cp(index), comment);
+		putField(ArrayData.VALUES, ArrayData.COMMENT, index, comment);
 	}
 
 	/**
@@ -238,7 +337,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public String ivc(int index) throws ContextException {
-		return (String) getValue(civp(index));
+		return getField(ArrayData.INPUTS, ArrayData.COMMENT, index);
 	}
 
 	/**
@@ -251,7 +350,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public void ivc(int index, String comment) throws ContextException {
-		putValue(civp(index), comment);
+		putField(ArrayData.INPUTS, ArrayData.COMMENT, index, comment);
 	}
 
 	/**
@@ -265,7 +364,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public String ovc(int index) throws ContextException {
-		return (String) getValue(covp(index));
+		return getField(ArrayData.OUTPUTS, ArrayData.COMMENT, index);
 	}
 
 	/**
@@ -278,7 +377,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public void ovc(int index, String comment) throws ContextException {
-		putValue(covp(index), comment);
+		putField(ArrayData.OUTPUTS, ArrayData.COMMENT, index, comment);
 	}
 
 	/**
@@ -316,7 +415,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public String vd(int index) throws ContextException {
-		return (String) getValue(dp(index));
+		return getField(ArrayData.VALUES, ArrayData.DESCRIPTION, index);
 	}
 
 	/**
@@ -330,7 +429,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public void vd(int index, String description) throws ContextException {
-		putValue(dp(index), description);
+		putField(ArrayData.VALUES, ArrayData.DESCRIPTION, index, description);
 	}
 
 	/**
@@ -344,7 +443,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public String ivd(int index) throws ContextException {
-		return (String) getValue(divp(index));
+		return getField(ArrayData.INPUTS, ArrayData.DESCRIPTION, index);
 	}
 
 	/**
@@ -357,7 +456,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public void ivd(int index, String description) throws ContextException {
-		putValue(divp(index), description);
+		putField(ArrayData.INPUTS, ArrayData.DESCRIPTION, index, description);
 	}
 
 	/**
@@ -371,7 +470,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public String ovd(int index) throws ContextException {
-		return (String) getValue(dovp(index));
+		return getField(ArrayData.OUTPUTS, ArrayData.DESCRIPTION, index);
 	}
 
 	/**
@@ -384,7 +483,7 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @throws ContextException
 	 */
 	public void ovd(int index, String description) throws ContextException {
-		putValue(dovp(index), description);
+		putField(ArrayData.OUTPUTS, ArrayData.DESCRIPTION, index, description);
 	}
 
 	/**
@@ -408,39 +507,189 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 		return array;
 	}
 
-	// Returns a list of input values sorted by index using insertion sort
+	// Returns a list of input paths sorted by index, in order of marking for equal indices
 	public String[] getSortedInPaths() throws ContextException {
-		// find all input path
-		String inAssoc = DIRECTION + SorcerConstants.APS + DA_IN;
-		String inoutAssoc = DIRECTION + SorcerConstants.APS + DA_INOUT;
-		String[] inPaths = Contexts.getMarkedPaths(this, inAssoc);
-		String[] inoutPaths = Contexts.getMarkedPaths(this, inoutAssoc);
-		int tally = inPaths.length + inoutPaths.length;
+		List<String> paths = Contexts.getAllInPaths(this);
+		int tally = paths.size();
+		long[] keys = new long[tally];
+		for (int i = 0; i < tally; i++)
+			keys[i] = (long) getIndex(paths.get(i)) << 32 | i;
+		Arrays.sort(keys);
 		String[] list = new String[tally];
-		if (inPaths != null)
-			for (int i = 0; i < inPaths.length; i++)
-				list[i] = inPaths[i];
-		if (inoutPaths != null)
-			for (int i = inPaths.length; i < inoutPaths.length; i++)
-				list[i] = inoutPaths[i];
-		// insertion sort
-		int in, out;
-
-		for (out = 1; out < tally; out++) // out is dividing line
-		{
-			String temp = list[out]; // remove marked item
-			in = out; // start shifts at out
-			// until one is smaller
-			while (in > 0 && getIndex((String) list[in - 1]) >= getIndex(temp)) {
-				list[in] = list[in - 1]; // shift item right,
-				--in; // go left one position
-			}
-			// insert marked item
-			list[in] = temp;
-		} // end for
+		for (int i = 0; i < tally; i++)
+			list[i] = paths.get((int) keys[i]);
 		return list;
 	}
 
+	/**
+	 * Returns the values of the array elements selected by "v", "iv" or "ov"
+	 * as doubles, with NaN for the indices not set.
+	 *
+	 * @param selector
+	 *            the element selector
+	 * @return values of the selected elements
+	 */
+	public double[] getDoubles(String selector) {
+		return getArrayData().getDoubles(getSection(selector));
+	}
+
+	private static int getSection(String selector) {
+		if (selector.equals("iv"))
+			return ArrayData.INPUTS;
+		else if (selector.equals("ov"))
+			return ArrayData.OUTPUTS;
+		else if (selector.equals("v"))
+			return ArrayData.VALUES;
+		throw new IllegalArgumentException("No element selector: " + selector);
+	}
+
+	private void setDirection(int section, int index, String direction) {
+		boolean in = DA_IN.equals(direction) || DA_INOUT.equals(direction);
+		boolean out = DA_OUT.equals(direction) || DA_INOUT.equals(direction);
+		if (getArrayData().isSparse(section, index)) {
+			// clearing bits beyond the bitsets does not grow them
+			inMarks[section].clear(index);
+			outMarks[section].clear(index);
+			if (in || out) {
+				if (sparseMarks == null)
+					sparseMarks = new HashMap<String, String>();
+				sparseMarks.put(ArrayData.path(section, index), direction(in, out));
+			} else if (sparseMarks != null) {
+				sparseMarks.remove(ArrayData.path(section, index));
+			}
+			return;
+		}
+		if (sparseMarks != null)
+			sparseMarks.remove(ArrayData.path(section, index));
+		inMarks[section].set(index, in);
+		outMarks[section].set(index, out);
+	}
+
+	private static String direction(boolean in, boolean out) {
+		if (in)
+			return out ? DA_INOUT : DA_IN;
+		return out ? DA_OUT : null;
+	}
+
+	private String getDirection(int section, int index) {
+		if (sparseMarks != null) {
+			String direction = sparseMarks.get(ArrayData.path(section, index));
+			if (direction != null)
+				return direction;
+		}
+		return direction(inMarks[section].get(index), outMarks[section].get(index));
+	}
+
+	/**
+	 * Returns the direction set by the association if it only marks a
+	 * direction, otherwise null.
+	 */
+	private static String getDirection(String association) {
+		String direction;
+		if (association.startsWith(DIRECTION + APS)) {
+			direction = association.substring(DIRECTION.length() + 1);
+		} else if (association.startsWith(CONTEXT_PARAMETER + APS)) {
+			String[] values = association.substring(CONTEXT_PARAMETER.length() + 1).split("\\" + APS, -1);
+			for (int i = 1; i < values.length; i++) {
+				if (values[i].length() > 0)
+					return null;
+			}
+			direction = values[0];
+		} else {
+			direction = association.toLowerCase();
+		}
+		if (direction.equals(DA_IN) || direction.equals(DA_OUT) || direction.equals(DA_INOUT))
+			return direction;
+		return null;
+	}
+
+	/**
+	 * Marks element values with a direction in the bitsets of this context,
+	 * other paths and associations in the metacontext.
+	 */
+	@Override
+	public Context mark(String path, String association) throws ContextException {
+		long element = ArrayData.parse(path);
+		if (element >= 0 && ArrayData.field(element) == ArrayData.VALUE) {
+			int section = ArrayData.section(element);
+			int index = ArrayData.index(element);
+			String direction = getDirection(association);
+			if (direction != null) {
+				setDirection(section, index, direction);
+				return this;
+			}
+			// a direction with other attributes is kept in the metacontext only
+			if (association.startsWith(CONTEXT_PARAMETER + APS) || association.startsWith(DIRECTION + APS)
+					|| association.startsWith(OPP + APS))
+				setDirection(section, index, null);
+		}
+		return super.mark(path, association);
+	}
+
+	@Override
+	public List<String> markedPaths(String association) throws ContextException {
+		List<String> keys = super.markedPaths(association);
+		if (keys != null)
+			keys.addAll(getMarkedElementPaths(association));
+		return keys;
+	}
+
+	/**
+	 * Returns the paths of the element values marked with the direction of
+	 * the association in this context.
+	 */
+	List<String> getMarkedElementPaths(String association) {
+		String direction = association == null || association.indexOf(APS) < 0 ? null
+				: getDirection(association);
+		if (direction == null)
+			return Collections.emptyList();
+		List<String> paths = new ArrayList<String>();
+		ArrayData elements = getArrayData();
+		boolean in = !direction.equals(DA_OUT);
+		boolean out = !direction.equals(DA_IN);
+		for (int section = 0; section < inMarks.length; section++) {
+			BitSet marks = in ? inMarks[section] : outMarks[section];
+			for (int i = marks.nextSetBit(0); i >= 0; i = marks.nextSetBit(i + 1)) {
+				if (outMarks[section].get(i) == out && inMarks[section].get(i) == in
+						&& elements.hasElement(section, i))
+					paths.add(ArrayData.path(section, i));
+			}
+		}
+		if (sparseMarks != null) {
+			for (Map.Entry<String, String> e : sparseMarks.entrySet()) {
+				long element = ArrayData.parse(e.getKey());
+				if (e.getValue().equals(direction(in, out))
+						&& elements.hasElement(ArrayData.section(element), ArrayData.index(element)))
+					paths.add(e.getKey());
+			}
+		}
+		return paths;
+	}
+
+	@Override
+	public String getSingletonAttributeValue(String path, String attributeName)
+			throws ContextException {
+		long element = ArrayData.parse(path);
+		if (element >= 0 && ArrayData.field(element) == ArrayData.VALUE) {
+			String direction = getDirection(ArrayData.section(element), ArrayData.index(element));
+			if (direction != null) {
+				if (attributeName.equals(DIRECTION))
+					return direction;
+				if (attributeName.equals(PATH) || attributeName.equals(CONTEXT_ID)
+						|| attributeName.equals(VAL_CLASS))
+					return "";
+			}
+		}
+		return super.getSingletonAttributeValue(path, attributeName);
+	}
+
+	@Override
+	public List<String> localLinkPaths() throws ContextException {
+		List<String> keys = getArrayData().findPaths(ContextLink.class);
+		SorcerUtil.bubbleSort(keys);
+		return keys;
+	}
+
 	// utility methods defining paths of this context
 	public static String civp(int index) {
 		return (ii(index) + CPS + COMMENT).intern();
@@ -509,6 +758,9 @@ public class ArrayContext extends ServiceContext implements IndexedContext,
 	 * @return an index of the given service context path
 	 */
 	public int getIndex(String path) {
+		long element = ArrayData.parse(path);
+		if (element >= 0)
+			return ArrayData.index(element);
 		int i1 = path.indexOf('[');
 		if (i1 >= 0) {
 			int i2 = path.indexOf(']');
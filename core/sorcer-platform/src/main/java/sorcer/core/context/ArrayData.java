@@ -0,0 +1,546 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The data of an {@link ArrayContext}. The elements of the array, at paths
+ * like <code>[i]/eval</code>, <code>input/[i]/comment</code> or
+ * <code>output/[i]/description</code>, are held in dense arrays indexed by
+ * the element index, all other paths in a {@link ConcurrentHashMap}. The
+ * element paths are created only when the map is iterated.
+ * <p>
+ * Element values are held in a <code>double[]</code> while all values of a
+ * section are doubles, and in an <code>Object[]</code> once another value is
+ * stored.
+ * <p>
+ * An element at an outlying index, beyond twice the number of elements of
+ * its field, is held in the map by its path, so that a sparse index does not
+ * grow the arrays up to it. The elements held in the map are moved to the
+ * arrays once the field is dense enough for its length.
+ */
+public class ArrayData<T> extends AbstractMap<String, T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	// sections of elements: [i], input/[i] and output/[i]
+	static final int VALUES = 0;
+	static final int INPUTS = 1;
+	static final int OUTPUTS = 2;
+
+	// fields of an element
+	static final int VALUE = 0;
+	static final int COMMENT = 1;
+	static final int DESCRIPTION = 2;
+
+	private static final String[] PREFIXES = { "", ArrayContext.IN_, ArrayContext.OUT_ };
+
+	private static final String[] FIELDS = { ArrayContext.VAL, ArrayContext.COMMENT,
+			ArrayContext.DESCRIPTION };
+
+	// indices beyond twice the number of elements of a field and this margin are held in the map
+	private static final int SPARSE_MARGIN = 16;
+
+	private final ConcurrentHashMap<String, T> paths = new ConcurrentHashMap<String, T>();
+
+	private final Section[] sections = { new Section(), new Section(), new Section() };
+
+	public ArrayData() {
+	}
+
+	public ArrayData(Map<String, ? extends T> map) {
+		putAll(map);
+	}
+
+	/**
+	 * Returns the section, field and index of an element path as
+	 * <code>section << 40 | field << 32 | index</code>, or -1 if the path is
+	 * not an element path.
+	 */
+	static long parse(String path) {
+		int section;
+		int pos;
+		if (path.startsWith("[")) {
+			section = VALUES;
+			pos = 0;
+		} else if (path.startsWith(PREFIXES[INPUTS]) && path.startsWith("[", PREFIXES[INPUTS].length())) {
+			section = INPUTS;
+			pos = PREFIXES[INPUTS].length();
+		} else if (path.startsWith(PREFIXES[OUTPUTS]) && path.startsWith("[", PREFIXES[OUTPUTS].length())) {
+			section = OUTPUTS;
+			pos = PREFIXES[OUTPUTS].length();
+		} else {
+			return -1;
+		}
+		int start = ++pos;
+		long index = 0;
+		while (pos < path.length() && pos - start < 10) {
+			char c = path.charAt(pos);
+			if (c < '0' || c > '9')
+				break;
+			index = index * 10 + (c - '0');
+			pos++;
+		}
+		int digits = pos - start;
+		// [01] is not the path of element 1
+		if (digits == 0 || index > Integer.MAX_VALUE || (digits > 1 && path.charAt(start) == '0')
+				|| !path.startsWith("]/", pos))
+			return -1;
+		pos += 2;
+		for (int field = 0; field < FIELDS.length; field++) {
+			if (path.length() - pos == FIELDS[field].length() && path.startsWith(FIELDS[field], pos))
+				return (long) section << 40 | (long) field << 32 | index;
+		}
+		return -1;
+	}
+
+	static String path(int section, int field, int index) {
+		return PREFIXES[section] + '[' + index + "]/" + FIELDS[field];
+	}
+
+	/**
+	 * Returns the element path for the value at the given index of a section.
+	 */
+	static String path(int section, int index) {
+		return path(section, VALUE, index);
+	}
+
+	synchronized T getElement(int section, int field, int index) {
+		Section s = sections[section];
+		Object value = s.get(field, index);
+		if (value == null && s.sparse[field] > 0)
+			value = paths.get(path(section, field, index));
+		return (T) value;
+	}
+
+	synchronized T putElement(int section, int field, int index, T value) {
+		Section s = sections[section];
+		T old = isSparse(s, section, field, index) ? putSparse(s, field, index, path(section, field, index), value)
+				: (T) s.put(field, index, value);
+		compact(section, field);
+		return old;
+	}
+
+	synchronized boolean hasElement(int section, int index) {
+		return getElement(section, VALUE, index) != null;
+	}
+
+	/**
+	 * Returns true if the value at the index of a section is held in the map,
+	 * or would be if it were put.
+	 */
+	synchronized boolean isSparse(int section, int index) {
+		return isSparse(sections[section], section, VALUE, index);
+	}
+
+	private boolean isSparse(Section s, int section, int field, int index) {
+		if (s.sparse[field] > 0 && paths.containsKey(path(section, field, index)))
+			return true;
+		return s.isOutlying(field, index);
+	}
+
+	private T putSparse(Section s, int field, int index, String path, T value) {
+		T old = value == null ? paths.remove(path) : paths.put(path, value);
+		if (old == null && value != null) {
+			s.sparse[field]++;
+			if (index >= s.length)
+				s.length = index + 1;
+		} else if (old != null && value == null) {
+			s.sparse[field]--;
+		}
+		return old;
+	}
+
+	// moves the elements of a field held in the map to the arrays once the field is dense enough
+	private void compact(int section, int field) {
+		Section s = sections[section];
+		if (s.sparse[field] == 0 || s.length > 2L * (s.counts[field] + s.sparse[field]) + SPARSE_MARGIN)
+			return;
+		Iterator<Map.Entry<String, T>> it = paths.entrySet().iterator();
+		while (it.hasNext() && s.sparse[field] > 0) {
+			Map.Entry<String, T> e = it.next();
+			long element = parse(e.getKey());
+			if (element >= 0 && section(element) == section && field(element) == field) {
+				it.remove();
+				s.sparse[field]--;
+				s.put(field, index(element), e.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Returns true if all values of the section are held as doubles.
+	 */
+	synchronized boolean isPrimitive(int section) {
+		return sections[section].doubles != null;
+	}
+
+	synchronized double getDouble(int section, int index) {
+		Section s = sections[section];
+		if (s.doubles != null && s.present.get(index))
+			return s.doubles[index];
+		Object value = getElement(section, VALUE, index);
+		if (value instanceof Number)
+			return ((Number) value).doubleValue();
+		throw new IllegalArgumentException("No double at " + path(section, index));
+	}
+
+	synchronized void putDouble(int section, int index, double value) {
+		Section s = sections[section];
+		if (isSparse(s, section, VALUE, index))
+			putSparse(s, VALUE, index, path(section, index), (T) Double.valueOf(value));
+		else if (s.doubles != null || s.counts[VALUE] == 0)
+			s.putDouble(index, value);
+		else
+			s.put(VALUE, index, value);
+		compact(section, VALUE);
+	}
+
+	/**
+	 * Returns the values of a section as doubles, the values that are not set
+	 * or not numbers as NaN.
+	 */
+	synchronized double[] getDoubles(int section) {
+		Section s = sections[section];
+		double[] values = new double[s.length];
+		for (int i = 0; i < values.length; i++) {
+			if (s.doubles != null)
+				values[i] = s.present.get(i) ? s.doubles[i] : Double.NaN;
+			else
+				values[i] = s.get(VALUE, i) instanceof Number ? ((Number) s.get(VALUE, i)).doubleValue() : Double.NaN;
+		}
+		if (s.sparse[VALUE] > 0) {
+			for (Map.Entry<String, T> e : paths.entrySet()) {
+				long element = parse(e.getKey());
+				if (element >= 0 && section(element) == section && field(element) == VALUE
+						&& e.getValue() instanceof Number)
+					values[index(element)] = ((Number) e.getValue()).doubleValue();
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the index after the last element of a section.
+	 */
+	synchronized int length(int section) {
+		return sections[section].length;
+	}
+
+	/**
+	 * Returns the paths of the values that are instances of the given type.
+	 * Sections of doubles are not searched.
+	 */
+	synchronized List<String> findPaths(Class<?> type) {
+		List<String> found = new ArrayList<String>();
+		for (Map.Entry<String, T> e : paths.entrySet()) {
+			if (type.isInstance(e.getValue()))
+				found.add(e.getKey());
+		}
+		for (int section = 0; section < sections.length; section++) {
+			for (int field = 0; field < FIELDS.length; field++) {
+				Object[] values = sections[section].fields[field];
+				if (values == null)
+					continue;
+				for (int i = 0; i < values.length; i++) {
+					if (type.isInstance(values[i]))
+						found.add(path(section, field, i));
+				}
+			}
+		}
+		return found;
+	}
+
+	@Override
+	public T get(Object key) {
+		if (!(key instanceof String))
+			return null;
+		long element = parse((String) key);
+		if (element < 0)
+			return paths.get(key);
+		return getElement(section(element), field(element), index(element));
+	}
+
+	@Override
+	public T put(String key, T value) {
+		long element = parse(key);
+		if (element < 0)
+			return paths.put(key, value);
+		if (value == null)
+			throw new NullPointerException();
+		return putElement(section(element), field(element), index(element), value);
+	}
+
+	@Override
+	public T remove(Object key) {
+		if (!(key instanceof String))
+			return null;
+		long element = parse((String) key);
+		if (element < 0)
+			return paths.remove(key);
+		return putElement(section(element), field(element), index(element), null);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public synchronized int size() {
+		int size = paths.size();
+		for (Section s : sections)
+			size += s.counts[VALUE] + s.counts[COMMENT] + s.counts[DESCRIPTION];
+		return size;
+	}
+
+	@Override
+	public synchronized void clear() {
+		paths.clear();
+		for (int i = 0; i < sections.length; i++)
+			sections[i] = new Section();
+	}
+
+	@Override
+	public Set<Map.Entry<String, T>> entrySet() {
+		return new AbstractSet<Map.Entry<String, T>>() {
+			@Override
+			public Iterator<Map.Entry<String, T>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return ArrayData.this.size();
+			}
+		};
+	}
+
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+	}
+
+	static int section(long element) {
+		return (int) (element >>> 40);
+	}
+
+	static int field(long element) {
+		return (int) (element >>> 32) & 0xff;
+	}
+
+	static int index(long element) {
+		return (int) element;
+	}
+
+	/**
+	 * The entries of the other paths followed by the elements of each
+	 * section, a field at a time. The iteration is weakly consistent.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<String, T>> {
+		private final Iterator<Map.Entry<String, T>> others = paths.entrySet().iterator();
+		private int section;
+		private int field;
+		private int index = -1;
+		private Map.Entry<String, T> next;
+		private String lastKey;
+
+		@Override
+		public boolean hasNext() {
+			if (next != null)
+				return true;
+			if (others.hasNext()) {
+				next = others.next();
+				return true;
+			}
+			synchronized (ArrayData.this) {
+				while (section < sections.length) {
+					Section s = sections[section];
+					index = s.next(field, index + 1);
+					if (index >= 0) {
+						next = new Element(path(section, field, index), (T) s.get(field, index));
+						return true;
+					}
+					if (++field == FIELDS.length) {
+						field = 0;
+						section++;
+					}
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Map.Entry<String, T> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Map.Entry<String, T> entry = next;
+			next = null;
+			lastKey = entry.getKey();
+			return entry;
+		}
+
+		@Override
+		public void remove() {
+			if (lastKey == null)
+				throw new IllegalStateException();
+			ArrayData.this.remove(lastKey);
+			lastKey = null;
+		}
+	}
+
+	private class Element extends SimpleEntry<String, T> {
+		Element(String key, T value) {
+			super(key, value);
+		}
+
+		@Override
+		public T setValue(T value) {
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+
+	/**
+	 * The values, comments and descriptions of the elements of a section.
+	 */
+	private static class Section implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		// values while all of them are doubles
+		double[] doubles;
+		BitSet present;
+		final Object[][] fields = new Object[FIELDS.length][];
+		final int[] counts = new int[FIELDS.length];
+		// index after the last element
+		int length;
+		// the number of elements of each field held in the map
+		final int[] sparse = new int[FIELDS.length];
+
+		Object get(int field, int index) {
+			if (field == VALUE && doubles != null)
+				return present.get(index) ? doubles[index] : null;
+			Object[] values = fields[field];
+			return values != null && index < values.length ? values[index] : null;
+		}
+
+		boolean contains(int field, int index) {
+			return get(field, index) != null;
+		}
+
+		Object put(int field, int index, Object value) {
+			if (field == VALUE) {
+				if (value == null && doubles != null) {
+					Object old = get(field, index);
+					if (old != null) {
+						present.clear(index);
+						counts[VALUE]--;
+					}
+					return old;
+				}
+				if (value instanceof Double && (doubles != null || counts[VALUE] == 0)) {
+					Object old = get(field, index);
+					putDouble(index, (Double) value);
+					return old;
+				}
+				if (doubles != null)
+					box();
+			}
+			Object[] values = fields[field];
+			if (values == null || index >= values.length) {
+				if (value == null)
+					return null;
+				values = fields[field] = Arrays.copyOf(values == null ? new Object[0] : values,
+						capacity(values == null ? 0 : values.length, index));
+			}
+			Object old = values[index];
+			values[index] = value;
+			if (old == null && value != null)
+				counts[field]++;
+			else if (old != null && value == null)
+				counts[field]--;
+			if (value != null && index >= length)
+				length = index + 1;
+			return old;
+		}
+
+		void putDouble(int index, double value) {
+			if (doubles == null) {
+				doubles = new double[capacity(0, index)];
+				present = new BitSet();
+			} else if (index >= doubles.length) {
+				doubles = Arrays.copyOf(doubles, capacity(doubles.length, index));
+			}
+			doubles[index] = value;
+			if (!present.get(index)) {
+				present.set(index);
+				counts[VALUE]++;
+			}
+			if (index >= length)
+				length = index + 1;
+		}
+
+		// moves the values held as doubles to an Object[]
+		private void box() {
+			Object[] values = new Object[doubles.length];
+			for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1))
+				values[i] = doubles[i];
+			fields[VALUE] = values;
+			doubles = null;
+			present = null;
+		}
+
+		// true if the index is beyond the arrays of the field and far beyond its number of elements
+		boolean isOutlying(int field, int index) {
+			Object[] values = fields[field];
+			int capacity = field == VALUE && doubles != null ? doubles.length : values != null ? values.length : 0;
+			return index >= capacity && index > 2L * (counts[field] + sparse[field]) + SPARSE_MARGIN;
+		}
+
+		// index of the next element from the given index, or -1
+		int next(int field, int from) {
+			if (field == VALUE && doubles != null)
+				return present.nextSetBit(from);
+			Object[] values = fields[field];
+			if (values == null)
+				return -1;
+			for (int i = from; i < values.length; i++) {
+				if (values[i] != null)
+					return i;
+			}
+			return -1;
+		}
+
+		private static int capacity(int current, int index) {
+			return Math.max(index + 1, Math.max(16, current + (current >> 1)));
+		}
+
+		private void writeObject(ObjectOutputStream out) throws IOException {
+			// only the elements up to the last one are written
+			if (doubles != null && doubles.length > length)
+				doubles = Arrays.copyOf(doubles, length);
+			for (int field = 0; field < fields.length; field++) {
+				if (fields[field] != null && fields[field].length > length)
+					fields[field] = Arrays.copyOf(fields[field], length);
+			}
+			out.defaultWriteObject();
+		}
+	}
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The data of a {@link ServiceContext}: a concurrent map of paths to values
+ * that can be shared with copies of the context. A context whose values are
+ * all immutable is copied by {@link sorcer.util.ObjectCloner#copy(Object)}
+ * without copying its data: the map is frozen and shared by the context and
+ * its copies, and each of them makes its own map from the frozen one on its
+ * first write. The number of values that are not immutable is kept as values
+ * are put and removed, so that a copy finds out whether the data can be
+ * shared without looking at the values.
+ * <p>
+ * All views are views of this map, so writes through views obtained before a
+ * copy do not change the frozen data. As with serialization, a write made by
+ * another thread while the context is copied may or may not be seen by the
+ * copy.
+ */
+public class ContextData<V> extends AbstractMap<String, V> implements ConcurrentMap<String, V>, Serializable {
+
+	private static final long serialVersionUID = 3710652185361957417L;
+
+	private volatile Map<String, V> map;
+
+	// the map is frozen and shared with copies until the next write
+	private transient volatile boolean shared;
+
+	// the number of values that are not immutable
+	private final AtomicInteger mutables;
+
+	private transient Set<Map.Entry<String, V>> entrySet;
+
+	public ContextData() {
+		map = new ConcurrentHashMap<String, V>();
+		mutables = new AtomicInteger();
+	}
+
+	public ContextData(Map<String, ? extends V> data) {
+		this();
+		putAll(data);
+	}
+
+	private ContextData(Map<String, V> frozen, int mutables) {
+		this.map = frozen;
+		this.shared = true;
+		this.mutables = new AtomicInteger(mutables);
+	}
+
+	/**
+	 * Freezes the map, shared from now on with the data returned by
+	 * {@link #share()}.
+	 *
+	 * @return the data of a copy sharing the map, or null if this data holds
+	 *         values that are not immutable
+	 */
+	synchronized ContextData<V> share() {
+		int count = mutables.get();
+		if (count > 0)
+			return null;
+		shared = true;
+		return new ContextData<V>(map, count);
+	}
+
+	/**
+	 * Returns true if the map is shared with a copy, until the next write.
+	 */
+	public boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * Returns true if all values are immutable.
+	 */
+	boolean isImmutable() {
+		return mutables.get() == 0;
+	}
+
+	private Map<String, V> own() {
+		if (shared) {
+			synchronized (this) {
+				if (shared) {
+					map = new ConcurrentHashMap<String, V>(map);
+					shared = false;
+				}
+			}
+		}
+		return map;
+	}
+
+	private void count(Object value, int delta) {
+		if (value != null && !ContextSharing.isImmutable(value))
+			mutables.addAndGet(delta);
+	}
+
+	@Override
+	public V get(Object key) {
+		return map.get(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return map.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return map.containsValue(value);
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	@Override
+	public V put(String key, V value) {
+		V old = own().put(key, value);
+		count(old, -1);
+		count(value, 1);
+		return old;
+	}
+
+	@Override
+	public V remove(Object key) {
+		V old = own().remove(key);
+		count(old, -1);
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		synchronized (this) {
+			map = new ConcurrentHashMap<String, V>();
+			shared = false;
+			mutables.set(0);
+		}
+	}
+
+	@Override
+	public V putIfAbsent(String key, V value) {
+		V old = own().putIfAbsent(key, value);
+		if (old == null)
+			count(value, 1);
+		return old;
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		if (!((ConcurrentMap<String, V>) own()).remove(key, value))
+			return false;
+		count(value, -1);
+		return true;
+	}
+
+	@Override
+	public boolean replace(String key, V oldValue, V newValue) {
+		if (!((ConcurrentMap<String, V>) own()).replace(key, oldValue, newValue))
+			return false;
+		count(oldValue, -1);
+		count(newValue, 1);
+		return true;
+	}
+
+	@Override
+	public V replace(String key, V value) {
+		V old = ((ConcurrentMap<String, V>) own()).replace(key, value);
+		if (old != null) {
+			count(old, -1);
+			count(value, 1);
+		}
+		return old;
+	}
+
+	@Override
+	public Set<Map.Entry<String, V>> entrySet() {
+		if (entrySet == null)
+			entrySet = new EntrySet();
+		return entrySet;
+	}
+
+	private class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+
+		@Override
+		public Iterator<Map.Entry<String, V>> iterator() {
+			final Iterator<Map.Entry<String, V>> it = map.entrySet().iterator();
+			return new Iterator<Map.Entry<String, V>>() {
+				private String last;
+
+				@Override
+				public boolean hasNext() {
+					return it.hasNext();
+				}
+
+				@Override
+				public Map.Entry<String, V> next() {
+					Map.Entry<String, V> e = it.next();
+					last = e.getKey();
+					return new SimpleEntry<String, V>(e.getKey(), e.getValue()) {
+						@Override
+						public V setValue(V value) {
+							super.setValue(value);
+							return put(getKey(), value);
+						}
+					};
+				}
+
+				@Override
+				public void remove() {
+					if (last == null)
+						throw new IllegalStateException();
+					ContextData.this.remove(last);
+					last = null;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return ContextData.this.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			Object value = get(e.getKey());
+			return value != null && value.equals(e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!(o instanceof Map.Entry))
+				return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return ContextData.this.remove(e.getKey(), e.getValue());
+		}
+
+		@Override
+		public void clear() {
+			ContextData.this.clear();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import net.jini.id.Uuid;
+import sorcer.service.Context;
+import sorcer.util.ObjectCloner;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * The data of the contexts copied by {@link ObjectCloner#copy(Object)} in a
+ * thread. A {@link ServiceContext} whose values are all immutable shares its
+ * {@link ContextData} with its copy instead of serializing it, so that the
+ * copy costs nothing until either context is changed, see
+ * {@link ContextData}. The data holding primitive arrays besides immutable
+ * values is copied without serialization: the immutable values are shared
+ * by reference and the arrays are cloned, an array shared by contexts once
+ * per copy, since arrays may be changed in place.
+ * <p>
+ * The data of other contexts, for example holding entries, evaluations or
+ * nested mograms, is serialized. These values are changed in place, for
+ * example when an evaluation caches its value, and are bound to the context
+ * as their scope, so they cannot be shared by the copies.
+ */
+public class ContextSharing {
+
+	private static final ThreadLocal<ContextSharing> current = new ThreadLocal<ContextSharing>();
+
+	// the data of the copies of the contexts copied so far
+	private final List<Map<String, ?>> snapshots = new ArrayList<Map<String, ?>>();
+
+	// array -> its clone, so that arrays shared by contexts stay shared
+	private final Map<Object, Object> arrays = new IdentityHashMap<Object, Object>();
+
+	private ContextSharing() {
+	}
+
+	/**
+	 * Starts sharing the data of the contexts serialized by this thread.
+	 *
+	 * @return the sharing of an enclosing copy, to be passed to
+	 *         {@link #end(ContextSharing)}
+	 */
+	public static ContextSharing start() {
+		ContextSharing previous = current.get();
+		current.set(new ContextSharing());
+		return previous;
+	}
+
+	public static void end(ContextSharing previous) {
+		if (previous == null)
+			current.remove();
+		else
+			current.set(previous);
+	}
+
+	/**
+	 * Returns the sharing of the copy in progress in this thread, or null if
+	 * no copy is in progress.
+	 */
+	static ContextSharing current() {
+		return current.get();
+	}
+
+	/**
+	 * Adds the data for the copy of its context.
+	 *
+	 * @return the index of the data of the copy, or -1 if the data has to be
+	 *         serialized
+	 */
+	int share(Map<String, ?> data) {
+		// the dense data of an ArrayContext is serialized
+		if (!(data instanceof ContextData))
+			return -1;
+		Map<String, ?> shared = ((ContextData<?>) data).share();
+		if (shared != null) {
+			snapshots.add(shared);
+			return snapshots.size() - 1;
+		}
+		ContextData<Object> snapshot = new ContextData<Object>();
+		for (Map.Entry<String, ?> e : data.entrySet()) {
+			Object value = e.getValue();
+			if (!isImmutable(value)) {
+				if (!isPrimitiveArray(value))
+					return -1;
+				value = copyArray(value);
+			}
+			snapshot.put(e.getKey(), value);
+		}
+		snapshots.add(snapshot);
+		return snapshots.size() - 1;
+	}
+
+	Map<String, ?> snapshot(int index) {
+		return snapshots.get(index);
+	}
+
+	private Object copyArray(Object array) {
+		Object copy = arrays.get(array);
+		if (copy == null) {
+			int length = Array.getLength(array);
+			copy = Array.newInstance(array.getClass().getComponentType(), length);
+			System.arraycopy(array, 0, copy, 0, length);
+			arrays.put(array, copy);
+		}
+		return copy;
+	}
+
+	private static boolean isPrimitiveArray(Object value) {
+		return value != null && value.getClass().isArray() && value.getClass().getComponentType().isPrimitive();
+	}
+
+	public static boolean isImmutable(Object value) {
+		return value instanceof String || value instanceof Integer || value instanceof Double
+				|| value instanceof Long || value instanceof Boolean || value instanceof Float
+				|| value instanceof Short || value instanceof Byte || value instanceof Character
+				|| value instanceof BigInteger || value instanceof BigDecimal || value instanceof Enum
+				|| value instanceof Class || value instanceof Uuid || value instanceof UUID
+				|| value instanceof URL || value instanceof URI || value instanceof File
+				|| value == Context.none;
+	}
+}
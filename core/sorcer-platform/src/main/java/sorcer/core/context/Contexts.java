@@ -1327,6 +1327,9 @@ public class Contexts implements SorcerConstants {
 					keys.addElement(linkPath + SorcerConstants.CPS
 							+ keysInLink[i]);
 		}
+		// array elements are marked densely, not in the metacontext
+		if (cntxt instanceof ArrayContext)
+			keys.addAll(((ArrayContext) cntxt).getMarkedElementPaths(association));
 		String[] keysArray = new String[keys.size()];
 		keys.copyInto(keysArray);
 		return keysArray;
@@ -25,6 +25,7 @@ import sorcer.core.exertion.NetTask;
 import sorcer.core.monitor.MonitoringManagement;
 import sorcer.core.signature.ServiceSignature;
 import sorcer.service.*;
+import sorcer.util.BoundedList;
 import sorcer.util.Stopwatch;
 
 import java.io.PrintWriter;
@@ -153,11 +154,27 @@ public class ControlContext extends ServiceContext<Object> implements StrategyCo
 
 	public final static String EXERTION_TRACABLE = "exertion/tracable";
 
+	public final static String TRACE_SPANS = "exertion/exec/spans";
+
+	// requestor accepts the data context returned as a delta
+	public final static String EXERTION_DELTA_RETURN = "exertion/delta/return";
+
 	private List<ThrowableTrace> exceptions = new ArrayList<ThrowableTrace>();
 
 	private List<Signature> signatures = new ArrayList<Signature>();
 
-	private List<String> traceList = new ArrayList<String>();
+	private List<String> traceList = new BoundedList<String>(TraceSink.getMaxEntries());
+
+	// ended spans of this exertion, see TraceSink
+	private List<TraceSpan> spans = new BoundedList<TraceSpan>(TraceSink.getMaxEntries());
+
+	private String traceId;
+
+	// span of the current execution step, the parent of spans started next
+	private String parentSpanId;
+
+	// null until the first span is started
+	private Boolean sampled;
 
 	private Object mutexId;
 
@@ -192,6 +209,7 @@ public class ControlContext extends ServiceContext<Object> implements StrategyCo
 		setWaitable(true);
 		put(EXCEPTIONS, exceptions);
 		put(TRACE_LIST, traceList);
+		put(TRACE_SPANS, spans);
 		put(EXERTION_TRACABLE, false);
 	}
 
@@ -316,6 +334,14 @@ public class ControlContext extends ServiceContext<Object> implements StrategyCo
 		put(SHELL_REMOTE, new Boolean(state));
 	}
 
+	public boolean isDeltaReturn() {
+		return Boolean.TRUE.equals(get(EXERTION_DELTA_RETURN));
+	}
+
+	public void setDeltaReturn(boolean state) {
+		put(EXERTION_DELTA_RETURN, new Boolean(state));
+	}
+
 	public void setOpti(Opti optiType) {
 		put(EXERTION_OPTI, optiType);
 	}
@@ -595,6 +621,68 @@ public class ControlContext extends ServiceContext<Object> implements StrategyCo
 			traceList.add(info);
 	}
 
+	/**
+	 * Returns true if spans of this exertion are recorded: if it is tracable,
+	 * sampled, or its parent exertion is traced.
+	 */
+	public boolean isSampled() {
+		if (sampled == null) {
+			sampled = isTracable() || TraceSink.sample();
+			if (sampled && traceId == null)
+				traceId = TraceSink.newId();
+		}
+		return sampled;
+	}
+
+	/**
+	 * Continues the trace of the parent exertion, with the given span as the
+	 * parent of spans of this exertion.
+	 */
+	public void joinTrace(ControlContext parent, TraceSpan parentSpan) {
+		sampled = parent.isSampled();
+		traceId = parent.traceId;
+		parentSpanId = parentSpan != null ? parentSpan.id : parent.parentSpanId;
+	}
+
+	/**
+	 * Starts a span of this exertion, the parent of spans started until it
+	 * ends, or returns null if the exertion is not traced.
+	 */
+	public TraceSpan startSpan(String kind, String name, String provider) {
+		if (!isSampled())
+			return null;
+		TraceSpan span = new TraceSpan(traceId, TraceSink.newId(), parentSpanId,
+				kind, name, provider, TraceSink.getHostName());
+		parentSpanId = span.id;
+		return span;
+	}
+
+	/**
+	 * Ends the span started by this or a copy of this context, records it and
+	 * exports it to the local trace sink.
+	 */
+	public void endSpan(TraceSpan span, boolean failed) {
+		if (span == null)
+			return;
+		span.end = System.currentTimeMillis();
+		span.failed = failed;
+		if (traceId == null) {
+			sampled = true;
+			traceId = span.traceId;
+		}
+		parentSpanId = span.parentId;
+		spans.add(span);
+		TraceSink.export(span);
+	}
+
+	public List<TraceSpan> getSpans() {
+		return spans;
+	}
+
+	public String getTraceId() {
+		return traceId;
+	}
+
 	public void addException(ThrowableTrace et) {
 		exceptions.add(et);
 	}
@@ -20,7 +20,6 @@ package sorcer.core.context;
 import net.jini.core.transaction.Transaction;
 import net.jini.core.transaction.TransactionException;
 import net.jini.id.Uuid;
-import net.jini.id.UuidFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.co.tuple.InputEntry;
@@ -47,7 +46,11 @@ import sorcer.service.Domain;
 import sorcer.service.modeling.Variability;
 import sorcer.util.ObjectCloner;
 import sorcer.util.SorcerUtil;
+import sorcer.util.url.sos.SdbUtil;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.rmi.RemoteException;
@@ -62,10 +65,11 @@ import static sorcer.eo.operator.task;
  * Implements the base-level service context interface {@link Context}.
  */
 public class ServiceContext<T> extends ServiceMogram implements
-		Context<T>, AssociativeContext<T>, Contexter<T>, SorcerConstants {
+		Context<T>, AssociativeContext<T>, Contexter<T>, SorcerConstants, Cloneable {
 
 	private static final long serialVersionUID = 3311956866023311727L;
-	protected Map<String, T> data = new ConcurrentHashMap<String, T>();
+	// written by writeObject
+	protected transient Map<String, T> data = new ContextData<T>();
 	protected String subjectPath = "";
 	protected Object subjectValue = "";
 	// default eval new ReturnPath(Context.RETURN);
@@ -103,6 +107,21 @@ public class ServiceContext<T> extends ServiceMogram implements
 	 */
 	public boolean isPersistantTaskAssociated = false;
 
+	/**
+	 * Paths put or removed while a provider tracks this context for a delta
+	 * return, null when the context is not tracked.
+	 */
+	protected transient Set<String> changedPaths;
+
+	/** True for a delta created by a provider, data holds changed paths only */
+	protected transient boolean isDelta = false;
+
+	/** The context a delta was created from, until the delta is serialized */
+	protected transient ServiceContext<T> deltaSource;
+
+	/** Paths removed by a provider, sent with a delta only */
+	protected transient Set<String> removedPaths;
+
 	/** EMPTY LEAF NODE ie. node with no data and not empty string */
 	public final static String EMPTY_LEAF = ":Empty";
 
@@ -112,8 +131,9 @@ public class ServiceContext<T> extends ServiceMogram implements
 	/**
 	 * Default constructor for the ServiceContext class. The constructor calls the method init, 
 	 * defines the the service context name sets the root name to a blank string creates a new 
-	 * hash tables for path identifications, delPath, and linked paths. The constructor creates the 
-	 * context identification number via the UUID factory generate method.
+	 * hash tables for path identifications, delPath, and linked paths. The context identification
+	 * number, the metacontext and the model strategy are created when first used, so that
+	 * short lived contexts do not pay for them.
 	 */
 	public ServiceContext() {
 		this(defaultName + count++);
@@ -132,9 +152,6 @@ public class ServiceContext<T> extends ServiceMogram implements
 		} else {
 			this.name = name;
 		}
-		mogramId = UuidFactory.generate();
-		mogramStrategy = new ModelStrategy(this);
-		creationDate = new Date();
 	}
 
 	public ServiceContext(String name, Signature builder) {
@@ -210,10 +227,18 @@ public class ServiceContext<T> extends ServiceMogram implements
 	}
 
 	/**
-	 * Initializes the service context class by allocating storage for all
-	 * simple and composite attributes and their associations. It creates system
-	 * data attributes: SORCER_TYPE - dnt, CONTEXT_PARAMETER - cp, ACTION -
-	 * action.
+	 * Initializes the service context class. The metacontext is created by
+	 * {@link #getMetacontext()} when first used.
+	 */
+	protected void initContext() {
+		metacontext = null;
+		dbUrl = "sos://sorcer.service.DatabaseStorer";
+	}
+
+	/**
+	 * Allocates storage for all simple and composite attributes and their
+	 * associations. It creates system data attributes: SORCER_TYPE - dnt,
+	 * CONTEXT_PARAMETER - cp, ACTION - action.
 	 * <p>
 	 * A 'metacontext' map stores all data attribute definitions in an internal
 	 * 'metacontext' map with a key being an attribute
@@ -232,9 +257,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 	 * are component attributes; cxt.tag("arg/x3", "triplet|mike|w|sobol");
 	 * and get tagged eval at arg/x3: cxt.getMarkedValues("triplet|mike|w|sobol"));
 	 */
-    protected void initContext() {
-		super.init();
-		data = new ConcurrentHashMap<String, T>();
+	private void initMetacontext() {
 		metacontext = new HashMap<String, Map<String, String>>();
 		metacontext.put(SorcerConstants.CONTEXT_ATTRIBUTES, new HashMap());
 
@@ -260,7 +283,6 @@ public class ServiceContext<T> extends ServiceMogram implements
 			// the variable node fiType relationship (var name and its fiType) in
 			// Analysis Models: vnt|var|vt
 			setCompositeAttribute(VAR_NODE_TYPE + APS + VAR + APS + VT);
-			dbUrl = "sos://sorcer.service.DatabaseStorer";
 		} catch (Exception e) {
 			logger.error("Failure", e);
 		}
@@ -288,12 +310,12 @@ public class ServiceContext<T> extends ServiceMogram implements
 			// compatibility for contexts with mograms
 			return exertion.getExceptions();
 		else
-			return ((ModelStrategy)mogramStrategy).getAllExceptions();
+			return getMogramStrategy().getAllExceptions();
 	}
 
 	@Override
 	public List<String> getTrace() {
-		return ((ModelStrategy)mogramStrategy).getTraceList();
+		return getMogramStrategy().getTraceList();
 	}
 
 	@Override
@@ -304,17 +326,15 @@ public class ServiceContext<T> extends ServiceMogram implements
 		else
 			exertExceptions = new ArrayList<ThrowableTrace>();
 
-		if (mogramStrategy == null)
-			return ((ModelStrategy)mogramStrategy).getAllExceptions();
-		else {
-			exertExceptions.addAll(((ModelStrategy)mogramStrategy).getAllExceptions());
-		}
+		// no exceptions are recorded before the strategy is created
+		if (mogramStrategy != null)
+			exertExceptions.addAll(getMogramStrategy().getAllExceptions());
 		return exertExceptions;
 	}
 
 	@Override
 	public boolean isMonitorable() {
-		return mogramStrategy.isMonitorable();
+		return mogramStrategy != null && mogramStrategy.isMonitorable();
 	}
 
 	public Context getInitContext() {
@@ -570,6 +590,9 @@ public class ServiceContext<T> extends ServiceMogram implements
 				} catch (RemoteException ex) {
 					throw new ContextException(ex);
 				}
+				// the entry is changed in place
+				if (changedPaths != null)
+					changedPaths.add(path);
 			} else {
 				obj = put(path, (T)value);
 			}
@@ -692,6 +715,8 @@ public class ServiceContext<T> extends ServiceMogram implements
 
 	@Override
 	public Object remove(Object path) {
+		if (changedPaths != null)
+			changedPaths.add((String) path);
 		return data.remove(path);
 	}
 
@@ -788,16 +813,16 @@ public class ServiceContext<T> extends ServiceMogram implements
 	}
 
 	private Map getDataAttributeMap() {
-		return  metacontext.get(SorcerConstants.CONTEXT_ATTRIBUTES);
+		return  getMetacontext().get(SorcerConstants.CONTEXT_ATTRIBUTES);
 	}
 
 	public Set<String>  localAttributes() {
-		return metacontext.get(SorcerConstants.CONTEXT_ATTRIBUTES).keySet();
+		return getMetacontext().get(SorcerConstants.CONTEXT_ATTRIBUTES).keySet();
 	}
 
 	protected Map getDataAttributeMap(String attributeName) {
 		if (isLocalAttribute(attributeName))
-			return metacontext.get(attributeName);
+			return getMetacontext().get(attributeName);
 		else
 			return null;
 	}
@@ -942,7 +967,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 		String mappedKey = (String) map[1];
 
 		if (cntxt.isSingletonAttribute(attributeName)) {
-			table = (Hashtable) cntxt.metacontext.get(attributeName);
+			table = (Hashtable) cntxt.getMetacontext().get(attributeName);
 			if (table != null) {
 				val = (String) table.get(mappedKey);
 			}
@@ -1013,11 +1038,11 @@ public class ServiceContext<T> extends ServiceMogram implements
 		String mappedKey = (String) map[1];
 
 		if (cntxt.isSingletonAttribute(attribute)) {
-			values = (Hashtable) cntxt.metacontext.get(attribute);
+			values = (Hashtable) cntxt.getMetacontext().get(attribute);
 			if (values == null) {
 				// the creation of this hashtable was delayed until now
 				values = new Hashtable();
-				cntxt.metacontext.put(attribute, values);
+				cntxt.getMetacontext().put(attribute, values);
 			}
 			values.put(mappedKey, attributeValue);
 		} else if (cntxt.isMetaattribute(attribute))
@@ -1183,7 +1208,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 			metavalues.remove(mappedKey);
 			// remove Hashtable if it is now empty
 			if (metavalues.size() == 0)
-				metacontext.remove(attr);
+				getMetacontext().remove(attr);
 		} else if (cntxt.isMetaattribute(attr)) {
 			String[] attrs = SorcerUtil.tokenize(cntxt.getLocalMetapath(attr),
 					APS);
@@ -1818,7 +1843,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 		}
 		// replicate subcontext attributes and metaattributes
 		Map table, attrTable;
-		attrTable = ((ServiceContext) mappedCntxt).metacontext;
+		attrTable = ((ServiceContext) mappedCntxt).getMetacontext();
 		// note the metacontext contains only singleton attributes
 		// AND the SORCER.CONTEXT_ATTRIBUTES dataTable
 		e = attrTable.keySet().iterator();
@@ -1909,14 +1934,14 @@ public class ServiceContext<T> extends ServiceMogram implements
 		String mappedKey = (String) map[1];
 		cxt.remove(mappedKey);
 		// Remove the path if it exists in metaAttribute also.
-		Iterator<String> e = cxt.metacontext.keySet().iterator();
+		Iterator<String> e = cxt.getMetacontext().keySet().iterator();
 		String key;
 		Map attributes;
 		while (e.hasNext()) {
 			key = (String) e.next();
 			if (key.startsWith(PRIVATE) && key.endsWith(PRIVATE))
 				continue;
-			attributes = (Hashtable) cxt.metacontext.get(key);
+			attributes = (Hashtable) cxt.getMetacontext().get(key);
 			if (attributes.containsKey(mappedKey))
 				attributes.remove(mappedKey);
 		}
@@ -1978,7 +2003,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 			sb.append("\n  return/job/path = " + returnJobPath);
 		}
 		if (withMetacontext)
-			sb.append("\n metacontext: " + metacontext);
+			sb.append("\n metacontext: " + getMetacontext());
 
 		if (scope != null)
 			sb.append("\n scope: " + ((ServiceContext) scope).keySet());
@@ -1992,7 +2017,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 	public String toStringComplete(String cr, StringBuffer sb) {
 		sb.append("Domain:").append(domainId);
 		sb.append(" SubDomain:" + subdomainId);
-		sb.append(" ID:" + mogramId);
+		sb.append(" ID:" + getId());
 		sb.append("\nPaths: \n");
 		Iterator<String> e = null;
 		try {
@@ -2085,6 +2110,8 @@ public class ServiceContext<T> extends ServiceMogram implements
 	}
 
 	public Map<String, Map<String, String>> getMetacontext() {
+		if (metacontext == null)
+			initMetacontext();
 		return metacontext;
 	}
 
@@ -2317,9 +2344,9 @@ public class ServiceContext<T> extends ServiceMogram implements
 	public void removePathWithoutDeleted(String path) {
 		this.remove(path);
 		// Remove the path if it exists in metaAttribute also.
-		Iterator<Map<String, String>> i = metacontext.values().iterator();
+		Iterator<Map<String, String>> i = getMetacontext().values().iterator();
 		while (i.hasNext()) {
-			Map<String, String> attributeHash = metacontext.get(i.next());
+			Map<String, String> attributeHash = getMetacontext().get(i.next());
 			if (attributeHash.containsKey(path))
 				attributeHash.remove(path);
 		}
@@ -2597,14 +2624,14 @@ public class ServiceContext<T> extends ServiceMogram implements
 		if (exertion != null)
 			exertion.getControlContext().addException(t);
 		else
-			((ModelStrategy)mogramStrategy).exceptions.add(new ThrowableTrace(t));
+			getMogramStrategy().exceptions.add(new ThrowableTrace(t));
 	}
 
 	public void reportException(String message, Throwable t) {
 		if (exertion != null)
 			exertion.getControlContext().addException(message, t);
 		else
-			((ModelStrategy)mogramStrategy).exceptions.add(new ThrowableTrace(message, t));
+			getMogramStrategy().exceptions.add(new ThrowableTrace(message, t));
 	}
 
 	public void reportException(String message, Throwable t, ProviderInfo info) {
@@ -2612,7 +2639,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 		if (exertion != null)
 			exertion.getControlContext().addException(se);
 		else
-			((ModelStrategy)mogramStrategy).exceptions.add(new ThrowableTrace(se));
+			getMogramStrategy().exceptions.add(new ThrowableTrace(se));
 	}
 
 	public void reportException(String message, Throwable t, Provider provider) {
@@ -2622,7 +2649,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 		if (exertion != null)
 			exertion.getControlContext().addException(se);
 		else
-			((ModelStrategy)mogramStrategy).exceptions.add(new ThrowableTrace(se));
+			getMogramStrategy().exceptions.add(new ThrowableTrace(se));
 	}
 
 	public void reportException(String message, Throwable t, Provider provider,  ProviderInfo info) {
@@ -2632,7 +2659,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 		if (exertion != null)
 			exertion.getControlContext().addException(se);
 		else
-			((ModelStrategy)mogramStrategy).exceptions.add(new ThrowableTrace(se));
+			getMogramStrategy().exceptions.add(new ThrowableTrace(se));
 	}
 
 	/*
@@ -2645,12 +2672,12 @@ public class ServiceContext<T> extends ServiceMogram implements
 		if (exertion != null)
 			exertion.getControlContext().appendTrace(footprint);
 		else
-			mogramStrategy.appendTrace(footprint);
+			getMogramStrategy().appendTrace(footprint);
 	}
 
 	@Override
 	public Context getCurrentContext() throws ContextException {
-		return (Context) ObjectCloner.clone(updateContext());
+		return (Context) ObjectCloner.copy(updateContext());
 	}
 
 	/*
@@ -2747,7 +2774,7 @@ public class ServiceContext<T> extends ServiceMogram implements
 	}
 
 	public int hashCode() {
-		return mogramId.hashCode();
+		return getId().hashCode();
 	}
 
 	/**
@@ -2849,9 +2876,9 @@ public class ServiceContext<T> extends ServiceMogram implements
 			throws ContextException {
 		// first managed dependencies
 		String currentPath = path;
-		if (((ModelStrategy)mogramStrategy).dependers != null
-				&& ((ModelStrategy)mogramStrategy).dependers.size() > 0) {
-			for (Evaluation eval : ((ModelStrategy)mogramStrategy).dependers)  {
+		if (getMogramStrategy().dependers != null
+				&& getMogramStrategy().dependers.size() > 0) {
+			for (Evaluation eval : getMogramStrategy().dependers)  {
 				try {
 					eval.getValue(entries);
 				} catch (RemoteException e) {
@@ -2863,10 +2890,10 @@ public class ServiceContext<T> extends ServiceMogram implements
 		try {
 			substitute(entries);
 			if (currentPath == null) {
-				if (((ModelStrategy)mogramStrategy).responsePaths != null
-						&& ((ModelStrategy)mogramStrategy).responsePaths.size()>0) {
-					if (((ModelStrategy)mogramStrategy).responsePaths.size() == 1)
-						currentPath = ((ModelStrategy)mogramStrategy).responsePaths.get(0).getName();
+				if (getMogramStrategy().responsePaths != null
+						&& getMogramStrategy().responsePaths.size()>0) {
+					if (getMogramStrategy().responsePaths.size() == 1)
+						currentPath = getMogramStrategy().responsePaths.get(0).getName();
 					else
 						return (T) getResponse();
 				}
@@ -2920,19 +2947,21 @@ public class ServiceContext<T> extends ServiceMogram implements
 	}
 
 	public Context getInConnector(Arg... args) throws ContextException, RemoteException {
-		return ((ModelStrategy)mogramStrategy).getInConnector();
+		return getMogramStrategy().getInConnector();
 	}
 
 	public Context getOutConnector(Arg... args) throws ContextException, RemoteException {
-		return ((ModelStrategy)mogramStrategy).getOutConnector();
+		return getMogramStrategy().getOutConnector();
 	}
 
 	public Context getResponse(Arg... args) throws ContextException, RemoteException {
 		Context result = null;
-		if (((ModelStrategy)mogramStrategy).outConnector != null) {
+		// the stored objects of the values are retrieved in batches
+		SdbUtil.prefetch(this);
+		if (getMogramStrategy().outConnector != null) {
 			ServiceContext mc = null;
 			try {
-				mc = (ServiceContext) ObjectCloner.clone(((ModelStrategy)mogramStrategy).outConnector);
+				mc = (ServiceContext) ObjectCloner.copy(getMogramStrategy().outConnector);
 			} catch (Exception e) {
 				throw new ContextException(e);
 			}
@@ -2941,32 +2970,32 @@ public class ServiceContext<T> extends ServiceMogram implements
 				Map.Entry pairs = (Map.Entry) it.next();
 				mc.putInValue((String) pairs.getKey(), getValue((String) pairs.getValue()));
 			}
-			if (((ModelStrategy)mogramStrategy).responsePaths != null
-					&& ((ModelStrategy)mogramStrategy).responsePaths.size() > 0) {
-				getMergedSubcontext(mc, ((ModelStrategy)mogramStrategy).responsePaths, args);
-				((ModelStrategy)mogramStrategy).outcome = mc;
-				((ModelStrategy)mogramStrategy).outcome.setModeling(true);
-				result = ((ModelStrategy)mogramStrategy).outcome;
+			if (getMogramStrategy().responsePaths != null
+					&& getMogramStrategy().responsePaths.size() > 0) {
+				getMergedSubcontext(mc, getMogramStrategy().responsePaths, args);
+				getMogramStrategy().outcome = mc;
+				getMogramStrategy().outcome.setModeling(true);
+				result = getMogramStrategy().outcome;
 			}
 		} else {
-			if (((ModelStrategy)mogramStrategy).responsePaths != null
-					&& ((ModelStrategy)mogramStrategy).responsePaths.size() > 0) {
-				((ModelStrategy)mogramStrategy).outcome = getMergedSubcontext(null,
-						((ModelStrategy)mogramStrategy).responsePaths, args);
+			if (getMogramStrategy().responsePaths != null
+					&& getMogramStrategy().responsePaths.size() > 0) {
+				getMogramStrategy().outcome = getMergedSubcontext(null,
+						getMogramStrategy().responsePaths, args);
 			} else {
 				substitute(args);
-				((ModelStrategy)mogramStrategy).outcome = this;
+				getMogramStrategy().outcome = this;
 			}
-			result = ((ModelStrategy)mogramStrategy).outcome;
+			result = getMogramStrategy().outcome;
 		}
-		((ModelStrategy)mogramStrategy).outcome.setModeling(false);
+		getMogramStrategy().outcome.setModeling(false);
 		result.setName("Response of " + getClass().getSimpleName() + " " + name);
 		return result;
 	}
 
 	public Object getResult() throws ContextException, RemoteException {
-		((ModelStrategy)mogramStrategy).outcome.setModeling(false);
-		return ((ModelStrategy)mogramStrategy).outcome;
+		getMogramStrategy().outcome.setModeling(false);
+		return getMogramStrategy().outcome;
 	}
 
 	public Context evaluate(Context inputContext, Arg... args) throws ContextException, RemoteException {
@@ -3388,6 +3417,8 @@ public class ServiceContext<T> extends ServiceMogram implements
 	}
 
 	public T put(String key, T value) {
+		if (changedPaths != null)
+			changedPaths.add(key);
 		if (value == null)
 			return data.put(key, (T)none);
 		else
@@ -3411,21 +3442,178 @@ public class ServiceContext<T> extends ServiceMogram implements
 	}
 
 	public void putAll(Context<T> context) {
+		if (changedPaths != null)
+			changedPaths.addAll(((ServiceContext) context).data.keySet());
 		data.putAll((Map<? extends String, ? extends T>) ((ServiceContext) context).data);
 	}
 
+	/**
+	 * Starts recording paths put into or removed from this context. A provider
+	 * tracks the context of a task while executing it, so only changed paths
+	 * have to be returned to the requestor.
+	 */
+	public void startChangeTracking() {
+		changedPaths = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	}
+
+	public boolean isChangeTracked() {
+		return changedPaths != null;
+	}
+
+	public Set<String> getChangedPaths() {
+		return changedPaths;
+	}
+
+	/**
+	 * Stops tracking changes and creates the delta of this context returned
+	 * by a provider in its place. The delta holds only the changed paths,
+	 * paths marked as output, the return paths and context links, and the
+	 * paths removed; all other state is shared with this context, which is
+	 * left whole. Values mutated in place at input only paths are not
+	 * detected, so providers should put them back into the context.
+	 *
+	 * @return the delta, or null if changes of this context are not tracked
+	 * @throws ContextException
+	 */
+	public ServiceContext<T> createDelta() throws ContextException {
+		if (changedPaths == null)
+			return null;
+		Set<String> paths = new HashSet<String>(changedPaths);
+		paths.addAll(getOutPaths());
+		paths.addAll(localLinkPaths());
+		if (returnPath != null) {
+			if (returnPath.path != null)
+				paths.add(returnPath.path);
+			if (returnPath.outPaths != null) {
+				for (Path p : returnPath.outPaths)
+					paths.add(p.path());
+			}
+		}
+		changedPaths = null;
+		ServiceContext<T> delta;
+		try {
+			delta = (ServiceContext<T>) clone();
+		} catch (CloneNotSupportedException e) {
+			throw new ContextException(e);
+		}
+		Map<String, T> all = data;
+		Map<String, T> changed = new ContextData<T>();
+		Set<String> removed = new HashSet<String>();
+		for (String path : paths) {
+			T value = all.get(path);
+			if (value != null)
+				changed.put(path, value);
+			else
+				removed.add(path);
+		}
+		delta.data = changed;
+		delta.isDelta = true;
+		delta.removedPaths = removed;
+		delta.deltaSource = this;
+		return delta;
+	}
+
+	/**
+	 * Stops tracking changes, for example when the context is returned
+	 * whole.
+	 */
+	public void clearDelta() {
+		changedPaths = null;
+	}
+
+	/**
+	 * Returns true if this context is a delta created by a provider and has
+	 * not been merged with the requestor's context yet.
+	 */
+	public boolean isDelta() {
+		return isDelta;
+	}
+
+	/**
+	 * Completes a delta received from a provider with the unchanged paths of
+	 * the context sent by the requestor. All other state of this context, for
+	 * example its metacontext and return path, is the one set by the provider.
+	 * A delta returned by a provider in the same JVM is completed from the
+	 * provider's context it was created from.
+	 *
+	 * @param base
+	 *            the context sent to the provider
+	 */
+	public void mergeDelta(Context<T> base) {
+		if (!isDelta)
+			return;
+		ServiceContext<T> from = deltaSource != null ? deltaSource : (ServiceContext<T>) base;
+		for (Map.Entry<String, T> e : from.data.entrySet()) {
+			if (!data.containsKey(e.getKey())
+					&& (removedPaths == null || !removedPaths.contains(e.getKey())))
+				data.put(e.getKey(), e.getValue());
+		}
+		isDelta = false;
+		removedPaths = null;
+		deltaSource = null;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		// lazily created state is sent as if created by the constructor
+		getMetacontext();
+		getMogramStrategy();
+		out.defaultWriteObject();
+		// the data is written from local references, the context is not
+		// changed as it may be used by other threads while copied
+		Map<String, T> all = data;
+		boolean delta = isDelta;
+		Set<String> removed = removedPaths;
+		ContextSharing sharing = ContextSharing.current();
+		if (sharing != null) {
+			// copied by ObjectCloner.copy, the data is shared if possible
+			int index = sharing.share(all);
+			out.writeInt(index);
+			if (index < 0)
+				out.writeObject(all);
+		} else {
+			out.writeObject(all);
+		}
+		out.writeBoolean(delta);
+		out.writeObject(removed);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		ContextSharing sharing = ContextSharing.current();
+		// -1 when the data was written, for example of an ArrayContext
+		int index = sharing != null ? in.readInt() : -1;
+		if (index >= 0)
+			data = (Map<String, T>) sharing.snapshot(index);
+		else
+			data = (Map<String, T>) in.readObject();
+		isDelta = in.readBoolean();
+		removedPaths = (Set<String>) in.readObject();
+	}
+
+	/**
+	 * Returns the model strategy of this context, created when first used.
+	 */
 	public ModelStrategy getMogramStrategy() {
-		return (ModelStrategy)mogramStrategy;
+		MogramStrategy strategy = mogramStrategy;
+		if (strategy == null)
+			strategy = createMogramStrategy();
+		return (ModelStrategy)strategy;
+	}
+
+	private synchronized MogramStrategy createMogramStrategy() {
+		if (mogramStrategy == null)
+			mogramStrategy = new ModelStrategy(this);
+		return mogramStrategy;
 	}
 
 	@Override
 	public void addDependers(Evaluation... dependers) {
-		((ModelStrategy)mogramStrategy).addDependers(dependers);
+		getMogramStrategy().addDependers(dependers);
 	}
 
 	@Override
 	public List<Evaluation> getDependers() {
-		return ((ModelStrategy)mogramStrategy).getDependers();
+		return getMogramStrategy().getDependers();
 	}
 
 	public Direction getDirection() {
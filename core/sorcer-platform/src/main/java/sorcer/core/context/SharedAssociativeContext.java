@@ -17,13 +17,14 @@
 
 package sorcer.core.context;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
 
-import net.jini.space.JavaSpace05;
 import sorcer.service.ContextException;
 import sorcer.service.SpaceContext;
-import sorcer.service.space.SpaceAccessor;
-import sorcer.space.array.DistribArray05;
 
 /**
  * SpaceContext persists its context nodes in a distributed array in JavaSpace with 
@@ -32,14 +33,14 @@ import sorcer.space.array.DistribArray05;
  */
 
 public class SharedAssociativeContext extends ServiceContext implements SpaceContext {
-	private DistribArray05 spaceElements;
+	// space-backed values, recreated after deserialization
+	private transient SpaceValues spaceValues;
 	private String spaceName;
 	
 	public SharedAssociativeContext(String spaceName) {
 		super();
 		this.spaceName = spaceName;
-		JavaSpace05 space = SpaceAccessor.getSpace(spaceName);
-		spaceElements = new DistribArray05(space, "" + mogramId);
+		spaceValues = new SpaceValues(this, spaceName);
 	}
 	
 	/* (non-Javadoc)
@@ -47,13 +48,7 @@ public class SharedAssociativeContext extends ServiceContext implements SpaceCon
 	 */
 	@Override
 	public Object writeValue(String path, Object value) throws ContextException, RemoteException {
-		try {
-			int index = spaceElements.append(value);
-			putValue(path, spacePrefix + index);
-		} catch (Exception e) {
-			throw new ContextException(e);
-		} 
-		return value;
+		return getSpaceValues().write(path, value);
 	}
 
 	/* (non-Javadoc)
@@ -61,20 +56,7 @@ public class SharedAssociativeContext extends ServiceContext implements SpaceCon
 	 */
 	@Override
 	public Object readValue(String path) throws ContextException, RemoteException {
-		Object value = super.getValue(path);
-		int index = -1;
-		if (value instanceof String && ((String) value).startsWith(spacePrefix)) {
-			index = new Integer(((String) value).substring(spacePrefix.length()));
-
-		}
-		if (index >= 0) {
-			try {
-				value = spaceElements.readElement(index);
-			} catch (Exception e) {
-				throw new ContextException(e);
-			}
-		}
-		return value;
+		return getSpaceValues().read(path);
 	}
 
 	/* (non-Javadoc)
@@ -82,25 +64,60 @@ public class SharedAssociativeContext extends ServiceContext implements SpaceCon
 	 */
 	@Override
 	public Object takeValue(String path) throws ContextException, RemoteException {
-		Object value = super.getValue(path);
-		int index = -1;
-		if (value instanceof String && ((String) value).startsWith(spacePrefix)) {
-			index = new Integer(((String) value).substring(spacePrefix.length()));
+		return getSpaceValues().take(path);
+	}
+	
+	/* (non-Javadoc)
+	 * @see sorcer.service.SpaceContext#readValues(java.util.List)
+	 */
+	@Override
+	public Map<String, Object> readValues(List<String> paths) throws ContextException,
+			RemoteException {
+		return getSpaceValues().readAll(paths);
+	}
 
-		}
-		if (index >= 0) {
+	/* (non-Javadoc)
+	 * @see sorcer.service.SpaceContext#writeValues(java.util.Map)
+	 */
+	@Override
+	public void writeValues(Map<String, ?> values) throws ContextException,
+			RemoteException {
+		getSpaceValues().writeAll(values);
+	}
+
+	/* (non-Javadoc)
+	 * @see sorcer.service.SpaceContext#takeValues(java.util.List)
+	 */
+	@Override
+	public Map<String, Object> takeValues(List<String> paths) throws ContextException,
+			RemoteException {
+		return getSpaceValues().takeAll(paths);
+	}
+
+	/* (non-Javadoc)
+	 * @see sorcer.service.SpaceContext#flush()
+	 */
+	@Override
+	public void flush() throws ContextException, RemoteException {
+		getSpaceValues().flush();
+	}
+
+	private synchronized SpaceValues getSpaceValues() {
+		if (spaceValues == null)
+			spaceValues = new SpaceValues(this, spaceName);
+		return spaceValues;
+	}
+
+	// buffered values are written to the space before the context is sent
+	private Object writeReplace() throws ObjectStreamException {
+		if (spaceValues != null) {
 			try {
-				value = spaceElements.takeElement(index);
-			} catch (Exception e) {
-				throw new ContextException(e);
+				spaceValues.flush();
+			} catch (ContextException e) {
+				throw new InvalidObjectException(e.getMessage());
 			}
 		}
-		return value;
-	}
-	
-	private void setSpace() {
-		JavaSpace05 space = SpaceAccessor.getSpace(spaceName);
-		spaceElements.setSpace(space);
+		return this;
 	}
 
 	/* (non-Javadoc)
@@ -127,7 +144,7 @@ public class SharedAssociativeContext extends ServiceContext implements SpaceCon
 	 */
 	@Override
 	public void unshare() throws ContextException, RemoteException {
-		// TODO Auto-generated method stub
-		
+		if (spaceValues != null)
+			spaceValues.close();
 	}
 }
\ No newline at end of file
@@ -17,6 +17,8 @@
 
 package sorcer.core.context;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -24,14 +26,11 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
-
-import net.jini.space.JavaSpace05;
+import java.util.Map;
 
 import sorcer.service.ContextException;
 import sorcer.service.IndexedContext;
 import sorcer.service.SpaceContext;
-import sorcer.service.space.SpaceAccessor;
-import sorcer.space.array.DistribArray05;
 
 /**
  * ServiceContext implementing the java.util.List interface.
@@ -41,14 +40,14 @@ import sorcer.space.array.DistribArray05;
 @SuppressWarnings({ "serial", "unchecked" })
 public class SharedIndexedContext<T extends Object> extends ServiceContext implements IndexedContext, SpaceContext {
 	private List<T> elements = new ArrayList<T>();
-	private DistribArray05 spaceElements;
+	// space-backed values, recreated after deserialization
+	private transient SpaceValues spaceValues;
 	private String spaceName;
 	
 	public SharedIndexedContext(String spaceName) {
 		super();
 		this.spaceName = spaceName;
-		JavaSpace05 space = SpaceAccessor.getSpace(spaceName);
-		spaceElements = new DistribArray05(space, "" + mogramId);
+		spaceValues = new SpaceValues(this, spaceName);
 	}
 	
 	public SharedIndexedContext(String spaceName, T... elements) throws ContextException {
@@ -258,20 +257,7 @@ public class SharedIndexedContext<T extends Object> extends ServiceContext imple
 	 */
 	@Override
 	public Object readValue(String path) throws ContextException, RemoteException {
-		Object value = super.getValue(path);
-		int index = -1;
-		if (value instanceof String && ((String) value).startsWith(spacePrefix)) {
-			index = new Integer(((String) value).substring(spacePrefix.length()));
-
-		}
-		if (index >= 0) {
-			try {
-				value = spaceElements.readElement(index);
-			} catch (Exception e) {
-				throw new ContextException(e);
-			}
-		}
-		return value;
+		return getSpaceValues().read(path);
 	}
 
 	/* (non-Javadoc)
@@ -280,20 +266,7 @@ public class SharedIndexedContext<T extends Object> extends ServiceContext imple
 	@Override
 	public Object takeValue(String path) throws ContextException,
 			RemoteException {
-		Object value = super.getValue(path);
-		int index = -1;
-		if (value instanceof String && ((String) value).startsWith(spacePrefix)) {
-			index = new Integer(((String) value).substring(spacePrefix.length()));
-
-		}
-		if (index >= 0) {
-			try {
-				value = spaceElements.takeElement(index);
-			} catch (Exception e) {
-				throw new ContextException(e);
-			}
-		}
-		return value;
+		return getSpaceValues().take(path);
 	}
 
 	/* (non-Javadoc)
@@ -302,18 +275,73 @@ public class SharedIndexedContext<T extends Object> extends ServiceContext imple
 	@Override
 	public Object writeValue(String path, Object value)
 			throws ContextException, RemoteException {
-		try {
-			int index = spaceElements.append(value);
-			putValue(path, spacePrefix + index);
-		} catch (Exception e) {
-			throw new ContextException(e);
-		} 
-		return value;
+		return getSpaceValues().write(path, value);
 	}
 	
-	private void setSpace() {
-		JavaSpace05 space = SpaceAccessor.getSpace(spaceName);
-		spaceElements.setSpace(space);
+	/* (non-Javadoc)
+	 * @see sorcer.service.SpaceContext#readValues(java.util.List)
+	 */
+	@Override
+	public Map<String, Object> readValues(List<String> paths) throws ContextException,
+			RemoteException {
+		return getSpaceValues().readAll(paths);
+	}
+
+	/**
+	 * Returns the values of elements <code>from</code> (inclusive) to
+	 * <code>to</code> (exclusive), reading the ones kept in the space with a
+	 * single batch.
+	 */
+	public List<Object> readValues(int from, int to) throws ContextException,
+			RemoteException {
+		List<String> paths = new ArrayList<String>(Math.max(to - from, 0));
+		for (int i = from; i < to; i++)
+			paths.add(pathFor(i));
+		return new ArrayList<Object>(getSpaceValues().readAll(paths).values());
+	}
+
+	/* (non-Javadoc)
+	 * @see sorcer.service.SpaceContext#writeValues(java.util.Map)
+	 */
+	@Override
+	public void writeValues(Map<String, ?> values) throws ContextException,
+			RemoteException {
+		getSpaceValues().writeAll(values);
+	}
+
+	/* (non-Javadoc)
+	 * @see sorcer.service.SpaceContext#takeValues(java.util.List)
+	 */
+	@Override
+	public Map<String, Object> takeValues(List<String> paths) throws ContextException,
+			RemoteException {
+		return getSpaceValues().takeAll(paths);
+	}
+
+	/* (non-Javadoc)
+	 * @see sorcer.service.SpaceContext#flush()
+	 */
+	@Override
+	public void flush() throws ContextException, RemoteException {
+		getSpaceValues().flush();
+	}
+
+	private synchronized SpaceValues getSpaceValues() {
+		if (spaceValues == null)
+			spaceValues = new SpaceValues(this, spaceName);
+		return spaceValues;
+	}
+
+	// buffered values are written to the space before the context is sent
+	private Object writeReplace() throws ObjectStreamException {
+		if (spaceValues != null) {
+			try {
+				spaceValues.flush();
+			} catch (ContextException e) {
+				throw new InvalidObjectException(e.getMessage());
+			}
+		}
+		return this;
 	}
 
 	/* (non-Javadoc)
@@ -340,7 +368,7 @@ public class SharedIndexedContext<T extends Object> extends ServiceContext imple
 	 */
 	@Override
 	public void unshare() throws ContextException, RemoteException {
-		// TODO Auto-generated method stub
-		
+		if (spaceValues != null)
+			spaceValues.close();
 	}
 }
\ No newline at end of file
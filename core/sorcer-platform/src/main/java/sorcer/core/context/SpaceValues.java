@@ -0,0 +1,259 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import sorcer.service.ContextException;
+import sorcer.service.SpaceContext;
+import sorcer.service.space.SpaceAccessor;
+import sorcer.space.array.DistribArray05;
+import sorcer.space.array.Element;
+import sorcer.space.array.ElementCache;
+import sorcer.util.Sorcer;
+
+import java.util.*;
+
+import static sorcer.core.SorcerConstants.*;
+
+/**
+ * The space-backed values of a shared context. Context paths of written
+ * values hold {@link SpaceContext#spacePrefix} followed by the position of
+ * the value in a {@link DistribArray05} named by the context id.
+ * <p>
+ * Writes are buffered and flushed to the space in batches of
+ * <code>space.context.batch</code> values, a path already backed by the
+ * space having its element replaced in place. Reads of several paths are
+ * served with a single space read, and, with <code>space.context.cache</code>
+ * set, from a near {@link ElementCache}.
+ */
+class SpaceValues {
+	private final ServiceContext context;
+
+	private final DistribArray05 array;
+
+	private final ElementCache cache;
+
+	private final int batchSize;
+
+	// writes not flushed to the space yet, in order
+	private final Map<String, Object> pending = new LinkedHashMap<String, Object>();
+
+	private boolean created;
+
+	SpaceValues(ServiceContext context, String spaceName) {
+		this(context, new DistribArray05(SpaceAccessor.getSpace(spaceName), "" + context.getId()),
+				getBatchSize());
+	}
+
+	private SpaceValues(ServiceContext context, DistribArray05 array, int batchSize) {
+		this(context, array, "true".equals(Sorcer.getProperty(P_SPACE_CONTEXT_CACHE)) ? new ElementCache(array)
+				: null, batchSize);
+	}
+
+	/**
+	 * @param cache the near cache of the array elements, or null
+	 */
+	SpaceValues(ServiceContext context, DistribArray05 array, ElementCache cache, int batchSize) {
+		this.context = context;
+		this.array = array;
+		this.cache = cache;
+		this.batchSize = batchSize;
+		if (cache != null)
+			cache.listen();
+	}
+
+	synchronized Object write(String path, Object value) throws ContextException {
+		pending.put(path, value);
+		if (pending.size() >= batchSize)
+			flush();
+		return value;
+	}
+
+	synchronized void writeAll(Map<String, ?> values) throws ContextException {
+		pending.putAll(values);
+		flush();
+	}
+
+	synchronized Object read(String path) throws ContextException {
+		if (pending.containsKey(path))
+			return pending.get(path);
+		Object value = context.getValue(path);
+		int index = index(value);
+		if (index < 0)
+			return value;
+		try {
+			return cache != null ? cache.read(index) : array.readElement(index);
+		} catch (Exception e) {
+			throw new ContextException(e);
+		}
+	}
+
+	/**
+	 * Returns the values at the paths, reading all space-backed ones with a
+	 * single batch.
+	 */
+	synchronized Map<String, Object> readAll(List<String> paths) throws ContextException {
+		Map<String, Object> values = new LinkedHashMap<String, Object>(paths.size() * 2);
+		Map<String, Integer> indexes = new HashMap<String, Integer>(paths.size() * 2);
+		for (String path : paths) {
+			if (pending.containsKey(path)) {
+				values.put(path, pending.get(path));
+				continue;
+			}
+			Object value = context.getValue(path);
+			int index = index(value);
+			values.put(path, value);
+			if (index >= 0)
+				indexes.put(path, index);
+		}
+		if (indexes.isEmpty())
+			return values;
+		Map<Integer, Object> elements;
+		try {
+			elements = cache != null ? cache.readAll(indexes.values())
+					: array.readElements(indexes.values(), null);
+		} catch (Exception e) {
+			throw new ContextException(e);
+		}
+		for (Map.Entry<String, Integer> e : indexes.entrySet())
+			values.put(e.getKey(), elements.get(e.getValue()));
+		return values;
+	}
+
+	synchronized Object take(String path) throws ContextException {
+		if (pending.containsKey(path))
+			flush();
+		Object value = context.getValue(path);
+		int index = index(value);
+		if (index < 0)
+			return value;
+		if (cache != null)
+			cache.invalidate(index);
+		try {
+			return ((Element) array.takeElement(index)).data;
+		} catch (Exception e) {
+			throw new ContextException(e);
+		}
+	}
+
+	/**
+	 * Takes the space-backed values at the paths with a single batch.
+	 */
+	synchronized Map<String, Object> takeAll(List<String> paths) throws ContextException {
+		flush();
+		Map<String, Object> values = new LinkedHashMap<String, Object>(paths.size() * 2);
+		Map<String, Integer> indexes = new HashMap<String, Integer>(paths.size() * 2);
+		for (String path : paths) {
+			Object value = context.getValue(path);
+			int index = index(value);
+			values.put(path, value);
+			if (index >= 0)
+				indexes.put(path, index);
+		}
+		if (indexes.isEmpty())
+			return values;
+		if (cache != null)
+			cache.invalidateAll(indexes.values());
+		Map<Integer, Object> elements;
+		try {
+			elements = array.takeElements(indexes.values(), null, Long.MAX_VALUE);
+		} catch (Exception e) {
+			throw new ContextException(e);
+		}
+		for (Map.Entry<String, Integer> e : indexes.entrySet())
+			values.put(e.getKey(), elements.get(e.getValue()));
+		return values;
+	}
+
+	/**
+	 * Writes the buffered values to the space: values of new paths are
+	 * appended with one tail update, values of space-backed paths replace
+	 * their elements.
+	 */
+	synchronized void flush() throws ContextException {
+		if (pending.isEmpty())
+			return;
+		List<String> appendedPaths = new ArrayList<String>();
+		List<Object> appended = new ArrayList<Object>();
+		Map<Integer, Object> replaced = new HashMap<Integer, Object>();
+		for (Map.Entry<String, Object> e : pending.entrySet()) {
+			int index = index(context.getValue(e.getKey()));
+			if (index >= 0) {
+				replaced.put(index, e.getValue());
+			} else {
+				appendedPaths.add(e.getKey());
+				appended.add(e.getValue());
+			}
+		}
+		try {
+			if (!created) {
+				array.create();
+				created = true;
+			}
+			if (!replaced.isEmpty()) {
+				array.writeElements(replaced, null);
+				for (Map.Entry<Integer, Object> e : replaced.entrySet())
+					cacheElement(e.getKey(), e.getValue());
+			}
+			if (!appended.isEmpty()) {
+				int[] positions = array.appendAll(appended, null);
+				if (positions == null)
+					throw new ContextException("No tail available for the space array: "
+							+ array.getName());
+				for (int i = 0; i < positions.length; i++) {
+					context.putValue(appendedPaths.get(i), SpaceContext.spacePrefix + positions[i]);
+					cacheElement(positions[i], appended.get(i));
+				}
+			}
+		} catch (ContextException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new ContextException(e);
+		}
+		pending.clear();
+	}
+
+	synchronized void close() throws ContextException {
+		flush();
+		if (cache != null)
+			cache.close();
+	}
+
+	private void cacheElement(int index, Object value) {
+		if (cache != null)
+			cache.put(index, value);
+	}
+
+	private static int index(Object value) {
+		if (value instanceof String && ((String) value).startsWith(SpaceContext.spacePrefix)) {
+			try {
+				return Integer.parseInt(((String) value).substring(SpaceContext.spacePrefix.length()));
+			} catch (NumberFormatException e) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	private static int getBatchSize() {
+		try {
+			int size = Integer.parseInt(Sorcer.getProperty(P_SPACE_CONTEXT_BATCH));
+			return size > 0 ? size : 1;
+		} catch (NullPointerException | NumberFormatException e) {
+			return SPACE_CONTEXT_BATCH_DEFAULT;
+		}
+	}
+}
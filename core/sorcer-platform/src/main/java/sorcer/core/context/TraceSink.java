@@ -0,0 +1,187 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.Sorcer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static sorcer.core.SorcerConstants.*;
+
+/**
+ * Settings of exertion tracing and the local sink of ended trace spans.
+ * <p>
+ * When the {@link sorcer.core.SorcerConstants#P_TRACE_FILE} property is set,
+ * spans ended in this JVM are appended to the file as JSON lines, so that the
+ * spans of a job can be collected from all providers it ran on. Top-level
+ * exertions are traced when tracable, or sampled at the rate of the
+ * {@link sorcer.core.SorcerConstants#P_TRACE_SAMPLE} property. The
+ * {@link sorcer.core.SorcerConstants#P_TRACE_MAX} property limits the trace
+ * entries and spans kept in a control context.
+ * <p>
+ * The trace file is opened by the first export and closed by {@link #close()}
+ * or at JVM shutdown; an export after closing opens it again.
+ */
+public class TraceSink {
+	private static final Logger logger = LoggerFactory.getLogger(TraceSink.class);
+
+	private static final double sampleRate = parseDouble(getProperty(P_TRACE_SAMPLE), 0);
+	private static final int maxEntries = (int) parseDouble(getProperty(P_TRACE_MAX), TRACE_MAX_DEFAULT);
+	private static String file = getProperty(P_TRACE_FILE);
+	private static Writer writer;
+	private static Thread closer;
+	private static volatile String hostName;
+
+	private TraceSink() {
+	}
+
+	public static int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Returns true if a new trace is to be recorded.
+	 */
+	public static boolean sample() {
+		return sample(sampleRate);
+	}
+
+	static boolean sample(double rate) {
+		return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+	}
+
+	public static String getHostName() {
+		if (hostName == null) {
+			try {
+				hostName = Sorcer.getHostName();
+			} catch (IOException e) {
+				hostName = "unknown";
+			}
+		}
+		return hostName;
+	}
+
+	public static String newId() {
+		return Long.toHexString(ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Appends the ended span to the trace file, if set.
+	 */
+	public static void export(TraceSpan span) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("{\"traceId\":").append(quote(span.traceId))
+				.append(",\"id\":").append(quote(span.id))
+				.append(",\"parentId\":").append(quote(span.parentId))
+				.append(",\"kind\":").append(quote(span.kind))
+				.append(",\"name\":").append(quote(span.name))
+				.append(",\"provider\":").append(quote(span.provider))
+				.append(",\"host\":").append(quote(span.host))
+				.append(",\"start\":").append(span.start)
+				.append(",\"end\":").append(span.end)
+				.append(",\"duration\":").append(span.getDuration())
+				.append(",\"failed\":").append(span.failed)
+				.append("}\n");
+		synchronized (TraceSink.class) {
+			if (file == null)
+				return;
+			try {
+				if (writer == null) {
+					writer = new BufferedWriter(new OutputStreamWriter(
+							new FileOutputStream(file, true), StandardCharsets.UTF_8));
+					closeOnShutdown();
+				}
+				writer.write(sb.toString());
+				writer.flush();
+			} catch (IOException e) {
+				logger.warn("Could not write trace span to {}", file, e);
+			}
+		}
+	}
+
+	/**
+	 * Closes the trace file, opened again by the next export.
+	 */
+	public static synchronized void close() {
+		if (writer == null)
+			return;
+		try {
+			writer.close();
+		} catch (IOException e) {
+			logger.warn("Could not close trace file {}", file, e);
+		}
+		writer = null;
+	}
+
+	/**
+	 * Closes the trace file and exports spans to the given file, or stops
+	 * exporting them if it is null.
+	 */
+	static synchronized void setFile(String traceFile) {
+		close();
+		file = traceFile;
+	}
+
+	private static void closeOnShutdown() {
+		if (closer != null)
+			return;
+		closer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				close();
+			}
+		}, "TraceSink-close");
+		try {
+			Runtime.getRuntime().addShutdownHook(closer);
+		} catch (IllegalStateException e) {
+			// the JVM is shutting down already
+		}
+	}
+
+	private static String quote(String value) {
+		if (value == null)
+			return "null";
+		StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\')
+				sb.append('\\').append(c);
+			else if (c < 0x20)
+				sb.append(String.format("\\u%04x", (int) c));
+			else
+				sb.append(c);
+		}
+		return sb.append('"').toString();
+	}
+
+	private static String getProperty(String name) {
+		String value = System.getProperty(name);
+		return value != null ? value : Sorcer.getProperty(name);
+	}
+
+	private static double parseDouble(String value, double defaultValue) {
+		try {
+			return value != null ? Double.parseDouble(value) : defaultValue;
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+}
@@ -17,8 +17,6 @@
 
 package sorcer.core.context.model.ent;
 
-import net.jini.id.UuidFactory;
-import sorcer.core.context.ModelStrategy;
 import sorcer.core.context.PositionalContext;
 import sorcer.service.*;
 
@@ -41,9 +39,6 @@ public class DataContext<T> extends PositionalContext<T> {
         } else {
             this.name = name;
         }
-        mogramId = UuidFactory.generate();
-        mogramStrategy = new ModelStrategy(this);
-        creationDate = new Date();
     }
 
     public DataContext(String name, Signature builder) {
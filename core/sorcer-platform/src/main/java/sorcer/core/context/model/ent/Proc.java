@@ -68,6 +68,9 @@ public class Proc<T> extends Entry<T> implements Variability<T>, Mappable<T>,
 	// proc fidelities for this proc
 	protected ServiceFidelity<Entry> fidelities;
 
+	// memoized values of evaluations with arguments, none if null
+	private transient ProcMemo memo;
+
 	public Proc(String parname) {
 		super(parname);
 		name = parname;
@@ -222,8 +225,15 @@ public class Proc<T> extends Entry<T> implements Variability<T>, Mappable<T>,
 			}
 		}
 		T val = null;
+		String memoKey = null;
 		try {
 			substitute(args);
+			memoKey = memoKey(args);
+			if (memoKey != null) {
+				Object memoized = memo.get(memoKey);
+				if (memoized != null)
+					return (T) memoized;
+			}
 			if (selectedFidelity != null) {
                 Object obj = fidelities.getSelect();
 				if (!isFidelityValid(selectedFidelity)) {
@@ -316,8 +326,47 @@ public class Proc<T> extends Entry<T> implements Variability<T>, Mappable<T>,
 			e.printStackTrace();
 			throw new EvaluationException(e);
 		}
+		if (memoKey != null)
+			memo.put(memoKey, val);
 		return val;
 	}
+
+	/**
+	 * Returns the memo key of the evaluation with the arguments, or null if
+	 * the evaluation is not memoized. The key covers the definition of the
+	 * evaluation and the inputs it depends on, looked up in this proc's scope
+	 * before the scope of an invoker.
+	 */
+	private String memoKey(Arg... args) {
+		if (memo == null || isPersistent
+				|| !(value instanceof Evaluation || value instanceof Invocation))
+			return null;
+		return ProcMemo.key(name, value, args, scope);
+	}
+
+	/**
+	 * Memoizes the values of evaluations of this proc with arguments in the
+	 * given memo, keyed by the arguments and the scope values the evaluation
+	 * depends on. A memo can be
+	 * shared by procs and models; a null memo turns memoization off.
+	 */
+	public Proc<T> setMemo(ProcMemo memo) {
+		this.memo = memo;
+		return this;
+	}
+
+	public ProcMemo getMemo() {
+		return memo;
+	}
+
+	/**
+	 * Drops the values of the memo of this proc, including the ones of other
+	 * procs sharing it.
+	 */
+	public void clearMemo() {
+		if (memo != null)
+			memo.clear();
+	}
 	
 	/* (non-Javadoc)
 	 * @see sorcer.service.Evaluation#substitute(sorcer.co.tuple.Parameter[])
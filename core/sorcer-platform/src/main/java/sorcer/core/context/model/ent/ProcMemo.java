@@ -0,0 +1,679 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context.model.ent;
+
+import groovy.lang.Closure;
+import net.jini.id.Uuid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.context.model.srv.Srv;
+import sorcer.core.invoker.GroovyInvoker;
+import sorcer.core.invoker.ServiceInvoker;
+import sorcer.core.plexus.MorphFidelity;
+import sorcer.service.*;
+import sorcer.util.Sorcer;
+
+import java.io.*;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.rmi.RemoteException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static sorcer.core.SorcerConstants.*;
+
+/**
+ * Memoized values of {@link Proc} and {@link ProcModel} evaluations. A value
+ * is keyed by a SHA-256 digest of the evaluated name, the effective
+ * arguments, the definition of the evaluation and, following its declared
+ * dependencies through the scope, the definitions of dependent values and
+ * the independent values they depend on, so that a stored value is not
+ * reused once an input changes or an expression is edited. Values written
+ * back by evaluations, such as srv values and return paths, are not keyed.
+ * Evaluations that do not declare their dependencies are keyed by all
+ * independent values of the scope; evaluations whose arguments or inputs
+ * cannot be digested are not memoized.
+ * <p>
+ * Definitions are never digested by their serialized form, which carries
+ * identities and timestamps of a single run: Groovy invokers are digested by
+ * their expressions or scripts, other invokers and callables by their class
+ * files and fields, lambdas by their implementation methods and captured
+ * values. Digests of numbers, strings, arrays and lists are computed from
+ * their contents, other independent values from their serialized form, so
+ * that keys are stable across runs.
+ * <p>
+ * At most <code>maxSize</code> values are kept in memory, the least recently
+ * used ones being evicted. With a directory the values are also stored on
+ * disk, so that repeated parametric sweeps skip points computed by previous
+ * runs. Memoized values are shared and must not be modified by the callers.
+ */
+public class ProcMemo {
+    private static final Logger logger = LoggerFactory.getLogger(ProcMemo.class);
+
+    private static final String SUFFIX = ".memo";
+
+    // nesting of definitions and contexts digested
+    private static final int MAX_DEPTH = 8;
+
+    private final int maxSize;
+
+    private final File dir;
+
+    // key -> value, in access order
+    private final LinkedHashMap<String, Object> values;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates an in-memory memo of <code>proc.memo.size</code> values.
+     */
+    public ProcMemo() {
+        this(getMaxSize(), null);
+    }
+
+    /**
+     * @param maxSize the number of values kept in memory
+     * @param dir     the directory of stored values, or null to keep values
+     *                in memory only
+     */
+    public ProcMemo(int maxSize, File dir) {
+        this.maxSize = maxSize;
+        this.dir = dir;
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs())
+            throw new IllegalArgumentException("Cannot create memo directory: " + dir);
+        values = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > ProcMemo.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the memoized value, or null if there is none.
+     */
+    public synchronized Object get(String key) {
+        Object value = values.get(key);
+        if (value == null && dir != null) {
+            value = load(key);
+            if (value != null && maxSize > 0)
+                values.put(key, value);
+        }
+        if (value != null)
+            hits.incrementAndGet();
+        else
+            misses.incrementAndGet();
+        return value;
+    }
+
+    public synchronized void put(String key, Object value) {
+        if (value == null)
+            return;
+        if (maxSize > 0)
+            values.put(key, value);
+        if (dir != null)
+            store(key, value);
+    }
+
+    public synchronized void invalidate(String key) {
+        values.remove(key);
+        if (dir != null)
+            new File(dir, key + SUFFIX).delete();
+    }
+
+    /**
+     * Drops all memoized values, including the ones stored on disk.
+     */
+    public synchronized void clear() {
+        values.clear();
+        if (dir != null) {
+            File[] files = dir.listFiles();
+            if (files != null)
+                for (File file : files)
+                    if (file.getName().endsWith(SUFFIX))
+                        file.delete();
+        }
+    }
+
+    public synchronized int size() {
+        return values.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    private Object load(String key) {
+        File file = new File(dir, key + SUFFIX);
+        if (!file.isFile())
+            return null;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            logger.warn("Dropping unreadable memoized value {}", file, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private void store(String key, Object value) {
+        if (!(value instanceof Serializable))
+            return;
+        File file = new File(dir, key + SUFFIX);
+        File part = new File(dir, key + ".part");
+        try {
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(part)))) {
+                out.writeObject(value);
+            }
+            Files.move(part.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Unable to store memoized value {}", file, e);
+            part.delete();
+        }
+    }
+
+    /**
+     * Returns the key of the evaluation of <code>name</code> with the
+     * arguments in the scopes, or null if the evaluation cannot be keyed.
+     *
+     * @param definition the evaluation computing the value
+     * @param scopes     the contexts the inputs of the evaluation are looked
+     *                   up in, first to last
+     */
+    public static String key(String name, Object definition, Arg[] args, Context... scopes) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            update(md, "name", name);
+            if (args != null) {
+                for (Arg arg : args) {
+                    if (!digestArg(md, arg))
+                        return null;
+                }
+            }
+            Keyer keyer = new Keyer(md, scopes);
+            if (!keyer.definition(definition, 0) || !keyer.undeclared())
+                return null;
+            return toHex(md.digest());
+        } catch (NoSuchAlgorithmException | ContextException | RemoteException e) {
+            logger.debug("Unable to key the evaluation of {}", name, e);
+            return null;
+        }
+    }
+
+    private static boolean digestArg(MessageDigest md, Arg arg) throws ContextException, RemoteException {
+        if (arg instanceof Entry) {
+            update(md, "entry", arg.getName());
+            Object value = ((Entry) arg).asis();
+            return !isEvaluation(value) && digest(md, value);
+        } else if (arg instanceof Fidelity) {
+            update(md, "fidelity", arg.getName());
+            return true;
+        } else if (arg instanceof Context) {
+            update(md, "context", null);
+            return new Keyer(md).context((Context) arg, 0);
+        } else {
+            update(md, "arg", arg.getClass().getName());
+            return digest(md, arg);
+        }
+    }
+
+    /**
+     * Digests the definition of an evaluation and the inputs it depends on.
+     * Declared dependencies (invoker arguments, the paths and input paths of
+     * srv entries, the input paths of signatures) are followed through the
+     * scopes, digesting the definitions of dependent values and the values of
+     * independent ones. When an evaluation on the chain does not declare its
+     * dependencies, all values of the scopes are digested as well, except
+     * the return paths evaluations write their values to.
+     */
+    private static class Keyer {
+        private final MessageDigest md;
+
+        private final Context[] scopes;
+
+        // the scopes of invokers on the chain, looked up after the given ones
+        private final List<Context> invokerScopes = new ArrayList<Context>();
+
+        private final Set<Object> definitions = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+        private final Set<String> inputs = new HashSet<String>();
+
+        // some evaluation on the chain may read any value of the scopes
+        private boolean undeclared;
+
+        Keyer(MessageDigest md, Context... scopes) {
+            this.md = md;
+            this.scopes = scopes != null ? scopes : new Context[0];
+        }
+
+        boolean definition(Object evaluation, int depth) throws ContextException, RemoteException {
+            if (depth > MAX_DEPTH)
+                return false;
+            if (evaluation == null) {
+                update(md, "null", null);
+                return true;
+            }
+            if (!definitions.add(evaluation)) {
+                update(md, "definition", null);
+                return true;
+            }
+            if (evaluation instanceof Context) {
+                update(md, "context", null);
+                return context((Context) evaluation, depth + 1);
+            } else if (evaluation instanceof Srv) {
+                // the srv value is the output of the evaluation, not its definition
+                Srv srv = (Srv) evaluation;
+                update(md, "srv", srv.getName());
+                update(md, "path", srv.getPath());
+                update(md, "type", String.valueOf(srv.getType()));
+                digestReturnPath(srv.getReturnPath());
+                Object value = srv.asis();
+                if (!isEvaluation(value))
+                    return digest(md, value);
+                String[] paths = srv.getPaths();
+                SignatureReturnPath rp = srv.getReturnPath();
+                if (rp != null && rp.getInPaths() != null)
+                    paths = rp.getInPaths();
+                boolean declared = paths != null && paths.length > 0;
+                return code(value, depth + 1, declared) && (!declared || inputs(paths, depth));
+            } else if (evaluation instanceof Entry) {
+                update(md, "entry", ((Entry) evaluation).getName());
+                Object value = ((Entry) evaluation).asis();
+                return isEvaluation(value) ? definition(value, depth + 1) : digest(md, value);
+            }
+            return code(evaluation, depth, false);
+        }
+
+        /**
+         * Digests the code of an evaluation: the expressions of Groovy
+         * invokers, the class files and fields of other invokers and
+         * callables, and the implementation methods and captured values of
+         * serializable lambdas. Mograms and fidelities are not keyed, nor are
+         * callables that write to paths of their own choice.
+         *
+         * @param declared true if the inputs of a callable are declared by its
+         *                 srv entry, otherwise it may read the whole context
+         */
+        private boolean code(Object evaluation, int depth, boolean declared) throws ContextException, RemoteException {
+            if (depth > MAX_DEPTH)
+                return false;
+            if (evaluation instanceof Srv || evaluation instanceof Entry || evaluation instanceof Context) {
+                return definition(evaluation, depth + 1);
+            } else if (evaluation instanceof Mogram || evaluation instanceof Fi || evaluation instanceof Multifidelity
+                    || evaluation instanceof MorphFidelity || evaluation instanceof EntryCollable
+                    || evaluation instanceof Closure) {
+                return false;
+            } else if (evaluation instanceof Signature) {
+                Signature signature = (Signature) evaluation;
+                update(md, "signature", signature.getClass().getName());
+                update(md, "selector", signature.getSelector());
+                try {
+                    Class<?> type = signature.getServiceType();
+                    update(md, "service", type != null ? type.getName() : null);
+                } catch (SignatureException e) {
+                    return false;
+                }
+                update(md, "provider", String.valueOf(signature.getProviderName()));
+                SignatureReturnPath rp = signature.getReturnPath();
+                digestReturnPath(rp);
+                return inputs(rp != null ? rp.getInPaths() : null, depth);
+            } else if (evaluation instanceof ServiceInvoker) {
+                ServiceInvoker invoker = (ServiceInvoker) evaluation;
+                update(md, "invoker", evaluation.getClass().getName());
+                md.update(CLASS_DIGESTS.get(evaluation.getClass()));
+                update(md, "negative", Boolean.toString(invoker.isNegative()));
+                if (evaluation instanceof GroovyInvoker) {
+                    GroovyInvoker groovy = (GroovyInvoker) evaluation;
+                    if (groovy.getScriptFile() != null) {
+                        try {
+                            update(md, "script", groovy.getScriptFile().getName());
+                            md.update(Files.readAllBytes(groovy.getScriptFile().toPath()));
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    } else {
+                        update(md, "expression", groovy.getExpression());
+                    }
+                } else if (!fields(evaluation, ServiceInvoker.class, depth)) {
+                    return false;
+                }
+                if (invoker.getLambda() != null && !code(invoker.getLambda(), depth + 1, true))
+                    return false;
+                if (invoker.getEvaluator() != null && !definition(invoker.getEvaluator(), depth + 1))
+                    return false;
+                if (invoker.getScope() != null && !containsScope(invoker.getScope()))
+                    invokerScopes.add(invoker.getScope());
+                List<String> names = null;
+                if (invoker.getArgs() != null && !invoker.getArgs().isEmpty()) {
+                    names = new ArrayList<String>();
+                    for (Object arg : invoker.getArgs())
+                        names.add(((Arg) arg).getName());
+                } else if (invoker.getEvaluator() != null) {
+                    // the dependencies of the delegate are followed with its definition
+                    return true;
+                }
+                return inputs(names != null ? names.toArray(new String[names.size()]) : null, depth);
+            }
+            Class<?> type = evaluation.getClass();
+            if (type.isSynthetic()) {
+                // lambdas are identified by their implementation methods
+                if (!(evaluation instanceof Serializable))
+                    return false;
+                try {
+                    Method writeReplace = type.getDeclaredMethod("writeReplace");
+                    writeReplace.setAccessible(true);
+                    SerializedLambda lambda = (SerializedLambda) writeReplace.invoke(evaluation);
+                    update(md, "lambda", lambda.getImplClass());
+                    update(md, "method", lambda.getImplMethodName() + lambda.getImplMethodSignature());
+                    md.update(CLASS_DIGESTS.get(Class.forName(lambda.getImplClass().replace('/', '.'), false,
+                            type.getClassLoader())));
+                    for (int i = 0; i < lambda.getCapturedArgCount(); i++)
+                        if (!field(lambda.getCapturedArg(i), depth))
+                            return false;
+                } catch (ReflectiveOperationException | ClassCastException | SecurityException e) {
+                    return false;
+                }
+            } else {
+                update(md, "class", type.getName());
+                md.update(CLASS_DIGESTS.get(type));
+                if (!fields(evaluation, Object.class, depth))
+                    return false;
+            }
+            // callables are called with the whole context
+            if (!declared)
+                undeclared = true;
+            return true;
+        }
+
+        private boolean containsScope(Context context) {
+            for (Context scope : scopes)
+                if (scope == context)
+                    return true;
+            for (Context scope : invokerScopes)
+                if (scope == context)
+                    return true;
+            return false;
+        }
+
+        private boolean fields(Object object, Class<?> base, int depth) throws ContextException, RemoteException {
+            for (Class<?> type = object.getClass(); type != null && type != base; type = type.getSuperclass()) {
+                Field[] fields = type.getDeclaredFields();
+                Arrays.sort(fields, new Comparator<Field>() {
+                    @Override
+                    public int compare(Field f1, Field f2) {
+                        return f1.getName().compareTo(f2.getName());
+                    }
+                });
+                for (Field field : fields) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic())
+                        continue;
+                    update(md, "field", field.getName());
+                    try {
+                        field.setAccessible(true);
+                        if (!field(field.get(object), depth))
+                            return false;
+                    } catch (IllegalAccessException | RuntimeException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean field(Object value, int depth) throws ContextException, RemoteException {
+            if (value instanceof Uuid || value instanceof Date || value instanceof Context
+                    || value instanceof Logger) {
+                // identities, timestamps and scopes of a single run
+                update(md, "skipped", null);
+                return true;
+            } else if (value instanceof Class) {
+                update(md, "class", ((Class) value).getName());
+                return true;
+            } else if (isEvaluation(value)) {
+                return definition(value, depth + 1);
+            } else if (value == null || value instanceof Serializable) {
+                return digest(md, value);
+            }
+            update(md, "object", value.getClass().getName());
+            return true;
+        }
+
+        private boolean inputs(String[] paths, int depth) throws ContextException, RemoteException {
+            if (paths == null || paths.length == 0) {
+                undeclared = true;
+                return true;
+            }
+            String[] sorted = paths.clone();
+            Arrays.sort(sorted);
+            for (String path : sorted) {
+                if (!inputs.add(path))
+                    continue;
+                update(md, "input", path);
+                Object value = lookup(path);
+                if (value instanceof Entry || isEvaluation(value)) {
+                    if (!definition(value, depth + 1))
+                        return false;
+                } else if (!digest(md, value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Object lookup(String path) throws ContextException, RemoteException {
+            for (Context scope : scopes) {
+                if (scope != null && scope.containsPath(path))
+                    return scope.asis(path);
+            }
+            for (Context scope : invokerScopes) {
+                if (scope.containsPath(path))
+                    return scope.asis(path);
+            }
+            return null;
+        }
+
+        /**
+         * Digests all values of the scopes when some evaluation on the chain
+         * does not declare its dependencies. Values appended to the scope of
+         * an invoker from the given scopes are digested once.
+         */
+        boolean undeclared() throws ContextException, RemoteException {
+            if (!undeclared)
+                return true;
+            Set<String> paths = new HashSet<String>();
+            for (Context scope : scopes) {
+                if (scope == null)
+                    continue;
+                update(md, "scope", null);
+                if (!context(scope, paths, 0))
+                    return false;
+            }
+            for (Context scope : invokerScopes) {
+                update(md, "scope", null);
+                if (!context(scope, paths, 0))
+                    return false;
+            }
+            return true;
+        }
+
+        boolean context(Context context, int depth) throws ContextException, RemoteException {
+            return context(context, new HashSet<String>(), depth);
+        }
+
+        private boolean context(Context context, Set<String> digested, int depth)
+                throws ContextException, RemoteException {
+            if (depth > MAX_DEPTH)
+                return false;
+            List<String> paths = new ArrayList<String>(context.getPaths());
+            Collections.sort(paths);
+            Set<String> outputs = outputs(context, paths);
+            for (String path : paths) {
+                if (outputs.contains(path) || !digested.add(path))
+                    continue;
+                Object value = context.asis(path);
+                update(md, "path", path);
+                if (value instanceof Entry || isEvaluation(value)) {
+                    // dependent values follow from the independent ones and the definitions
+                    if (!definition(value, depth + 1))
+                        return false;
+                } else if (!digest(md, value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the paths the evaluations of the context write their values to.
+         */
+        private Set<String> outputs(Context context, List<String> paths) throws ContextException, RemoteException {
+            Set<String> outputs = new HashSet<String>();
+            addOutputs(outputs, context.getReturnPath());
+            for (String path : paths) {
+                Object value = context.asis(path);
+                if (value instanceof Srv) {
+                    addOutputs(outputs, ((Srv) value).getReturnPath());
+                    if (((Srv) value).asis() instanceof Signature)
+                        addOutputs(outputs, ((Signature) ((Srv) value).asis()).getReturnPath());
+                }
+            }
+            return outputs;
+        }
+
+        private void addOutputs(Set<String> outputs, SignatureReturnPath rp) {
+            if (rp == null)
+                return;
+            if (rp.getPath() != null)
+                outputs.add(rp.getPath());
+            if (rp.getOutPaths() != null)
+                outputs.addAll(Arrays.asList(rp.getOutPaths()));
+        }
+
+        private void digestReturnPath(SignatureReturnPath rp) {
+            if (rp == null)
+                return;
+            update(md, "return", rp.getPath());
+            if (rp.getInPaths() != null)
+                for (String path : rp.getInPaths())
+                    update(md, "in", path);
+            if (rp.getOutPaths() != null)
+                for (String path : rp.getOutPaths())
+                    update(md, "out", path);
+        }
+    }
+
+    // digests of class files, so that edited code changes the keys
+    private static final ClassValue<byte[]> CLASS_DIGESTS = new ClassValue<byte[]>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            ClassLoader loader = type.getClassLoader() != null ? type.getClassLoader()
+                    : ClassLoader.getSystemClassLoader();
+            try (InputStream in = loader.getResourceAsStream(type.getName().replace('.', '/') + ".class")) {
+                if (in == null)
+                    return new byte[0];
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) > 0)
+                    md.update(buffer, 0, n);
+                return md.digest();
+            } catch (IOException | NoSuchAlgorithmException e) {
+                return new byte[0];
+            }
+        }
+    };
+
+    private static boolean isEvaluation(Object value) {
+        return value instanceof Evaluation || value instanceof Invocation || value instanceof Service
+                || value instanceof Signature || value instanceof ValueCallable || value instanceof Client
+                || value instanceof EntryCollable || value instanceof Closure;
+    }
+
+    private static boolean digest(MessageDigest md, Object value) {
+        if (value == null) {
+            update(md, "null", null);
+        } else if (value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum) {
+            update(md, value.getClass().getName(), value.toString());
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            update(md, value.getClass().getName(), Integer.toString(length));
+            for (int i = 0; i < length; i++)
+                if (!digest(md, Array.get(value, i)))
+                    return false;
+        } else if (value instanceof List) {
+            update(md, "list", Integer.toString(((List) value).size()));
+            for (Object element : (List) value)
+                if (!digest(md, element))
+                    return false;
+        } else if (value instanceof Serializable) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            } catch (IOException e) {
+                return false;
+            }
+            update(md, value.getClass().getName(), null);
+            md.update(bytes.toByteArray());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static void update(MessageDigest md, String tag, String text) {
+        md.update(tag.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        if (text != null)
+            md.update(text.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+            sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private static int getMaxSize() {
+        try {
+            return Integer.parseInt(Sorcer.getProperty(P_PROC_MEMO_SIZE));
+        } catch (NumberFormatException e) {
+            return PROC_MEMO_SIZE_DEFAULT;
+        }
+    }
+}
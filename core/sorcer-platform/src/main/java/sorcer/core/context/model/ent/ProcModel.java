@@ -65,6 +65,9 @@ public class ProcModel extends PositionalContext<Object> implements Model, Invoc
 
     private static final long serialVersionUID = -6932730998474298653L;
 
+	// memoized values of evaluated paths, none if null
+	protected transient ProcMemo memo;
+
 	public static ProcModel instance(Signature builder) throws SignatureException {
 		ProcModel model = (ProcModel) sorcer.co.operator.instance(builder);
 		model.setBuilder(builder);
@@ -102,6 +105,18 @@ public class ProcModel extends PositionalContext<Object> implements Model, Invoc
     }
 
 	public Object getValue(String path, Arg... args) throws EvaluationException, ContextException {
+		String key = memoKey(path, args);
+		if (key == null)
+			return getProcValue(path, args);
+		Object val = memo.get(key);
+		if (val == null) {
+			val = getProcValue(path, args);
+			memo.put(key, val);
+		}
+		return val;
+	}
+
+	private Object getProcValue(String path, Arg... args) throws EvaluationException, ContextException {
 		try {
 			append(args);
 			Object val = null;
@@ -111,9 +126,9 @@ public class ProcModel extends PositionalContext<Object> implements Model, Invoc
 				ReturnPath rp = Arg.getReturnPath(args);
 				if (rp != null)
 					val = getReturnValue(rp);
-				else if (((ModelStrategy)mogramStrategy).getResponsePaths() != null
-						&& ((ModelStrategy)mogramStrategy).getResponsePaths().size() == 1) {
-					val = asis(((ModelStrategy)mogramStrategy).getResponsePaths().get(0).getName());
+				else if (getMogramStrategy().getResponsePaths() != null
+						&& getMogramStrategy().getResponsePaths().size() == 1) {
+					val = asis(getMogramStrategy().getResponsePaths().get(0).getName());
 				} else {
 					val = super.getValue(path, args);
 				}
@@ -132,9 +147,9 @@ public class ProcModel extends PositionalContext<Object> implements Model, Invoc
 			}   if (val instanceof ServiceFidelity) {
 				return new Entry(path, val).getValue(args);
 			} else if (path == null && val == null
-					&& ((ModelStrategy)mogramStrategy).getResponsePaths() != null) {
-				if (((ModelStrategy)mogramStrategy).getResponsePaths().size() == 1)
-					return getValue(((ModelStrategy)mogramStrategy).getResponsePaths().get(0).getName(), args);
+					&& getMogramStrategy().getResponsePaths() != null) {
+				if (getMogramStrategy().getResponsePaths().size() == 1)
+					return getValue(getMogramStrategy().getResponsePaths().get(0).getName(), args);
 				else
 					return getResponse();
 			} else {
@@ -156,6 +171,53 @@ public class ProcModel extends PositionalContext<Object> implements Model, Invoc
 		}
 	}
 
+	/**
+	 * Returns the memo key of evaluating the path with the arguments, or
+	 * null if the value at the path is not memoized. The arguments are
+	 * appended to this model first, so that the key reflects the values the
+	 * path is evaluated with.
+	 */
+	protected String memoKey(String path, Arg... args) throws ContextException {
+		if (memo == null || path == null)
+			return null;
+		try {
+			// independent values are looked up as they are
+			Object val = data.get(path);
+			if (val instanceof Proc) {
+				Object arg = ((Proc) val).asis();
+				if (!(arg instanceof Evaluation || arg instanceof Invocation))
+					return null;
+			} else if (!(val instanceof Entry || val instanceof Evaluation || val instanceof Invocation)) {
+				return null;
+			}
+			append(args);
+		} catch (RemoteException e) {
+			throw new ContextException(e);
+		}
+		// the definition at the path is digested with the inputs it depends on
+		return ProcMemo.key(name + "/" + path, data.get(path), args, this);
+	}
+
+	/**
+	 * Memoizes the values of paths evaluated by this model in the given memo,
+	 * keyed by the path, the arguments and the definitions and values the
+	 * path depends on. With a disk-backed memo, sweeps over the model skip the points
+	 * evaluated by previous runs. A null memo turns memoization off.
+	 */
+	public ProcModel setMemo(ProcMemo memo) {
+		this.memo = memo;
+		return this;
+	}
+
+	public ProcMemo getMemo() {
+		return memo;
+	}
+
+	public void clearMemo() {
+		if (memo != null)
+			memo.clear();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
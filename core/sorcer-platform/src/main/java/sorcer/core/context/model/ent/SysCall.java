@@ -67,6 +67,14 @@ public class SysCall extends Proc<Context> implements Serializable {
 
         if (cmdarray != null)
             invoker.setCmdarray(cmdarray);
+
+        // run by a persistent worker reading the arguments as request lines
+        Object pooled = context.getValue("pooled");
+        if (Boolean.TRUE.equals(pooled))
+            invoker.setPooled(true);
+        Object timeout = context.getValue("timeout");
+        if (timeout instanceof Number)
+            invoker.setTimeout(((Number) timeout).longValue());
     }
 
     public Context getValue(Arg... args) throws RemoteException,
@@ -76,7 +84,19 @@ public class SysCall extends Proc<Context> implements Serializable {
             out = new ServiceContext(name);
 
         try {
-            if (invoker.getCmd() != null && inPaths.size() > 0) {
+            if (invoker.isPooled()) {
+                // send input arguments as the request, one per line
+                StringBuilder request = new StringBuilder();
+                for (String path : inPaths) {
+                    Object val = invoker.getScope().getValue(path);
+                    if (val == null || val == Context.none) {
+                        request.append(path).append('\n');
+                    } else {
+                        request.append(path).append('=').append(val).append('\n');
+                    }
+                }
+                invoker.setRequest(request.toString());
+            } else if (invoker.getCmd() != null && inPaths.size() > 0) {
                 // add input arguments
                 StringBuilder cmd = new StringBuilder(invoker.getCmd());
                 Object val = null;
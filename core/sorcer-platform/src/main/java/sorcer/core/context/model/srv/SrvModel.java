@@ -121,7 +121,15 @@ public class SrvModel extends ProcModel implements Invocation<Object> {
 
     @Override
     public Object getValue(String path, Arg... args) throws ContextException {
-        return getSrvValue(path, args);
+        String key = memoKey(path, args);
+        if (key == null)
+            return getSrvValue(path, args);
+        Object val = memo.get(key);
+        if (val == null) {
+            val = getSrvValue(path, args);
+            memo.put(key, val);
+        }
+        return val;
     }
 
     // calls from VarModels to call Srv args of Vars
@@ -370,7 +378,7 @@ public class SrvModel extends ProcModel implements Invocation<Object> {
     }
 
     public void execDependencies(String path, Arg... args) throws ContextException {
-        Map<String, List<DependencyEntry>> dpm = ((ModelStrategy)mogramStrategy).getDependentPaths();
+        Map<String, List<DependencyEntry>> dpm = getMogramStrategy().getDependentPaths();
         if (dpm != null && dpm.get(path) != null) {
             List<DependencyEntry> del = dpm.get(path);
             Entry entry = entry(path);
@@ -20,6 +20,7 @@ package sorcer.core.context.node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.core.context.ServiceContext;
+import sorcer.file.ChunkedDownload;
 import sorcer.service.Evaluation;
 import sorcer.service.EvaluationException;
 import sorcer.service.modeling.Variability;
@@ -159,21 +160,14 @@ public class ContextNode implements Serializable {
 		return myConnect.getInputStream();
 	}
 
+	/**
+	 * Downloads the data of this node in chunks, resuming a download of the
+	 * same data to the file that failed before.
+	 *
+	 * @see ChunkedDownload
+	 */
 	public void download(File outFile) throws IOException, ContextNodeException {
-		// open streams
-		InputStream inStream = openStream();
-		FileOutputStream outStream = new FileOutputStream(outFile);
-
-		// read
-		byte[] buffer = new byte[4096];
-		int bytesRead;
-		while ((bytesRead = inStream.read(buffer)) != -1) { // EOF
-			outStream.write(buffer, 0, bytesRead);
-		}
-
-		// close streams
-		outStream.close();
-		inStream.close();
+		ChunkedDownload.download(getURL(), outFile);
 	}
 
 	public void download(File outFile, URL url) throws IOException, ContextNodeException {
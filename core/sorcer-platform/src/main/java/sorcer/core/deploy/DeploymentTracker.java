@@ -0,0 +1,279 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.deploy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.ConfigurableThreadFactory;
+import sorcer.util.Sorcer;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Tracks the services of deployed {@link org.rioproject.opstring.OperationalString}s as they
+ * are added to and removed from the lookup services, so that callers wait for a deployment to
+ * become ready, or to be removed, on discovery events instead of polling the provision monitor.
+ * <p>
+ * Services are counted by the name of the OperationalString they were deployed with, and
+ * optionally by the type their proxies implement, so that a caller needing one service of a
+ * deployment does not wait for all others. The {@link ProvisionMonitorCache} passes the events
+ * of Rio services to the tracker; without a Rio deployment, {@link #serviceAdded(String, Object)}
+ * and {@link #serviceRemoved(String, Object)} may be called directly by a local stand-in for the
+ * monitor.
+ * <p>
+ * Timeouts of all returned futures are run by one shared scheduler, and the futures are
+ * completed in the thread that delivers the event.
+ */
+public class DeploymentTracker {
+    private static final Logger logger = LoggerFactory.getLogger(DeploymentTracker.class);
+
+    private static final ScheduledExecutorService scheduler;
+
+    static {
+        ConfigurableThreadFactory tf = new ConfigurableThreadFactory();
+        tf.setDaemon(true);
+        tf.setNameFormat("deployment-tracker-%2$d");
+        scheduler = Executors.newSingleThreadScheduledExecutor(tf);
+    }
+
+    // ids of the discovered services -> their proxies, per OperationalString name
+    private final Map<String, Map<Object, Object>> services = new HashMap<>();
+    private final Map<String, List<Waiter>> readyWaiters = new HashMap<>();
+    private final Map<String, List<Waiter>> removedWaiters = new HashMap<>();
+
+    private static class Waiter {
+        final String type;
+        final int planned;
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        Waiter(String type, int planned) {
+            this.type = type;
+            this.planned = planned;
+        }
+    }
+
+    /**
+     * Returns a future completed with {@code true} when the planned number of services of the
+     * OperationalString are discovered, or with {@code false} if they are not discovered within
+     * the timeout.
+     *
+     * @param name the name of the deployed OperationalString
+     * @param planned the number of service instances of a ready deployment
+     * @param timeout the timeout in milliseconds, 0 for none
+     */
+    public CompletableFuture<Boolean> whenReady(String name, int planned, long timeout) {
+        return whenReady(name, null, planned, timeout);
+    }
+
+    /**
+     * Returns a future completed with {@code true} when the planned number of services of the
+     * OperationalString implementing the type are discovered, or with {@code false} if they are
+     * not discovered within the timeout.
+     *
+     * @param name the name of the deployed OperationalString
+     * @param type the name of the class or interface implemented by the services, or null for
+     *             all services of the OperationalString
+     * @param planned the number of service instances awaited
+     * @param timeout the timeout in milliseconds, 0 for none
+     */
+    public CompletableFuture<Boolean> whenReady(String name, String type, int planned, long timeout) {
+        Waiter waiter = new Waiter(type, planned);
+        synchronized (this) {
+            if (count(name, type) >= waiter.planned) {
+                waiter.future.complete(true);
+                return waiter.future;
+            }
+            add(readyWaiters, name, waiter);
+        }
+        expire(readyWaiters, name, waiter, timeout);
+        return waiter.future;
+    }
+
+    /**
+     * Returns a future completed with {@code true} when no service of the OperationalString is
+     * known, or with {@code false} if services remain after the timeout.
+     *
+     * @param name the name of the undeployed OperationalString
+     * @param timeout the timeout in milliseconds, 0 for none
+     */
+    public CompletableFuture<Boolean> whenRemoved(String name, long timeout) {
+        Waiter waiter = new Waiter(null, 0);
+        synchronized (this) {
+            if (count(name) == 0) {
+                waiter.future.complete(true);
+                return waiter.future;
+            }
+            add(removedWaiters, name, waiter);
+        }
+        expire(removedWaiters, name, waiter, timeout);
+        return waiter.future;
+    }
+
+    public void serviceAdded(String name, Object serviceId) {
+        serviceAdded(name, serviceId, null);
+    }
+
+    /**
+     * Adds a discovered service of the OperationalString.
+     *
+     * @param service the proxy of the service, matched against the types awaited, or null
+     */
+    public void serviceAdded(String name, Object serviceId, Object service) {
+        List<Waiter> ready = new ArrayList<>();
+        synchronized (this) {
+            Map<Object, Object> ids = services.get(name);
+            if (ids == null) {
+                ids = new HashMap<>();
+                services.put(name, ids);
+            }
+            if (ids.containsKey(serviceId))
+                return;
+            ids.put(serviceId, service);
+            List<Waiter> waiters = readyWaiters.get(name);
+            if (waiters != null) {
+                for (Iterator<Waiter> it = waiters.iterator(); it.hasNext(); ) {
+                    Waiter waiter = it.next();
+                    if (count(name, waiter.type) >= waiter.planned) {
+                        ready.add(waiter);
+                        it.remove();
+                    }
+                }
+                if (waiters.isEmpty())
+                    readyWaiters.remove(name);
+            }
+        }
+        if (logger.isDebugEnabled())
+            logger.debug("Service {} of {} added, {} known", serviceId, name, count(name));
+        for (Waiter waiter : ready)
+            waiter.future.complete(true);
+    }
+
+    public void serviceRemoved(String name, Object serviceId) {
+        List<Waiter> removed = null;
+        synchronized (this) {
+            Map<Object, Object> ids = services.get(name);
+            if (ids == null || !ids.containsKey(serviceId))
+                return;
+            ids.remove(serviceId);
+            if (ids.isEmpty()) {
+                services.remove(name);
+                removed = removedWaiters.remove(name);
+            }
+        }
+        if (logger.isDebugEnabled())
+            logger.debug("Service {} of {} removed, {} known", serviceId, name, count(name));
+        if (removed != null) {
+            for (Waiter waiter : removed)
+                waiter.future.complete(true);
+        }
+    }
+
+    /**
+     * Returns the timeout in milliseconds set in seconds with the property.
+     */
+    public static long getTimeout(String property, int defaultSeconds) {
+        int seconds = defaultSeconds;
+        String value = Sorcer.getProperty(property);
+        if (value != null) {
+            try {
+                seconds = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {}: {}, using {} seconds", property, value, defaultSeconds);
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(seconds);
+    }
+
+    /**
+     * Returns the number of discovered services of the OperationalString.
+     */
+    public synchronized int count(String name) {
+        return count(name, null);
+    }
+
+    /**
+     * Returns the number of discovered services of the OperationalString implementing the type.
+     *
+     * @param type the name of the class or interface, or null to count all services
+     */
+    public synchronized int count(String name, String type) {
+        Map<Object, Object> ids = services.get(name);
+        if (ids == null)
+            return 0;
+        if (type == null)
+            return ids.size();
+        int count = 0;
+        for (Object service : ids.values()) {
+            if (service != null && isInstance(service.getClass(), type))
+                count++;
+        }
+        return count;
+    }
+
+    /*
+     * Proxies are loaded from the codebase of the service, so the type is matched by name
+     */
+    private static boolean isInstance(Class<?> cl, String type) {
+        for (Class<?> c = cl; c != null; c = c.getSuperclass()) {
+            if (c.getName().equals(type))
+                return true;
+            for (Class<?> i : c.getInterfaces()) {
+                if (isInstance(i, type))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static void add(Map<String, List<Waiter>> waiters, String name, Waiter waiter) {
+        List<Waiter> list = waiters.get(name);
+        if (list == null) {
+            list = new ArrayList<>();
+            waiters.put(name, list);
+        }
+        list.add(waiter);
+    }
+
+    private void expire(final Map<String, List<Waiter>> waiters, final String name,
+                        final Waiter waiter, long timeout) {
+        if (timeout <= 0)
+            return;
+        final ScheduledFuture<?> timer = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (DeploymentTracker.this) {
+                    List<Waiter> list = waiters.get(name);
+                    if (list != null) {
+                        list.remove(waiter);
+                        if (list.isEmpty())
+                            waiters.remove(name);
+                    }
+                }
+                if (waiter.future.complete(false))
+                    logger.warn("Timed out waiting for deployment {}, {} services known",
+                                name, count(name));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        waiter.future.whenComplete(new BiConsumer<Boolean, Throwable>() {
+            @Override
+            public void accept(Boolean ready, Throwable throwable) {
+                timer.cancel(false);
+            }
+        });
+    }
+}
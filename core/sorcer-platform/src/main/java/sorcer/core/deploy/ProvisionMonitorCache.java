@@ -17,29 +17,40 @@ package sorcer.core.deploy;
 
 import net.jini.admin.Administrable;
 import net.jini.core.discovery.LookupLocator;
+import net.jini.core.entry.Entry;
 import net.jini.core.lookup.ServiceItem;
 import net.jini.core.lookup.ServiceRegistrar;
 import net.jini.core.lookup.ServiceTemplate;
 import net.jini.discovery.*;
+import net.jini.lookup.ServiceDiscoveryEvent;
+import net.jini.lookup.ServiceDiscoveryListener;
 import net.jini.lookup.ServiceDiscoveryManager;
 import org.rioproject.config.Constants;
 import org.rioproject.deploy.DeployAdmin;
+import org.rioproject.entry.OperationalStringEntry;
 import org.rioproject.impl.client.JiniClient;
 import sorcer.util.Sorcer;
 
 import java.rmi.RemoteException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Utility to provide a cache of known {@link org.rioproject.monitor.ProvisionMonitor}s. This will be used by
  * classes that require a reference to available {@code ProvisionMonitor} instances, but do no want to go
  * through the overhead of discovery.
+ * <p>
+ * The cache also passes the lookup events of services deployed by Rio to the
+ * {@link DeploymentTracker}, so that deployments are awaited on discovery events.
  *
  * @author Dennis Reedy
  */
 public class ProvisionMonitorCache {
     private final net.jini.lookup.LookupCache cache;
+    private final net.jini.lookup.LookupCache deployedCache;
+    private final DeploymentTracker tracker = new DeploymentTracker();
+    private final Object monitorLock = new Object();
     private static final ProvisionMonitorCache instance = new ProvisionMonitorCache();
     private final Map<String, String> discoveryInfo = new HashMap<>();
     private static Listener listener;
@@ -73,7 +84,12 @@ public class ProvisionMonitorCache {
 
             cache = lookupMgr.createLookupCache(new ServiceTemplate(null, new Class[]{cl}, null),
                                                 null,
-                                                null);
+                                                new MonitorListener());
+            /* An OperationalStringEntry without a name matches the services of all deployments */
+            deployedCache = lookupMgr.createLookupCache(
+                    new ServiceTemplate(null, null, new Entry[]{new OperationalStringEntry()}),
+                    null,
+                    new DeployedListener());
         } catch (Exception e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -91,14 +107,18 @@ public class ProvisionMonitorCache {
         return discoveryInfo.get("locators");
     }
 
+    public DeploymentTracker getDeploymentTracker() {
+        return tracker;
+    }
+
     public DeployAdmin getDeployAdmin() {
         if(listener.monitor.get()!=null) {
             return listener.monitor.get();
         }
         DeployAdmin dAdmin = null;
-        int waited = 0;
-        int timeout = 60; /* We will timeout after 30 seconds */
-        while(dAdmin==null && waited < timeout) {
+        /* We will timeout after 30 seconds */
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while(dAdmin==null) {
             ServiceItem item = cache.lookup(null);
             if(item!=null) {
                 try {
@@ -106,18 +126,67 @@ public class ProvisionMonitorCache {
                 } catch (RemoteException e) {
                     e.printStackTrace();
                 }
-            } else {
+            }
+            long wait = deadline - System.currentTimeMillis();
+            if(dAdmin!=null || wait <= 0)
+                break;
+            synchronized (monitorLock) {
                 try {
-                    Thread.sleep(500);
-                    waited++;
+                    /* Notified when a monitor is discovered */
+                    if(cache.lookup(null)==null)
+                        monitorLock.wait(wait);
                 } catch (InterruptedException e) {
-                    e.printStackTrace();
+                    Thread.currentThread().interrupt();
+                    break;
                 }
             }
         }
         return dAdmin;
     }
 
+    private static String getOperationalStringName(ServiceItem item) {
+        if(item==null || item.attributeSets==null)
+            return null;
+        for(Entry entry : item.attributeSets) {
+            if(entry instanceof OperationalStringEntry)
+                return ((OperationalStringEntry)entry).name;
+        }
+        return null;
+    }
+
+    class MonitorListener implements ServiceDiscoveryListener {
+        public void serviceAdded(ServiceDiscoveryEvent event) {
+            synchronized (monitorLock) {
+                monitorLock.notifyAll();
+            }
+        }
+
+        public void serviceRemoved(ServiceDiscoveryEvent event) {
+        }
+
+        public void serviceChanged(ServiceDiscoveryEvent event) {
+        }
+    }
+
+    class DeployedListener implements ServiceDiscoveryListener {
+        public void serviceAdded(ServiceDiscoveryEvent event) {
+            ServiceItem item = event.getPostEventServiceItem();
+            String name = getOperationalStringName(item);
+            if(name!=null)
+                tracker.serviceAdded(name, item.serviceID, item.service);
+        }
+
+        public void serviceRemoved(ServiceDiscoveryEvent event) {
+            ServiceItem item = event.getPreEventServiceItem();
+            String name = getOperationalStringName(item);
+            if(name!=null)
+                tracker.serviceRemoved(name, item.serviceID);
+        }
+
+        public void serviceChanged(ServiceDiscoveryEvent event) {
+        }
+    }
+
     static class Listener implements DiscoveryListener {
         final AtomicReference<DeployAdmin> monitor = new AtomicReference<>();
         private Class<?> serviceType = org.rioproject.deploy.ProvisionManager.class;
@@ -22,6 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.core.exertion.Mograms;
 import sorcer.core.provider.Provider;
+import sorcer.core.provider.ProviderExecutor;
 import sorcer.service.*;
 
 import java.util.ArrayList;
@@ -34,7 +35,7 @@ import static sorcer.service.Exec.*;
 
 public class CatalogParallelDispatcher extends CatalogExertDispatcher {
     private final Logger logger = LoggerFactory.getLogger(CatalogParallelDispatcher.class);
-    protected ExecutorService executor = Executors.newCachedThreadPool();
+    protected ExecutorService executor;
 
     public CatalogParallelDispatcher(Job job,
             Set<Context> sharedContexts,
@@ -42,6 +43,7 @@ public class CatalogParallelDispatcher extends CatalogExertDispatcher {
             Provider provider,
             ProvisionManager provisionManager) {
 		super(job, sharedContexts, isSpawned, provider, provisionManager);
+        executor = ProviderExecutor.getExecutor(provider);
 	}
 
     @Override
@@ -25,8 +25,10 @@ import org.slf4j.LoggerFactory;
 import sorcer.co.tuple.Tuple2;
 import sorcer.core.DispatchResult;
 import sorcer.core.Dispatcher;
+import sorcer.core.context.ControlContext;
 import sorcer.core.context.Contexts;
 import sorcer.core.context.ServiceContext;
+import sorcer.core.context.TraceSpan;
 import sorcer.core.exertion.Mograms;
 import sorcer.core.monitor.MonitorUtil;
 import sorcer.core.monitor.MonitoringSession;
@@ -38,6 +40,8 @@ import javax.security.auth.Subject;
 import java.lang.reflect.Array;
 import java.rmi.RemoteException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static sorcer.service.Exec.*;
 
 @SuppressWarnings("rawtypes")
@@ -50,7 +54,8 @@ abstract public class ExertDispatcher implements Dispatcher {
 
     protected List<Mogram> inputXrts;
 
-	protected volatile int state = Exec.INITIAL;
+	// queued until executed
+	protected volatile int state = Exec.QUEUED;
 
     protected boolean isMonitored;
 
@@ -66,15 +71,31 @@ abstract public class ExertDispatcher implements Dispatcher {
 
     protected Provider provider;
 
-    protected static Map<Uuid, Dispatcher> dispatchers = new HashMap<Uuid, Dispatcher>();
+    protected static Map<Uuid, Dispatcher> dispatchers = new ConcurrentHashMap<Uuid, Dispatcher>();
 
 	protected ThreadGroup disatchGroup;
     protected ProvisionManager provisionManager;
 
+    // span of the job dispatch, and spans of the dispatched exertions
+    protected TraceSpan dispatchSpan;
+    private final Map<Uuid, TraceSpan> exertionSpans = new ConcurrentHashMap<Uuid, TraceSpan>();
+
     public static Map<Uuid, Dispatcher> getDispatchers() {
 		return dispatchers;
 	}
 
+    /**
+     * Returns the number of executing dispatchers in the given state.
+     */
+    public static int getDispatcherCount(int state) {
+        int count = 0;
+        for (Dispatcher dispatcher : dispatchers.values()) {
+            if (dispatcher instanceof ExertDispatcher && ((ExertDispatcher) dispatcher).getState() == state)
+                count++;
+        }
+        return count;
+    }
+
     public Provider getProvider() {
         return provider;
     }
@@ -107,6 +128,8 @@ abstract public class ExertDispatcher implements Dispatcher {
         if (xrt instanceof Job) {
             masterXrt = (ServiceExertion) ((Job) xrt).getMasterExertion();
         }
+        dispatchSpan = xrt.getControlContext().startSpan(TraceSpan.DISPATCHER,
+                xrt.getName() + " " + getClass().getSimpleName(), getProviderName());
         try {
             beforeParent(xrt);
             doExec(args);
@@ -124,6 +147,7 @@ abstract public class ExertDispatcher implements Dispatcher {
             } catch (Exception ce) {
                 logger.warn("Problem removing lease for : " + xrt.getName() + " " + Exec.State.name(xrt.getStatus()) , ce);
             }
+            xrt.getControlContext().endSpan(dispatchSpan, state == Exec.FAILED);
             dispatchers.remove(xrt.getId());
         }
     }
@@ -160,6 +184,11 @@ abstract public class ExertDispatcher implements Dispatcher {
         } catch (RemoteException e) {
             logger.warn("Exception on local call", e);
         }
+        ControlContext cc = ((ServiceExertion) exertion).getControlContext();
+        cc.joinTrace(xrt.getControlContext(), dispatchSpan);
+        TraceSpan span = cc.startSpan(TraceSpan.EXERTION, exertion.getName(), getProviderName());
+        if (span != null)
+            exertionSpans.put(exertion.getId(), span);
         ((ServiceExertion) exertion).startExecTime();
         exertion.setStatus(Exec.RUNNING);
 
@@ -167,6 +196,20 @@ abstract public class ExertDispatcher implements Dispatcher {
 
     protected void afterExec(Exertion result) throws ContextException, ExertionException {
         logger.debug("After exert {}", result);
+        // exertions dropped in space are still running
+        if (result.getStatus() != Exec.RUNNING) {
+            TraceSpan span = exertionSpans.remove(result.getId());
+            if (span != null)
+                ((ServiceExertion) result).getControlContext().endSpan(span, result.getStatus() == Exec.FAILED);
+        }
+    }
+
+    private String getProviderName() {
+        try {
+            return provider != null ? provider.getProviderName() : null;
+        } catch (RemoteException e) {
+            return null;
+        }
     }
 
     @Override
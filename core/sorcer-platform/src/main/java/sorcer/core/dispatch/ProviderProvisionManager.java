@@ -21,6 +21,7 @@ import net.jini.space.JavaSpace05;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.core.exertion.ExertionEnvelop;
+import sorcer.core.provider.ProviderExecutor;
 import sorcer.core.provider.Spacer;
 import sorcer.core.signature.NetSignature;
 import sorcer.ext.ProvisioningException;
@@ -52,14 +53,9 @@ public class ProviderProvisionManager {
         NetSignature sig = (NetSignature) exertion.getProcessSignature();
         // A hack to disable provisioning spacer itself
         if (!sig.getServiceType().getName().equals(Spacer.class.getName())) {
-            ThreadGroup provGroup = new ThreadGroup("spacer-provisioning");
-            provGroup.setDaemon(true);
-            provGroup.setMaxPriority(Thread.NORM_PRIORITY - 1);
-            Thread pThread = new Thread(provGroup, new ProvisionThread(
+            ProviderExecutor.getExecutor(spaceExertDispatcher.getProvider()).spawn(new ProvisionThread(
                     new SignatureElement(sig.getServiceType().getName(), sig.getProviderName().getName(),
-                            sig.getVersion(), sig, exertion, spaceExertDispatcher)
-            ), tName("Provisioner-" + exertion.getName()));
-            pThread.start();
+                            sig.getVersion(), sig, exertion, spaceExertDispatcher)));
         }
     }
 
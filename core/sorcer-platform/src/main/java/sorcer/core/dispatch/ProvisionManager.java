@@ -20,11 +20,11 @@ package sorcer.core.dispatch;
 import org.rioproject.deploy.DeployAdmin;
 import org.rioproject.impl.opstring.OpString;
 import org.rioproject.opstring.OperationalString;
-import org.rioproject.opstring.OperationalStringException;
 import org.rioproject.opstring.OperationalStringManager;
 import org.rioproject.opstring.ServiceElement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sorcer.core.deploy.DeploymentTracker;
 import sorcer.core.deploy.OperationalStringFactory;
 import sorcer.core.deploy.ProvisionMonitorCache;
 import sorcer.core.deploy.ServiceDeployment;
@@ -34,14 +34,20 @@ import sorcer.service.Signature;
 
 import java.rmi.RemoteException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 
+import static sorcer.core.SorcerConstants.*;
+
 /**
  * The {@code ProvisionManager} handles the dynamic creation of {@link OperationalString}s created
  * from {@link Exertion}s.
+ * <p>
+ * Deployed services are awaited on the lookup events passed to the {@link DeploymentTracker}
+ * rather than by polling the provision monitor, for at most the {@code provisioning.timeout}
+ * and {@code provisioning.undeploy.timeout} seconds.
  *
  * @author Dennis Reedy
  * @author Mike Sobolewski
@@ -89,25 +95,31 @@ public class ProvisionManager {
         if(!deployServices()) {
             return false;
         }
-        List<Callable<Boolean>> tasks = new ArrayList<>();
+        DeploymentTracker tracker = provisionMonitorCache.getDeploymentTracker();
+        long timeout = DeploymentTracker.getTimeout(P_PROVISIONING_TIMEOUT, PROVISIONING_TIMEOUT_DEFAULT);
+        Map<String, Future<Boolean>> ready = new LinkedHashMap<>();
         for (Map.Entry<ServiceDeployment.Unique, List<OperationalString>> entry : deployments.entrySet()) {
             for(OperationalString deployment : entry.getValue()) {
-                tasks.add(new DeploymentFutureTask(deployment));
+                int planned = 0;
+                for (ServiceElement elem : deployment.getServices())
+                    planned += elem.getPlanned();
+                ready.put(deployment.getName(), tracker.whenReady(deployment.getName(), planned, timeout));
             }
         }
-        final ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
-        final ExecutorCompletionService<Boolean> completionService = new ExecutorCompletionService<>(pool);
-        for(Callable<Boolean> task : tasks) {
-            completionService.submit(task);
-        }
         boolean deployed = true;
-        for(int i=0; i<tasks.size(); i++) {
+        for(Map.Entry<String, Future<Boolean>> entry : ready.entrySet()) {
             try {
-                if(!completionService.take().get()) {
+                if(!entry.getValue().get()) {
                     deployed = false;
+                } else if(logger.isDebugEnabled()) {
+                    logger.debug("Deployment {} is ready", entry.getKey());
                 }
-            } catch (InterruptedException | ExecutionException e) {
-                logger.warn("Might be an issue getting results", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DispatcherException("Interrupted waiting for deployment "+entry.getKey(), e);
+            } catch (ExecutionException e) {
+                logger.warn("Failed waiting for deployment [{}]", entry.getKey(), e);
+                deployed = false;
             }
         }
         return deployed;
@@ -218,14 +230,24 @@ public class ProvisionManager {
             logger.warn("Unable to undeploy, there is no known DeployAdmin ");
             return;
         }
+        DeploymentTracker tracker = provisionMonitorCache.getDeploymentTracker();
+        long timeout = DeploymentTracker.getTimeout(P_UNDEPLOY_TIMEOUT, UNDEPLOY_TIMEOUT_DEFAULT);
         List<String> removals = new ArrayList<>();
         for(String deploymentName : deploymentNames) {
             try {
                 deployAdmin.undeploy(deploymentName);
-                while(deployAdmin.hasDeployed(deploymentName)) {
-                    Thread.sleep(1000);
+                if(deployAdmin.hasDeployed(deploymentName)
+                   && !tracker.whenRemoved(deploymentName, timeout).get()) {
+                    logger.warn("Services of {} are still registered after {} ms", deploymentName, timeout);
+                }
+                if(deployAdmin.hasDeployed(deploymentName)) {
+                    logger.warn("Unable to undeploy {}, still deployed", deploymentName);
+                    continue;
                 }
                 removals.add(deploymentName);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             } catch (Exception e) {
                 logger.warn("Unable to undeploy "+deploymentName+", "+e.getMessage());
             }
@@ -284,85 +306,4 @@ public class ProvisionManager {
         return signatures;
     }
 
-    private class DeploymentFutureTask implements Callable<Boolean> {
-        final OperationalString deployment;
-
-        DeploymentFutureTask(final OperationalString deployment) {
-            this.deployment = deployment;
-        }
-
-        boolean waitForDeployment()  {
-            try {
-                OperationalStringManager mgr = null;
-                while(mgr==null) {
-                    try {
-                        mgr = deployAdmin.getOperationalStringManager(deployment.getName());
-                    } catch (OperationalStringException ignore) {}
-                    Thread.sleep(500);
-                }
-                Map<ServiceElement, Integer> deploy = new HashMap<>();
-                int total = 0;
-                for (ServiceElement elem: deployment.getServices()) {
-                    deploy.put(elem, 0);
-                    total += elem.getPlanned();
-                }
-                int deployed = 0;
-                int counter = 0;
-                List<String> deployedServices = new ArrayList<>();
-                while (deployed < total) {
-                    counter++;
-                    deployed = 0;
-                    for (Map.Entry<ServiceElement, Integer> entry: deploy.entrySet()) {
-                        int numDeployed = entry.getValue();
-                        ServiceElement elem = entry.getKey();
-                        if (numDeployed < elem.getPlanned()) {
-                            try {
-                                numDeployed = mgr.getServiceBeanInstances(elem).length;
-                                deploy.put(elem, numDeployed);
-                                if(counter % 50 == 0) {
-                                    if(logger.isDebugEnabled()) {
-                                        logger.debug(String.format(
-                                            "Service %s/%-12s is pending. Planned [%s], deployed [%d]",
-                                            elem.getOperationalStringName(),
-                                            elem.getName(),
-                                            elem.getPlanned(),
-                                            numDeployed));
-                                    }
-                                }
-                            } catch (OperationalStringException notReady) {
-                                if(logger.isTraceEnabled())
-                                    logger.trace(notReady.getMessage());
-                            }
-                        } else {
-                            String name = String.format("%s/%s", elem.getOperationalStringName(), elem.getName());
-                            if(!deployedServices.contains(name)) {
-                                if(logger.isDebugEnabled()) {
-                                    logger.debug(String.format(
-                                        "Service %s/%-12s is deployed. Planned [%s], deployed [%d]",
-                                        elem.getOperationalStringName(),
-                                        elem.getName(),
-                                        elem.getPlanned(),
-                                        numDeployed));
-                                }
-                                deployedServices.add(name);
-                            }
-                            deployed += elem.getPlanned();
-                        }
-                    }
-                    if (deployed < total) {
-                        Thread.sleep(500);
-                    }
-                }
-            } catch(Exception e) {
-                logger.warn("Failed waiting for deployment [{}]", deployment, e);
-                return false;
-            }
-            return true;
-        }
-
-        public Boolean call() throws Exception {
-            return waitForDeployment();
-        }
-    }
-
 }
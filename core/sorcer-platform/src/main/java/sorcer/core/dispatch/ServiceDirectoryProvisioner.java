@@ -31,6 +31,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.co.tuple.Tuple2;
 import sorcer.co.tuple.Tuple3;
+import sorcer.core.deploy.DeploymentTracker;
+import sorcer.core.deploy.ProvisionMonitorCache;
 import sorcer.core.signature.NetSignature;
 import sorcer.ext.Provisioner;
 import sorcer.ext.ProvisioningException;
@@ -44,8 +46,17 @@ import sorcer.util.rio.OpStringUtil;
 
 import java.rmi.RemoteException;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
+import static sorcer.core.SorcerConstants.PROVISIONING_TIMEOUT_DEFAULT;
+import static sorcer.core.SorcerConstants.P_PROVISIONING_TIMEOUT;
+
+/**
+ * Provisions services on demand from the OperationalStrings stored in the {@link ServiceDirectory}.
+ * A provisioned service is awaited on the lookup events passed to the {@link DeploymentTracker},
+ * for at most the {@code provisioning.timeout} seconds, and concurrent requests for the same
+ * service wait for the request in progress.
+ */
 public class ServiceDirectoryProvisioner implements Provisioner {
 
     private static Logger logger = LoggerFactory.getLogger(ServiceDirectoryProvisioner.class);
@@ -62,7 +73,10 @@ public class ServiceDirectoryProvisioner implements Provisioner {
     private int undeployIdleTime = UNDEPLOY_DEFAULT_IDLE_TIME;
 
 
-    private Set<Tuple3> provisioningQueue = Collections.synchronizedSet(new HashSet<Tuple3>());
+    private final long provisioningTimeout = DeploymentTracker.getTimeout(P_PROVISIONING_TIMEOUT,
+                                                                         PROVISIONING_TIMEOUT_DEFAULT);
+
+    private final ConcurrentMap<Tuple3, CompletableFuture<Object>> provisioningQueue = new ConcurrentHashMap<>();
 
     public ServiceDirectoryProvisioner() {
         String propIdleTime = SorcerEnv.getProperty("provisioning.idle.time");
@@ -94,23 +108,22 @@ public class ServiceDirectoryProvisioner implements Provisioner {
         String version = ((sig instanceof NetSignature) ? ((NetSignature)sig).getVersion() : null);
         logger.warn("called provision {} {} {}", typeName, version, name);
         Tuple3 provT = new Tuple3(typeName, (version!=null ? version : "NULL"), (name!=null ? name : "NULL"));
-        if (!provisioningQueue.contains(provT)) {
-            provisioningQueue.add(provT);
-        } else {
-            while (provisioningQueue.contains(provT)) {
-                logger.debug("already provisioning {} {} {}, waiting!!!", typeName, version, name);
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException ie) {
-                }
-            }
-            T service = null;
+        CompletableFuture<Object> inProgress = provisioningQueue.putIfAbsent(provT, new CompletableFuture<Object>());
+        if (inProgress != null) {
+            logger.debug("already provisioning {} {} {}, waiting", typeName, version, name);
             try {
-                service = (T) Accessor.get().getService(sig);
-            } catch (SignatureException e) {
-                throw new ProvisioningException(e);
+                return (T) inProgress.get(provisioningTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new ProvisioningException("Interrupted waiting for " + typeName + " " + name + " " + version);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ProvisioningException)
+                    throw (ProvisioningException) e.getCause();
+                throw new ProvisioningException(e.getCause().getMessage(), e.getCause());
+            } catch (TimeoutException e) {
+                throw new ProvisioningException("Timed out waiting for the provisioned service to appear: "
+                                                + typeName + " " + name + " " + version);
             }
-            if (service!=null) return service;
         }
 
 
@@ -156,17 +169,12 @@ public class ServiceDirectoryProvisioner implements Provisioner {
             if (classSource == null)
                 throw new ProvisioningException("OperationalString " + name + " doesn't contain definition for " + typeName + "@" + version);
             Class type = OpStringUtil.loadClass(classSource.value(), classSource.key());
-            int tries = 0;
-            while (tries < 8 && service == null) {
-                Thread.sleep(100);
-                Entry[] entries = new Entry[]{ new OperationalStringEntry(opStringName) };
-                ServiceTemplate template = new ServiceTemplate(null, new Class[]{type}, entries);
-                ServiceItem[] items = Accessor.get().getServiceItems(template, null);
-                if(items.length>0)
-                    service = (T) items[0].service;
-                tries++;
-            }
-            logger.debug(" Found: " + (service != null) + " after times: " + tries);
+            DeploymentTracker tracker = ProvisionMonitorCache.getInstance().getDeploymentTracker();
+            // only a service of the requested type is awaited, not the whole deployment
+            long start = System.currentTimeMillis();
+            if (tracker.whenReady(opStringName, typeName, 1, provisioningTimeout).get())
+                service = (T) lookup(type, opStringName);
+            logger.debug("Found: {} after {} ms", service != null, System.currentTimeMillis() - start);
             if (service == null) {
                 ServiceElement sEl = deploymentResult.getOperationalStringManager().getServiceElement(new String[]{typeName}, name);
                 if (sEl != null) {
@@ -174,16 +182,8 @@ public class ServiceDirectoryProvisioner implements Provisioner {
                     deploymentResult.getOperationalStringManager().increment(sEl, false, null);
                     //deploymentResult.getOperationalStringManager().redeploy(sEl, null, false, 0, null);
                     logger.warn("trying to redeploy {} {} {}", typeName, version, name);
-                    while (tries < 15 && service == null) {
-                        Thread.sleep(100);
-                        ServiceTemplate template = new ServiceTemplate(null,
-                                                                       new Class[]{type},
-                                                                       new Entry[]{new OperationalStringEntry(operationalString.getName())});
-                        ServiceItem[] items = Accessor.get().getServiceItems(template, null);
-                        if(items.length>0)
-                            service = (T)items[0].service;
-                        tries++;
-                    }
+                    if (tracker.whenReady(opStringName, typeName, tracker.count(opStringName, typeName) + 1, provisioningTimeout).get())
+                        service = (T) lookup(type, opStringName);
                 } else {
                     logger.warn("redeployment unsuccessful, getting operational string from RIO - null");
                 }
@@ -192,11 +192,13 @@ public class ServiceDirectoryProvisioner implements Provisioner {
             logger.warn(pe.getMessage());
             removeFromQueueAndThrowException(provT, pe.getMessage(), pe);
         } catch (Exception e) {
+            if (e instanceof InterruptedException)
+                Thread.currentThread().interrupt();
             logger.warn("OpString Error", e);
             removeFromQueueAndThrowException(provT, "Could not evaluate operational string", e);
         }
         if (service != null) {
-            provisioningQueue.remove(provT);
+            provisioningQueue.remove(provT).complete(service);
             return service;
         }
         else
@@ -205,8 +207,19 @@ public class ServiceDirectoryProvisioner implements Provisioner {
     }
 
     private void removeFromQueueAndThrowException(Tuple3 provTuple, String msg, Exception e) throws ProvisioningException {
-        provisioningQueue.remove(provTuple);
-        throw new ProvisioningException(msg, e);
+        ProvisioningException pe = new ProvisioningException(msg, e);
+        CompletableFuture<Object> provisioning = provisioningQueue.remove(provTuple);
+        if (provisioning != null)
+            provisioning.completeExceptionally(pe);
+        throw pe;
+    }
+
+    private Object lookup(Class type, String opStringName) {
+        ServiceTemplate template = new ServiceTemplate(null,
+                                                       new Class[]{type},
+                                                       new Entry[]{new OperationalStringEntry(opStringName)});
+        ServiceItem[] items = Accessor.get().getServiceItems(template, null);
+        return items.length > 0 ? items[0].service : null;
     }
 
 
@@ -33,6 +33,7 @@ import sorcer.core.loki.member.LokiMemberUtil;
 import sorcer.core.monitor.MonitorUtil;
 import sorcer.core.monitor.MonitoringSession;
 import sorcer.core.provider.Provider;
+import sorcer.core.provider.ProviderExecutor;
 import sorcer.core.provider.SpaceTaker;
 import sorcer.service.*;
 import sorcer.service.space.SpaceAccessor;
@@ -88,7 +89,7 @@ public class SpaceParallelDispatcher extends ExertDispatcher {
 
     @Override
     public void doExec(Arg... args) throws SignatureException, ExertionException {
-        new Thread(disatchGroup, new CollectResultThread(), tName("collect-" + xrt.getName())).start();
+        ProviderExecutor.getExecutor(provider).spawn(new CollectResultThread());
 
         for (Mogram mogram : inputXrts) {
             logger.info("Calling monSession.init from SpaceParallelDispatcher for: {}", mogram.getName());
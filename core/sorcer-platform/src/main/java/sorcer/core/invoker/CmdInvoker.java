@@ -23,9 +23,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.rmi.RemoteException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.StringTokenizer;
+
+import org.apache.commons.io.IOUtils;
 
 import sorcer.core.context.model.ent.Proc;
 import sorcer.core.context.model.ent.Entry;
@@ -37,6 +41,7 @@ import sorcer.util.exec.CommonsExecUtil;
 import sorcer.util.exec.ExecUtils;
 import sorcer.util.exec.ExecUtils.CmdResult;
 import sorcer.util.exec.NullInputStream;
+import sorcer.util.exec.ProcessPool;
 
 /**
  * @author Mike Sobolewski
@@ -51,6 +56,11 @@ public class CmdInvoker extends ServiceInvoker implements CmdInvoking {
 	private File logFile;
 	private InputStream stdin;
 	private boolean background = false;
+	// run by a persistent worker of the process pool
+	private boolean pooled = false;
+	private String request;
+	private long timeout;
+	private transient ProcessPool.LineHandler lineHandler;
 
 	{
 		defaultName = "cmdInvoker-";
@@ -163,7 +173,14 @@ public class CmdInvoker extends ServiceInvoker implements CmdInvoking {
 	public CmdResult getValue(Arg... entries) throws EvaluationException,
 			RemoteException {
 		CmdResult out = null;
-		if (scriptFile != null) {
+		if (pooled && scriptFile == null) {
+			try {
+				return execPooled();
+			} catch (Exception e) {
+				throw new EvaluationException("Pooled command invocation failed: "
+						+ (cmd != null ? cmd : Arrays.toString(cmdarray)), e);
+			}
+		} else if (scriptFile != null) {
 			try {
 				return execScript();
 			} catch (Exception se) {
@@ -259,6 +276,28 @@ public class CmdInvoker extends ServiceInvoker implements CmdInvoking {
 		return result;
 	}
 
+	/**
+	 * Sends the request to a persistent worker started with the command
+	 * instead of starting a process per invocation.
+	 *
+	 * @see ProcessPool
+	 */
+	public CmdResult execPooled() throws IOException, InterruptedException, EvaluationException {
+		String[] command = cmdarray;
+		if (command == null) {
+			if (cmd == null)
+				throw new EvaluationException("No args for CmdEvaluator!");
+			StringTokenizer st = new StringTokenizer(cmd);
+			command = new String[st.countTokens()];
+			for (int i = 0; st.hasMoreTokens(); i++)
+				command[i] = st.nextToken();
+		}
+		String input = request;
+		if (input == null && stdin != null)
+			input = IOUtils.toString(stdin, StandardCharsets.UTF_8);
+		return ProcessPool.getInstance().exec(command, input, lineHandler, timeout);
+	}
+
     public String getCmd() {
         return cmd;
     }
@@ -275,4 +314,36 @@ public class CmdInvoker extends ServiceInvoker implements CmdInvoking {
         this.cmdarray = cmdarray;
     }
 
+	public boolean isPooled() {
+		return pooled;
+	}
+
+	public void setPooled(boolean pooled) {
+		this.pooled = pooled;
+	}
+
+	public String getRequest() {
+		return request;
+	}
+
+	public void setRequest(String request) {
+		this.request = request;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Sets the handler receiving the output lines of pooled invocations as
+	 * they are read, instead of returning the output with the result.
+	 */
+	public void setLineHandler(ProcessPool.LineHandler lineHandler) {
+		this.lineHandler = lineHandler;
+	}
+
 }
@@ -220,6 +220,14 @@ public class GroovyInvoker<T> extends ServiceInvoker<T> {
 		shell = null;
 	}
 
+	public String getExpression() {
+		return expression;
+	}
+
+	public File getScriptFile() {
+		return scriptFile;
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getName() + ":" + name + ":" + expression;
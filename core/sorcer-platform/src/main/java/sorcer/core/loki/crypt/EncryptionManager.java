@@ -1,7 +1,7 @@
 /*
  * Copyright 2010 the original author or authors.
  * Copyright 2010 SorcerSoft.org.
- *  
+ *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
@@ -21,27 +21,66 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.crypto.*;
+import javax.crypto.spec.DESKeySpec;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 import java.io.*;
-import java.security.InvalidKeyException;
-import java.security.Key;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
 
 /**
- * The encryption manager class implements block, stream, and threaded pipe
- * encryption using DES, and AES encryption.
- * 
+ * The encryption manager class implements block, stream, and pipe encryption
+ * using AES in GCM mode, which authenticates the cipher text as well.
+ * <p>
+ * Data is encrypted in chunks of at most 64 KB, each with its own nonce and
+ * authentication tag, so that large payloads are processed in constant
+ * memory. The cipher text starts with a magic header followed by an 8 byte
+ * random nonce prefix, and each chunk is written as its length followed by the
+ * encrypted chunk. The chunk index and a final chunk flag are authenticated,
+ * so reordered or truncated cipher text is rejected.
+ * <p>
+ * Cipher text without the header was written with DES by earlier versions and
+ * is still decrypted, with a DES key derived from the same key agreement.
+ * Cipher instances are cached per thread and no helper threads are used.
+ *
  * @author Daniel Kerr
  */
 
 public class EncryptionManager implements EncryptionManagement {
 	// ----------------------------------------------------------------
 
-	/** buffer */
-	private byte[] buf = new byte[1024];
-	/** cipher for encryption */
-	private Cipher encryptionCipher;
-	/** cipher for decryption */
-	private Cipher decryptionCipher;
+	private static final byte[] MAGIC = { 'L', 'K', 'G', '1' };
+	private static final int CHUNK_SIZE = 64 * 1024;
+	private static final int NONCE_PREFIX = 8;
+	private static final int TAG_BITS = 128;
+	private static final int TAG_LENGTH = TAG_BITS / 8;
+	// the high bit of the chunk length marks the final chunk
+	private static final int FINAL = 0x80000000;
+
+	private static final SecureRandom random = new SecureRandom();
+
+	private static final ThreadLocal<Cipher> gcmCiphers = new ThreadLocal<Cipher>() {
+		@Override
+		protected Cipher initialValue() {
+			return getCipher("AES/GCM/NoPadding");
+		}
+	};
+
+	private static final ThreadLocal<Cipher> desCiphers = new ThreadLocal<Cipher>() {
+		@Override
+		protected Cipher initialValue() {
+			return getCipher("DES");
+		}
+	};
+
+	/** key for encryption and decryption */
+	private SecretKey key;
+	/** key of cipher text written by earlier versions */
+	private SecretKey legacyKey;
 
 	/** class logger */
 	private final static Logger logger = LoggerFactory.getLogger(EncryptionManager.class.getName());
@@ -49,27 +88,21 @@ public class EncryptionManager implements EncryptionManagement {
 	// ----------------------------------------------------------------
 
 	/**
-	 * Uses the <code>keyAgree</code> Key Agreement to create and initialize
-	 * both the encryption and decryption ciphers.
-	 * 
+	 * Uses the <code>keyAgree</code> Key Agreement to create the AES key, and
+	 * the DES key for decrypting cipher text of earlier versions.
+	 *
 	 * @param keyAgree
 	 *            the shared key key agreement for the creation of a common
 	 *            cipher
 	 */
 	public void init(KeyAgreement keyAgree) {
 		try {
-			Key myKey = keyAgree.generateSecret("DES");
-
-			encryptionCipher = Cipher.getInstance("DES");
-			encryptionCipher.init(Cipher.ENCRYPT_MODE, myKey);
-
-			decryptionCipher = Cipher.getInstance("DES");
-			decryptionCipher.init(Cipher.DECRYPT_MODE, myKey);
-		} catch (InvalidKeyException e) {
-			logger.error(e.toString());
-		} catch (NoSuchAlgorithmException e) {
-			logger.error(e.toString());
-		} catch (NoSuchPaddingException e) {
+			byte[] secret = keyAgree.generateSecret();
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret);
+			key = new SecretKeySpec(digest, "AES");
+			legacyKey = SecretKeyFactory.getInstance("DES").generateSecret(
+					new DESKeySpec(secret));
+		} catch (GeneralSecurityException e) {
 			logger.error(e.toString());
 		}
 	}
@@ -82,7 +115,7 @@ public class EncryptionManager implements EncryptionManagement {
 	 * @return <code>plaintext</code> encrypted to a byte array
 	 */
 	public byte[] encrypt(String plaintext) {
-		return encrypt(plaintext.getBytes());
+		return encrypt(plaintext.getBytes(StandardCharsets.UTF_8));
 	}
 
 	/**
@@ -91,57 +124,95 @@ public class EncryptionManager implements EncryptionManagement {
 	 * @return <code>plaintext</code> encrypted to a byte array
 	 */
 	public byte[] encrypt(byte[] plaintext) {
+		int chunks = Math.max(1, (plaintext.length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(MAGIC.length
+				+ NONCE_PREFIX + plaintext.length + chunks * (4 + TAG_LENGTH));
 		try {
-			return encryptionCipher.doFinal(plaintext);
-		} catch (BadPaddingException e) {
-			logger.error(e.toString());
-			return e.toString().getBytes();
-		} catch (IllegalBlockSizeException e) {
-			logger.error(e.toString());
-			return e.toString().getBytes();
+			encryptStream(new ByteArrayInputStream(plaintext), out, true);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
 		}
+		return out.toByteArray();
 	}
 
 	/**
 	 * @param in
 	 *            input stream to be encrypted
 	 * @param out
-	 *            output stream containing encrypted cipher text
+	 *            output stream containing encrypted cipher text, closed when
+	 *            done
 	 */
 	public void encryptStream(InputStream in, OutputStream out) {
 		try {
-			out = new CipherOutputStream(out, encryptionCipher);
+			encryptStream(in, out, true);
+		} catch (IOException e) {
+			logger.error(e.toString());
+		}
+	}
 
-			int numRead;
-			while ((numRead = in.read(buf)) >= 0) {
-				out.write(buf, 0, numRead);
+	private void encryptStream(InputStream in, OutputStream out, boolean close)
+			throws IOException {
+		byte[] prefix = new byte[NONCE_PREFIX];
+		random.nextBytes(prefix);
+		DataOutputStream dout = new DataOutputStream(out);
+		dout.write(MAGIC);
+		dout.write(prefix);
+
+		Cipher cipher = gcmCiphers.get();
+		byte[] buf = new byte[CHUNK_SIZE];
+		byte[] next = new byte[CHUNK_SIZE];
+		int length = readFully(in, buf);
+		int index = 0;
+		while (true) {
+			// read ahead to know if this chunk is the final one
+			int nextLength = length < CHUNK_SIZE ? -1 : readFully(in, next);
+			boolean last = nextLength <= 0;
+			try {
+				cipher.init(Cipher.ENCRYPT_MODE, key, nonce(prefix, index));
+				cipher.updateAAD(aad(index, last));
+				byte[] encrypted = cipher.doFinal(buf, 0, length);
+				dout.writeInt(last ? encrypted.length | FINAL : encrypted.length);
+				dout.write(encrypted);
+			} catch (GeneralSecurityException e) {
+				throw new IOException("Encryption failed", e);
 			}
-
-			out.close();
-		} catch (java.io.IOException e) {
+			if (last)
+				break;
+			byte[] tmp = buf;
+			buf = next;
+			next = tmp;
+			length = nextLength;
+			index++;
 		}
+		dout.flush();
+		if (close)
+			out.close();
 	}
 
 	/**
 	 * @param plaintext
 	 *            byte array containing text to be encrypted
-	 * @return Reader to the cipher text pipe
+	 * @return Reader of the cipher text lines: the bytes of each encrypted
+	 *         line of the plain text separated by commas
 	 */
 	public Reader encryptPipe(byte[] plaintext) {
+		StringBuilder sb = new StringBuilder();
+		BufferedReader lines = new BufferedReader(new StringReader(new String(plaintext, StandardCharsets.UTF_8)));
 		try {
-			PipedWriter enOut = new PipedWriter();
-			PipedReader enIn = new PipedReader(enOut);
-
-			EncryptThread et = new EncryptThread(enOut, encryptionCipher,
-					plaintext);
-			et.join();
-
-			return enIn;
-		} catch (InterruptedException e) {
+			String line;
+			while ((line = lines.readLine()) != null) {
+				byte[] ciph = encrypt(line.getBytes(StandardCharsets.UTF_8));
+				for (int j = 0; j < ciph.length; ++j) {
+					if (j > 0)
+						sb.append(',');
+					sb.append(ciph[j]);
+				}
+				sb.append('\n');
+			}
 		} catch (IOException e) {
+			// reading a string
 		}
-
-		return null;
+		return new StringReader(sb.toString());
 	}
 
 	// ----------------------------------------------------------------
@@ -152,66 +223,166 @@ public class EncryptionManager implements EncryptionManagement {
 	 * @return <code>ciphertext</code> decrypted to a byte array
 	 */
 	public byte[] decrypt(String ciphertext) {
-		return decrypt(ciphertext.getBytes());
+		return decrypt(ciphertext.getBytes(StandardCharsets.UTF_8));
 	}
 
 	/**
 	 * @param ciphertext
 	 *            byte array containing ciphertext to be decrypted
 	 * @return <code>ciphertext</code> decrypted to a byte array
+	 * @throws SecurityException
+	 *             if the cipher text was not encrypted with the key of this
+	 *             manager or was modified
 	 */
 	public byte[] decrypt(byte[] ciphertext) {
+		if (!hasMagic(ciphertext))
+			return decryptLegacy(ciphertext);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(ciphertext.length);
 		try {
-			return decryptionCipher.doFinal(ciphertext);
-		} catch (BadPaddingException e) {
-			logger.error(e.toString());
-			return e.toString().getBytes();
-		} catch (IllegalBlockSizeException e) {
-			logger.error(e.toString());
-			return e.toString().getBytes();
+			decryptStream(new ByteArrayInputStream(ciphertext), out, true);
+		} catch (AEADBadTagException e) {
+			// header bytes by chance in DES cipher text
+			return decryptLegacy(ciphertext);
+		} catch (IOException | GeneralSecurityException e) {
+			throw new SecurityException("Decryption failed", e);
 		}
+		return out.toByteArray();
 	}
 
 	/**
 	 * @param in
 	 *            input stream to be decrypted
 	 * @param out
-	 *            output stream containing decrypted plain text
+	 *            output stream containing decrypted plain text, closed when
+	 *            done
 	 */
 	public void decryptStream(InputStream in, OutputStream out) {
 		try {
-			in = new CipherInputStream(in, decryptionCipher);
-
-			int numRead;
-			while ((numRead = in.read(buf)) >= 0) {
-				out.write(buf, 0, numRead);
+			BufferedInputStream bin = new BufferedInputStream(in, MAGIC.length);
+			bin.mark(MAGIC.length);
+			byte[] header = new byte[MAGIC.length];
+			int read = readFully(bin, header);
+			bin.reset();
+			if (read == MAGIC.length && hasMagic(header)) {
+				decryptStream(bin, out, true);
+			} else {
+				in = new CipherInputStream(bin, legacyCipher());
+				byte[] buf = new byte[4096];
+				int numRead;
+				while ((numRead = in.read(buf)) >= 0) {
+					out.write(buf, 0, numRead);
+				}
+				out.close();
 			}
+		} catch (IOException | GeneralSecurityException e) {
+			logger.error(e.toString());
+		}
+	}
 
-			out.close();
-		} catch (java.io.IOException e) {
+	private void decryptStream(InputStream in, OutputStream out, boolean close)
+			throws IOException, GeneralSecurityException {
+		DataInputStream din = new DataInputStream(in);
+		byte[] header = new byte[MAGIC.length];
+		din.readFully(header);
+		byte[] prefix = new byte[NONCE_PREFIX];
+		din.readFully(prefix);
+
+		Cipher cipher = gcmCiphers.get();
+		byte[] buf = new byte[CHUNK_SIZE + TAG_LENGTH];
+		int index = 0;
+		boolean last = false;
+		while (!last) {
+			int length;
+			try {
+				length = din.readInt();
+			} catch (EOFException e) {
+				throw new IOException("Truncated cipher text", e);
+			}
+			last = (length & FINAL) != 0;
+			length &= ~FINAL;
+			if (length < TAG_LENGTH || length > buf.length)
+				throw new AEADBadTagException("Invalid chunk length: " + length);
+			din.readFully(buf, 0, length);
+			cipher.init(Cipher.DECRYPT_MODE, key, nonce(prefix, index));
+			cipher.updateAAD(aad(index, last));
+			out.write(cipher.doFinal(buf, 0, length));
+			index++;
 		}
+		out.flush();
+		if (close)
+			out.close();
 	}
 
 	/**
 	 * @param ciphertext
-	 *            byte array containing ciphertext to be decrypted
-	 * @return Reader to the plain text pipe
+	 *            byte array containing ciphertext lines, the bytes of each
+	 *            line separated by commas
+	 * @return Reader to the plain text lines
 	 */
 	public Reader decryptPipe(byte[] ciphertext) {
+		StringBuilder sb = new StringBuilder();
+		BufferedReader lines = new BufferedReader(new StringReader(new String(ciphertext, StandardCharsets.UTF_8)));
 		try {
-			PipedWriter deOut = new PipedWriter();
-			PipedReader deIn = new PipedReader(deOut);
+			String line;
+			while ((line = lines.readLine()) != null) {
+				String[] strArr = line.split(",");
+				byte[] cText = new byte[strArr.length];
+				for (int j = 0; j < strArr.length; ++j) {
+					cText[j] = Byte.valueOf(strArr[j]);
+				}
+				sb.append(new String(decrypt(cText), StandardCharsets.UTF_8)).append('\n');
+			}
+		} catch (IOException e) {
+			// reading a string
+		}
+		return new StringReader(sb.toString());
+	}
 
-			DecryptThread dt = new DecryptThread(deOut, decryptionCipher,
-					ciphertext);
-			dt.join();
+	// ----------------------------------------------------------------
 
-			return deIn;
-		} catch (InterruptedException e) {
-		} catch (IOException e) {
+	private byte[] decryptLegacy(byte[] ciphertext) {
+		try {
+			return legacyCipher().doFinal(ciphertext);
+		} catch (GeneralSecurityException e) {
+			throw new SecurityException("Decryption failed", e);
 		}
+	}
+
+	private Cipher legacyCipher() throws GeneralSecurityException {
+		Cipher cipher = desCiphers.get();
+		cipher.init(Cipher.DECRYPT_MODE, legacyKey);
+		return cipher;
+	}
+
+	private static boolean hasMagic(byte[] data) {
+		return data.length >= MAGIC.length
+				&& Arrays.equals(Arrays.copyOf(data, MAGIC.length), MAGIC);
+	}
+
+	private static GCMParameterSpec nonce(byte[] prefix, int index) {
+		byte[] iv = ByteBuffer.allocate(NONCE_PREFIX + 4).put(prefix).putInt(index).array();
+		return new GCMParameterSpec(TAG_BITS, iv);
+	}
 
-		return null;
+	private static byte[] aad(int index, boolean last) {
+		return ByteBuffer.allocate(5).putInt(index).put((byte) (last ? 1 : 0)).array();
+	}
+
+	private static int readFully(InputStream in, byte[] buf) throws IOException {
+		int length = 0;
+		int n;
+		while (length < buf.length && (n = in.read(buf, length, buf.length - length)) >= 0) {
+			length += n;
+		}
+		return length;
+	}
+
+	private static Cipher getCipher(String transformation) {
+		try {
+			return Cipher.getInstance(transformation);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(transformation + " is not supported", e);
+		}
 	}
 
 	// ----------------------------------------------------------------
@@ -0,0 +1,305 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider;
+
+import net.jini.id.Uuid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.context.ServiceContext;
+import sorcer.service.*;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the exertions a rendezvous provider runs at the same time by the
+ * number of jobs, the number of tasks in these jobs and the estimated size of
+ * the task contexts. An exertion over a limit waits until running exertions
+ * complete, at most for the admission timeout, and is then rejected with an
+ * {@link AdmissionException}. A limit of 0 disables the limit, and a timeout
+ * of 0 rejects exertions over the limits immediately.
+ * <p>
+ * A single exertion larger than a limit is admitted when nothing else is
+ * running, so that it is not rejected forever. Inner exertions of an admitted
+ * exertion, dispatched back to the provider while it runs, are admitted
+ * without taking a share of the limits: their tasks are reserved with the
+ * outer exertion, and waiting for them would deadlock it.
+ */
+public class AdmissionController {
+	private static final Logger logger = LoggerFactory.getLogger(AdmissionController.class);
+
+	// estimated bytes of values of unknown size
+	private static final int OBJECT_SIZE = 64;
+	private static final int MAX_DEPTH = 4;
+
+	private final int maxJobs;
+	private final int maxTasks;
+	private final long maxContextBytes;
+	private final long timeout;
+
+	private int jobs;
+	private int tasks;
+	private long contextBytes;
+	private int queued;
+	// admitted exertions by id, so that their inner exertions are admitted
+	private final Map<Uuid, Permit> running = new HashMap<Uuid, Permit>();
+	private final AtomicLong admitted = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * Reserved share of the limits, released when the exertion completes
+	 */
+	public final class Permit {
+		private final Uuid id;
+		private final int tasks;
+		private final long bytes;
+		// admitted with an outer exertion, taking no share of the limits
+		private final boolean nested;
+		private boolean released;
+
+		private Permit(Uuid id, int tasks, long bytes, boolean nested) {
+			this.id = id;
+			this.tasks = tasks;
+			this.bytes = bytes;
+			this.nested = nested;
+		}
+
+		public boolean isNested() {
+			return nested;
+		}
+
+		public void release() {
+			AdmissionController.this.release(this);
+		}
+	}
+
+	public AdmissionController(int maxJobs, int maxTasks, long maxContextBytes, long timeout) {
+		this.maxJobs = maxJobs;
+		this.maxTasks = maxTasks;
+		this.maxContextBytes = maxContextBytes;
+		this.timeout = timeout;
+	}
+
+	public boolean isEnabled() {
+		return maxJobs > 0 || maxTasks > 0 || maxContextBytes > 0;
+	}
+
+	/**
+	 * Admits the exertion, waiting for running exertions to complete if the
+	 * exertion is over a limit. The exertion is in the {@link Exec#QUEUED}
+	 * state while waiting. An exertion whose parent is running is admitted
+	 * at once.
+	 *
+	 * @return the permit to release when the exertion completes
+	 * @throws AdmissionException if the exertion is not admitted within the
+	 *                            admission timeout
+	 */
+	public Permit admit(Exertion exertion) throws AdmissionException {
+		if (!isEnabled()) {
+			admitted.incrementAndGet();
+			return new Permit(null, 0, 0, false);
+		}
+		Uuid parentId = exertion.getParentId();
+		if (parentId != null) {
+			synchronized (this) {
+				if (running.containsKey(parentId)) {
+					Permit permit = new Permit(exertion.getId(), 0, 0, true);
+					register(permit);
+					admitted.incrementAndGet();
+					return permit;
+				}
+			}
+		}
+
+		int taskCount = 0;
+		long bytes = 0;
+		if (maxTasks > 0 || maxContextBytes > 0) {
+			for (Mogram mogram : exertion.getAllMograms()) {
+				if (mogram instanceof Task) {
+					taskCount++;
+					if (maxContextBytes > 0)
+						bytes += estimate(((Task) mogram).getContext(), 0);
+				}
+			}
+		}
+		Permit permit = new Permit(exertion.getId(), taskCount, bytes, false);
+		long deadline = System.currentTimeMillis() + timeout;
+		int status = exertion.getStatus();
+		synchronized (this) {
+			boolean waiting = false;
+			try {
+				while (!fits(permit)) {
+					long wait = deadline - System.currentTimeMillis();
+					if (wait <= 0) {
+						rejected.incrementAndGet();
+						String msg = String.format(
+								"Admission rejected for %s: %d tasks, %d context bytes; running %d jobs, %d tasks, %d context bytes",
+								exertion.getName(), taskCount, bytes, jobs, tasks, contextBytes);
+						logger.warn(msg);
+						throw new AdmissionException(msg, exertion);
+					}
+					if (!waiting) {
+						waiting = true;
+						queued++;
+						exertion.setStatus(Exec.QUEUED);
+					}
+					try {
+						wait(wait);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						rejected.incrementAndGet();
+						throw new AdmissionException("Interrupted waiting for admission of "
+								+ exertion.getName(), exertion);
+					}
+				}
+			} finally {
+				if (waiting) {
+					queued--;
+					exertion.setStatus(status);
+				}
+			}
+			jobs++;
+			tasks += permit.tasks;
+			contextBytes += permit.bytes;
+			register(permit);
+		}
+		admitted.incrementAndGet();
+		return permit;
+	}
+
+	private boolean fits(Permit permit) {
+		if (jobs == 0)
+			return true;
+		return (maxJobs <= 0 || jobs + 1 <= maxJobs)
+				&& (maxTasks <= 0 || tasks + permit.tasks <= maxTasks)
+				&& (maxContextBytes <= 0 || contextBytes + permit.bytes <= maxContextBytes);
+	}
+
+	private void register(Permit permit) {
+		if (permit.id != null)
+			running.put(permit.id, permit);
+	}
+
+	private synchronized void release(Permit permit) {
+		if (permit.released || !isEnabled())
+			return;
+		permit.released = true;
+		if (permit.id != null)
+			running.remove(permit.id, permit);
+		if (permit.nested)
+			return;
+		jobs--;
+		tasks -= permit.tasks;
+		contextBytes -= permit.bytes;
+		notifyAll();
+	}
+
+	public int getMaxJobs() {
+		return maxJobs;
+	}
+
+	public int getMaxTasks() {
+		return maxTasks;
+	}
+
+	public long getMaxContextBytes() {
+		return maxContextBytes;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public synchronized int getRunningJobs() {
+		return jobs;
+	}
+
+	public synchronized int getInFlightTasks() {
+		return tasks;
+	}
+
+	public synchronized long getInFlightContextBytes() {
+		return contextBytes;
+	}
+
+	public synchronized int getQueuedJobs() {
+		return queued;
+	}
+
+	public long getAdmittedCount() {
+		return admitted.get();
+	}
+
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "AdmissionController jobs: " + jobs + "/" + maxJobs + ", tasks: " + tasks + "/" + maxTasks
+				+ ", context bytes: " + contextBytes + "/" + maxContextBytes + ", queued: " + queued
+				+ ", rejected: " + rejected.get();
+	}
+
+	/**
+	 * Returns a rough estimate of the memory taken by the value: the content of
+	 * arrays and strings, and a fixed size for other objects.
+	 */
+	static long estimate(Object value, int depth) {
+		if (value == null)
+			return 0;
+		if (depth > MAX_DEPTH)
+			return OBJECT_SIZE;
+		if (value instanceof String)
+			return 40 + 2L * ((String) value).length();
+		if (value instanceof Number || value instanceof Boolean || value instanceof Character)
+			return 16;
+		if (value instanceof ServiceContext)
+			return estimate(((ServiceContext<?>) value).getData(), depth + 1);
+		if (value instanceof Map) {
+			long size = OBJECT_SIZE;
+			for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet())
+				size += estimate(e.getKey(), depth + 1) + estimate(e.getValue(), depth + 1);
+			return size;
+		}
+		if (value instanceof Collection) {
+			long size = OBJECT_SIZE;
+			for (Object o : (Collection<?>) value)
+				size += estimate(o, depth + 1);
+			return size;
+		}
+		Class<?> type = value.getClass().getComponentType();
+		if (type == null)
+			return OBJECT_SIZE;
+		int length = Array.getLength(value);
+		if (type == byte.class || type == boolean.class)
+			return 16 + length;
+		if (type == char.class || type == short.class)
+			return 16 + 2L * length;
+		if (type == int.class || type == float.class)
+			return 16 + 4L * length;
+		if (type == long.class || type == double.class)
+			return 16 + 8L * length;
+		long size = 16 + 8L * length;
+		for (int i = 0; i < length; i++)
+			size += estimate(Array.get(value, i), depth + 1);
+		return size;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Counts the service operation calls of a provider. Counters are striped
+ * and calls in flight are kept in a concurrent registry, so that a call is
+ * accounted for without locks and in constant time regardless of how many
+ * calls run at the same time. Totals, latencies and concurrency are kept
+ * for the provider and for each operation, and are exposed through the
+ * provider's {@link ProviderAdminMBean}.
+ */
+public class CallAccounting {
+	private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+		@Override
+		public long applyAsLong(long left, long right) {
+			return Math.max(left, right);
+		}
+	};
+
+	private final AtomicLong idGenerator = new AtomicLong();
+
+	// calls in flight by call id
+	private final ConcurrentMap<Long, Call> inFlight = new ConcurrentHashMap<Long, Call>();
+
+	private final ConcurrentMap<String, OperationStats> operations = new ConcurrentHashMap<String, OperationStats>();
+
+	private final OperationStats total = new OperationStats();
+
+	/**
+	 * Starts accounting for a call of the operation.
+	 *
+	 * @return the id of the call, to be passed to {@link #end(long, boolean)}
+	 */
+	public long begin(String operation) {
+		OperationStats stats = stats(operation);
+		long id = idGenerator.incrementAndGet();
+		inFlight.put(id, new Call(stats, System.nanoTime()));
+		stats.begin();
+		total.begin();
+		return id;
+	}
+
+	/**
+	 * Ends accounting for the call.
+	 *
+	 * @return the duration of the call in nanoseconds, or -1 if the call is
+	 *         not in flight
+	 */
+	public long end(long id, boolean failed) {
+		Call call = inFlight.remove(id);
+		if (call == null)
+			return -1;
+		long nanos = System.nanoTime() - call.start;
+		call.stats.end(nanos, failed);
+		total.end(nanos, failed);
+		return nanos;
+	}
+
+	private OperationStats stats(String operation) {
+		OperationStats stats = operations.get(operation);
+		if (stats == null) {
+			OperationStats created = new OperationStats();
+			stats = operations.putIfAbsent(operation, created);
+			if (stats == null)
+				stats = created;
+		}
+		return stats;
+	}
+
+	public OperationStats getTotal() {
+		return total;
+	}
+
+	public OperationStats getStats(String operation) {
+		return operations.get(operation);
+	}
+
+	/**
+	 * Returns the statistics of each called operation, ordered by name.
+	 */
+	public Map<String, OperationStats> getOperationStats() {
+		return new TreeMap<String, OperationStats>(operations);
+	}
+
+	/**
+	 * Returns the ids of calls in flight.
+	 */
+	public List<Long> getInFlightIds() {
+		return new ArrayList<Long>(inFlight.keySet());
+	}
+
+	private static class Call {
+		final OperationStats stats;
+		final long start;
+
+		Call(OperationStats stats, long start) {
+			this.stats = stats;
+			this.start = start;
+		}
+	}
+
+	/**
+	 * Call counts, latency and concurrency gauges of an operation.
+	 */
+	public static class OperationStats {
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(MAX, 0);
+		private final AtomicInteger running = new AtomicInteger();
+		private final LongAccumulator peakRunning = new LongAccumulator(MAX, 0);
+
+		void begin() {
+			peakRunning.accumulate(running.incrementAndGet());
+		}
+
+		void end(long nanos, boolean failed) {
+			running.decrementAndGet();
+			record(nanos, failed);
+		}
+
+		void record(long nanos, boolean failed) {
+			calls.increment();
+			if (failed)
+				failures.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulate(nanos);
+		}
+
+		/**
+		 * Returns the number of completed calls.
+		 */
+		public long getCalls() {
+			return calls.sum();
+		}
+
+		public long getFailures() {
+			return failures.sum();
+		}
+
+		public int getRunning() {
+			return running.get();
+		}
+
+		public int getPeakRunning() {
+			return (int) peakRunning.get();
+		}
+
+		/**
+		 * Returns the average duration of completed calls in milliseconds.
+		 */
+		public double getAverageTime() {
+			long n = calls.sum();
+			return n == 0 ? 0 : (double) totalNanos.sum() / n / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		/**
+		 * Returns the longest duration of a call in milliseconds.
+		 */
+		public double getMaxTime() {
+			return (double) maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("calls: %d, failed: %d, running: %d, peak running: %d, "
+					+ "average time: %.3f [ms], max time: %.3f [ms]",
+					getCalls(), getFailures(), getRunning(), getPeakRunning(),
+					getAverageTime(), getMaxTime());
+		}
+	}
+}
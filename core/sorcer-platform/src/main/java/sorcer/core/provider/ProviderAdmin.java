@@ -19,11 +19,14 @@ import org.rioproject.impl.jmx.JMXConnectionUtil;
 import org.rioproject.impl.jmx.MBeanServerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sorcer.core.dispatch.ExertDispatcher;
+import sorcer.service.Exec;
 
 import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 import java.lang.management.ManagementFactory;
+import java.util.Map;
 
 /**
  * Implements ProviderMBean as a standard MBean
@@ -99,4 +102,105 @@ public class ProviderAdmin implements ProviderAdminMBean {
         logger.warn("Destroying {}", provider.getProviderName());
         provider.destroy();
     }
+
+    @Override public int getAdmissionMaxJobs() {
+        return admission() != null ? admission().getMaxJobs() : 0;
+    }
+
+    @Override public int getAdmissionMaxTasks() {
+        return admission() != null ? admission().getMaxTasks() : 0;
+    }
+
+    @Override public long getAdmissionMaxContextBytes() {
+        return admission() != null ? admission().getMaxContextBytes() : 0;
+    }
+
+    @Override public int getRunningJobs() {
+        return admission() != null ? admission().getRunningJobs() : 0;
+    }
+
+    @Override public int getQueuedJobs() {
+        return admission() != null ? admission().getQueuedJobs() : 0;
+    }
+
+    @Override public int getInFlightTasks() {
+        return admission() != null ? admission().getInFlightTasks() : 0;
+    }
+
+    @Override public long getInFlightContextBytes() {
+        return admission() != null ? admission().getInFlightContextBytes() : 0;
+    }
+
+    @Override public long getRejectedJobs() {
+        return admission() != null ? admission().getRejectedCount() : 0;
+    }
+
+    @Override public int getRunningDispatchers() {
+        return ExertDispatcher.getDispatcherCount(Exec.RUNNING);
+    }
+
+    @Override public int getExecutorActiveCount() {
+        return provider.getExecutor() != null ? provider.getExecutor().getActiveCount() : 0;
+    }
+
+    @Override public int getExecutorQueueDepth() {
+        return provider.getExecutor() != null ? provider.getExecutor().getQueueDepth() : 0;
+    }
+
+    @Override public long getServiceCalls() {
+        return calls().getTotal().getCalls();
+    }
+
+    @Override public long getFailedServiceCalls() {
+        return calls().getTotal().getFailures();
+    }
+
+    @Override public int getRunningServiceCalls() {
+        return calls().getTotal().getRunning();
+    }
+
+    @Override public int getPeakRunningServiceCalls() {
+        return calls().getTotal().getPeakRunning();
+    }
+
+    @Override public double getAverageServiceCallTime() {
+        return calls().getTotal().getAverageTime();
+    }
+
+    @Override public String[] getServiceOperationStats() {
+        Map<String, CallAccounting.OperationStats> stats = calls().getOperationStats();
+        String[] lines = new String[stats.size()];
+        int i = 0;
+        for (Map.Entry<String, CallAccounting.OperationStats> entry : stats.entrySet())
+            lines[i++] = entry.getKey() + ": " + entry.getValue();
+        return lines;
+    }
+
+    @Override public int getSessionCount() {
+        return provider.getSessions().size();
+    }
+
+    @Override public long getSessionHits() {
+        return sessions() != null ? sessions().getHits() : 0;
+    }
+
+    @Override public long getSessionMisses() {
+        return sessions() != null ? sessions().getMisses() : 0;
+    }
+
+    @Override public long getSessionEvictions() {
+        return sessions() != null ? sessions().getEvictions() : 0;
+    }
+
+    private SessionMap sessions() {
+        return provider.getSessionMap();
+    }
+
+    private CallAccounting calls() {
+        return provider.getCallAccounting();
+    }
+
+    private AdmissionController admission() {
+        return provider.getAdmissionController();
+    }
 }
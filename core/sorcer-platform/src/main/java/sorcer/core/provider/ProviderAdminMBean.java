@@ -32,4 +32,109 @@ public interface ProviderAdminMBean {
      * Destroy the Provider
      */
     void destroy();
+
+    /**
+     * Get the maximum number of jobs run at the same time, 0 if not limited
+     */
+    int getAdmissionMaxJobs();
+
+    /**
+     * Get the maximum number of tasks in jobs run at the same time, 0 if not limited
+     */
+    int getAdmissionMaxTasks();
+
+    /**
+     * Get the maximum estimated size of task contexts in jobs run at the same time, 0 if not limited
+     */
+    long getAdmissionMaxContextBytes();
+
+    /**
+     * Get the number of admitted jobs that are running
+     */
+    int getRunningJobs();
+
+    /**
+     * Get the number of jobs waiting for admission
+     */
+    int getQueuedJobs();
+
+    /**
+     * Get the number of tasks in admitted jobs
+     */
+    int getInFlightTasks();
+
+    /**
+     * Get the estimated size of task contexts in admitted jobs
+     */
+    long getInFlightContextBytes();
+
+    /**
+     * Get the number of jobs rejected because of admission limits
+     */
+    long getRejectedJobs();
+
+    /**
+     * Get the number of exertion dispatchers that are running
+     */
+    int getRunningDispatchers();
+
+    /**
+     * Get the number of tasks being executed by the provider's executor
+     */
+    int getExecutorActiveCount();
+
+    /**
+     * Get the number of tasks waiting for a worker of the provider's executor
+     */
+    int getExecutorQueueDepth();
+
+    /**
+     * Get the number of completed service operation calls
+     */
+    long getServiceCalls();
+
+    /**
+     * Get the number of service operation calls that failed
+     */
+    long getFailedServiceCalls();
+
+    /**
+     * Get the number of service operation calls in flight
+     */
+    int getRunningServiceCalls();
+
+    /**
+     * Get the largest number of service operation calls in flight at the same time
+     */
+    int getPeakRunningServiceCalls();
+
+    /**
+     * Get the average duration of service operation calls in milliseconds
+     */
+    double getAverageServiceCallTime();
+
+    /**
+     * Get the call counts, latencies and concurrency of each service operation
+     */
+    String[] getServiceOperationStats();
+
+    /**
+     * Get the number of open sessions
+     */
+    int getSessionCount();
+
+    /**
+     * Get the number of session lookups that found a session
+     */
+    long getSessionHits();
+
+    /**
+     * Get the number of session lookups that found no session
+     */
+    long getSessionMisses();
+
+    /**
+     * Get the number of sessions expired for inactivity
+     */
+    long getSessionEvictions();
 }
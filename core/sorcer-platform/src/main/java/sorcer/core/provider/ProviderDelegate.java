@@ -48,6 +48,8 @@ import sorcer.core.SorcerNotifierProtocol;
 import sorcer.core.analytics.AnalyticsRecorder;
 import sorcer.core.context.Contexts;
 import sorcer.core.context.ServiceContext;
+import sorcer.core.context.TraceSpan;
+import sorcer.core.context.model.ent.DataContext;
 import sorcer.core.context.model.ent.ProcModel;
 import sorcer.core.exertion.ExertionEnvelop;
 import sorcer.core.exertion.NetTask;
@@ -72,9 +74,11 @@ import sorcer.security.sign.TaskAuditor;
 import sorcer.security.util.SorcerPrincipal;
 import sorcer.service.*;
 import sorcer.service.jobber.JobberAccessor;
+import sorcer.service.modeling.Model;
 import sorcer.service.space.SpaceAccessor;
 import sorcer.service.txmgr.TransactionManagerAccessor;
 import sorcer.util.*;
+import sorcer.util.url.sos.SdbUtil;
 
 import javax.security.auth.Subject;
 import java.io.*;
@@ -190,6 +194,9 @@ public class ProviderDelegate {
 
 	protected boolean spaceSecurityEnabled = false;
 
+	/* return changed paths of task contexts only, when accepted by requestors */
+	protected boolean contextDeltaReturn = true;
+
 	private ThreadGroup namedGroup, interfaceGroup;
 
 	private int workerCount = Runtime.getRuntime().availableProcessors()/2;
@@ -307,6 +314,8 @@ public class ProviderDelegate {
 
 	private AnalyticsRecorder analyticsRecorder;
 
+	private final CallAccounting callAccounting = new CallAccounting();
+
 	/*
 	 * A nested class to hold the state information of the executing thread for
 	 * a served exertion.
@@ -501,6 +510,13 @@ public class ProviderDelegate {
             logger.warn("Problem getting {}.{}", ServiceProvider.COMPONENT, INTERFACE_ONLY, e);
         }
 
+        try {
+            contextDeltaReturn = (Boolean) jconfig.getEntry(ServiceProvider.COMPONENT, CONTEXT_DELTA_RETURN,
+                                                            boolean.class, true);
+        } catch (Exception e) {
+            logger.warn("Problem getting {}.{}", ServiceProvider.COMPONENT, CONTEXT_DELTA_RETURN, e);
+        }
+
         try {
 			spaceEnabled = (Boolean) jconfig.getEntry(ServiceProvider.COMPONENT, SPACE_ENABLED, boolean.class,
 					false);
@@ -805,6 +821,20 @@ public class ProviderDelegate {
 
 	public Task doTask(Task task, Transaction transaction, Arg... args)
 			throws MogramException, SignatureException, RemoteException {
+		TraceSpan span = task.getControlContext().startSpan(TraceSpan.PROVIDER,
+				task.getName(), provider.getProviderName());
+		Task out = null;
+		try {
+			out = doTracedTask(task, transaction, args);
+			return out;
+		} finally {
+			Task done = out != null ? out : task;
+			done.getControlContext().endSpan(span, out == null || out.getStatus() == Exec.FAILED);
+		}
+	}
+
+	private Task doTracedTask(Task task, Transaction transaction, Arg... args)
+			throws MogramException, SignatureException, RemoteException {
 		// prepare a default net batch task (has all sigs of PROC type)
 		// and make the last signature as master PROC type only.
 		task.correctBatchSignatures();
@@ -834,6 +864,8 @@ public class ProviderDelegate {
             logger.info("task " + task.getName() + " is valid");
 			try {
 				task.updateContext();
+				// the stored objects of the context are retrieved in batches
+				SdbUtil.prefetch(task.getContext());
 				task.startExecTime();
 				exertionStateTable.put(task.getId(), Exec.RUNNING);
 				if (((ServiceProvider) provider).isValidTask(task)) {
@@ -900,6 +932,62 @@ public class ProviderDelegate {
 		return (Task) forwardTask(task, provider);
 	}
 
+	/**
+	 * Starts tracking changes of the task data context if the requestor accepts
+	 * a delta return. Monitored tasks and model contexts are returned whole.
+	 *
+	 * @param mogram
+	 *            the mogram received by the provider
+	 * @return true if the data context of the task is tracked
+	 */
+	public boolean startContextDelta(Mogram mogram) {
+		if (!contextDeltaReturn || !(mogram instanceof Task))
+			return false;
+		Task task = (Task) mogram;
+		if (!task.getControlContext().isDeltaReturn() || task.isMonitorable())
+			return false;
+		try {
+			Context cxt = task.getDataContext();
+			if (cxt instanceof ServiceContext && !(cxt instanceof Model)
+					&& !(cxt instanceof DataContext)) {
+				((ServiceContext) cxt).startChangeTracking();
+				return true;
+			}
+		} catch (ContextException e) {
+			logger.warn("Unable to track context changes of: {}", task.getName(), e);
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces the data context of the executed task with its delta of changed
+	 * paths, returned to the requestor. If the task context has been replaced
+	 * during execution the whole context is returned.
+	 *
+	 * @param mogram
+	 *            the mogram returned to the requestor
+	 * @return the mogram
+	 */
+	public Mogram completeContextDelta(Mogram mogram) {
+		if (!(mogram instanceof Task))
+			return mogram;
+		try {
+			Context cxt = ((Task) mogram).getDataContext();
+			if (cxt instanceof ServiceContext && ((ServiceContext) cxt).isChangeTracked()) {
+				((Task) mogram).setContext(((ServiceContext) cxt).createDelta());
+				logger.debug("returning context delta for: {}", mogram.getName());
+			}
+		} catch (ContextException e) {
+			logger.warn("Unable to prepare context delta of: {}", mogram.getName(), e);
+			try {
+				((ServiceContext) ((Task) mogram).getDataContext()).clearDelta();
+			} catch (ContextException ex) {
+				// ignore it, the context is not available
+			}
+		}
+		return mogram;
+	}
+
 	private Context apdProcess(Task task) throws ExertionException, SignatureException, ContextException {
 		return processContinousely(task, task.getApdProcessSignatures());
 	}
@@ -1415,6 +1503,8 @@ public class ProviderDelegate {
 			int id = 0;
             if(monitored)*/
             int id = analyticsRecorder.inprocess(selector);
+			long callId = callAccounting.begin(selector);
+			boolean failed = true;
 			try {
 				if (isContextual) {
 					result = (ServiceContext) execMethod.invoke(provider, args);
@@ -1427,13 +1517,16 @@ public class ProviderDelegate {
 					sc.setReturnValue(execMethod.invoke(provider, args));
 					result = sc;
 				}
-				if(result.getExceptions().size()>0)
+				failed = result.getExceptions().size()>0;
+				if(failed)
 					analyticsRecorder.failed(selector, id);
 				else
 					analyticsRecorder.completed(selector, id);
 			} catch(Exception e) {
 				analyticsRecorder.failed(selector, id);
                 throw e;
+			} finally {
+				callAccounting.end(callId, failed);
 			}
 
 			return result;
@@ -2691,6 +2784,10 @@ public class ProviderDelegate {
 		return analyticsRecorder;
 	}
 
+	CallAccounting getCallAccounting() {
+		return callAccounting;
+	}
+
 	/**
 	 * Returns the exporter to use to export this server.
 	 * <p>
@@ -3328,4 +3425,6 @@ public class ProviderDelegate {
 
 	public static final String INTERFACE_ONLY = "matchInterfaceOnly";
 
+	public static final String CONTEXT_DELTA_RETURN = "contextDeltaReturn";
+
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.ConfigurableThreadFactory;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static sorcer.util.StringUtils.tName;
+
+/**
+ * The provider-wide executor used by rendezvous beans and exertion dispatchers
+ * instead of starting a thread per job or creating a pool per dispatcher.
+ * <p>
+ * The executor is bounded by the pool size. Dispatchers wait for the exertions
+ * they submit, so with the default <code>callerRuns</code> policy a task that
+ * finds no idle worker runs in the submitting thread, which can not deadlock
+ * nested jobs. With the <code>queue</code> policy tasks wait in a bounded
+ * queue and the submitting thread runs them when the queue is full. With
+ * virtual threads, available in Java 21 and later, each task gets its own
+ * virtual thread and the pool size is not used.
+ * <p>
+ * Queued tasks wait for workers that may themselves wait for queued tasks, so
+ * the <code>queue</code> policy should be used only if jobs are not nested.
+ */
+public class ProviderExecutor extends AbstractExecutorService {
+	private static final Logger logger = LoggerFactory.getLogger(ProviderExecutor.class);
+
+	public static final String CALLER_RUNS = "callerRuns";
+	public static final String QUEUE = "queue";
+
+	private static ProviderExecutor defaultExecutor;
+
+	private final ExecutorService executor;
+	private final ThreadPoolExecutor pool;
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong callerRuns = new AtomicLong();
+	private final AtomicLong overflows = new AtomicLong();
+	// set while spawning tasks that must not run in the submitting thread
+	private final ThreadLocal<Boolean> spawning = new ThreadLocal<Boolean>();
+	private ConfigurableThreadFactory overflowFactory;
+
+	public ProviderExecutor(String name, int poolSize, String queuePolicy,
+			int queueSize, boolean virtualThreads) {
+		ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+		if (virtual != null) {
+			executor = virtual;
+			pool = null;
+		} else {
+			ConfigurableThreadFactory tf = new ConfigurableThreadFactory();
+			tf.setDaemon(true);
+			tf.setNameFormat(tName(name + "-exec-%2$d"));
+			tf.setThreadGroup(ProviderDelegate.threadGroup);
+			BlockingQueue<Runnable> queue = QUEUE.equals(queuePolicy) && queueSize > 0
+					? new LinkedBlockingQueue<Runnable>(queueSize)
+					: new SynchronousQueue<Runnable>();
+			pool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+					queue, tf, new RejectedExecutionHandler() {
+				@Override
+				public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+					if (executor.isShutdown())
+						throw new RejectedExecutionException("Executor is shut down");
+					if (Boolean.TRUE.equals(spawning.get())) {
+						overflows.incrementAndGet();
+						overflowFactory.newThread(r).start();
+					} else {
+						callerRuns.incrementAndGet();
+						r.run();
+					}
+				}
+			});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+			overflowFactory = new ConfigurableThreadFactory();
+			overflowFactory.setDaemon(true);
+			overflowFactory.setNameFormat(tName(name + "-spawn-%2$d"));
+			overflowFactory.setThreadGroup(ProviderDelegate.threadGroup);
+		}
+		logger.info("{} executor: poolSize={}, queuePolicy={}, queueSize={}, virtualThreads={}",
+				name, poolSize, queuePolicy, queueSize, virtual != null);
+	}
+
+	/**
+	 * Returns the executor of the provider, or an executor shared by local
+	 * dispatchers if the provider is not a {@link ServiceProvider}.
+	 */
+	public static ProviderExecutor getExecutor(Provider provider) {
+		if (provider instanceof ServiceProvider) {
+			ProviderExecutor executor = ((ServiceProvider) provider).getExecutor();
+			if (executor != null)
+				return executor;
+		}
+		return getDefault();
+	}
+
+	public static synchronized ProviderExecutor getDefault() {
+		if (defaultExecutor == null)
+			defaultExecutor = new ProviderExecutor("local",
+					4 * Runtime.getRuntime().availableProcessors(), CALLER_RUNS, 0, false);
+		return defaultExecutor;
+	}
+
+	@Override
+	public void execute(final Runnable command) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				active.incrementAndGet();
+				try {
+					command.run();
+				} finally {
+					active.decrementAndGet();
+					completed.incrementAndGet();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Executes the command asynchronously, for commands the submitting thread
+	 * does not wait for, or that must run concurrently with it. If no worker is
+	 * available the command runs in a new thread.
+	 */
+	public void spawn(Runnable command) {
+		spawning.set(Boolean.TRUE);
+		try {
+			execute(command);
+		} finally {
+			spawning.remove();
+		}
+	}
+
+	/**
+	 * Returns the number of tasks waiting for a worker.
+	 */
+	public int getQueueDepth() {
+		return pool != null ? pool.getQueue().size() : 0;
+	}
+
+	/**
+	 * Returns the number of tasks being executed, including tasks run by the
+	 * submitting threads.
+	 */
+	public int getActiveCount() {
+		return active.get();
+	}
+
+	public int getPoolSize() {
+		return pool != null ? pool.getPoolSize() : active.get();
+	}
+
+	public long getCompletedCount() {
+		return completed.get();
+	}
+
+	/**
+	 * Returns the number of tasks run by the submitting threads because no
+	 * worker was available.
+	 */
+	public long getCallerRunsCount() {
+		return callerRuns.get();
+	}
+
+	/**
+	 * Returns the number of spawned tasks run in new threads because no worker
+	 * was available.
+	 */
+	public long getOverflowCount() {
+		return overflows.get();
+	}
+
+	@Override
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return executor.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return executor.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+
+	@Override
+	public String toString() {
+		return "ProviderExecutor active: " + getActiveCount() + ", pool: " + getPoolSize()
+				+ ", queued: " + getQueueDepth() + ", completed: " + getCompletedCount()
+				+ ", caller runs: " + getCallerRunsCount() + ", overflows: " + getOverflowCount();
+	}
+
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			logger.warn("Virtual threads are not supported by this JVM, using a thread pool");
+			return null;
+		}
+	}
+}
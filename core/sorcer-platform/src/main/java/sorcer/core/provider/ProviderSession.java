@@ -14,7 +14,7 @@ import java.util.List;
 
 public class ProviderSession extends ServiceContext implements ServiceSession {
 
-    private long lastAccessedTime;
+    private volatile long lastAccessedTime;
     
     private int maxInactiveInterval;
 
@@ -179,6 +179,14 @@ public class ProviderSession extends ServiceContext implements ServiceSession {
     public Uuid getId() {
         return id;
     }
+
+    /**
+     * Marks this session accessed by a request.
+     */
+    void touch() {
+        lastAccessedTime = System.currentTimeMillis();
+    }
+
     /**
      * Invalidates this session then unbinds any objects bound to it.
      */
@@ -28,7 +28,9 @@ import net.jini.core.entry.Entry;
 import net.jini.core.lookup.ServiceID;
 import net.jini.core.transaction.Transaction;
 import net.jini.core.transaction.TransactionException;
+import net.jini.discovery.DiscoveryEvent;
 import net.jini.discovery.DiscoveryGroupManagement;
+import net.jini.discovery.DiscoveryListener;
 import net.jini.discovery.LookupDiscoveryManager;
 import net.jini.export.ProxyAccessor;
 import net.jini.id.ReferentUuid;
@@ -50,11 +52,13 @@ import sorcer.core.analytics.MethodAnalytics;
 import sorcer.core.analytics.SystemAnalytics;
 import sorcer.core.context.ControlContext;
 import sorcer.core.context.ServiceContext;
+import sorcer.core.context.TraceSink;
 import sorcer.core.exertion.NetTask;
 import sorcer.core.proxy.Outer;
 import sorcer.core.proxy.Partner;
 import sorcer.core.proxy.Partnership;
 import sorcer.core.signature.ServiceSignature;
+import sorcer.resolver.SorcerResolver;
 import sorcer.scratch.ScratchManager;
 import sorcer.scratch.ScratchManagerSupport;
 import sorcer.service.*;
@@ -69,6 +73,7 @@ import sorcer.util.url.sos.SdbURLStreamHandlerFactory;
 import javax.security.auth.Subject;
 import javax.security.auth.login.LoginContext;
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.net.*;
 import java.rmi.NoSuchObjectException;
 import java.rmi.Remote;
@@ -216,6 +221,12 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 
 	protected ScheduledExecutorService scheduler;
 
+	// shared by rendezvous beans and exertion dispatchers
+	protected ProviderExecutor executor;
+
+	// limits exertions run by rendezvous beans
+	protected AdmissionController admissionController;
+
 	// a service bean used for local execution in this container
 	protected Object bean;
 
@@ -226,7 +237,7 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 		providers.add(this);
 		delegate = new ProviderDelegate();
 		delegate.provider = this;
-		sessions = new ConcurrentHashMap<Uuid, ServiceSession>();
+		sessions = new SessionMap(ProviderDelegate.KEEP_ALIVE_TIME);
 		logger.info("\n\t<init> providers.size() = " + providers.size()
 				+ "\n\t<init> providers = " + providers
 				+ "\n\t<init> this.getName = " + this.getName());
@@ -872,7 +883,7 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 			logger.info(">>>LookupDiscoveryManager with groups: "
 					+ Arrays.toString(groups) + "\nlocators: "
 					+ Arrays.toString(locs));
-			ldmgr = new LookupDiscoveryManager(groups, locs, null);
+			ldmgr = new LookupDiscoveryManager(groups, locs, new RegistrationReporter());
 			/* registers provider's proxy so this provider is discoverable or not*/
 			boolean discoveryEnabled = (Boolean) Config.getNonNullEntry(
 					delegate.getDeploymentConfig(), COMPONENT, ProviderDelegate.DISCOVERY_ENABLED,
@@ -1270,22 +1281,26 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 		return delegate.getAnalyticsRecorder().getSystemAnalytics();
 	}
 
-	protected synchronized void doTimeKeeping(double callTimeSec) {
-		totalCallTime += callTimeSec;
-		avgExecTime = totalCallTime / numCalls;
-		logger.info("execution time = " + (callTimeSec) + " [s]");
-		logger.info("average execution time = " + (avgExecTime) + " [s]");
+	/**
+	 * Call times are accounted for by {@link #doThreadMonitor(String)}, see
+	 * {@link #getCallAccounting()}.
+	 */
+	protected void doTimeKeeping(double callTimeSec) {
+		if (logger.isDebugEnabled())
+			logger.debug("execution time = {} [s]", callTimeSec);
 	}
 
-	// fields for thread metrics
-	//
-	private int numThreads = 0;
-	private List<String> threadIds = new ArrayList<>();
-	private int numCalls = 0;
-	private double avgExecTime = 0;
-	private double totalCallTime = 0;
+	// operation name of calls accounted for by doThreadMonitor
+	private static final String SERVICE_OP = "service op";
+
+	/**
+	 * Returns the accounting of service operation calls of this provider.
+	 */
+	public CallAccounting getCallAccounting() {
+		return delegate.getCallAccounting();
+	}
 
-	public synchronized String getThreadStatus() {
+	public String getThreadStatus() {
 
 		String host = "unknown";
 		try {
@@ -1293,33 +1308,25 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 		} catch (UnknownHostException e) {
 			e.printStackTrace();
 		}
+		CallAccounting.OperationStats total = getCallAccounting().getTotal();
 		String msg =   "host ip address             = " + host + " "
-				   + "\ntotal service op calls      = " + numCalls + " "
-				   + "\nservice op calls running    = "	+ numThreads + " "
-				   + "\nservice op call ids running = " + threadIds + " "
-		           + "\naverage exec time [s]       = " + avgExecTime;
+				   + "\ntotal service op calls      = " + total.getCalls() + " "
+				   + "\nservice op calls running    = "	+ total.getRunning() + " "
+				   + "\nservice op call ids running = " + getCallAccounting().getInFlightIds() + " "
+		           + "\naverage exec time [s]       = " + total.getAverageTime() / 1000;
         return msg;
 	}
 
-	public synchronized String doThreadMonitor(String serviceIdString) {
-		String prefix;
-		if (serviceIdString == null) {
-			numCalls++;
-			numThreads++;
-			prefix = "adding service op call";
-			serviceIdString = Integer.toString(numCalls);
-			threadIds.add(serviceIdString);
-		} else {
-			numThreads--;
-			prefix = "subtracting service op call";
-			threadIds.remove(serviceIdString);
-		}
-		logger.info("\n\n***provider class = " + this.getClass()
-				+ "\n***" + prefix + ": total service op calls = " + numCalls
-				+ "\n***" + prefix + ": number of service op calls running = "
-				+ numThreads + "\n***" + prefix + ": service op call ids running = "
-				+ threadIds + "\n");
-
+	/**
+	 * Starts accounting for a service operation call when
+	 * <code>serviceIdString</code> is null, and ends it otherwise.
+	 *
+	 * @return the id of the call
+	 */
+	public String doThreadMonitor(String serviceIdString) {
+		if (serviceIdString == null)
+			return Long.toString(getCallAccounting().begin(SERVICE_OP));
+		getCallAccounting().end(Long.parseLong(serviceIdString), false);
 		return serviceIdString;
 	}
 
@@ -1515,6 +1522,8 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 			ExertionException, RemoteException {
 		if (mogram instanceof Task) {
 			ServiceContext cxt;
+			// track changed paths to return them only
+			delegate.startContextDelta(mogram);
 			try {
 				cxt = (ServiceContext) mogram.getDataContext();
 				cxt.updateContextWith(mogram.getProcessSignature().getInConnector());
@@ -1526,7 +1535,7 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 					sessions.put(id, ps);
 				}
 				if (bean != null) {
-                    return delegate.exertBeanTask((Task) mogram, bean, args);
+                    return delegate.completeContextDelta(delegate.exertBeanTask((Task) mogram, bean, args));
                 }
 			} catch (ContextException e) {
 				e.printStackTrace();
@@ -1566,11 +1575,13 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 		Exertion out = exertion;
 		try {
 			out = doExertion(exertion, txn);
+		} catch (AdmissionException e) {
+			throw e;
 		} catch (Exception e) {
 			logger.error("{} failed", getProviderName(), e);
 			out.reportException(new ExertionException(getProviderName() + " failed", e));
 		}
-		return out;
+		return delegate.completeContextDelta(out);
 	}
 
 	// TODO in/out/inout marking as defined in the inConnector
@@ -1790,7 +1801,7 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 	 * @see Provider#destroy()
 	 */
 	public void destroy() {
-		// stop KeepAwake thread
+		// destroy only once
 		if (!running.compareAndSet(true, false)) {
 			logger.debug("destroy called another time");
 			return;
@@ -1816,6 +1827,10 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 			logger.debug("destroyed provider: {} providers left: {}" + getProviderName(), tally);
 			//if (threadManager != null)
 			//	threadManager.terminate();
+			if (executor != null)
+				executor.shutdown();
+			// opened again by spans of other providers in this JVM
+			TraceSink.close();
 
 			unexport(true);
 			if(providerAdmin!=null)
@@ -1936,6 +1951,9 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 		tf.setNameFormat(tName(getName()) + "-init-%2$s");
 		tf.setThreadGroup(ProviderDelegate.threadGroup);
 		scheduler = Executors.newScheduledThreadPool(1, tf);
+		setupExecutor(config);
+		setupAdmission(config);
+		setupSessions(config);
 		logger.info("threadManagement: " + threadManagement);
 		if (!threadManagement) {
 			return;
@@ -1990,6 +2008,105 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 		//threadManager = new TaskManager(maxThreads, timeout, loadFactor);
 	}
 
+	private void setupExecutor(Configuration config) {
+		executor = createExecutor(getName(), config);
+	}
+
+	/**
+	 * Creates the executor of a provider from the executor entries of its
+	 * configuration, using defaults for missing or invalid entries.
+	 */
+	static ProviderExecutor createExecutor(String name, Configuration config) {
+		int poolSize = 4 * Runtime.getRuntime().availableProcessors();
+		String queuePolicy = ProviderExecutor.CALLER_RUNS;
+		int queueSize = 0;
+		boolean virtualThreads = false;
+		try {
+			poolSize = (Integer) config.getEntry(ServiceProvider.COMPONENT,
+					EXECUTOR_POOL_SIZE, int.class, poolSize);
+			queuePolicy = (String) config.getEntry(ServiceProvider.COMPONENT,
+					EXECUTOR_QUEUE_POLICY, String.class, queuePolicy);
+			queueSize = (Integer) config.getEntry(ServiceProvider.COMPONENT,
+					EXECUTOR_QUEUE_SIZE, int.class, queueSize);
+			virtualThreads = (Boolean) config.getEntry(ServiceProvider.COMPONENT,
+					EXECUTOR_VIRTUAL_THREADS, boolean.class, virtualThreads);
+		} catch (Exception e) {
+			logger.warn("Problem getting executor configuration, using defaults", e);
+		}
+		return new ProviderExecutor(name, poolSize, queuePolicy, queueSize, virtualThreads);
+	}
+
+	private void setupAdmission(Configuration config) {
+		int maxJobs = 0, maxTasks = 0;
+		long maxContextBytes = 0, timeout = 0;
+		try {
+			maxJobs = (Integer) config.getEntry(ServiceProvider.COMPONENT,
+					ADMISSION_MAX_JOBS, int.class, maxJobs);
+			maxTasks = (Integer) config.getEntry(ServiceProvider.COMPONENT,
+					ADMISSION_MAX_TASKS, int.class, maxTasks);
+			maxContextBytes = (Long) config.getEntry(ServiceProvider.COMPONENT,
+					ADMISSION_MAX_CONTEXT_BYTES, long.class, maxContextBytes);
+			timeout = (Long) config.getEntry(ServiceProvider.COMPONENT,
+					ADMISSION_TIMEOUT, long.class, timeout);
+		} catch (Exception e) {
+			logger.warn("Problem getting admission configuration, admission is not limited", e);
+		}
+		admissionController = new AdmissionController(maxJobs, maxTasks, maxContextBytes, timeout);
+		if (admissionController.isEnabled())
+			logger.info("{} admission: {}", getName(), admissionController);
+	}
+
+	private void setupSessions(Configuration config) {
+		if (!(sessions instanceof SessionMap))
+			return;
+		final SessionMap sessionMap = (SessionMap) sessions;
+		try {
+			SessionMap.EvictionListener[] listeners = (SessionMap.EvictionListener[]) config.getEntry(
+					ServiceProvider.COMPONENT, SESSION_EVICTION_LISTENERS,
+					SessionMap.EvictionListener[].class, new SessionMap.EvictionListener[0]);
+			for (SessionMap.EvictionListener listener : listeners)
+				sessionMap.addEvictionListener(listener);
+		} catch (Exception e) {
+			logger.warn("Problem getting session eviction listeners", e);
+		}
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					int expired = sessionMap.expire(System.currentTimeMillis());
+					if (expired > 0 && logger.isDebugEnabled())
+						logger.debug("{} expired sessions: {}", getName(), expired);
+				} catch (RuntimeException e) {
+					logger.warn("Failed to expire sessions", e);
+				}
+			}
+		}, ProviderDelegate.KEEP_ALIVE_TIME, ProviderDelegate.KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the sessions of this provider, or null if they are not kept
+	 * in a {@link SessionMap}.
+	 */
+	public SessionMap getSessionMap() {
+		return sessions instanceof SessionMap ? (SessionMap) sessions : null;
+	}
+
+	/**
+	 * Returns the admission controller of the rendezvous beans of this
+	 * provider.
+	 */
+	public AdmissionController getAdmissionController() {
+		return admissionController;
+	}
+
+	/**
+	 * Returns the executor shared by the rendezvous beans and exertion
+	 * dispatchers of this provider.
+	 */
+	public ProviderExecutor getExecutor() {
+		return executor;
+	}
+
 	/**
 	 * <p>
 	 * Returns a threda manger of this provider.
@@ -2007,8 +2124,22 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 	public final static String MAX_THREADS = "maxThreads";
 	public final static String MANAGER_TIMEOUT = "threadTimeout";
 	public final static String LOAD_FACTOR = "loadFactor";
+	public final static String EXECUTOR_POOL_SIZE = "executorPoolSize";
+	public final static String EXECUTOR_QUEUE_POLICY = "executorQueuePolicy";
+	public final static String EXECUTOR_QUEUE_SIZE = "executorQueueSize";
+	public final static String EXECUTOR_VIRTUAL_THREADS = "executorVirtualThreads";
+	public final static String ADMISSION_MAX_JOBS = "admissionMaxJobs";
+	public final static String ADMISSION_MAX_TASKS = "admissionMaxTasks";
+	public final static String ADMISSION_MAX_CONTEXT_BYTES = "admissionMaxContextBytes";
+	// milliseconds to wait for admission before rejecting an exertion
+	public final static String ADMISSION_TIMEOUT = "admissionTimeout";
+	// SessionMap.EvictionListener[] called with expired sessions
+	public final static String SESSION_EVICTION_LISTENERS = "sessionEvictionListeners";
 	// wait for a TaskThread result in increments
 	public final static String WAIT_INCREMENT = "waitForResultIncrement";
+	// check for the first registration every 50 ms, for up to 5 minutes from the discovery
+	private final static long REGISTRATION_CHECK_INTERVAL = 50;
+	private final static long REGISTRATION_REPORT_TIMEOUT = 5 * 60 * 1000;
 
 	/*
 	 * (non-Javadoc)
@@ -2020,25 +2151,59 @@ public class ServiceProvider implements Identifiable, Provider, ServiceIDListene
 		return System.getProperties();
 	}
 
-	public class KeepAwake implements Runnable {
+	/**
+	 * Logs the time from the JVM start to the first registration of this
+	 * provider with a lookup service, together with the artifact resolution
+	 * cache statistics, to measure the provider startup time. The join
+	 * manager registers the provider asynchronously once a lookup service is
+	 * discovered, so its join set is checked from the discovery on, until
+	 * the registration or a timeout.
+	 */
+	public class RegistrationReporter implements DiscoveryListener {
+		// checking or reported
+		private final AtomicBoolean checking = new AtomicBoolean();
+
+		public void discovered(DiscoveryEvent event) {
+			if (checking.compareAndSet(false, true)) {
+				long now = System.currentTimeMillis();
+				check(now, now + REGISTRATION_REPORT_TIMEOUT);
+			}
+		}
 
-		public void run() {
+		public void discarded(DiscoveryEvent event) {
+		}
+
+		private void check(final long discovered, final long deadline) {
 			try {
-				while (running.get()) {
-					Thread.sleep(ProviderDelegate.KEEP_ALIVE_TIME);
-
-					// remove inactive sessions
-					Iterator<Map.Entry<Uuid, ServiceSession>> si = sessions.entrySet().iterator();
-					while (si.hasNext())  {
-						Map.Entry<Uuid, ServiceSession> se = si.next();
-						ProviderSession ss = (ProviderSession)se.getValue();
-						long now = System.currentTimeMillis();
-						if (now - ss.getLastAccessedTime() > ss.getMaxInactiveInterval() * 1000) {
-							si.remove();
+				scheduler.schedule(new Runnable() {
+					@Override
+					public void run() {
+						if (isRegistered()) {
+							long now = System.currentTimeMillis();
+							long startTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+							logger.info("{} registered {} ms after JVM start, {} ms after discovery, {}",
+									getProviderName(), now - startTime, now - discovered,
+									SorcerResolver.getResolutionCache());
+						} else if (running.get() && System.currentTimeMillis() < deadline) {
+							check(discovered, deadline);
+						} else {
+							// checked again on the next discovery
+							checking.set(false);
 						}
 					}
-				}
-			} catch (Exception doNothing) {
+				}, REGISTRATION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				// the provider is destroyed
+			}
+		}
+
+		private boolean isRegistered() {
+			JoinManager manager = joinManager;
+			try {
+				return manager != null && manager.getJoinSet().length > 0;
+			} catch (IllegalStateException e) {
+				// the join manager is terminated
+				return false;
 			}
 		}
 	}
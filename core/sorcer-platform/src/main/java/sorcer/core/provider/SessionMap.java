@@ -0,0 +1,254 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider;
+
+import net.jini.id.Uuid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.service.ContextException;
+import sorcer.service.ServiceSession;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The sessions of a provider by their ids. Sessions are expired by a timer
+ * wheel: each session is kept in the slot of the tick its inactivity
+ * interval ends at, and {@link #expire(long)} visits only the slots of the
+ * elapsed ticks. Getting a session marks it accessed in constant time; a
+ * visited session that was accessed since it was scheduled is moved to the
+ * slot of its new deadline, so that expiring costs time proportional to
+ * the sessions due rather than to all sessions.
+ * <p>
+ * An expired session has its {@link AutoCloseable} attributes closed, is
+ * invalidated, and is passed to the registered {@link EvictionListener}s.
+ */
+public class SessionMap extends AbstractMap<Uuid, ServiceSession> {
+	private static final Logger logger = LoggerFactory.getLogger(SessionMap.class);
+
+	// ticks of one lap of the wheel; later deadlines are revisited once a lap
+	static final int WHEEL_SIZE = 512;
+
+	/**
+	 * Notified of sessions removed because they were inactive for longer
+	 * than their maximum inactive interval.
+	 */
+	public interface EvictionListener {
+		void evicted(ServiceSession session);
+	}
+
+	private final ConcurrentHashMap<Uuid, ServiceSession> sessions = new ConcurrentHashMap<Uuid, ServiceSession>();
+
+	@SuppressWarnings("unchecked")
+	private final Queue<Scheduled>[] wheel = new Queue[WHEEL_SIZE];
+
+	private final long tick;
+
+	// the last tick expired, -1 before the first expiry
+	private volatile long cursor = -1;
+
+	private final List<EvictionListener> listeners = new CopyOnWriteArrayList<EvictionListener>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param tick the resolution of session expiry in milliseconds
+	 */
+	public SessionMap(long tick) {
+		this.tick = Math.max(tick, 1);
+		for (int i = 0; i < WHEEL_SIZE; i++)
+			wheel[i] = new ConcurrentLinkedQueue<Scheduled>();
+	}
+
+	public void addEvictionListener(EvictionListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeEvictionListener(EvictionListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Returns the session and marks it accessed.
+	 */
+	@Override
+	public ServiceSession get(Object id) {
+		ServiceSession session = sessions.get(id);
+		if (session == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+			if (session instanceof ProviderSession)
+				((ProviderSession) session).touch();
+		}
+		return session;
+	}
+
+	@Override
+	public ServiceSession put(Uuid id, ServiceSession session) {
+		ServiceSession previous = sessions.put(id, session);
+		if (previous != session)
+			schedule(new Scheduled(id, session), System.currentTimeMillis());
+		return previous;
+	}
+
+	@Override
+	public ServiceSession remove(Object id) {
+		// the wheel drops removed sessions when their slots are visited
+		return sessions.remove(id);
+	}
+
+	@Override
+	public boolean containsKey(Object id) {
+		return sessions.containsKey(id);
+	}
+
+	@Override
+	public int size() {
+		return sessions.size();
+	}
+
+	@Override
+	public void clear() {
+		sessions.clear();
+		for (Queue<Scheduled> slot : wheel)
+			slot.clear();
+	}
+
+	@Override
+	public Set<Entry<Uuid, ServiceSession>> entrySet() {
+		return sessions.entrySet();
+	}
+
+	/**
+	 * Removes the sessions inactive for longer than their maximum inactive
+	 * interval at the given time.
+	 *
+	 * @return the number of sessions removed
+	 */
+	public synchronized int expire(long now) {
+		long target = now / tick;
+		if (cursor < 0 || target - cursor > WHEEL_SIZE)
+			cursor = target - WHEEL_SIZE;
+		int expired = 0;
+		while (cursor < target) {
+			long current = cursor + 1;
+			Queue<Scheduled> slot = wheel[(int) (current % WHEEL_SIZE)];
+			cursor = current;
+			// sessions rescheduled to this slot wait for its next visit
+			for (int n = slot.size(); n > 0; n--) {
+				Scheduled scheduled = slot.poll();
+				if (scheduled == null)
+					break;
+				if (sessions.get(scheduled.id) != scheduled.session)
+					continue;
+				if (deadline(scheduled.session) <= now) {
+					if (evict(scheduled))
+						expired++;
+				} else {
+					schedule(scheduled, now);
+				}
+			}
+		}
+		return expired;
+	}
+
+	private void schedule(Scheduled scheduled, long now) {
+		long deadline = deadline(scheduled.session);
+		long ticks = deadline == Long.MAX_VALUE ? WHEEL_SIZE - 1
+				: (deadline - now + tick - 1) / tick;
+		ticks = Math.min(Math.max(ticks, 1), WHEEL_SIZE - 1);
+		long base = Math.max(cursor, now / tick);
+		wheel[(int) ((base + ticks) % WHEEL_SIZE)].add(scheduled);
+	}
+
+	private static long deadline(ServiceSession session) {
+		try {
+			long interval = session.getMaxInactiveInterval();
+			if (interval <= 0)
+				return Long.MAX_VALUE;
+			return session.getLastAccessedTime() + interval * 1000;
+		} catch (ContextException e) {
+			// an invalidated session
+			return Long.MIN_VALUE;
+		}
+	}
+
+	private boolean evict(Scheduled scheduled) {
+		if (!sessions.remove(scheduled.id, scheduled.session))
+			return false;
+		evictions.increment();
+		release(scheduled.id, scheduled.session);
+		for (EvictionListener listener : listeners) {
+			try {
+				listener.evicted(scheduled.session);
+			} catch (RuntimeException e) {
+				logger.warn("Session eviction listener failed for {}", scheduled.id, e);
+			}
+		}
+		return true;
+	}
+
+	private static void release(Uuid id, ServiceSession session) {
+		try {
+			Iterator<String> names = session.getAttributeNames();
+			List<String> bound = new ArrayList<String>();
+			while (names.hasNext())
+				bound.add(names.next());
+			for (String name : bound) {
+				Object value = session.getAttribute(name);
+				if (value instanceof AutoCloseable) {
+					try {
+						((AutoCloseable) value).close();
+					} catch (Exception e) {
+						logger.warn("Failed to close {} of session {}", name, id, e);
+					}
+				}
+			}
+		} catch (ContextException e) {
+			// already invalidated
+		}
+		session.invalidate();
+	}
+
+	private static class Scheduled {
+		final Uuid id;
+		final ServiceSession session;
+
+		Scheduled(Uuid id, ServiceSession session) {
+			this.id = id;
+			this.session = session;
+		}
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+}
@@ -228,6 +228,8 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 			if(mogram instanceof Exertion) {
 				mogram.getExceptions().clear();
 				mogram.getTrace().clear();
+				if (mogram instanceof ServiceExertion)
+					((ServiceExertion) mogram).getSpans().clear();
 			}
 			for (Mogram e : ((Exertion)mogram).getAllMograms()) {
 				if (e instanceof Exertion) {
@@ -235,6 +237,8 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 						e.setStatus(Exec.INITIAL);
 						e.getExceptions().clear();
 						e.getTrace().clear();
+						if (e instanceof ServiceExertion)
+							((ServiceExertion) e).getSpans().clear();
 					}
 				}
 				if (e instanceof Block) {
@@ -506,7 +510,19 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 //				e.printStackTrace();
 //			}
 
-			Exertion result = provider.exert(exertion, transaction, entries);
+			// accept the data context of a task returned as a delta
+			boolean deltaReturn = exertion instanceof Task;
+			if (deltaReturn)
+				exertion.getControlContext().setDeltaReturn(true);
+			Exertion result;
+			try {
+				result = provider.exert(exertion, transaction, entries);
+			} finally {
+				if (deltaReturn)
+					exertion.getControlContext().setDeltaReturn(false);
+			}
+			if (deltaReturn && result != null)
+				mergeContextDelta(exertion, result);
 			if (result != null && result.getExceptions().size() > 0) {
 				for (ThrowableTrace et : result.getExceptions()) {
 					Throwable t = et.getThrowable();
@@ -525,6 +541,21 @@ public class ServiceShell implements RemoteServiceShell, Client, Callable {
 //		}
 	}
 
+	/**
+	 * Completes the data context returned by a provider as a delta of changed
+	 * paths with the unchanged paths of the context sent to the provider.
+	 */
+	private void mergeContextDelta(Exertion sent, Exertion result) throws ContextException {
+		((ControlContext) result.getControlContext()).setDeltaReturn(false);
+		Context cxt = result.getDataContext();
+		if (cxt instanceof ServiceContext) {
+			if (((ServiceContext) cxt).isDelta())
+				((ServiceContext) cxt).mergeDelta(sent.getDataContext());
+			else
+				((ServiceContext) cxt).clearDelta();
+		}
+	}
+
 	private Exertion serviceMutualExclusion(Provider provider,
 											Exertion exertion, Transaction transaction) throws RemoteException,
 			TransactionException, MogramException, SignatureException {
@@ -97,7 +97,7 @@ public class MonitorSession extends ArrayList<MonitorSession> implements Monitor
 			throw new NullPointerException("Assertion Failed: initialExertion cannot be NULL");
 
 		this.initialExertion = (ServiceExertion) ex;
-		runtimeExertion = (ServiceExertion) ObjectCloner.cloneAnnotated(ex);
+		runtimeExertion = (ServiceExertion) ObjectCloner.copy(ex);
 		this.listener = listener;
 		init();
 		runtimeExertion.setStatus(Exec.INITIAL);
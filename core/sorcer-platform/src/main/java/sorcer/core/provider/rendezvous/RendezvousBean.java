@@ -23,6 +23,7 @@ import net.jini.id.UuidFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.core.context.Contexts;
+import sorcer.core.context.TraceSpan;
 import sorcer.core.exertion.ObjectBlock;
 import sorcer.core.exertion.ObjectJob;
 import sorcer.core.provider.*;
@@ -61,6 +62,42 @@ abstract public class RendezvousBean implements Service, Exerter {
 
 	}
 
+	/**
+	 * Returns the executor shared by the provider's beans and dispatchers.
+	 */
+	protected ProviderExecutor getExecutor() {
+		return ProviderExecutor.getExecutor(provider);
+	}
+
+	/**
+	 * Admits the exertion within the provider's admission limits.
+	 *
+	 * @return the permit to release when the exertion completes
+	 * @throws AdmissionException if the exertion is over the limits
+	 */
+	protected AdmissionController.Permit admit(Exertion exertion) throws AdmissionException {
+		AdmissionController admission = provider.getAdmissionController();
+		if (admission == null)
+			admission = new AdmissionController(0, 0, 0, 0);
+		return admission.admit(exertion);
+	}
+
+	/**
+	 * Returns the runnable releasing the permit when done.
+	 */
+	protected Runnable releasing(final Runnable runnable, final AdmissionController.Permit permit) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				try {
+					runnable.run();
+				} finally {
+					permit.release();
+				}
+			}
+		};
+	}
+
     public String getProviderName()  {
         return provider.getProviderName();
 	}
@@ -152,11 +189,15 @@ abstract public class RendezvousBean implements Service, Exerter {
 	 */
 	public Mogram exert(Mogram mogram, Transaction transaction, Arg... args) throws RemoteException, ExertionException {
 		Mogram out = null;
+		TraceSpan span = null;
 		try {
 			setServiceID(mogram);
 			mogram.appendTrace("mogram: " + mogram.getName() + " rendezvous: " +
 					(provider != null ? provider.getProviderName() + " " : "")
 					+ this.getClass().getName());
+			if (mogram instanceof ServiceExertion)
+				span = ((ServiceExertion) mogram).getControlContext().startSpan(TraceSpan.PROVIDER,
+						mogram.getName(), provider != null ? provider.getProviderName() : null);
             if (mogram instanceof ObjectJob || mogram instanceof ObjectBlock
 					|| mogram instanceof Model || mogram instanceof ModelingTask) {
 				logger.info("{} is a local exertion", mogram.getName());
@@ -169,10 +210,21 @@ abstract public class RendezvousBean implements Service, Exerter {
 			if (mogram instanceof Exertion)
 				mogram.getDataContext().setExertion(null);
         }
+		catch (AdmissionException e) {
+			// typed, so that requestors can back off
+			throw e;
+		}
 		catch (Exception e) {
 			logger.debug("exert failed for: " + mogram.getName(), e);
 			throw new ExertionException();
 		}
+		finally {
+			if (span != null) {
+				Mogram done = out instanceof ServiceExertion ? out : mogram;
+				((ServiceExertion) done).getControlContext().endSpan(span,
+						out == null || out.getStatus() == Exec.FAILED);
+			}
+		}
 		return out;
 	}
 
@@ -49,12 +49,11 @@ public class ServiceConcatenator extends RendezvousBean implements Concatenator
 			if (((ServiceExertion)exertion).getControlContext().isMonitorable()
 					&& !(((ServiceExertion)exertion).getControlContext()).isWaitable()) {
 				replaceNullExertionIDs(exertion);
-				new BlockThread((Block) exertion, provider).start();
+				getExecutor().spawn(new BlockThread((Block) exertion, provider));
 				return exertion;
 			} else {
 				BlockThread blockThread = new BlockThread((Block) exertion, provider, args);
-				blockThread.start();
-				blockThread.join();
+				blockThread.run();
 				result = blockThread.getResult();
 				Condition.cleanupScripts(result);
 				logger.trace("<==== Result: " + result);
@@ -23,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import sorcer.core.dispatch.DispatcherFactory;
 import sorcer.core.dispatch.MogramDispatcherFactory;
 import sorcer.core.dispatch.MogramThread;
+import sorcer.core.provider.AdmissionController;
 import sorcer.core.provider.Jobber;
 import sorcer.service.*;
 
@@ -45,13 +46,16 @@ public class ServiceJobber extends RendezvousBean implements Jobber {
 			throws TransactionException, ExertionException, RemoteException {
 
             setServiceID(mogram);
+            AdmissionController.Permit permit = admit((Exertion)mogram);
+            boolean spawned = false;
             try {
                 MogramThread mogramThread = new MogramThread(mogram, provider, getDispatcherFactory((Exertion)mogram));
                 if (((Exertion)mogram).getControlContext().isMonitorable()
                         && !((Exertion)mogram).getControlContext().isWaitable()) {
                     replaceNullExertionIDs((Exertion)mogram);
                     notifyViaEmail((Exertion)mogram);
-                    new Thread(mogramThread, ((Job)mogram).getContextName()).start();
+                    getExecutor().spawn(releasing(mogramThread, permit));
+                    spawned = true;
                     return mogram;
                 } else {
                     mogramThread.run();
@@ -64,6 +68,9 @@ public class ServiceJobber extends RendezvousBean implements Jobber {
                 mogram.reportException(e);
                 logger.warn("Error: " + e.getMessage());
                 return mogram;
+            } finally {
+                if (!spawned)
+                    permit.release();
             }
 	}
 
@@ -24,6 +24,7 @@ import sorcer.core.DispatchResult;
 import sorcer.core.dispatch.*;
 import sorcer.core.exertion.NetTask;
 import sorcer.core.loki.member.LokiMemberUtil;
+import sorcer.core.provider.AdmissionController;
 import sorcer.core.provider.Provider;
 import sorcer.core.provider.Spacer;
 import sorcer.service.*;
@@ -65,13 +66,16 @@ public class ServiceSpacer extends RendezvousBean implements Spacer {
     public Mogram doCompound(Mogram mogram, Transaction txn, Arg... args)
             throws TransactionException, ExertionException, RemoteException {
         setServiceID(mogram);
+        AdmissionController.Permit permit = admit((Exertion)mogram);
+        boolean spawned = false;
         try {
             MogramThread mogramThread = new MogramThread(mogram, provider, getDispatcherFactory((Exertion)mogram));
             if (((Exertion)mogram).getControlContext().isMonitorable()
                     && !((Exertion)mogram).getControlContext().isWaitable()) {
                 replaceNullExertionIDs((Exertion)mogram);
                 notifyViaEmail((Exertion)mogram);
-                new Thread(mogramThread, ((Job)mogram).getContextName()).start();
+                getExecutor().spawn(releasing(mogramThread, permit));
+                spawned = true;
                 return mogram;
             } else {
                 mogramThread.run();
@@ -83,10 +87,13 @@ public class ServiceSpacer extends RendezvousBean implements Spacer {
             ((ServiceExertion)mogram).reportException(e);
             logger.warn("Error: " + e.getMessage());
             return mogram;
+        } finally {
+            if (!spawned)
+                permit.release();
         }
     }
 
-    protected class TaskThread extends Thread {
+    protected class TaskThread implements Runnable {
 
         // doJob method calls this internally
         private Task task;
@@ -96,7 +103,6 @@ public class ServiceSpacer extends RendezvousBean implements Spacer {
         private Provider provider;
 
         public TaskThread(Task task, Provider provider) {
-            super(tName("Task-" + task.getName()));
             this.task = task;
             this.provider = provider;
         }
@@ -127,19 +133,21 @@ public class ServiceSpacer extends RendezvousBean implements Spacer {
         }
     }
 
-    public Exertion doTask(Exertion task) throws RemoteException {
+    public Exertion doTask(Exertion task) throws RemoteException, AdmissionException {
         setServiceID(task);
+        AdmissionController.Permit permit = admit(task);
+        boolean spawned = false;
         try {
             if (task.isMonitorable()
                     && !task.isWaitable()) {
                 replaceNullExertionIDs(task);
                 notifyViaEmail(task);
-                new TaskThread((Task) task, provider).start();
+                getExecutor().spawn(releasing(new TaskThread((Task) task, provider), permit));
+                spawned = true;
                 return task;
             } else {
                 TaskThread taskThread = new TaskThread((Task) task, provider);
-                taskThread.start();
-                taskThread.join();
+                taskThread.run();
                 Task result = taskThread.getResult();
                 logger.trace("Spacer result: " + result);
                 return result;
@@ -147,6 +155,9 @@ public class ServiceSpacer extends RendezvousBean implements Spacer {
         } catch (Throwable e) {
             e.printStackTrace();
             return null;
+        } finally {
+            if (!spawned)
+                permit.release();
         }
     }
 
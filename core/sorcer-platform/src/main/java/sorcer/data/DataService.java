@@ -19,9 +19,9 @@ import org.rioproject.config.Constants;
 import org.rioproject.net.HostUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sorcer.file.ChunkedDownload;
 import sorcer.tools.webster.Webster;
 import sorcer.util.FileURLHandler;
-import sorcer.util.GenericUtil;
 import sorcer.util.JavaSystemProperties;
 
 import java.io.File;
@@ -230,7 +230,8 @@ public class DataService implements FileURLHandler {
     }
 
     /**
-     * Download the contents of a URL to a local file
+     * Download the contents of a URL to a local file. The contents are fetched in chunks, and a
+     * download that failed before is resumed.
      *
      * @param url The URL to download
      * @param to The file to download to
@@ -238,7 +239,7 @@ public class DataService implements FileURLHandler {
      * @throws IOException
      */
     public void download(final URL url, final File to) throws IOException {
-        GenericUtil.download(url, to);
+        ChunkedDownload.download(url, to);
     }
 
     /**
@@ -668,7 +668,7 @@ public class operator extends sorcer.operator {
 
 	public Context remove(Model model, String path) {
 		ServiceContext context = (ServiceContext) model;
-		context.getData().remove(path);
+		context.remove(path);
 		return context;
 	}
 
@@ -2722,6 +2722,26 @@ public class operator extends sorcer.operator {
 		return trace;
 	}
 
+	/**
+	 * Returns the trace spans of the mogram and its component exertions,
+	 * ordered by start time.
+	 */
+	public static List<TraceSpan> spans(Mogram mogram) {
+		List<Mogram> mograms = ((ServiceMogram)mogram).getAllMograms();
+		List<TraceSpan> spans = new ArrayList<TraceSpan>();
+		for (Mogram m : mograms) {
+			if (m instanceof ServiceExertion)
+				spans.addAll(((ServiceExertion) m).getSpans());
+		}
+		Collections.sort(spans, new Comparator<TraceSpan>() {
+			@Override
+			public int compare(TraceSpan s1, TraceSpan s2) {
+				return Long.compare(s1.start, s2.start);
+			}
+		});
+		return spans;
+	}
+
 	public static List<ServiceFidelity>  fiTrace(Mogram mogram) {
 		try {
 			return mogram.getFidelityManager().getFiTrace();
@@ -3496,7 +3516,7 @@ public class operator extends sorcer.operator {
 				block.setContext(context);
 				((ServiceContext)context).setScope(context);
 				// context for resetting to initial state after cleaning scopes
-				((ServiceContext)context).setInitContext((Context)ObjectCloner.clone(context));
+				((ServiceContext)context).setInitContext((Context)ObjectCloner.copy(context));
 			}
 
 			for (Mogram m :mograms) {
@@ -3841,7 +3861,7 @@ public class operator extends sorcer.operator {
 		}
 		Exertion xrt = null;
 		for (String name : names) {
-			xrt = (Exertion) ObjectCloner.cloneAnnotatedWithNewIDs(exertion);
+			xrt = (Exertion) ObjectCloner.copyWithNewIDs(exertion);
 			((ServiceExertion) xrt).setName(name);
 			block.addMogram(xrt);
 		}
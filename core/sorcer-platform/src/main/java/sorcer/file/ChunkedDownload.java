@@ -0,0 +1,427 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.ConfigurableThreadFactory;
+import sorcer.util.Sorcer;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import static sorcer.core.SorcerConstants.*;
+
+/**
+ * Downloads the content of a URL to a local file in chunks fetched with HTTP range requests, as served by Webster and
+ * the {@link sorcer.data.DataService}. Each chunk is written in place and recorded with its CRC-32 checksum in a
+ * <tt>.chunks</tt> file next to the target file. A download that fails is resumed by the next download of the same
+ * URL to the same file: the recorded chunks are verified against their checksums and only the missing or damaged
+ * chunks are fetched again. Chunks may be fetched in parallel over separate connections.
+ * <p>
+ * URLs other than HTTP ones, and servers that do not accept range requests, are copied as a single stream.
+ * <p>
+ * The chunk size, the number of chunks fetched in parallel and the retries of a chunk are set by the
+ * {@link sorcer.core.SorcerConstants#P_TRANSFER_CHUNK_SIZE}, {@link sorcer.core.SorcerConstants#P_TRANSFER_PARALLELISM}
+ * and {@link sorcer.core.SorcerConstants#P_TRANSFER_RETRIES} properties and default to 8 MB, 1 and 5.
+ */
+public class ChunkedDownload {
+    final private static Logger log = LoggerFactory.getLogger(ChunkedDownload.class);
+    final static String CHUNKS = ".chunks";
+    final private static int BUFFER_SIZE = 64 * 1024;
+    // connect and read timeout, so that a stalled connection is retried
+    final private static int TIMEOUT = 60 * 1000;
+    final private static long RETRY_DELAY = 500;
+
+    private static final ExecutorService fetchers;
+
+    static {
+        ConfigurableThreadFactory tf = new ConfigurableThreadFactory();
+        tf.setDaemon(true);
+        tf.setNameFormat("chunked-download-%2$d");
+        fetchers = Executors.newCachedThreadPool(tf);
+    }
+
+    private final URL url;
+    private final File target;
+    private long chunkSize;
+    private int parallelism;
+    private int retries;
+
+    public ChunkedDownload(URL url, File target) {
+        this.url = url;
+        this.target = target;
+        chunkSize = getLongProperty(P_TRANSFER_CHUNK_SIZE, TRANSFER_CHUNK_SIZE_DEFAULT);
+        parallelism = (int) getLongProperty(P_TRANSFER_PARALLELISM, 1);
+        retries = (int) getLongProperty(P_TRANSFER_RETRIES, TRANSFER_RETRIES_DEFAULT);
+    }
+
+    public static long download(URL url, File target) throws IOException {
+        return new ChunkedDownload(url, target).download();
+    }
+
+    public void setChunkSize(long chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("Invalid chunk size " + chunkSize);
+        this.chunkSize = chunkSize;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    /**
+     * Returns the file recording the chunks of the target file downloaded so far
+     */
+    public static File getStateFile(File target) {
+        return new File(target.getPath() + CHUNKS);
+    }
+
+    /**
+     * Downloads the URL to the target file, resuming a failed download of the same content.
+     *
+     * @return the length of the downloaded file
+     * @throws IOException if a chunk can not be fetched after the retries; the chunks fetched so far are kept for the
+     *                     next download
+     */
+    public long download() throws IOException {
+        long start = System.currentTimeMillis();
+        Transfer transfer = url.getProtocol().startsWith("http") ? head() : null;
+        long length = transfer != null ? transfer.download() : copy();
+        if (log.isDebugEnabled()) {
+            long time = Math.max(1, System.currentTimeMillis() - start);
+            log.debug("Downloaded {} bytes of {} to {} in {} ms, {} MB/s", length, url, target, time,
+                      String.format("%.1f", length / 1024d / 1024d * 1000 / time));
+        }
+        return length;
+    }
+
+    /*
+     * Returns the transfer of a resource accepting range requests, or null if it is to be copied as a single stream
+     */
+    private Transfer head() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("HEAD");
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        connection.setUseCaches(false);
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK)
+                return null;
+            long length = connection.getContentLengthLong();
+            if (length < 0 || !"bytes".equalsIgnoreCase(connection.getHeaderField("Accept-Ranges")))
+                return null;
+            return new Transfer(length, connection.getHeaderField("Last-Modified"));
+        } catch (IOException e) {
+            log.debug("HEAD of {} failed, copying the stream", url, e);
+            return null;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /*
+     * Copies the URL as a single stream, from the beginning on each retry
+     */
+    private long copy() throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                URLConnection connection = url.openConnection();
+                connection.setConnectTimeout(TIMEOUT);
+                connection.setReadTimeout(TIMEOUT);
+                connection.setUseCaches(false);
+                long length = 0;
+                try (InputStream in = connection.getInputStream();
+                     OutputStream out = new FileOutputStream(target)) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        length += read;
+                    }
+                }
+                return length;
+            } catch (FileNotFoundException e) {
+                throw e;
+            } catch (IOException e) {
+                if (attempt >= retries)
+                    throw e;
+                log.warn("Download of {} failed, trying again: {}", url, e.toString());
+                pause(attempt);
+            }
+        }
+    }
+
+    private static void pause(int attempt) throws InterruptedIOException {
+        try {
+            Thread.sleep(RETRY_DELAY * (attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted retrying the download");
+        }
+    }
+
+    private static long getLongProperty(String name, long defaultValue) {
+        try {
+            return Long.parseLong(Sorcer.getProperty(name).trim());
+        } catch (NullPointerException | NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * The chunks of a resource accepting range requests
+     */
+    private class Transfer {
+        final long length;
+        final String lastModified;
+        final long size = chunkSize;
+        final int count;
+        final File state = getStateFile(target);
+        final AtomicBoolean failed = new AtomicBoolean();
+        FileChannel channel;
+        Writer journal;
+
+        Transfer(long length, String lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+            count = (int) ((length + size - 1) / size);
+        }
+
+        long download() throws IOException {
+            List<String> header = Arrays.asList(url.toExternalForm(), length + " " + size,
+                                                lastModified != null ? lastModified : "");
+            BitSet done = resume(header);
+            if (done == null) {
+                done = new BitSet(count);
+                try (RandomAccessFile file = new RandomAccessFile(target, "rw")) {
+                    file.setLength(0);
+                    file.setLength(length);
+                }
+                Files.write(state.toPath(), header, StandardCharsets.UTF_8);
+            } else {
+                log.info("Resuming download of {} to {}, {} of {} chunks done", url, target,
+                         done.cardinality(), count);
+            }
+
+            final Queue<Integer> pending = new ConcurrentLinkedQueue<Integer>();
+            for (int i = done.nextClearBit(0); i < count; i = done.nextClearBit(i + 1))
+                pending.add(i);
+            Callable<Void> fetcher = new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    fetchAll(pending);
+                    return null;
+                }
+            };
+
+            try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE);
+                 Writer journal = new OutputStreamWriter(new FileOutputStream(state, true), StandardCharsets.UTF_8)) {
+                this.channel = channel;
+                this.journal = journal;
+                int workers = Math.min(Math.max(1, parallelism), pending.size());
+                List<Future<Void>> futures = new ArrayList<Future<Void>>();
+                for (int i = 1; i < workers; i++)
+                    futures.add(fetchers.submit(fetcher));
+                IOException failure = null;
+                try {
+                    fetchAll(pending);
+                } catch (IOException e) {
+                    failure = e;
+                }
+                for (Future<Void> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (failure == null)
+                            failure = e.getCause() instanceof IOException ? (IOException) e.getCause()
+                                    : new IOException(e.getCause());
+                    } catch (InterruptedException e) {
+                        failed.set(true);
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted downloading " + url);
+                    }
+                }
+                if (failure instanceof ResourceChangedException)
+                    Files.deleteIfExists(state.toPath());
+                if (failure != null)
+                    throw failure;
+            }
+            Files.deleteIfExists(state.toPath());
+            return length;
+        }
+
+        private void fetchAll(Queue<Integer> pending) throws IOException {
+            Integer index;
+            while (!failed.get() && (index = pending.poll()) != null) {
+                try {
+                    record(index, fetch(index));
+                } catch (IOException e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }
+        }
+
+        /*
+         * Returns the chunks recorded with valid checksums, or null if the download is not resumed
+         */
+        private BitSet resume(List<String> header) throws IOException {
+            if (!state.exists() || !target.exists() || target.length() != length)
+                return null;
+            List<String> lines = Files.readAllLines(state.toPath(), StandardCharsets.UTF_8);
+            if (lines.size() < header.size() || !lines.subList(0, header.size()).equals(header))
+                return null;
+            BitSet done = new BitSet(count);
+            try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.READ)) {
+                for (String line : lines.subList(header.size(), lines.size())) {
+                    String[] fields = line.split(" ");
+                    // the last line may be cut by a failure
+                    if (fields.length != 2)
+                        continue;
+                    try {
+                        int index = Integer.parseInt(fields[0]);
+                        long crc = Long.parseLong(fields[1], 16);
+                        if (index < 0 || index >= count || done.get(index))
+                            continue;
+                        if (checksum(channel, index) == crc)
+                            done.set(index);
+                        else
+                            log.warn("Chunk {} of {} does not match its checksum, fetching it again", index, target);
+                    } catch (NumberFormatException e) {
+                        // the last line may be cut by a failure
+                    }
+                }
+            }
+            return done;
+        }
+
+        private long checksum(FileChannel channel, int index) throws IOException {
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = index * size;
+            long end = Math.min(length, position + size);
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                int read = channel.read(buffer, position);
+                if (read == -1)
+                    break;
+                buffer.flip();
+                crc.update(buffer);
+                position += read;
+            }
+            return crc.getValue();
+        }
+
+        private void record(int index, long crc) throws IOException {
+            synchronized (journal) {
+                journal.write(index + " " + Long.toHexString(crc) + "\n");
+                journal.flush();
+            }
+        }
+
+        /*
+         * Fetches the chunk, retrying it after failures, and returns its checksum
+         */
+        private long fetch(int index) throws IOException {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return fetchOnce(index);
+                } catch (FileNotFoundException | ResourceChangedException e) {
+                    throw e;
+                } catch (IOException e) {
+                    if (attempt >= retries || failed.get())
+                        throw e;
+                    log.warn("Chunk {} of {} failed, trying again: {}", index, url, e.toString());
+                    pause(attempt);
+                }
+            }
+        }
+
+        private long fetchOnce(int index) throws IOException {
+            long first = index * size;
+            long last = Math.min(length, first + size) - 1;
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            connection.setUseCaches(false);
+            connection.setRequestProperty("Range", "bytes=" + first + "-" + last);
+            if (lastModified != null)
+                connection.setRequestProperty("If-Range", lastModified);
+            boolean complete = false;
+            try {
+                int code = connection.getResponseCode();
+                String range = connection.getHeaderField("Content-Range");
+                if (code == HttpURLConnection.HTTP_NOT_FOUND)
+                    throw new FileNotFoundException(url.toExternalForm());
+                // the whole content, or a different range, is sent for a changed resource
+                if (code == HttpURLConnection.HTTP_OK || code == 416 || (code == HttpURLConnection.HTTP_PARTIAL
+                        && (range == null || !range.equals("bytes " + first + "-" + last + "/" + length))))
+                    throw new ResourceChangedException(url + " changed during the download, response "
+                                                       + code + ", content range " + range);
+                if (code != HttpURLConnection.HTTP_PARTIAL)
+                    throw new IOException("Chunk " + index + " of " + url + " failed, response " + code);
+                CRC32 crc = new CRC32();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long position = first;
+                try (InputStream in = connection.getInputStream()) {
+                    int read;
+                    while (position <= last
+                            && (read = in.read(buffer, 0, (int) Math.min(buffer.length, last - position + 1))) != -1) {
+                        crc.update(buffer, 0, read);
+                        ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                        while (data.hasRemaining())
+                            position += channel.write(data, position);
+                    }
+                }
+                if (position != last + 1)
+                    throw new EOFException("Chunk " + index + " of " + url + " ended at " + position
+                                           + ", expected " + (last + 1));
+                complete = true;
+                return crc.getValue();
+            } finally {
+                if (!complete)
+                    connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Thrown when the content of the URL changed during a download, so that it is not resumed
+     */
+    private static class ResourceChangedException extends IOException {
+        ResourceChangedException(String message) {
+            super(message);
+        }
+    }
+}
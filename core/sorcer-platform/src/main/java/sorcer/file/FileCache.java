@@ -0,0 +1,351 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.file;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.Sorcer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static sorcer.core.SorcerConstants.*;
+
+/**
+ * A local, size bounded cache of files keyed by their SHA-1 checksum. Files are fetched once per host and shared by
+ * all requests for the same content; concurrent requests of a process for a file that is being fetched wait for the
+ * same download. When the cache exceeds its size the least recently used files are removed.
+ * <p>
+ * The processes of a host share the cache directory: the cached files, their sizes and their use, recorded as their
+ * modification times, are read from the directory under a file lock, so that each process accounts for the files of
+ * the others. Files used within the minimum age are not removed, even if the cache exceeds its size, as they may be
+ * read by other processes. Cached files are shared and must not be modified or removed by the callers.
+ * <p>
+ * A file is downloaded to a part file named by its checksum, by one process of the host at a time. A download that
+ * fails keeps its part file, and the <tt>.chunks</tt> journal of a {@link ChunkedDownload}, so that the next download of
+ * the file resumes it; a part is removed only once it is moved into the cache, or if its content does not match the
+ * checksum.
+ * <p>
+ * A cache holds the lock file open until it is closed; the shared instance is closed on shutdown.
+ * <p>
+ * The cache directory and size are set by the {@link sorcer.core.SorcerConstants#P_FILE_CACHE_DIR} and
+ * {@link sorcer.core.SorcerConstants#P_FILE_CACHE_SIZE} properties and default to <tt>~/.sorcer/file-cache</tt> and
+ * 1 GB.
+ */
+public class FileCache implements Closeable {
+    final private static Logger log = LoggerFactory.getLogger(FileCache.class);
+    final private static String PART = ".part";
+    final private static String LOCK = ".lock";
+
+    // files used more recently are kept, in milliseconds
+    public static final long MIN_AGE_DEFAULT = 60 * 1000;
+    // downloads not written to for longer are left by a stopped process
+    private static final long STALE_PART = 60 * 60 * 1000;
+
+    // cache directory -> monitor of the processes' file lock, held by one thread of this process at a time
+    private static final ConcurrentMap<Path, Object> monitors = new ConcurrentHashMap<Path, Object>();
+    // cached file -> download of this process, as the part file is locked by one thread of a process at a time
+    private static final ConcurrentMap<Path, FutureTask<File>> downloads = new ConcurrentHashMap<Path, FutureTask<File>>();
+    // the last access time set, increasing so that accesses are ordered
+    private static final AtomicLong clock = new AtomicLong();
+
+    private static FileCache instance;
+
+    /**
+     * Copies the content of a file to a local target
+     */
+    public interface Source {
+        void copyTo(File target) throws IOException;
+    }
+
+    private final Path root;
+    private final long maxSize;
+    private final long minAge;
+    private final Object monitor;
+    private final FileChannel lockChannel;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public FileCache(Path root, long maxSize) throws IOException {
+        this(root, maxSize, MIN_AGE_DEFAULT);
+    }
+
+    /**
+     * @param minAge the time in milliseconds a used file is kept for
+     */
+    public FileCache(Path root, long maxSize, long minAge) throws IOException {
+        this.maxSize = maxSize;
+        this.minAge = minAge;
+        Files.createDirectories(root);
+        this.root = root.toRealPath();
+        Object created = new Object();
+        Object existing = monitors.putIfAbsent(this.root, created);
+        monitor = existing != null ? existing : created;
+        lockChannel = FileChannel.open(this.root.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        removeStaleParts();
+    }
+
+    public static synchronized FileCache getInstance() throws IOException {
+        if (instance == null) {
+            String dir = Sorcer.getProperty(P_FILE_CACHE_DIR);
+            Path root = dir != null ? Paths.get(dir)
+                    : Paths.get(System.getProperty("user.home"), ".sorcer", "file-cache");
+            instance = new FileCache(root, getMaxSize());
+            final FileCache cache = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread("file-cache-shutdown") {
+                @Override
+                public void run() {
+                    try {
+                        cache.close();
+                    } catch (IOException e) {
+                        log.warn("Could not close {}", cache.root, e);
+                    }
+                }
+            });
+        }
+        return instance;
+    }
+
+    /**
+     * Closes the lock file of the cache directory. The cache cannot be used afterwards, its files are kept.
+     */
+    @Override
+    public void close() throws IOException {
+        lockChannel.close();
+    }
+
+    /**
+     * Returns the cached file with the given checksum, copying it from the source first if it is not cached.
+     *
+     * @param checksum SHA-1 checksum of the file content
+     * @param source   source of the content, used on a cache miss
+     * @throws IOException if the file could not be copied or its content does not match the checksum
+     */
+    public File get(final String checksum, final Source source) throws IOException {
+        File file = lookup(checksum);
+        if (file != null) {
+            hits.incrementAndGet();
+            return file;
+        }
+        FutureTask<File> task = new FutureTask<File>(new Callable<File>() {
+            @Override
+            public File call() throws Exception {
+                File file = lookup(checksum);
+                return file != null ? file : download(checksum, source);
+            }
+        });
+        Path target = root.resolve(checksum);
+        FutureTask<File> running = downloads.putIfAbsent(target, task);
+        if (running == null) {
+            misses.incrementAndGet();
+            running = task;
+            try {
+                task.run();
+            } finally {
+                downloads.remove(target, task);
+            }
+        }
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + checksum);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException("Could not get " + checksum, e.getCause());
+        }
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the size of the files cached by all processes.
+     */
+    public long getSize() throws IOException {
+        synchronized (monitor) {
+            try (FileLock lock = lockChannel.lock()) {
+                long size = 0;
+                for (File file : cached())
+                    size += file.length();
+                return size;
+            }
+        }
+    }
+
+    private File lookup(String checksum) throws IOException {
+        synchronized (monitor) {
+            try (FileLock lock = lockChannel.lock()) {
+                File file = root.resolve(checksum).toFile();
+                if (!file.isFile())
+                    return null;
+                touch(file);
+                return file;
+            }
+        }
+    }
+
+    private File download(String checksum, Source source) throws IOException {
+        Path part = root.resolve(checksum + PART);
+        Path journal = ChunkedDownload.getStateFile(part.toFile()).toPath();
+        Path partLock = root.resolve(checksum + PART + LOCK);
+        // the process that downloads the file holds the lock of its part, the others wait and find it cached
+        try (FileChannel channel = FileChannel.open(partLock, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock downloading = channel.lock()) {
+            File file = lookup(checksum);
+            if (file != null)
+                return file;
+            source.copyTo(part.toFile());
+            String actual = com.google.common.io.Files.hash(part.toFile(), Hashing.sha1()).toString();
+            if (!checksum.equals(actual)) {
+                // the content is not resumed
+                Files.deleteIfExists(part);
+                Files.deleteIfExists(journal);
+                throw new IOException("Invalid checksum " + actual + ", expected " + checksum);
+            }
+            Path target = root.resolve(checksum);
+            synchronized (monitor) {
+                try (FileLock lock = lockChannel.lock()) {
+                    Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    touch(target.toFile());
+                    evict(checksum);
+                }
+            }
+            delete(journal);
+            // processes waiting for the lock find the file cached
+            delete(partLock);
+            return target.toFile();
+        }
+    }
+
+    /**
+     * Removes the least recently used files above the cache size, called with the lock held.
+     */
+    private void evict(String checksum) throws IOException {
+        List<File> files = cached();
+        long size = 0;
+        for (File file : files)
+            size += file.length();
+        if (size <= maxSize)
+            return;
+        final Map<File, Long> used = new HashMap<File, Long>(files.size() * 2);
+        for (File file : files)
+            used.put(file, file.lastModified());
+        Collections.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                return Long.compare(used.get(o1), used.get(o2));
+            }
+        });
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            if (size <= maxSize || now - used.get(file) < minAge)
+                break;
+            if (file.getName().equals(checksum))
+                continue;
+            size -= file.length();
+            delete(file.toPath());
+        }
+    }
+
+    private static void touch(File file) {
+        long last, now;
+        do {
+            last = clock.get();
+            now = Math.max(System.currentTimeMillis(), last + 1);
+        } while (!clock.compareAndSet(last, now));
+        file.setLastModified(now);
+    }
+
+    private List<File> cached() throws IOException {
+        List<File> files = new ArrayList<File>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(root)) {
+            for (Path file : directoryStream) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(".") && !isPart(name) && Files.isRegularFile(file))
+                    files.add(file.toFile());
+            }
+        }
+        return files;
+    }
+
+    private void delete(Path file) {
+        try {
+            log.debug("Removing {}", file);
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not remove {}", file, e);
+        }
+    }
+
+    private void removeStaleParts() throws IOException {
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(root)) {
+            for (Path file : directoryStream) {
+                // other processes may be downloading
+                String name = file.getFileName().toString();
+                if (isPart(name) && now - Files.getLastModifiedTime(file).toMillis() > STALE_PART
+                        && (!name.endsWith(PART + LOCK) || !isLocked(file)))
+                    delete(file);
+            }
+        }
+    }
+
+    /**
+     * Returns true if a download holds the lock of a part, so that the lock file is not replaced while waited for.
+     */
+    private static boolean isLocked(Path partLock) throws IOException {
+        try (FileChannel channel = FileChannel.open(partLock, StandardOpenOption.WRITE);
+             FileLock lock = channel.tryLock()) {
+            return lock == null;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (OverlappingFileLockException e) {
+            return true;
+        }
+    }
+
+    private static boolean isPart(String name) {
+        return name.endsWith(PART) || name.endsWith(PART + ChunkedDownload.CHUNKS) || name.endsWith(PART + LOCK);
+    }
+
+    private static long getMaxSize() {
+        String sizeStr = Sorcer.getProperty(P_FILE_CACHE_SIZE);
+        try {
+            return Long.parseLong(sizeStr);
+        } catch (NumberFormatException e) {
+            return FILE_CACHE_SIZE_DEFAULT;
+        }
+    }
+}
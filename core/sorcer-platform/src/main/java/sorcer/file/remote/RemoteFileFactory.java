@@ -16,23 +16,31 @@
 
 package sorcer.file.remote;
 
-import com.google.common.io.Files;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import sorcer.data.DataService;
 import sorcer.util.IOUtils;
 import sorcer.util.Sorcer;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 /**
  * A factory that creates RemoteFile instances based on whether source file is placed in a directory marked as shared.
  *
  * File placed in shared directories cause the factory to return {@link SharedFile}.
- * Files placed in other directories are copied to data directory, and upon request copied over HTTP.
+ * Files placed in other directories are linked or copied to data directory, and upon request copied over HTTP.
  *
  * @author Rafał Krupiński
  */
 public class RemoteFileFactory {
+    private static final Logger logger = LoggerFactory.getLogger(RemoteFileFactory.class);
 
     public static final RemoteFileFactory INST;
 
@@ -68,12 +76,43 @@ public class RemoteFileFactory {
     private WebFile createWebFile(File file) throws IOException {
         File published = file;
         if (!IOUtils.isChild(dataDir, file)) {
-            // TODO instead of copying a potentially large file, just register it with Webster instance
             published = dataDir.toPath().resolve(file.toPath().getFileName()).toFile();
-            Files.copy(file, published);
+            publish(file, published);
         }
 
         return new WebFile(published, Sorcer.getDataURL(published));
     }
 
+    /**
+     * Publish the file in the data directory as a hard link, so that large files are not copied. A source replaced
+     * later keeps the published content, while writes in place show through the link. Across file stores, or where
+     * links are not supported, a copy is published. A file published before with the same size and modification
+     * time is reused.
+     */
+    private void publish(File file, File published) throws IOException {
+        Path source = file.toPath();
+        Path target = published.toPath();
+        if (Files.exists(target) && (Files.isSameFile(source, target)
+                || published.length() == file.length() && published.lastModified() == file.lastModified()))
+            return;
+        // readers never see a partial copy
+        Path part = Files.createTempFile(dataDir.toPath(), published.getName(), ".part");
+        try {
+            Files.delete(part);
+            try {
+                Files.createLink(part, source);
+            } catch (NoSuchFileException | FileAlreadyExistsException e) {
+                throw e;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                logger.debug("Cannot link {}, copying it: {}", file, e.toString());
+                Files.copy(source, part, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+        logger.debug("Published {} as {}", file, published);
+    }
+
 }
@@ -16,17 +16,17 @@
 
 package sorcer.file.remote;
 
-import com.google.common.io.Resources;
-import sorcer.file.ScratchDirManager;
+import sorcer.file.ChunkedDownload;
+import sorcer.file.FileCache;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.URL;
 
 /**
- * Remote file that is copied over web using webster data appliance.
+ * Remote file that is copied over web using webster data appliance. Copies are kept in the local
+ * {@link FileCache}, so a file is transferred once per host.
  *
  * @author Rafał Krupiński
  */
@@ -41,16 +41,16 @@ public class WebFile extends AbstractRemoteFile implements Serializable {
 
     @Override
     protected File doGetFile() throws IOException {
-        File localFile = getLocalPath();
-        try (FileOutputStream local = new FileOutputStream(localFile)) {
-            Resources.copy(remoteUrl, local);
-        }
-        return localFile;
+        return getLocalPath();
     }
 
     @Override
     protected File getLocalPath() throws IOException {
-        File parent = new ScratchDirManager().getNewScratchDir("remote-file");
-        return new File(parent, checksum);
+        return FileCache.getInstance().get(checksum, new FileCache.Source() {
+            @Override
+            public void copyTo(File target) throws IOException {
+                ChunkedDownload.download(remoteUrl, target);
+            }
+        });
     }
 }
@@ -263,7 +263,7 @@ public abstract class ServiceExertion extends ServiceMogram implements Exertion
         try {
             substitute(entries);
         } catch (SetterException e) {
-            logger.error("Error in exertion {}", mogramId, e);
+            logger.error("Error in exertion {}", getId(), e);
             throw new MogramException(e);
         }
         String prvName = null;
@@ -460,6 +460,13 @@ public abstract class ServiceExertion extends ServiceMogram implements Exertion
         return controlContext.getTrace();
     }
 
+    /**
+     * Returns the ended trace spans of this exertion, see {@link TraceSink}.
+     */
+    public List<TraceSpan> getSpans() {
+        return controlContext.getSpans();
+    }
+
     /** {@inheritDoc} */
     public boolean isTree() {
         return isTree(new HashSet());
@@ -652,7 +659,7 @@ public abstract class ServiceExertion extends ServiceMogram implements Exertion
                 .append(this.getClass().getName()).append(": " + name);
         info.append("\n  process sig=").append(getProcessSignature());
         info.append("\n  status=").append(status);
-        info.append(", exertion ID=").append(mogramId);
+        info.append(", exertion ID=").append(getId());
         String time = getControlContext().getExecTime();
         if (time != null && time.length() > 0) {
             info.append("\n  Execution Time = " + time);
@@ -1038,7 +1045,7 @@ public abstract class ServiceExertion extends ServiceMogram implements Exertion
                             + "\n")
                     .append("\tExertion Tag:        " + name + "\n")
                     .append("\tExertion Status:      " + status + "\n")
-                    .append("\tExertion ID:          " + mogramId + "\n")
+                    .append("\tExertion ID:          " + getId() + "\n")
                     .append("\tCreation Date:        " + sdf.format(creationDate) + "\n")
                     .append("\tRuntime ID:           " + runtimeId + "\n")
                     .append("\tParent ID:            " + parentId + "\n")
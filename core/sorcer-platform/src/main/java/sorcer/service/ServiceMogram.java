@@ -24,6 +24,8 @@ import sorcer.util.Pool;
 import sorcer.util.Pools;
 
 import javax.security.auth.Subject;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.rmi.RemoteException;
 import java.security.Principal;
@@ -40,7 +42,7 @@ public abstract class ServiceMogram implements Mogram, Exec, Serializable, Sorce
 
     protected String name;
 
-    protected Uuid mogramId;
+    protected volatile Uuid mogramId;
 
     protected Uuid parentId;
 
@@ -76,7 +78,7 @@ public abstract class ServiceMogram implements Mogram, Exec, Serializable, Sorce
 
     protected Projection projection;
 
-    protected MogramStrategy mogramStrategy;
+    protected volatile MogramStrategy mogramStrategy;
 
     protected Differentiator differentiator;
 
@@ -188,7 +190,6 @@ public abstract class ServiceMogram implements Mogram, Exec, Serializable, Sorce
     }
 
     protected void init() {
-        mogramId = UuidFactory.generate();
         domainId = "0";
         subdomainId = "0";
         accessClass = PUBLIC;
@@ -213,7 +214,7 @@ public abstract class ServiceMogram implements Mogram, Exec, Serializable, Sorce
     }
 
     public Uuid getMogramId() {
-        return mogramId;
+        return getId();
     }
 
     @Override
@@ -280,8 +281,21 @@ public abstract class ServiceMogram implements Mogram, Exec, Serializable, Sorce
         status = value;
     }
 
+    /**
+     * Returns the ID of this mogram, generated when first requested, so that
+     * short lived mograms never asked for their ID do not generate one.
+     */
     @Override
     public Uuid getId() {
+        Uuid id = mogramId;
+        if (id == null)
+            id = generateId();
+        return id;
+    }
+
+    private synchronized Uuid generateId() {
+        if (mogramId == null)
+            mogramId = UuidFactory.generate();
         return mogramId;
     }
 
@@ -711,7 +725,7 @@ public abstract class ServiceMogram implements Mogram, Exec, Serializable, Sorce
         StringBuffer info = new StringBuffer()
                 .append(this.getClass().getName()).append(": " + name);
         info.append("\n  status=").append(status);
-        info.append(", mogram ID=").append(mogramId);
+        info.append(", mogram ID=").append(getId());
         return info.toString();
     }
 
@@ -1032,7 +1046,7 @@ public abstract class ServiceMogram implements Mogram, Exec, Serializable, Sorce
             logger.warn("configuratin failed for: " + configFilename);
             e.printStackTrace();
         }
-        logger.debug("config fiPool: " + Pools.getFiPool(mogramId));
+        logger.debug("config fiPool: " + Pools.getFiPool(getId()));
     }
 
     public <T> T getInstance() throws SignatureException {
@@ -1094,4 +1108,10 @@ public abstract class ServiceMogram implements Mogram, Exec, Serializable, Sorce
         // implement in subclasses
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // the ID is sent even if it was not requested yet
+        getId();
+        out.defaultWriteObject();
+    }
+
 }
@@ -18,6 +18,8 @@
 package sorcer.service;
 
 import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -33,6 +35,24 @@ public interface SpaceContext {
 	public Object takeValue(String path) throws ContextException, RemoteException;
 	
 	public Object aliasValue(String path, String alias) throws ContextException, RemoteException;
+
+	/**
+	 * Returns the values at the paths, reading the ones kept in the space
+	 * with a single batch.
+	 */
+	public Map<String, Object> readValues(List<String> paths) throws ContextException, RemoteException;
+
+	/**
+	 * Writes the values at their paths to the space with a single batch.
+	 */
+	public void writeValues(Map<String, ?> values) throws ContextException, RemoteException;
+
+	public Map<String, Object> takeValues(List<String> paths) throws ContextException, RemoteException;
+
+	/**
+	 * Writes values buffered by {@link #writeValue(String, Object)} to the space.
+	 */
+	public void flush() throws ContextException, RemoteException;
 	
 	/**
 	 * Makes JavaSpace resources unavailable for using in this ServiceContext.
@@ -17,37 +17,74 @@
 
 package sorcer.space.array;
 
+import java.rmi.MarshalledObject;
 import java.rmi.RemoteException;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
+import net.jini.core.entry.Entry;
 import net.jini.core.entry.UnusableEntryException;
+import net.jini.core.event.EventRegistration;
+import net.jini.core.event.RemoteEventListener;
 import net.jini.core.lease.Lease;
 import net.jini.core.transaction.Transaction;
 import net.jini.core.transaction.TransactionException;
 import net.jini.entry.UnusableEntriesException;
 import net.jini.space.JavaSpace05;
+import net.jini.space.MatchSet;
 
+/**
+ * An array of elements in a JavaSpace05. Appends take and rewrite the tail
+ * entry of one of the array's stripes; stripe <i>k</i> of <i>n</i> stripes
+ * allocates positions <i>k</i>, <i>k+n</i>, <i>k+2n</i>... so concurrent
+ * producers mostly append to different stripes. Positions are unique but,
+ * with more than one stripe, not contiguous.
+ * <p>
+ * Callers must not rely on a global append order. The objects of one
+ * {@link #appendAll(List, Transaction)} get increasing positions of a single
+ * stripe, <i>n</i> apart, but positions of different appends tell nothing
+ * of which append came first, and a range of positions has gaps where other
+ * stripes were not filled yet. Elements read in bulk are ordered by position,
+ * and {@link #readElement(int)} returns null for a position no append
+ * allocated rather than waiting for it.
+ * <p>
+ * The number of stripes is fixed when the array is created and is read from
+ * the space by other instances of the array. Arrays created without stripes
+ * have a single tail.
+ */
 public class DistribArray05 {
+	public static final int DEFAULT_STRIPES = 8;
+
+	// time to wait for the tail of a stripe before trying another one
+	private static final long TAIL_TIMEOUT = 250;
+
 	private JavaSpace05 space;
 
 	private String name;
 
+	private int stripes;
+
+	// null for arrays created without stripes
+	private Integer[] stripeIds;
+
+	// the tails of the stripes last seen, positions below are appended
+	private int[] tails;
+
 	public DistribArray05(JavaSpace05 space, String name) {
+		this(space, name, DEFAULT_STRIPES);
+	}
+
+	/**
+	 * @param stripes number of stripes used if this instance creates the array
+	 */
+	public DistribArray05(JavaSpace05 space, String name, int stripes) {
 		this.space = space;
 		this.name = name;
+		this.stripes = stripes;
 	}
 
 	public void create() throws RemoteException, TransactionException,
 			UnusableEntryException, InterruptedException {
-		Start start = new Start();
-		start.name = name;
-		start.position = new Integer(0);
-
-		End end = new End();
-		end.name = name;
-		end.position = new Integer(0);
-
 		Start startTemplate = new Start();
 		startTemplate.name = name;
 
@@ -59,49 +96,242 @@ public class DistribArray05 {
 		End ende = (End) space.readIfExists(endTemplate, null, Long.MAX_VALUE);
 
 		if ((starte == null) || (ende == null)) {
-			space.write(start, null, Lease.FOREVER);
-			space.write(end, null, Lease.FOREVER);
+			Start start = new Start();
+			start.name = name;
+			start.position = new Integer(0);
+			start.stripes = new Integer(stripes);
+
+			List<Entry> entries = new ArrayList<Entry>(stripes + 1);
+			entries.add(start);
+			for (int i = 0; i < stripes; i++) {
+				End end = new End();
+				end.name = name;
+				end.stripe = new Integer(i);
+				end.position = new Integer(i);
+				entries.add(end);
+			}
+			space.write(entries, null, leases(entries.size()));
+			setStripes(start);
+		} else {
+			setStripes(starte);
 		}
 	}
 
 	public int append(Object obj, Transaction txn) throws RemoteException,
 			TransactionException, UnusableEntryException, InterruptedException {
+		int[] positions = appendAll(Collections.singletonList(obj), txn);
+		return positions != null ? positions[0] : -1;
+	}
+
+	public int append(Object obj) throws RemoteException, TransactionException,
+			UnusableEntryException, InterruptedException {
+		return append(obj, null);
+	}
+
+	/**
+	 * Appends the objects to one stripe of the array with a single tail update
+	 * and a single batch write.
+	 *
+	 * @return the positions of the appended objects, or null if no tail of
+	 *         the array was available or the array layout is not known yet
+	 */
+	public int[] appendAll(List<?> objs, Transaction txn) throws RemoteException,
+			TransactionException, UnusableEntryException, InterruptedException {
+		if (objs.isEmpty())
+			return new int[0];
+		End end = takeTail(txn);
+		if (end == null)
+			return null;
+		int step = stripeIds != null ? stripeIds.length : 1;
+		int[] positions = new int[objs.size()];
+		List<Entry> entries = new ArrayList<Entry>(objs.size() + 1);
+		int position = end.position.intValue();
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = position;
+			entries.add(new Element(name, position, objs.get(i)));
+			position += step;
+		}
+		end.position = new Integer(position);
+		entries.add(end);
+		space.write(entries, txn, leases(entries.size()));
+		seeTail(end);
+		return positions;
+	}
+
+	private End takeTail(Transaction txn) throws RemoteException,
+			TransactionException, UnusableEntryException, InterruptedException {
+		Integer[] ids = getStripeIds(txn);
+		// a tail of an unknown stripe would allocate positions of other stripes
+		if (ids == null && stripes > 0)
+			return null;
 		End template = new End();
 		template.name = name;
+		if (ids == null)
+			return (End) space.take(template, txn, TAIL_TIMEOUT);
+		int first = ThreadLocalRandom.current().nextInt(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			template.stripe = ids[(first + i) % ids.length];
+			// wait only for the first choice, then take any free tail
+			End end = (End) (i == 0 ? space.take(template, txn, TAIL_TIMEOUT)
+					: space.takeIfExists(template, txn, 0));
+			if (end != null)
+				return end;
+		}
+		return null;
+	}
 
-		End end = (End) space.take(template, txn, 250);
-		if (end != null) {
-			int position = end.increment();
-			space.write(end, txn, Lease.FOREVER);
+	private Integer[] getStripeIds(Transaction txn) throws RemoteException,
+			TransactionException, UnusableEntryException, InterruptedException {
+		if (stripeIds == null && stripes > 0) {
+			Start template = new Start();
+			template.name = name;
+			// the layout is not known until the array is created
+			Start start = (Start) space.read(template, txn, TAIL_TIMEOUT);
+			if (start != null)
+				setStripes(start);
+		}
+		return stripeIds;
+	}
 
-			Element element = new Element(name, position, obj);
-			space.write(element, txn, Lease.FOREVER);
-			return position;
+	private void setStripes(Start start) {
+		if (start.stripes == null) {
+			// an array created without stripes
+			stripes = 0;
+			stripeIds = null;
+		} else {
+			stripes = start.stripes.intValue();
+			Integer[] ids = new Integer[stripes];
+			for (int i = 0; i < stripes; i++)
+				ids[i] = new Integer(i);
+			stripeIds = ids;
 		}
-		return -1;
 	}
 
-	public int append(Object obj) throws RemoteException, TransactionException,
-			UnusableEntryException, InterruptedException {
-		return append(obj, null);
+	/**
+	 * Returns true if the position was allocated by an append, reading the
+	 * tail of its stripe only for positions beyond the tail last seen.
+	 */
+	private boolean isAppended(int pos, Transaction txn) throws RemoteException,
+			TransactionException, UnusableEntryException, InterruptedException {
+		if (pos < 0)
+			return false;
+		Integer[] ids = getStripeIds(txn);
+		if (ids == null && stripes > 0)
+			return false;
+		int stripe = ids != null ? pos % ids.length : 0;
+		if (tails != null && pos < tails[stripe])
+			return true;
+		End template = new End();
+		template.name = name;
+		if (ids != null)
+			template.stripe = ids[stripe];
+		End end = (End) space.read(template, txn, Long.MAX_VALUE);
+		seeTail(end);
+		return pos < end.position.intValue();
+	}
+
+	private void seeTail(End end) {
+		int stripe = end.stripe != null ? end.stripe.intValue() : 0;
+		int[] seen = tails;
+		if (seen == null || seen.length <= stripe)
+			seen = tails = new int[Math.max(stripes, stripe + 1)];
+		seen[stripe] = Math.max(seen[stripe], end.position.intValue());
 	}
 
+	private static List<Long> leases(int count) {
+		return Collections.nCopies(count, Lease.FOREVER);
+	}
+
+	/**
+	 * Returns the number of elements appended to the array.
+	 */
 	public int size(Transaction txn) throws RemoteException,
 			TransactionException, UnusableEntryException, InterruptedException {
 		Start startTemplate = new Start();
 		startTemplate.name = name;
 
+		Start start = (Start) space.read(startTemplate, txn, Long.MAX_VALUE);
+		setStripes(start);
+
 		End endTemplate = new End();
 		endTemplate.name = name;
+		if (stripeIds == null) {
+			End end = (End) space.read(endTemplate, txn, Long.MAX_VALUE);
+			return (end.position.intValue() - start.position.intValue());
+		}
+		int size = 0;
+		for (Integer stripe : stripeIds) {
+			endTemplate.stripe = stripe;
+			End end = (End) space.read(endTemplate, txn, Long.MAX_VALUE);
+			size += (end.position.intValue() - stripe.intValue()) / stripeIds.length;
+		}
+		return size - start.position.intValue();
+	}
 
-		Start start = (Start) space.read(startTemplate, txn, Long.MAX_VALUE);
-		End end = (End) space.read(endTemplate, txn, Long.MAX_VALUE);
+	/**
+	 * Reads up to <code>maxEntries</code> elements of the array in a single
+	 * batch, ordered by position.
+	 *
+	 * @return the elements, indexed by their positions
+	 */
+	public SortedMap<Integer, Object> readElements(Transaction txn, long maxEntries)
+			throws RemoteException, TransactionException, UnusableEntryException {
+		Collection<Entry> tmpls = new ArrayList<Entry>();
+		tmpls.add(new Element(name));
+		MatchSet matches = space.contents(tmpls, txn, Lease.ANY, maxEntries);
+		SortedMap<Integer, Object> elements = new TreeMap<Integer, Object>();
+		Element element;
+		while ((element = (Element) matches.next()) != null) {
+			elements.put(element.index, element.data);
+		}
+		return elements;
+	}
 
-		return (end.position.intValue() - start.position.intValue());
+	/**
+	 * Reads the elements at the given positions in a single batch. Positions
+	 * without an element in the space are missing from the returned map.
+	 *
+	 * @return the elements, indexed by their positions
+	 */
+	public Map<Integer, Object> readElements(Collection<Integer> positions, Transaction txn)
+			throws RemoteException, TransactionException, UnusableEntryException {
+		Map<Integer, Object> elements = new HashMap<Integer, Object>(positions.size() * 2);
+		if (positions.isEmpty())
+			return elements;
+		MatchSet matches = space.contents(templates(positions), txn, Lease.ANY,
+				positions.size());
+		Element element;
+		while ((element = (Element) matches.next()) != null) {
+			elements.put(element.index, element.data);
+		}
+		return elements;
 	}
 
+	/**
+	 * Reads the elements at positions <code>from</code> (inclusive) to
+	 * <code>to</code> (exclusive) in a single batch.
+	 *
+	 * @return the elements found, ordered by position
+	 */
+	public SortedMap<Integer, Object> readElements(int from, int to, Transaction txn)
+			throws RemoteException, TransactionException, UnusableEntryException {
+		List<Integer> positions = new ArrayList<Integer>(Math.max(to - from, 0));
+		for (int i = from; i < to; i++)
+			positions.add(i);
+		return new TreeMap<Integer, Object>(readElements(positions, txn));
+	}
+
+	/**
+	 * Reads the element at the position, waiting for an element being
+	 * appended there.
+	 *
+	 * @return the element, or null if no element was appended at the position
+	 */
 	public Object readElement(int pos) throws RemoteException,
 			TransactionException, UnusableEntryException, InterruptedException {
+		// positions of other stripes may never be filled
+		if (!isAppended(pos, null))
+			return null;
 		Element template = new Element(name, pos, null);
 
 		Element element = (Element) space.read(template, null, Long.MAX_VALUE);
@@ -129,13 +359,98 @@ public class DistribArray05 {
 		return space.take(element, txn, timeout);
 	}
 	
+	/**
+	 * Takes the elements at the given positions in batches, waiting up to
+	 * <code>timeout</code> for the first of them. A space may return fewer
+	 * entries than requested by a batch take, so the rest are taken until
+	 * none is left. Positions without an element in the space are missing
+	 * from the returned map.
+	 *
+	 * @return the elements taken, indexed by their positions
+	 */
+	public Map<Integer, Object> takeElements(Collection<Integer> positions,
+			Transaction txn, long timeout) throws RemoteException,
+			TransactionException, UnusableEntriesException, InterruptedException {
+		Map<Integer, Object> elements = new HashMap<Integer, Object>(positions.size() * 2);
+		Set<Integer> remaining = new HashSet<Integer>(positions);
+		long wait = timeout;
+		while (!remaining.isEmpty()) {
+			Collection taken = space.take(templates(remaining), txn, wait,
+					remaining.size());
+			if (taken.isEmpty())
+				break;
+			for (Object entry : taken) {
+				Element element = (Element) entry;
+				elements.put(element.index, element.data);
+				remaining.remove(element.index);
+			}
+			// the elements left by a partial batch are available already
+			wait = 0;
+		}
+		return elements;
+	}
+
+	/**
+	 * Replaces the elements at the given positions with new data: existing
+	 * elements are taken in one batch and the replacements written in
+	 * another. Without a transaction readers may briefly miss a replaced
+	 * element.
+	 */
+	public void writeElements(Map<Integer, ?> elements, Transaction txn)
+			throws RemoteException, TransactionException,
+			UnusableEntriesException, InterruptedException {
+		if (elements.isEmpty())
+			return;
+		// all old elements are taken, not only the first batch
+		takeElements(elements.keySet(), txn, 0);
+		List<Entry> entries = new ArrayList<Entry>(elements.size());
+		for (Map.Entry<Integer, ?> e : elements.entrySet()) {
+			entries.add(new Element(name, e.getKey(), e.getValue()));
+		}
+		space.write(entries, txn, leases(entries.size()));
+	}
+
+	/**
+	 * Registers the listener for elements of this array becoming visible in
+	 * the space, both appended and replaced ones.
+	 */
+	public EventRegistration registerForElements(RemoteEventListener listener,
+			long leaseDuration, MarshalledObject handback)
+			throws RemoteException, TransactionException {
+		Collection<Entry> tmpls = new ArrayList<Entry>(1);
+		tmpls.add(new Element(name));
+		return space.registerForAvailabilityEvent(tmpls, null, true, listener,
+				leaseDuration, handback);
+	}
+
+	private List<Entry> templates(Collection<Integer> positions) {
+		List<Entry> tmpls = new ArrayList<Entry>(positions.size());
+		for (Integer position : positions)
+			tmpls.add(new Element(name, position, null));
+		return tmpls;
+	}
+
+	public String getName() {
+		return name;
+	}
+
 	public Collection takeElements(Transaction txn, long timeout, int maxEntries)
 			throws RemoteException, TransactionException,
 			UnusableEntriesException, InterruptedException {
 		Element element = new Element(name, null);
 		Collection tmpls = new ArrayList();
 		tmpls.add(element);
-		return space.take(tmpls, txn, timeout, maxEntries);
+		Collection elements = new ArrayList();
+		long wait = timeout;
+		while (elements.size() < maxEntries) {
+			// a batch take may return fewer entries than available
+			Collection taken = space.take(tmpls, txn, wait, maxEntries - elements.size());
+			if (taken.isEmpty())
+				break;
+			elements.addAll(taken);
+			wait = 0;
+		}
+		return elements;
 	}
 
 	public boolean delete(Transaction txn) throws RemoteException,
@@ -160,8 +475,9 @@ public class DistribArray05 {
 
 			Start starte = (Start) space.takeIfExists(startTemplate, txn,
 					Long.MAX_VALUE);
-			End ende = (End) space.takeIfExists(endTemplate, txn,
-					Long.MAX_VALUE);
+			// the tails of all stripes
+			while (space.takeIfExists(endTemplate, txn, Long.MAX_VALUE) != null)
+				;
 			return true;
 		}
 	}
@@ -0,0 +1,298 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.space.array;
+
+import net.jini.core.entry.UnusableEntryException;
+import net.jini.core.event.EventRegistration;
+import net.jini.core.event.RemoteEvent;
+import net.jini.core.event.RemoteEventListener;
+import net.jini.core.event.UnknownEventException;
+import net.jini.core.lease.Lease;
+import net.jini.core.transaction.TransactionException;
+import net.jini.export.Exporter;
+import net.jini.io.MarshalledInstance;
+import net.jini.jeri.BasicILFactory;
+import net.jini.jeri.BasicJeriExporter;
+import net.jini.jeri.tcp.TcpServerEndpoint;
+import net.jini.lease.LeaseRenewalManager;
+import net.jini.space.AvailabilityEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.context.ContextSharing;
+import sorcer.util.Sorcer;
+
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static sorcer.core.SorcerConstants.*;
+
+/**
+ * A near cache of the elements of a {@link DistribArray05}. Elements read
+ * from the space are kept locally and served without a space round trip
+ * until the space reports that an element at the same position became
+ * available again, i.e. was replaced. As events may be lost, cached elements
+ * also expire after <code>space.context.cache.ttl</code> seconds, and an
+ * element read while an event arrives is not cached.
+ * <p>
+ * Callers may modify the elements they get, so every caller gets its own
+ * copy, deserialized from the marshalled form kept in the cache; only
+ * immutable elements are shared.
+ * <p>
+ * The cache is enabled by {@link #listen()}; if the availability events of
+ * the array cannot be received all reads go to the space.
+ */
+public class ElementCache implements RemoteEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(ElementCache.class);
+
+    private static final long MIN_LEASE = 30000;
+
+    private final DistribArray05 array;
+
+    private final long ttl;
+
+    private final ConcurrentHashMap<Integer, Cached> elements = new ConcurrentHashMap<Integer, Cached>();
+
+    // events received, elements read before an event are not cached after it
+    private final AtomicLong events = new AtomicLong();
+
+    private volatile boolean enabled;
+
+    private Exporter exporter;
+
+    private EventRegistration registration;
+
+    private LeaseRenewalManager lrm;
+
+    public ElementCache(DistribArray05 array) {
+        this(array, TimeUnit.SECONDS.toMillis(getTtlProperty()));
+    }
+
+    /**
+     * @param ttl the milliseconds a cached element is used, 0 for no expiry
+     */
+    public ElementCache(DistribArray05 array, long ttl) {
+        this.array = array;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Registers this cache for availability events of the array elements
+     * and enables caching.
+     *
+     * @return true if the cache is enabled
+     */
+    public synchronized boolean listen() {
+        if (enabled)
+            return true;
+        try {
+            RemoteEventListener proxy = export();
+            registration = array.registerForElements(proxy, Lease.FOREVER, null);
+            lrm = new LeaseRenewalManager();
+            lrm.renewUntil(registration.getLease(), Lease.FOREVER, MIN_LEASE, null);
+            enabled = true;
+        } catch (Exception e) {
+            logger.warn("Unable to listen to elements of {}, caching disabled", array.getName(), e);
+            close();
+        }
+        return enabled;
+    }
+
+    /**
+     * Exports this cache for the availability events of the array.
+     */
+    protected RemoteEventListener export() throws IOException {
+        if (exporter == null)
+            exporter = new BasicJeriExporter(TcpServerEndpoint.getInstance(Sorcer.getHostAddress(), 0),
+                    new BasicILFactory());
+        return (RemoteEventListener) exporter.export(this);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Object read(int position) throws RemoteException, TransactionException,
+            UnusableEntryException, InterruptedException {
+        Cached cached = cached(position);
+        if (cached != null)
+            return cached.copy();
+        long seen = events.get();
+        Object data = array.readElement(position);
+        cache(position, data, seen);
+        return data;
+    }
+
+    /**
+     * Returns the elements at the given positions, reading the ones not in
+     * the cache from the space in a single batch.
+     */
+    public Map<Integer, Object> readAll(Collection<Integer> positions)
+            throws RemoteException, TransactionException, UnusableEntryException {
+        Map<Integer, Object> found = new HashMap<Integer, Object>(positions.size() * 2);
+        List<Integer> missing = new ArrayList<Integer>();
+        for (Integer position : positions) {
+            Cached cached = cached(position);
+            if (cached != null)
+                found.put(position, cached.copy());
+            else
+                missing.add(position);
+        }
+        if (!missing.isEmpty()) {
+            long seen = events.get();
+            Map<Integer, Object> read = array.readElements(missing, null);
+            for (Map.Entry<Integer, Object> e : read.entrySet())
+                cache(e.getKey(), e.getValue(), seen);
+            found.putAll(read);
+        }
+        return found;
+    }
+
+    /**
+     * Caches data written to the space at the position. The data is copied,
+     * so later changes of the caller are not seen by readers.
+     */
+    public void put(int position, Object data) {
+        cache(position, data, events.get());
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    private Cached cached(int position) {
+        if (!enabled)
+            return null;
+        Cached cached = elements.get(position);
+        if (cached != null && cached.isExpired()) {
+            elements.remove(position, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    /*
+     * Caches the data read or written after the given number of events, if no
+     * event arrived since
+     */
+    private void cache(int position, Object data, long seen) {
+        if (!enabled)
+            return;
+        Cached cached;
+        try {
+            cached = new Cached(data);
+        } catch (IOException e) {
+            logger.debug("Unable to cache the element {} of {}", position, array.getName(), e);
+            elements.remove(position);
+            return;
+        }
+        elements.put(position, cached);
+        // an element replaced meanwhile may have been cached after its event
+        if (events.get() != seen)
+            elements.remove(position, cached);
+    }
+
+    public void invalidate(int position) {
+        elements.remove(position);
+    }
+
+    public void invalidateAll(Collection<Integer> positions) {
+        for (Integer position : positions)
+            elements.remove(position);
+    }
+
+    @Override
+    public void notify(RemoteEvent event) throws UnknownEventException, RemoteException {
+        if (!(event instanceof AvailabilityEvent))
+            return;
+        events.incrementAndGet();
+        try {
+            Element element = (Element) ((AvailabilityEvent) event).getEntry();
+            if (element.index != null)
+                elements.remove(element.index);
+        } catch (UnusableEntryException e) {
+            // the element is not known, none of the cached ones can be trusted
+            elements.clear();
+        }
+    }
+
+    /**
+     * Cancels the event registration and drops all cached elements.
+     */
+    public synchronized void close() {
+        enabled = false;
+        elements.clear();
+        if (registration != null) {
+            try {
+                lrm.remove(registration.getLease());
+                registration.getLease().cancel();
+            } catch (Exception e) {
+                logger.debug("Unable to cancel element events of {}", array.getName(), e);
+            }
+            registration = null;
+        }
+        if (exporter != null) {
+            exporter.unexport(true);
+            exporter = null;
+        }
+    }
+
+    private static int getTtlProperty() {
+        try {
+            return Integer.parseInt(Sorcer.getProperty(P_SPACE_CONTEXT_CACHE_TTL));
+        } catch (NumberFormatException e) {
+            return SPACE_CONTEXT_CACHE_TTL_DEFAULT;
+        }
+    }
+
+    /**
+     * A cached element, kept marshalled unless it is immutable.
+     */
+    private class Cached {
+        final Object data;
+        final MarshalledInstance marshalled;
+        final long expires;
+
+        Cached(Object data) throws IOException {
+            if (data == null || ContextSharing.isImmutable(data)) {
+                this.data = data;
+                this.marshalled = null;
+            } else {
+                this.data = null;
+                this.marshalled = new MarshalledInstance(data);
+            }
+            expires = ttl > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl) : 0;
+        }
+
+        boolean isExpired() {
+            return ttl > 0 && System.nanoTime() - expires > 0;
+        }
+
+        Object copy() throws RemoteException {
+            if (marshalled == null)
+                return data;
+            try {
+                return marshalled.get(false);
+            } catch (IOException | ClassNotFoundException e) {
+                throw new RemoteException("Unable to copy a cached element of " + array.getName(), e);
+            }
+        }
+    }
+}
@@ -17,7 +17,14 @@
 
 package sorcer.space.array;
 
+/**
+ * Tail of a stripe of a distributed array. The next element appended to the
+ * stripe takes the tail position, and the tail advances by the number of
+ * stripes. Arrays created without stripes have a single tail with no stripe.
+ */
 public class End extends Index {
+	public Integer stripe;
+
 	public End() {
 	}
 }
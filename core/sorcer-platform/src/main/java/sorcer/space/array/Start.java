@@ -17,7 +17,13 @@
 
 package sorcer.space.array;
 
+/**
+ * Head of a distributed array, also holding the number of stripes of the
+ * array, or null for arrays created without stripes.
+ */
 public class Start extends Index {
+	public Integer stripes;
+
 	public Start() {
 	}
 }
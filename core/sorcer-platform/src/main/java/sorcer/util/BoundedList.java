@@ -0,0 +1,88 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A list keeping at most the maximum number of elements: the oldest elements
+ * are removed when new ones are added beyond the maximum. The number of
+ * removed elements is kept so that truncation is visible to readers.
+ */
+public class BoundedList<E> extends ArrayList<E> {
+	private static final long serialVersionUID = 1L;
+
+	private final int maxSize;
+	private int dropped;
+
+	public BoundedList(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	@Override
+	public boolean add(E e) {
+		super.add(e);
+		trim();
+		return true;
+	}
+
+	@Override
+	public void add(int index, E element) {
+		super.add(index, element);
+		trim();
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends E> c) {
+		boolean changed = super.addAll(c);
+		trim();
+		return changed;
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends E> c) {
+		boolean changed = super.addAll(index, c);
+		trim();
+		return changed;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		dropped = 0;
+	}
+
+	private void trim() {
+		int excess = size() - maxSize;
+		if (maxSize > 0 && excess > 0) {
+			removeRange(0, excess);
+			dropped += excess;
+		}
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the number of elements removed to keep the maximum size.
+	 */
+	public int getDropped() {
+		return dropped;
+	}
+}
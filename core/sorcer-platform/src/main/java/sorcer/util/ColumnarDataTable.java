@@ -0,0 +1,1382 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A {@link DataTable} that stores its cells by column: double, long and int
+ * columns in primitive arrays and string columns as codes of a dictionary of
+ * the distinct strings. A table of millions of numeric cells takes about the
+ * memory of the primitive values, and the aggregates and filters of a column
+ * run over its primitive array.
+ * <p>
+ * The rows of the table, {@link #getDataList()} and {@link #getRow(int)}, are
+ * views of the columns, so that all operations of a <code>DataTable</code>
+ * are supported. Values set in a column are converted to the type of the
+ * column; columns of other values than strings, doubles, longs and integers
+ * keep the values as they are.
+ * <p>
+ * Besides the delimited text written by {@link #writeToFile(File)}, the table
+ * is written and read in a binary format by {@link #writeBinary(File)} and
+ * {@link #readBinary(File)}.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public class ColumnarDataTable extends DataTable {
+	static final long serialVersionUID = 1L;
+
+	private static final int MAGIC = 0x53445431;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// set by the constructors, the DataTable constructors run before
+	private List<Column> columns;
+
+	/**
+	 * Constructs an empty table with the columns of the types.
+	 *
+	 * @param columnNames
+	 *            the names of the columns
+	 * @param cellTypes
+	 *            the types of the columns, {@link Cell#DOUBLE},
+	 *            {@link Cell#LONG}, {@link Cell#INTEGER}, {@link Cell#STRING}
+	 *            or {@link Cell#SERIALIZED} for other objects
+	 */
+	public ColumnarDataTable(List<String> columnNames, Cell... cellTypes) {
+		super(new ArrayList(columnNames), 0);
+		if (cellTypes.length != columnNames.size())
+			throw new IllegalArgumentException("Expected " + columnNames.size()
+					+ " cell types, got " + cellTypes.length);
+		name = "undefined" + count++;
+		columns = new ArrayList<Column>(cellTypes.length);
+		for (Cell type : cellTypes)
+			columns.add(newColumn(type, 16));
+		dataList = new RowList(columns);
+	}
+
+	public ColumnarDataTable(String[] columnNames, Cell... cellTypes) {
+		this(Arrays.asList(columnNames), cellTypes);
+	}
+
+	/**
+	 * Constructs a table with the data of the table, with the column types
+	 * inferred from its values.
+	 */
+	public ColumnarDataTable(DataTable table) {
+		super(new ArrayList(table.getColumnNames()), 0);
+		name = table.getName();
+		columns = new ArrayList<Column>();
+		dataList = new RowList(columns);
+		load(table.getDataList());
+		if (table.getRowIdentifiers() != null)
+			rowIdentifiers = new ArrayList<Object>(table.getRowIdentifiers());
+		cellType = table.getCellType();
+		outputTableDelimiter = table.getOutDelimiter();
+	}
+
+	@Override
+	public void setDataList(List dataList, List columnIdentifiers) {
+		if (columns == null) {
+			// called by the DataTable constructors
+			super.setDataList(dataList, columnIdentifiers);
+			return;
+		}
+		this.columnIdentifiers = nonNullList(columnIdentifiers);
+		load(dataList);
+	}
+
+	@Override
+	public void setDataList(List dataList) {
+		if (columns == null) {
+			super.setDataList(dataList);
+			return;
+		}
+		load(dataList);
+	}
+
+	/*
+	 * Replaces the columns with the values of the rows
+	 */
+	private void load(List<List<?>> rows) {
+		int rowCount = rows == null ? 0 : rows.size();
+		int columnCount = columnIdentifiers.size();
+		columns.clear();
+		for (int j = 0; j < columnCount; j++) {
+			List<Object> values = new ArrayList<Object>(rowCount);
+			for (int i = 0; i < rowCount; i++) {
+				List<?> row = rows.get(i);
+				values.add(row != null && j < row.size() ? row.get(j) : null);
+			}
+			columns.add(newColumn(values));
+		}
+	}
+
+	public Cell getColumnType(int column) {
+		return columns.get(column).getType();
+	}
+
+	public Cell getColumnType(String columnName) {
+		return getColumnType(columnIndexOf(columnName));
+	}
+
+	/**
+	 * Adds a row of doubles without boxing them when the columns are double
+	 * columns.
+	 */
+	@Override
+	public void addRow(double[] rowData) {
+		int columnCount = columns.size();
+		for (int j = 0; j < columnCount; j++) {
+			Column column = columns.get(j);
+			if (column instanceof DoubleColumn && j < rowData.length)
+				((DoubleColumn) column).append(rowData[j]);
+			else
+				column.insert(column.size, j < rowData.length ? (Object) rowData[j] : null);
+		}
+	}
+
+	/**
+	 * Moves the rows by copies of their values, the rows of the table are
+	 * views of the columns.
+	 */
+	@Override
+	public void moveRow(int start, int end, int to) {
+		List<List<?>> moved = new ArrayList<List<?>>(end - start + 1);
+		for (int i = end; i >= start; i--)
+			moved.add(0, dataList.remove(i));
+		for (int k = 0; k < moved.size(); k++)
+			dataList.add(to + k, moved.get(k));
+	}
+
+	@Override
+	public int getRowCount() {
+		return columns == null || columns.isEmpty() ? super.getRowCount() : columns.get(0).size;
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		return columns.get(column).get(row);
+	}
+
+	@Override
+	public Object getValueAt(int row, String colName) {
+		return getValueAt(row, columnIndexOf(colName));
+	}
+
+	@Override
+	public Object getValue(int row, String columnName) {
+		return getValueAt(row, columnIndexOf(columnName));
+	}
+
+	@Override
+	public void setValueAt(Object aValue, int row, int column) {
+		columns.get(column).set(row, aValue);
+	}
+
+	@Override
+	public Double getValueAtAsDouble(int row, int column) {
+		Column c = columns.get(column);
+		if (c instanceof NumberColumn)
+			return c.isNull(row) ? null : ((NumberColumn) c).getDouble(row);
+		return super.getValueAtAsDouble(row, column);
+	}
+
+	public double getDouble(int row, String columnName) {
+		return numberColumn(columnIndexOf(columnName)).getDouble(row);
+	}
+
+	/**
+	 * Returns a read only view of the column.
+	 */
+	@Override
+	public List getColumn(int colIndex) {
+		if (colIndex < 0)
+			return null;
+		final Column column = columns.get(colIndex);
+		return new AbstractList() {
+			@Override
+			public Object get(int index) {
+				checkIndex(index, column.size);
+				return column.get(index);
+			}
+
+			@Override
+			public int size() {
+				return column.size;
+			}
+		};
+	}
+
+	/**
+	 * Returns a copy of the values of a numeric column as doubles, with 0 for
+	 * empty cells.
+	 */
+	public double[] getDoubles(String columnName) {
+		NumberColumn column = numberColumn(columnIndexOf(columnName));
+		double[] values = new double[column.size];
+		for (int i = 0; i < values.length; i++)
+			values[i] = column.getDouble(i);
+		return values;
+	}
+
+	@Override
+	public void addColumn(String columnName, List columnData, int colID) {
+		columnIdentifiers.add(colID, columnName);
+		columns.add(colID, newColumn(fill(columnData)));
+	}
+
+	@Override
+	public void addColumn(String columnName, List columnData) {
+		addColumn(columnName, columnData, columnIdentifiers.size());
+	}
+
+	public void addColumn(String columnName, double[] columnData) {
+		DoubleColumn column = new DoubleColumn(Math.max(columnData.length, getRowCount()));
+		for (double value : columnData)
+			column.append(value);
+		for (int i = columnData.length; i < getRowCount(); i++)
+			column.insert(i, null);
+		columnIdentifiers.add(columnName);
+		columns.add(column);
+	}
+
+	/*
+	 * Returns the values of a new column, with null for the rows not given
+	 */
+	private List<?> fill(List columnData) {
+		int rowCount = getRowCount();
+		List values = new ArrayList(Math.max(rowCount, columnData == null ? 0 : columnData.size()));
+		if (columnData != null)
+			values.addAll(columnData);
+		if (!columns.isEmpty()) {
+			while (values.size() < rowCount)
+				values.add(null);
+			if (values.size() > rowCount)
+				throw new IllegalArgumentException("Column of " + values.size() + " values for "
+						+ rowCount + " rows");
+		}
+		return values;
+	}
+
+	@Override
+	public void removeColumn(int colID) {
+		columns.remove(colID);
+		columnIdentifiers.remove(colID);
+	}
+
+	@Override
+	public Double[] getMinMaxValuesAsDouble(int colIndex) {
+		Column column = columns.get(colIndex);
+		if (!(column instanceof NumberColumn))
+			return super.getMinMaxValuesAsDouble(colIndex);
+		double[] minMax = ((NumberColumn) column).minMax();
+		return new Double[] { minMax[0], minMax[1] };
+	}
+
+	public double getMin(String columnName) {
+		return numberColumn(columnIndexOf(columnName)).minMax()[0];
+	}
+
+	public double getMax(String columnName) {
+		return numberColumn(columnIndexOf(columnName)).minMax()[1];
+	}
+
+	/**
+	 * Returns the sum of the values of a numeric column, without empty cells.
+	 */
+	public double getSum(String columnName) {
+		return numberColumn(columnIndexOf(columnName)).sum();
+	}
+
+	/**
+	 * Returns the mean of the values of a numeric column, without empty cells,
+	 * or NaN if the column has no values.
+	 */
+	public double getMean(String columnName) {
+		NumberColumn column = numberColumn(columnIndexOf(columnName));
+		int count = column.size - column.nullCount();
+		return count == 0 ? Double.NaN : column.sum() / count;
+	}
+
+	/**
+	 * Returns the rows with values of a numeric column in the inclusive range.
+	 */
+	public BitSet select(String columnName, double min, double max) {
+		return numberColumn(columnIndexOf(columnName)).select(min, max);
+	}
+
+	/**
+	 * Returns the rows with the value in the column, compared as by
+	 * {@link Object#equals(Object)}.
+	 */
+	public BitSet selectEqual(String columnName, Object value) {
+		int column = columnIndexOf(columnName);
+		if (column < 0)
+			return new BitSet();
+		return columns.get(column).selectEqual(value);
+	}
+
+	/**
+	 * Returns the rows with the value in the column, compared by its string
+	 * representation.
+	 */
+	public BitSet selectString(String columnName, String value) {
+		int column = columnIndexOf(columnName);
+		if (column < 0)
+			return new BitSet();
+		return columns.get(column).selectString(value);
+	}
+
+	/**
+	 * Returns a new table of the rows.
+	 */
+	public ColumnarDataTable getRows(BitSet rows) {
+		ColumnarDataTable table = subset(rows);
+		if (rowIdentifiers != null) {
+			table.rowIdentifiers = new ArrayList<Object>(rows.cardinality());
+			for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+				table.rowIdentifiers.add(rowIdentifiers.get(i));
+		}
+		return table;
+	}
+
+	private ColumnarDataTable subset(BitSet rows) {
+		Cell[] types = new Cell[columns.size()];
+		for (int j = 0; j < types.length; j++)
+			types[j] = columns.get(j).getType();
+		ColumnarDataTable table = new ColumnarDataTable(columnIdentifiers, types);
+		int[] indexes = new int[rows.cardinality()];
+		int k = 0;
+		for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+			indexes[k++] = i;
+		for (int j = 0; j < types.length; j++)
+			table.columns.set(j, columns.get(j).gather(indexes));
+		return table;
+	}
+
+	/*
+	 * The query tables keep the column and row identifiers of this table as
+	 * the query tables of a DataTable do
+	 */
+	private DataTable query(BitSet rows) {
+		ColumnarDataTable table = subset(rows);
+		table.setColumnIdentifiers(columnIdentifiers);
+		if (rowIdentifiers != null)
+			table.setRowIdentifiers(rowIdentifiers);
+		return table;
+	}
+
+	@Override
+	public DataTable getValuesSuchThat(String colName1, String col1Value,
+									   String colName2, String col2Value) {
+		BitSet rows = selectString(colName1, col1Value);
+		rows.and(selectString(colName2, col2Value));
+		return query(rows);
+	}
+
+	@Override
+	public boolean hasValueSuchThat(String colName1, String col1Value,
+									String colName2, String col2Value) {
+		return selectString(colName1, col1Value).intersects(selectString(colName2, col2Value));
+	}
+
+	@Override
+	public DataTable getValuesSuchThat(String colName1, String col1Value) {
+		if (columnIndexOf(colName1) < 0)
+			return new DataTable();
+		return query(selectEqual(colName1, col1Value));
+	}
+
+	@Override
+	public DataTable getValuesSuchThat(String colName1, Integer col1Value) {
+		return query(selectEqual(colName1, col1Value));
+	}
+
+	private NumberColumn numberColumn(int index) {
+		Column column = columns.get(index);
+		if (!(column instanceof NumberColumn))
+			throw new IllegalArgumentException("Column " + columnIdentifiers.get(index)
+					+ " of " + column.getType() + " cells is not numeric");
+		return (NumberColumn) column;
+	}
+
+	/**
+	 * Writes the table in the binary format read by {@link #readBinary(File)}.
+	 * The row identifiers are written as strings.
+	 *
+	 * @throws NotSerializableException
+	 *             if the table has a column of objects
+	 */
+	public void writeBinary(File file) throws IOException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			writeBinary(out);
+		}
+	}
+
+	public void writeBinary(OutputStream stream) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+		int rowCount = getRowCount();
+		out.writeInt(MAGIC);
+		writeString(out, name);
+		out.writeInt(rowCount);
+		out.writeInt(columns.size());
+		out.writeBoolean(rowIdentifiers != null);
+		if (rowIdentifiers != null) {
+			for (int i = 0; i < rowCount; i++)
+				writeString(out, String.valueOf(rowIdentifiers.get(i)));
+		}
+		for (int j = 0; j < columns.size(); j++) {
+			Column column = columns.get(j);
+			writeString(out, getColumnName(j));
+			out.writeUTF(column.getType().name());
+			column.write(out);
+		}
+		out.flush();
+	}
+
+	public static ColumnarDataTable readBinary(File file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return readBinary(in);
+		}
+	}
+
+	public static ColumnarDataTable readBinary(InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream, BUFFER_SIZE));
+		if (in.readInt() != MAGIC)
+			throw new StreamCorruptedException("Not a binary data table");
+		String name = readString(in);
+		int rowCount = in.readInt();
+		int columnCount = in.readInt();
+		List<Object> rowIdentifiers = null;
+		if (in.readBoolean()) {
+			rowIdentifiers = new ArrayList<Object>(rowCount);
+			for (int i = 0; i < rowCount; i++)
+				rowIdentifiers.add(readString(in));
+		}
+		List<String> names = new ArrayList<String>(columnCount);
+		List<Column> columns = new ArrayList<Column>(columnCount);
+		for (int j = 0; j < columnCount; j++) {
+			names.add(readString(in));
+			Cell type;
+			try {
+				type = Cell.valueOf(in.readUTF());
+			} catch (IllegalArgumentException e) {
+				throw new StreamCorruptedException("Unknown column type: " + e.getMessage());
+			}
+			Column column = newColumn(type, rowCount);
+			column.read(in, rowCount);
+			columns.add(column);
+		}
+		ColumnarDataTable table = new ColumnarDataTable(names, new Cell[columnCount]);
+		table.columns.clear();
+		table.columns.addAll(columns);
+		table.name = name;
+		table.rowIdentifiers = rowIdentifiers;
+		return table;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void checkIndex(int index, int size) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+
+	static Column newColumn(Cell type, int capacity) {
+		if (type == null)
+			return new ObjectColumn(capacity);
+		switch (type) {
+			case DOUBLE:
+				return new DoubleColumn(capacity);
+			case LONG:
+				return new LongColumn(capacity);
+			case INTEGER:
+				return new IntColumn(capacity);
+			case STRING:
+				return new StringColumn(capacity);
+			case SERIALIZED:
+				return new ObjectColumn(capacity);
+			default:
+				throw new IllegalArgumentException("Unsupported column type: " + type);
+		}
+	}
+
+	/*
+	 * Returns a column of the values, of the type of all non null values
+	 */
+	static Column newColumn(List<?> values) {
+		Class<?> type = null;
+		for (Object value : values) {
+			if (value == null)
+				continue;
+			if (type == null)
+				type = value.getClass();
+			else if (type != value.getClass()) {
+				type = Object.class;
+				break;
+			}
+		}
+		Cell cell;
+		if (type == null || type == String.class)
+			cell = Cell.STRING;
+		else if (type == Double.class)
+			cell = Cell.DOUBLE;
+		else if (type == Long.class)
+			cell = Cell.LONG;
+		else if (type == Integer.class)
+			cell = Cell.INTEGER;
+		else
+			cell = Cell.SERIALIZED;
+		Column column = newColumn(cell, values.size());
+		for (Object value : values)
+			column.insert(column.size, value);
+		return column;
+	}
+
+	/**
+	 * The rows of the table, as views of the columns
+	 */
+	private static class RowList extends AbstractList<List<?>> implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final List<Column> columns;
+
+		RowList(List<Column> columns) {
+			this.columns = columns;
+		}
+
+		@Override
+		public List<?> get(final int row) {
+			checkIndex(row, size());
+			return new AbstractList<Object>() {
+				@Override
+				public Object get(int column) {
+					return columns.get(column).get(row);
+				}
+
+				@Override
+				public Object set(int column, Object value) {
+					Column c = columns.get(column);
+					Object old = c.get(row);
+					c.set(row, value);
+					return old;
+				}
+
+				@Override
+				public int size() {
+					return columns.size();
+				}
+			};
+		}
+
+		@Override
+		public List<?> set(int row, List<?> values) {
+			checkIndex(row, size());
+			List<Object> old = new ArrayList<Object>(get(row));
+			for (int j = 0; j < columns.size(); j++)
+				columns.get(j).set(row, values != null && j < values.size() ? values.get(j) : null);
+			return old;
+		}
+
+		@Override
+		public void add(int row, List<?> values) {
+			if (row < 0 || row > size())
+				throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size());
+			for (int j = 0; j < columns.size(); j++)
+				columns.get(j).insert(row, values != null && j < values.size() ? values.get(j) : null);
+			modCount++;
+		}
+
+		@Override
+		public List<?> remove(int row) {
+			List<Object> old = new ArrayList<Object>(get(row));
+			for (Column column : columns)
+				column.remove(row);
+			modCount++;
+			return old;
+		}
+
+		@Override
+		public void clear() {
+			for (Column column : columns)
+				column.clear();
+			modCount++;
+		}
+
+		@Override
+		public int size() {
+			return columns.isEmpty() ? 0 : columns.get(0).size;
+		}
+	}
+
+	/**
+	 * The cells of a column, stored in an array of the capacity of the column
+	 */
+	static abstract class Column implements Serializable {
+		private static final long serialVersionUID = 1L;
+		int size;
+
+		abstract Cell getType();
+
+		abstract Object array();
+
+		abstract void resize(int capacity);
+
+		abstract Object get(int row);
+
+		abstract void set(int row, Object value);
+
+		abstract BitSet selectEqual(Object value);
+
+		abstract BitSet selectString(String value);
+
+		abstract void write(DataOutputStream out) throws IOException;
+
+		abstract void read(DataInputStream in, int rows) throws IOException;
+
+		boolean isNull(int row) {
+			return get(row) == null;
+		}
+
+		void grow(int capacity) {
+			int length = java.lang.reflect.Array.getLength(array());
+			if (capacity > length)
+				resize(Math.max(capacity, Math.max(16, length + (length >> 1))));
+		}
+
+		void insert(int row, Object value) {
+			grow(size + 1);
+			System.arraycopy(array(), row, array(), row + 1, size - row);
+			size++;
+			set(row, value);
+		}
+
+		void remove(int row) {
+			checkIndex(row, size);
+			System.arraycopy(array(), row + 1, array(), row, size - row - 1);
+			size--;
+		}
+
+		void clear() {
+			size = 0;
+			resize(16);
+		}
+
+		Column gather(int[] rows) {
+			Column column = newColumn(getType(), rows.length);
+			for (int row : rows)
+				column.insert(column.size, get(row));
+			return column;
+		}
+
+		private void writeObject(ObjectOutputStream out) throws IOException {
+			// the unused capacity is not written
+			resize(size);
+			out.defaultWriteObject();
+		}
+	}
+
+	/**
+	 * A column of primitive numbers with a set of the empty cells
+	 */
+	static abstract class NumberColumn extends Column {
+		private static final long serialVersionUID = 1L;
+		BitSet nulls;
+
+		abstract double getDouble(int row);
+
+		abstract void store(int row, Number value);
+
+		abstract Number parse(String value);
+
+		@Override
+		boolean isNull(int row) {
+			return nulls != null && nulls.get(row);
+		}
+
+		int nullCount() {
+			return nulls == null ? 0 : nulls.cardinality();
+		}
+
+		@Override
+		void set(int row, Object value) {
+			checkIndex(row, size);
+			if (value == null) {
+				if (nulls == null)
+					nulls = new BitSet();
+				nulls.set(row);
+				store(row, 0);
+				return;
+			}
+			if (nulls != null)
+				nulls.clear(row);
+			store(row, value instanceof Number ? (Number) value : parse(value.toString()));
+		}
+
+		@Override
+		void insert(int row, Object value) {
+			if (nulls != null) {
+				for (int i = nulls.previousSetBit(size - 1); i >= row; i = nulls.previousSetBit(i - 1)) {
+					nulls.clear(i);
+					nulls.set(i + 1);
+				}
+			}
+			super.insert(row, value);
+		}
+
+		@Override
+		void remove(int row) {
+			super.remove(row);
+			if (nulls != null) {
+				nulls.clear(row);
+				for (int i = nulls.nextSetBit(row + 1); i >= 0; i = nulls.nextSetBit(i + 1)) {
+					nulls.clear(i);
+					nulls.set(i - 1);
+				}
+			}
+		}
+
+		@Override
+		void clear() {
+			super.clear();
+			nulls = null;
+		}
+
+		double[] minMax() {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < size; i++) {
+				if (isNull(i))
+					continue;
+				double value = getDouble(i);
+				if (value < min)
+					min = value;
+				if (value > max)
+					max = value;
+			}
+			return new double[] { min, max };
+		}
+
+		double sum() {
+			double sum = 0;
+			for (int i = 0; i < size; i++)
+				sum += getDouble(i);
+			// empty cells are stored as 0
+			return sum;
+		}
+
+		BitSet select(double min, double max) {
+			BitSet rows = new BitSet(size);
+			for (int i = 0; i < size; i++) {
+				double value = getDouble(i);
+				if (value >= min && value <= max)
+					rows.set(i);
+			}
+			if (nulls != null)
+				rows.andNot(nulls);
+			return rows;
+		}
+
+		@Override
+		BitSet selectString(String value) {
+			if (value == null)
+				return new BitSet();
+			Number number;
+			try {
+				number = parse(value);
+			} catch (NumberFormatException e) {
+				return new BitSet();
+			}
+			// only the value of the same representation matches
+			if (!number.toString().equals(value))
+				return new BitSet();
+			return selectEqual(number);
+		}
+
+		void writeNulls(DataOutputStream out) throws IOException {
+			long[] words = nulls == null ? new long[0] : nulls.toLongArray();
+			out.writeInt(words.length);
+			for (long word : words)
+				out.writeLong(word);
+		}
+
+		void readNulls(DataInputStream in) throws IOException {
+			long[] words = new long[in.readInt()];
+			for (int i = 0; i < words.length; i++)
+				words[i] = in.readLong();
+			nulls = words.length == 0 ? null : BitSet.valueOf(words);
+		}
+
+		@Override
+		Column gather(int[] rows) {
+			NumberColumn column = (NumberColumn) newColumn(getType(), rows.length);
+			column.size = rows.length;
+			Object to = column.array();
+			Object from = array();
+			for (int k = 0; k < rows.length; k++)
+				System.arraycopy(from, rows[k], to, k, 1);
+			if (nulls != null) {
+				for (int k = 0; k < rows.length; k++) {
+					if (nulls.get(rows[k])) {
+						if (column.nulls == null)
+							column.nulls = new BitSet();
+						column.nulls.set(k);
+					}
+				}
+			}
+			return column;
+		}
+	}
+
+	static class DoubleColumn extends NumberColumn {
+		private static final long serialVersionUID = 1L;
+		double[] values;
+
+		DoubleColumn(int capacity) {
+			values = new double[Math.max(capacity, 1)];
+		}
+
+		@Override
+		Cell getType() {
+			return Cell.DOUBLE;
+		}
+
+		@Override
+		Object array() {
+			return values;
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, Math.max(capacity, 1));
+		}
+
+		void append(double value) {
+			grow(size + 1);
+			values[size++] = value;
+		}
+
+		@Override
+		Object get(int row) {
+			checkIndex(row, size);
+			return isNull(row) ? null : values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+
+		@Override
+		void store(int row, Number value) {
+			values[row] = value.doubleValue();
+		}
+
+		@Override
+		Number parse(String value) {
+			return Double.valueOf(value);
+		}
+
+		@Override
+		double sum() {
+			double[] values = this.values;
+			double sum = 0;
+			for (int i = 0; i < size; i++)
+				sum += values[i];
+			return sum;
+		}
+
+		@Override
+		double[] minMax() {
+			if (nulls != null)
+				return super.minMax();
+			double[] values = this.values;
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < size; i++) {
+				min = Math.min(min, values[i]);
+				max = Math.max(max, values[i]);
+			}
+			return new double[] { min, max };
+		}
+
+		@Override
+		BitSet select(double min, double max) {
+			double[] values = this.values;
+			BitSet rows = new BitSet(size);
+			for (int i = 0; i < size; i++) {
+				if (values[i] >= min && values[i] <= max)
+					rows.set(i);
+			}
+			if (nulls != null)
+				rows.andNot(nulls);
+			return rows;
+		}
+
+		@Override
+		BitSet selectEqual(Object value) {
+			BitSet rows = new BitSet(size);
+			if (!(value instanceof Double))
+				return rows;
+			long bits = Double.doubleToLongBits((Double) value);
+			for (int i = 0; i < size; i++) {
+				if (Double.doubleToLongBits(values[i]) == bits)
+					rows.set(i);
+			}
+			if (nulls != null)
+				rows.andNot(nulls);
+			return rows;
+		}
+
+		@Override
+		void write(DataOutputStream out) throws IOException {
+			writeNulls(out);
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			int step = BUFFER_SIZE / 8;
+			for (int i = 0; i < size; i += step) {
+				int n = Math.min(step, size - i);
+				buffer.clear();
+				buffer.asDoubleBuffer().put(values, i, n);
+				out.write(buffer.array(), 0, n * 8);
+			}
+		}
+
+		@Override
+		void read(DataInputStream in, int rows) throws IOException {
+			readNulls(in);
+			values = new double[Math.max(rows, 1)];
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			int step = BUFFER_SIZE / 8;
+			for (int i = 0; i < rows; i += step) {
+				int n = Math.min(step, rows - i);
+				in.readFully(buffer.array(), 0, n * 8);
+				buffer.clear();
+				buffer.asDoubleBuffer().get(values, i, n);
+			}
+			size = rows;
+		}
+	}
+
+	static class LongColumn extends NumberColumn {
+		private static final long serialVersionUID = 1L;
+		long[] values;
+
+		LongColumn(int capacity) {
+			values = new long[Math.max(capacity, 1)];
+		}
+
+		@Override
+		Cell getType() {
+			return Cell.LONG;
+		}
+
+		@Override
+		Object array() {
+			return values;
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, Math.max(capacity, 1));
+		}
+
+		@Override
+		Object get(int row) {
+			checkIndex(row, size);
+			return isNull(row) ? null : values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+
+		@Override
+		void store(int row, Number value) {
+			values[row] = value.longValue();
+		}
+
+		@Override
+		Number parse(String value) {
+			return Long.valueOf(value);
+		}
+
+		@Override
+		BitSet selectEqual(Object value) {
+			BitSet rows = new BitSet(size);
+			if (!(value instanceof Long))
+				return rows;
+			long v = (Long) value;
+			for (int i = 0; i < size; i++) {
+				if (values[i] == v)
+					rows.set(i);
+			}
+			if (nulls != null)
+				rows.andNot(nulls);
+			return rows;
+		}
+
+		@Override
+		void write(DataOutputStream out) throws IOException {
+			writeNulls(out);
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			int step = BUFFER_SIZE / 8;
+			for (int i = 0; i < size; i += step) {
+				int n = Math.min(step, size - i);
+				buffer.clear();
+				buffer.asLongBuffer().put(values, i, n);
+				out.write(buffer.array(), 0, n * 8);
+			}
+		}
+
+		@Override
+		void read(DataInputStream in, int rows) throws IOException {
+			readNulls(in);
+			values = new long[Math.max(rows, 1)];
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			int step = BUFFER_SIZE / 8;
+			for (int i = 0; i < rows; i += step) {
+				int n = Math.min(step, rows - i);
+				in.readFully(buffer.array(), 0, n * 8);
+				buffer.clear();
+				buffer.asLongBuffer().get(values, i, n);
+			}
+			size = rows;
+		}
+	}
+
+	static class IntColumn extends NumberColumn {
+		private static final long serialVersionUID = 1L;
+		int[] values;
+
+		IntColumn(int capacity) {
+			values = new int[Math.max(capacity, 1)];
+		}
+
+		@Override
+		Cell getType() {
+			return Cell.INTEGER;
+		}
+
+		@Override
+		Object array() {
+			return values;
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, Math.max(capacity, 1));
+		}
+
+		@Override
+		Object get(int row) {
+			checkIndex(row, size);
+			return isNull(row) ? null : values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+
+		@Override
+		void store(int row, Number value) {
+			values[row] = value.intValue();
+		}
+
+		@Override
+		Number parse(String value) {
+			return Integer.valueOf(value);
+		}
+
+		@Override
+		BitSet selectEqual(Object value) {
+			BitSet rows = new BitSet(size);
+			if (!(value instanceof Integer))
+				return rows;
+			int v = (Integer) value;
+			for (int i = 0; i < size; i++) {
+				if (values[i] == v)
+					rows.set(i);
+			}
+			if (nulls != null)
+				rows.andNot(nulls);
+			return rows;
+		}
+
+		@Override
+		void write(DataOutputStream out) throws IOException {
+			writeNulls(out);
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			int step = BUFFER_SIZE / 4;
+			for (int i = 0; i < size; i += step) {
+				int n = Math.min(step, size - i);
+				buffer.clear();
+				buffer.asIntBuffer().put(values, i, n);
+				out.write(buffer.array(), 0, n * 4);
+			}
+		}
+
+		@Override
+		void read(DataInputStream in, int rows) throws IOException {
+			readNulls(in);
+			values = new int[Math.max(rows, 1)];
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			int step = BUFFER_SIZE / 4;
+			for (int i = 0; i < rows; i += step) {
+				int n = Math.min(step, rows - i);
+				in.readFully(buffer.array(), 0, n * 4);
+				buffer.clear();
+				buffer.asIntBuffer().get(values, i, n);
+			}
+			size = rows;
+		}
+	}
+
+	/**
+	 * A column of strings stored as codes of a dictionary of the distinct
+	 * strings, -1 for empty cells
+	 */
+	static class StringColumn extends Column {
+		private static final long serialVersionUID = 1L;
+		int[] codes;
+		List<String> dictionary = new ArrayList<String>();
+		transient Map<String, Integer> index;
+
+		StringColumn(int capacity) {
+			codes = new int[Math.max(capacity, 1)];
+		}
+
+		@Override
+		Cell getType() {
+			return Cell.STRING;
+		}
+
+		@Override
+		Object array() {
+			return codes;
+		}
+
+		@Override
+		void resize(int capacity) {
+			codes = Arrays.copyOf(codes, Math.max(capacity, 1));
+		}
+
+		@Override
+		Object get(int row) {
+			checkIndex(row, size);
+			int code = codes[row];
+			return code < 0 ? null : dictionary.get(code);
+		}
+
+		@Override
+		void set(int row, Object value) {
+			checkIndex(row, size);
+			codes[row] = value == null ? -1 : code(value.toString(), true);
+		}
+
+		private Map<String, Integer> index() {
+			if (index == null) {
+				index = new HashMap<String, Integer>(dictionary.size() * 2);
+				for (int i = 0; i < dictionary.size(); i++)
+					index.put(dictionary.get(i), i);
+			}
+			return index;
+		}
+
+		private int code(String value, boolean add) {
+			Integer code = index().get(value);
+			if (code == null) {
+				if (!add)
+					return -1;
+				code = dictionary.size();
+				dictionary.add(value);
+				index.put(value, code);
+			}
+			return code;
+		}
+
+		@Override
+		BitSet selectEqual(Object value) {
+			if (!(value instanceof String))
+				return new BitSet();
+			return selectString((String) value);
+		}
+
+		@Override
+		BitSet selectString(String value) {
+			BitSet rows = new BitSet(size);
+			int code = value == null ? -1 : code(value, false);
+			if (code < 0)
+				return rows;
+			int[] codes = this.codes;
+			for (int i = 0; i < size; i++) {
+				if (codes[i] == code)
+					rows.set(i);
+			}
+			return rows;
+		}
+
+		@Override
+		void clear() {
+			super.clear();
+			dictionary.clear();
+			index = null;
+		}
+
+		@Override
+		Column gather(int[] rows) {
+			StringColumn column = new StringColumn(rows.length);
+			column.dictionary.addAll(dictionary);
+			for (int k = 0; k < rows.length; k++)
+				column.codes[k] = codes[rows[k]];
+			column.size = rows.length;
+			return column;
+		}
+
+		@Override
+		void write(DataOutputStream out) throws IOException {
+			out.writeInt(dictionary.size());
+			for (String value : dictionary)
+				writeString(out, value);
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			int step = BUFFER_SIZE / 4;
+			for (int i = 0; i < size; i += step) {
+				int n = Math.min(step, size - i);
+				buffer.clear();
+				buffer.asIntBuffer().put(codes, i, n);
+				out.write(buffer.array(), 0, n * 4);
+			}
+		}
+
+		@Override
+		void read(DataInputStream in, int rows) throws IOException {
+			int count = in.readInt();
+			dictionary = new ArrayList<String>(count);
+			for (int i = 0; i < count; i++)
+				dictionary.add(readString(in));
+			index = null;
+			codes = new int[Math.max(rows, 1)];
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			int step = BUFFER_SIZE / 4;
+			for (int i = 0; i < rows; i += step) {
+				int n = Math.min(step, rows - i);
+				in.readFully(buffer.array(), 0, n * 4);
+				buffer.clear();
+				buffer.asIntBuffer().get(codes, i, n);
+			}
+			for (int i = 0; i < rows; i++) {
+				if (codes[i] < -1 || codes[i] >= count)
+					throw new StreamCorruptedException("Invalid string code " + codes[i]);
+			}
+			size = rows;
+		}
+	}
+
+	/**
+	 * A column of other values, kept as they are
+	 */
+	static class ObjectColumn extends Column {
+		private static final long serialVersionUID = 1L;
+		Object[] values;
+
+		ObjectColumn(int capacity) {
+			values = new Object[Math.max(capacity, 1)];
+		}
+
+		@Override
+		Cell getType() {
+			return Cell.SERIALIZED;
+		}
+
+		@Override
+		Object array() {
+			return values;
+		}
+
+		@Override
+		void resize(int capacity) {
+			values = Arrays.copyOf(values, Math.max(capacity, 1));
+		}
+
+		@Override
+		Object get(int row) {
+			checkIndex(row, size);
+			return values[row];
+		}
+
+		@Override
+		void set(int row, Object value) {
+			checkIndex(row, size);
+			values[row] = value;
+		}
+
+		@Override
+		void remove(int row) {
+			super.remove(row);
+			values[size] = null;
+		}
+
+		@Override
+		BitSet selectEqual(Object value) {
+			BitSet rows = new BitSet(size);
+			for (int i = 0; i < size; i++) {
+				if (values[i] != null && values[i].equals(value))
+					rows.set(i);
+			}
+			return rows;
+		}
+
+		@Override
+		BitSet selectString(String value) {
+			BitSet rows = new BitSet(size);
+			for (int i = 0; i < size; i++) {
+				if (values[i] != null && values[i].toString().equals(value))
+					rows.set(i);
+			}
+			return rows;
+		}
+
+		@Override
+		void write(DataOutputStream out) throws IOException {
+			throw new NotSerializableException("Binary format of a column of objects");
+		}
+
+		@Override
+		void read(DataInputStream in, int rows) throws IOException {
+			throw new StreamCorruptedException("Binary format of a column of objects");
+		}
+	}
+}
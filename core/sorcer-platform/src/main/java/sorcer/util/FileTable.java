@@ -19,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.co.tuple.Tuple2;
 import sorcer.core.context.ServiceContext;
+import sorcer.org.apache.commons.lang3.ClassLoaderAwareObjectInputStream;
 import sorcer.service.Context;
 import sorcer.service.ContextException;
 import sorcer.service.Identity;
@@ -27,25 +28,59 @@ import sorcer.service.Signature;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.rmi.MarshalledObject;
 import java.util.*;
 import java.util.Collections;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.zip.CRC32;
+
+import static sorcer.core.SorcerConstants.*;
+
+/**
+ * A persistent table of serializable values. Values are appended to a data
+ * log of checksummed, length-prefixed records and every insert and removal
+ * is appended to an index journal, so writing a row costs I/O proportional
+ * to the row only. Opening a table replays the journal, dropping a record
+ * torn by a crash. Superseded records are reclaimed by {@link #cleanup()},
+ * called once their share of the data log exceeds the
+ * {@link sorcer.core.SorcerConstants#P_TABLE_COMPACTION_RATIO} property.
+ */
 public class FileTable<K,V> extends Identity implements Runnable, ModelTable {
 
 	private final static Logger logger = LoggerFactory.getLogger(FileTable.class);
 
+	// journal entry types
+	private static final byte PUT = 1;
+	private static final byte REMOVE = 2;
+
+	// key encodings in journal entries
+	private static final byte INT_KEY = 'I';
+	private static final byte LONG_KEY = 'J';
+	private static final byte STRING_KEY = 'S';
+	private static final byte OBJECT_KEY = 'O';
+
 	// Object File
-	ObjectFile ofl;
+	LogFile ofl;
 	// Index File
-	ObjectFile ifl;
+	LogFile ifl;
 
 	String fileName;
 
-	private ConcurrentHashMap<K, Long> table;
+	private ConcurrentHashMap<K, Long> table = new ConcurrentHashMap<K, Long>();
+
+	// on-disk record lengths of the indexed values
+	private Map<K, Integer> lengths = new HashMap<K, Integer>();
 
-	private static int WAITING_TIME = 30 * 60 * 1000; //30 min
+	private long liveBytes;
+
+	// bytes of superseded and removed values
+	private long garbageBytes;
+
+	private double compactionRatio;
+
+	private long compactionMin;
 
 	volatile boolean running = true;
 
@@ -89,41 +124,138 @@ public class FileTable<K,V> extends Identity implements Runnable, ModelTable {
 		}
 		name = child;
 		this.fileName = tableName;
-		ofl = new ObjectFile(fileName +".obf");
-		ifl = new ObjectFile(fileName +"-index.obf");
+		compactionRatio = getDoubleProperty(P_TABLE_COMPACTION_RATIO, TABLE_COMPACTION_RATIO_DEFAULT);
+		compactionMin = (long) getDoubleProperty(P_TABLE_COMPACTION_MIN, TABLE_COMPACTION_MIN_DEFAULT);
+		open();
+	}
 
-		try { table = (ConcurrentHashMap)ifl.readObject(0); } catch (Exception e) { }
+	public FileTable(String fileName) throws IOException {
+		this(null, fileName);
+	}
+
+	private File getDataFile() {
+		return new File(fileName + ".obf");
+	}
 
-		if (table == null) table = new ConcurrentHashMap();
+	private File getIndexFile() {
+		return new File(fileName + "-index.obf");
+	}
 
-		Thread t = new Thread(this);
-		t.setDaemon(true);
-		t.start();
+	private File getTempDataFile() {
+		return new File(fileName + "-temp.obf");
 	}
 
-	public FileTable(String fileName) throws IOException {
-		this(null, fileName);
+	private File getTempIndexFile() {
+		return new File(fileName + "-index-temp.obf");
+	}
+
+	private void open() throws IOException {
+		File data = getDataFile();
+		File tempIndex = getTempIndexFile();
+		if (tempIndex.exists()) {
+			// a compaction stopped after replacing the data log, complete it
+			if (!getTempDataFile().exists()
+					&& LogFile.readGeneration(data) == LogFile.readGeneration(tempIndex))
+				move(tempIndex, getIndexFile());
+			else
+				tempIndex.delete();
+		}
+		getTempDataFile().delete();
+		if (data.length() > 0 && LogFile.readGeneration(data) < 0)
+			convert();
+
+		ofl = LogFile.open(data, 0);
+		ifl = LogFile.open(getIndexFile(), ofl.getGeneration());
+		if (ifl.getGeneration() != ofl.getGeneration()) {
+			close();
+			throw new IOException("Index " + getIndexFile() + " does not match " + data);
+		}
+		replay();
+	}
+
+	/**
+	 * Rebuilds the table index from the journal, truncating the journal and
+	 * the data log after the last complete entry.
+	 */
+	private void replay() throws IOException {
+		long pos = LogFile.HEADER_LENGTH;
+		long dataEnd = LogFile.HEADER_LENGTH;
+		byte[] entry;
+		while ((entry = ifl.readValid(pos)) != null) {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry));
+			byte type = in.readByte();
+			if (type == PUT) {
+				long recordPos = in.readLong();
+				int length = in.readInt();
+				K key = readKey(in);
+				index(key, recordPos, length);
+				lastKey = key;
+				dataEnd = Math.max(dataEnd, recordPos + length);
+			} else if (type == REMOVE) {
+				unindex((K) readKey(in));
+			} else {
+				break;
+			}
+			pos += LogFile.RECORD_HEADER_LENGTH + entry.length;
+		}
+		if (pos < ifl.length()) {
+			logger.warn("Dropping incomplete index entries of {} after {}", fileName, pos);
+			ifl.truncate(pos);
+		}
+		long dataLength = ofl.length();
+		if (dataEnd < dataLength) {
+			// values written without an index entry
+			ofl.truncate(dataEnd);
+		} else if (dataEnd > dataLength) {
+			logger.warn("Data log of {} is shorter than its index, dropping lost values", fileName);
+			for (Map.Entry<K, Long> e : table.entrySet()) {
+				if (e.getValue() + lengths.get(e.getKey()) > dataLength)
+					unindex(e.getKey());
+			}
+		}
+	}
+
+	private void index(K key, long pos, int length) {
+		Integer old = lengths.put(key, length);
+		if (old != null) {
+			liveBytes -= old;
+			garbageBytes += old;
+		}
+		liveBytes += length;
+		table.put(key, pos);
+	}
+
+	private void unindex(K key) {
+		table.remove(key);
+		Integer old = lengths.remove(key);
+		if (old != null) {
+			liveBytes -= old;
+			garbageBytes += old;
+		}
 	}
 
 	public synchronized final void close() throws  IOException {
 		running = false;
-		ofl.close();
-		ifl.close();
+		try {
+			if (ofl != null)
+				ofl.close();
+		} finally {
+			if (ifl != null)
+				ifl.close();
+		}
 	}
 
 	public synchronized final void put(K key, V value) throws IOException {
 		if (! (value instanceof Serializable))
 			throw new IOException("Not serializable eval");
-		Long oldPos = table.get(key);
-		long newPos;
-		if (oldPos == null)
-			newPos = ofl.writeObject((Serializable)value);
-		else
-			newPos = ofl.writeObject((Serializable)value, oldPos.longValue());
+		byte[] record = serialize(value);
+		long pos = ofl.append(record);
+		int length = LogFile.RECORD_HEADER_LENGTH + record.length;
+		ifl.append(putEntry(key, pos, length));
 
 		lastKey = key;
-		table.put(key, newPos);
-		ifl.rewriteObject(0, table);
+		index(key, pos, length);
+		compactIfNeeded();
 	}
 
 	public void addRow(K index, V row) throws IOException {
@@ -134,10 +266,10 @@ public class FileTable<K,V> extends Identity implements Runnable, ModelTable {
 		return get(key);
 	}
 
-	public final V get(K key) throws IOException {
+	public synchronized final V get(K key) throws IOException {
 		Long pos = table.get(key);
 		if (pos == null) return null;
-		else return (V)ofl.readObject(pos.longValue());
+		else return (V)deserialize(ofl.read(pos.longValue()));
 	}
 
 	public Set<Map.Entry<K,Long>> entrySet() {
@@ -162,41 +294,334 @@ public class FileTable<K,V> extends Identity implements Runnable, ModelTable {
 
 
 	public synchronized final void remove(K key) throws IOException {
-		table.remove(key);
-		ifl.rewriteObject(0, table);
+		if (!table.containsKey(key))
+			return;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(REMOVE);
+		writeKey(out, key);
+		out.close();
+		ifl.append(bytes.toByteArray());
+
+		unindex(key);
+		compactIfNeeded();
 	}
 
-	public synchronized void cleanup() throws IOException {
-		ObjectFile tmp = new ObjectFile(fileName + "-temp.obf");
-		ConcurrentHashMap newTable = new ConcurrentHashMap();
+	private byte[] putEntry(K key, long pos, int length) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(PUT);
+		out.writeLong(pos);
+		out.writeInt(length);
+		writeKey(out, key);
+		out.close();
+		return bytes.toByteArray();
+	}
 
-		K key;
-		Enumeration<K>  e = table.keys();
-		while (e.hasMoreElements()) {
-			key = e.nextElement();
-			newTable.put(key , new Long(tmp.writeObject((Serializable)get(key))));
+	private static void writeKey(DataOutputStream out, Object key) throws IOException {
+		if (key instanceof Integer) {
+			out.writeByte(INT_KEY);
+			out.writeInt((Integer) key);
+		} else if (key instanceof Long) {
+			out.writeByte(LONG_KEY);
+			out.writeLong((Long) key);
+		} else if (key instanceof String && ((String) key).length() < 0x4000) {
+			out.writeByte(STRING_KEY);
+			out.writeUTF((String) key);
+		} else {
+			out.writeByte(OBJECT_KEY);
+			out.write(serialize(key));
 		}
+	}
+
+	private K readKey(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		if (type == INT_KEY)
+			return (K) Integer.valueOf(in.readInt());
+		else if (type == LONG_KEY)
+			return (K) Long.valueOf(in.readLong());
+		else if (type == STRING_KEY)
+			return (K) in.readUTF();
+		else
+			return (K) deserialize(in);
+	}
 
-		table = newTable;
-		ifl.rewriteObject(0, table);
+	private static byte[] serialize(Object obj) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(obj);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] data) throws IOException {
+		return deserialize(new ByteArrayInputStream(data));
+	}
 
-		ofl.close();
-		tmp.close();
+	private static Object deserialize(InputStream in) throws IOException {
+		ObjectInputStream ois = new ClassLoaderAwareObjectInputStream(in,
+				Thread.currentThread().getContextClassLoader());
+		try {
+			return ois.readObject();
+		} catch (ClassNotFoundException cnfe) {
+			throw new IOException("Class Not found:" + cnfe.getMessage(), cnfe);
+		} finally {
+			ois.close();
+		}
+	}
 
-		new File(fileName+"-temp.obf").renameTo(new File(fileName + ".obf"));
+	private void compactIfNeeded() throws IOException {
+		if (garbageBytes > compactionMin
+				&& garbageBytes > compactionRatio * (liveBytes + garbageBytes))
+			cleanup();
+	}
 
-		ofl = new ObjectFile(fileName + ".obf");
+	/**
+	 * Copies the indexed values into a new data log with a new index journal,
+	 * reclaiming the space of superseded and removed values.
+	 */
+	public synchronized void cleanup() throws IOException {
+		long generation = ofl.getGeneration() + 1;
+		LogFile data = LogFile.create(getTempDataFile(), generation);
+		LogFile index = LogFile.create(getTempIndexFile(), generation);
+		Map<K, Long> positions = new HashMap<K, Long>(table.size() * 4 / 3 + 1);
+		try {
+			List<K> keys = new ArrayList<K>(table.keySet());
+			// keep the last key last when the journal is replayed
+			if (lastKey != null && keys.remove(lastKey))
+				keys.add(lastKey);
+			for (K key : keys) {
+				byte[] record = ofl.read(table.get(key));
+				long pos = data.append(record);
+				index.append(putEntry(key, pos, LogFile.RECORD_HEADER_LENGTH + record.length));
+				positions.put(key, pos);
+			}
+		} catch (IOException e) {
+			data.close();
+			index.close();
+			getTempDataFile().delete();
+			getTempIndexFile().delete();
+			throw e;
+		}
+		close();
+		install(data, index);
+		ofl = LogFile.open(getDataFile(), generation);
+		ifl = LogFile.open(getIndexFile(), generation);
+		running = true;
+		table.putAll(positions);
+		garbageBytes = 0;
 	}
 
+	/**
+	 * Replaces the data log and the index journal by the given temporary
+	 * files. The data log goes first, an index journal left behind by a crash
+	 * in between is installed when the table is opened.
+	 */
+	private void install(LogFile data, LogFile index) throws IOException {
+		try {
+			data.sync();
+			index.sync();
+		} finally {
+			data.close();
+			index.close();
+		}
+		move(getTempDataFile(), getDataFile());
+		move(getTempIndexFile(), getIndexFile());
+	}
+
+	private static void move(File source, File target) throws IOException {
+		Files.move(source.toPath(), target.toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Converts a table written with {@link ObjectFile} records and a single
+	 * serialized index map.
+	 */
+	private void convert() throws IOException {
+		logger.info("Converting {} to the log-structured format", fileName);
+		LogFile data = LogFile.create(getTempDataFile(), 1);
+		LogFile index = LogFile.create(getTempIndexFile(), 1);
+		ObjectFile oldData = new ObjectFile(getDataFile().getPath());
+		ObjectFile oldIndex = new ObjectFile(getIndexFile().getPath());
+		try {
+			if (oldIndex.getDataFile().length() > 0) {
+				Map<K, Long> positions = (Map<K, Long>) oldIndex.readObject(0);
+				for (Map.Entry<K, Long> e : positions.entrySet()) {
+					byte[] record = serialize(oldData.readObject(e.getValue()));
+					long pos = data.append(record);
+					index.append(putEntry(e.getKey(), pos, LogFile.RECORD_HEADER_LENGTH + record.length));
+				}
+			}
+		} catch (IOException e) {
+			data.close();
+			index.close();
+			getTempDataFile().delete();
+			getTempIndexFile().delete();
+			throw e;
+		} finally {
+			oldData.close();
+			oldIndex.close();
+		}
+		install(data, index);
+	}
+
+	/**
+	 * Compacts this table when its garbage ratio is exceeded. Compaction
+	 * runs as entries are written, so no thread is needed to call it.
+	 */
 	public void run() {
-		while (running) {
+		try {
+			synchronized (this) {
+				if (running)
+					compactIfNeeded();
+			}
+		} catch (IOException e) {
+			logger.warn("Compaction of {} failed", fileName, e);
+		}
+	}
+
+	private static double getDoubleProperty(String name, double defaultValue) {
+		try {
+			return Double.parseDouble(Sorcer.getProperty(name).trim());
+		} catch (NullPointerException | NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * An append-only file of checksummed, length-prefixed records that starts
+	 * with a magic number and the generation of the table files.
+	 */
+	static class LogFile {
+
+		static final int MAGIC = 0x46544c31;
+
+		static final int HEADER_LENGTH = 12;
+
+		// record length and CRC-32
+		static final int RECORD_HEADER_LENGTH = 8;
+
+		private final RandomAccessFile file;
+
+		private final long generation;
+
+		private long end;
+
+		private LogFile(RandomAccessFile file, long generation) throws IOException {
+			this.file = file;
+			this.generation = generation;
+			end = file.length();
+		}
+
+		static LogFile create(File path, long generation) throws IOException {
+			RandomAccessFile file = new RandomAccessFile(path, "rw");
+			file.setLength(0);
+			file.writeInt(MAGIC);
+			file.writeLong(generation);
+			return new LogFile(file, generation);
+		}
+
+		static LogFile open(File path, long generation) throws IOException {
+			if (path.length() < HEADER_LENGTH)
+				return create(path, generation);
+			RandomAccessFile file = new RandomAccessFile(path, "rw");
+			if (file.readInt() != MAGIC) {
+				file.close();
+				throw new IOException("Not a table log: " + path);
+			}
+			return new LogFile(file, file.readLong());
+		}
+
+		/**
+		 * Returns the generation of the given log or -1 if it is not a log.
+		 */
+		static long readGeneration(File path) throws IOException {
+			if (path.length() < HEADER_LENGTH)
+				return -1;
+			DataInputStream in = new DataInputStream(new FileInputStream(path));
 			try {
-				Thread.sleep(WAITING_TIME);
-				cleanup();
-			}catch (Exception e) { e.printStackTrace(); }
+				return in.readInt() == MAGIC ? in.readLong() : -1;
+			} finally {
+				in.close();
+			}
+		}
+
+		long getGeneration() {
+			return generation;
+		}
+
+		synchronized long length() {
+			return end;
+		}
+
+		// returns file position the record was written to.
+		synchronized long append(byte[] data) throws IOException {
+			CRC32 crc = new CRC32();
+			crc.update(data);
+			byte[] record = new byte[RECORD_HEADER_LENGTH + data.length];
+			writeInt(record, 0, data.length);
+			writeInt(record, 4, (int) crc.getValue());
+			System.arraycopy(data, 0, record, RECORD_HEADER_LENGTH, data.length);
+
+			long pos = end;
+			file.seek(pos);
+			file.write(record);
+			end += record.length;
+			return pos;
+		}
+
+		synchronized byte[] read(long pos) throws IOException {
+			byte[] data = readValid(pos);
+			if (data == null)
+				throw new IOException("Data file is corrupted at: " + pos);
+			return data;
+		}
+
+		/**
+		 * Returns the record at the given position or null if it is
+		 * incomplete or damaged.
+		 */
+		synchronized byte[] readValid(long pos) throws IOException {
+			if (pos + RECORD_HEADER_LENGTH > end)
+				return null;
+			file.seek(pos);
+			int length = file.readInt();
+			int checksum = file.readInt();
+			if (length < 0 || pos + RECORD_HEADER_LENGTH + length > end)
+				return null;
+			byte[] data = new byte[length];
+			file.readFully(data);
+			CRC32 crc = new CRC32();
+			crc.update(data);
+			return (int) crc.getValue() == checksum ? data : null;
+		}
+
+		synchronized void truncate(long length) throws IOException {
+			file.setLength(length);
+			end = length;
+		}
+
+		void sync() throws IOException {
+			file.getFD().sync();
+		}
+
+		void close() throws IOException {
+			file.close();
+		}
+
+		private static void writeInt(byte[] b, int off, int v) {
+			b[off] = (byte) (v >>> 24);
+			b[off + 1] = (byte) (v >>> 16);
+			b[off + 2] = (byte) (v >>> 8);
+			b[off + 3] = (byte) v;
 		}
 	}
 
+	/**
+	 * Record file of the earlier table format: each value is wrapped in a
+	 * {@link MarshalledObject}. Read when converting existing tables.
+	 */
 	public static class ObjectFile {
 
         RandomAccessFile dataFile;
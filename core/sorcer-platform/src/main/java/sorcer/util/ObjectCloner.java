@@ -23,6 +23,7 @@ import java.rmi.MarshalledObject;
 import net.jini.id.Uuid;
 import net.jini.id.UuidFactory;
 import net.jini.io.MarshalledInstance;
+import sorcer.core.context.ContextSharing;
 import sorcer.service.*;
 
 public class ObjectCloner {
@@ -73,6 +74,33 @@ public class ObjectCloner {
 		return renewIDs(obj);
 	}
 
+	/**
+	 * Returns a structural copy of the object, made as by
+	 * {@link #cloneAnnotated(Object)} except that the data of the contexts in
+	 * the object holding only immutable values is shared with the copy
+	 * until either of them is changed, and data holding also primitive arrays
+	 * is copied without serialization, see {@link ContextSharing}. Other data
+	 * is serialized. The copied object is not changed by a copy, other than
+	 * the data it shares being frozen until its next write.
+	 */
+	public static Object copy(Object o) {
+		ContextSharing previous = ContextSharing.start();
+		try {
+			return new MarshalledInstance(o).get(false);
+		} catch (ClassNotFoundException cnfe) {
+			cnfe.printStackTrace();
+		} catch (IOException ioe) {
+			ioe.printStackTrace();
+		} finally {
+			ContextSharing.end(previous);
+		}
+		return null;
+	}
+
+	public static Object copyWithNewIDs(Object o) {
+		return renewIDs(copy(o));
+	}
+
 	private static Object renewIDs(Object obj) {
 		if (obj instanceof Job) {
 			Uuid id = UuidFactory.generate();
@@ -7,11 +7,18 @@ package sorcer.util.exec;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import sorcer.util.ConfigurableThreadFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Utility methods to interact with and manage native processes started from
@@ -24,6 +31,18 @@ public class ExecUtils {
 
     private static Logger logger = LoggerFactory.getLogger(ExecUtils.class.getName());
 
+	private static final long READ_TIMEOUT = 5000;
+
+	// reused by the stream readers of consecutive commands
+	private static final ExecutorService readers;
+
+	static {
+		ConfigurableThreadFactory tf = new ConfigurableThreadFactory();
+		tf.setDaemon(true);
+		tf.setNameFormat("exec-reader-%2$d");
+		readers = Executors.newCachedThreadPool(tf);
+	}
+
     private ExecUtils() {
 	}
 
@@ -174,13 +193,14 @@ public class ExecUtils {
 			InterruptedException {
 		// concurrency to avoid stdio deadlocks
 		Redir stdout = null;
+		Future<?> outRead = null;
 		String out = null;
 		if (!outLogged) {
 			stdout = new Redir(process.getInputStream());
-			new Thread(stdout).start();
+			outRead = readers.submit(stdout);
 		}
 		Redir stderr = new Redir(process.getErrorStream());
-		new Thread(stderr).start();
+		Future<?> errRead = readers.submit(stderr);
 		// redirect input in the current thread
 		if (stdin != null) {
 			OutputStream pout = process.getOutputStream();
@@ -190,6 +210,10 @@ public class ExecUtils {
 		int exitValue = process.exitValue();
         logger.debug("exitValue: " + exitValue);
 
+		// the readers may still be reading the output of the exited process,
+		// not waiting long for children of the process holding the streams open
+		await(outRead);
+		await(errRead);
 		if (stdout != null) {
 			stdout.throwIfHadException();
 			out = new String(stdout.getResult());
@@ -201,6 +225,18 @@ public class ExecUtils {
 		return new CmdResult(exitValue, out, err);
 	}
 
+	private static void await(Future<?> read) throws InterruptedException {
+		if (read == null)
+			return;
+		try {
+			read.get(READ_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			// broken pipes are reported by the readers
+		} catch (TimeoutException e) {
+			logger.debug("Output still open after the process exited");
+		}
+	}
+
 	/**
 	 * Added by E. D. Thompson AFRL/RZTT 20100827 Attach to the specified
 	 * process, feed specified standard input, and return process' results.
@@ -223,8 +259,8 @@ public class ExecUtils {
 		// concurrency to avoid stdio deadlocks
 		Redir stdout = new Redir(process.getInputStream());
 		Redir stderr = new Redir(process.getErrorStream());
-		new Thread(stdout).start();
-		new Thread(stderr).start();
+		readers.execute(stdout);
+		readers.execute(stderr);
 		// redirect input in the current thread
 		if (stdin != null) {
 			OutputStream pout = process.getOutputStream();
@@ -0,0 +1,340 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util.exec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.util.ConfigurableThreadFactory;
+import sorcer.util.Sorcer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static sorcer.core.SorcerConstants.*;
+
+/**
+ * A pool of persistent worker processes, so that a native tool called many
+ * times is started once instead of forking a process per call.
+ * <p>
+ * Workers are started with the same command and serve one request at a time
+ * with a line based protocol: the request lines are written to the standard
+ * input of the worker followed by the end marker line, and the worker writes
+ * the response lines to its standard output followed by the end marker line,
+ * optionally followed by a space and the exit value of the request, e.g.
+ * <tt>#end 0</tt>. Response lines are passed to the {@link LineHandler} as
+ * they are read. The standard error of a worker is drained continuously and
+ * returned with the first response completed after it is read.
+ * <p>
+ * A worker that times out, writes an incomplete response or exits is killed
+ * and replaced on the next request. Workers are recycled after the maximum
+ * number of requests, and at most the pool size of idle workers is kept per
+ * command. The defaults are set with the {@link sorcer.core.SorcerConstants#P_EXEC_POOL_SIZE}
+ * and {@link sorcer.core.SorcerConstants#P_EXEC_POOL_MAX_USES} properties.
+ */
+public class ProcessPool {
+    private static final Logger logger = LoggerFactory.getLogger(ProcessPool.class);
+
+    public static final String END_MARKER = "#end";
+    // bytes of standard error kept per request
+    private static final int MAX_ERR = 64 * 1024;
+
+    private static ProcessPool instance;
+
+    private static final ExecutorService drainers;
+    private static final ScheduledExecutorService watchdog;
+
+    static {
+        ConfigurableThreadFactory tf = new ConfigurableThreadFactory();
+        tf.setDaemon(true);
+        tf.setNameFormat("process-pool-stderr-%2$d");
+        drainers = Executors.newCachedThreadPool(tf);
+        ConfigurableThreadFactory wf = new ConfigurableThreadFactory();
+        wf.setDaemon(true);
+        wf.setNameFormat("process-pool-watchdog-%2$d");
+        watchdog = Executors.newSingleThreadScheduledExecutor(wf);
+    }
+
+    /**
+     * Receives the response lines of a worker as they are read
+     */
+    public interface LineHandler {
+        void line(String line) throws IOException;
+    }
+
+    private final int poolSize;
+    private final int maxUses;
+    private final String endMarker;
+    private final Map<List<String>, Deque<Worker>> idle = new HashMap<List<String>, Deque<Worker>>();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong killed = new AtomicLong();
+    private boolean shutdown;
+
+    public ProcessPool(int poolSize, int maxUses, String endMarker) {
+        this.poolSize = poolSize;
+        this.maxUses = maxUses;
+        this.endMarker = endMarker;
+    }
+
+    public static synchronized ProcessPool getInstance() {
+        if (instance == null) {
+            instance = new ProcessPool(getIntProperty(P_EXEC_POOL_SIZE, EXEC_POOL_SIZE_DEFAULT),
+                    getIntProperty(P_EXEC_POOL_MAX_USES, 0), END_MARKER);
+            final ProcessPool pool = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread("process-pool-shutdown") {
+                @Override
+                public void run() {
+                    pool.shutdown();
+                }
+            });
+        }
+        return instance;
+    }
+
+    /**
+     * Sends the request to a worker started with the command and returns the
+     * response. If the handler is not null the response lines are passed to
+     * the handler and the output of the result is null.
+     *
+     * @param command the command starting the worker
+     * @param request the request lines, without the end marker
+     * @param handler the handler of the response lines, or null to return them
+     * @param timeout the timeout of the request in milliseconds, 0 for none
+     * @throws IOException if the worker fails, exits or times out
+     */
+    public ExecUtils.CmdResult exec(String[] command, String request, LineHandler handler, long timeout)
+            throws IOException, InterruptedException {
+        List<String> key = Collections.unmodifiableList(Arrays.asList(command.clone()));
+        Worker worker = borrow(key);
+        requests.incrementAndGet();
+        boolean reusable = false;
+        ScheduledFuture<?> timer = null;
+        try {
+            if (timeout > 0)
+                timer = watchdog.schedule(worker.killer(), timeout, TimeUnit.MILLISECONDS);
+            ExecUtils.CmdResult result = worker.exec(request, handler);
+            reusable = true;
+            return result;
+        } catch (IOException e) {
+            if (worker.timedOut.get())
+                throw new InterruptedIOException("Request to " + key + " timed out after " + timeout + " ms");
+            throw e;
+        } finally {
+            if (timer != null)
+                timer.cancel(false);
+            if (Thread.interrupted()) {
+                reusable = false;
+                Thread.currentThread().interrupt();
+            }
+            if (reusable && !worker.timedOut.get())
+                release(key, worker);
+            else
+                kill(worker);
+        }
+    }
+
+    public ExecUtils.CmdResult exec(String[] command, String request, long timeout)
+            throws IOException, InterruptedException {
+        return exec(command, request, null, timeout);
+    }
+
+    public long getStartedCount() {
+        return started.get();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getKilledCount() {
+        return killed.get();
+    }
+
+    public synchronized int getIdleCount() {
+        int count = 0;
+        for (Deque<Worker> workers : idle.values())
+            count += workers.size();
+        return count;
+    }
+
+    /**
+     * Stops the idle workers; workers serving requests are stopped when the
+     * requests complete.
+     */
+    public void shutdown() {
+        List<Worker> workers = new ArrayList<Worker>();
+        synchronized (this) {
+            shutdown = true;
+            for (Deque<Worker> deque : idle.values())
+                workers.addAll(deque);
+            idle.clear();
+        }
+        for (Worker worker : workers)
+            worker.stop();
+    }
+
+    private Worker borrow(List<String> key) throws IOException {
+        synchronized (this) {
+            if (shutdown)
+                throw new IOException("Process pool is shut down");
+            Deque<Worker> workers = idle.get(key);
+            while (workers != null && !workers.isEmpty()) {
+                Worker worker = workers.pollFirst();
+                if (worker.process.isAlive())
+                    return worker;
+                worker.stop();
+            }
+        }
+        logger.debug("Starting worker {}", key);
+        Worker worker = new Worker(new ProcessBuilder(key).start());
+        started.incrementAndGet();
+        return worker;
+    }
+
+    private void release(List<String> key, Worker worker) {
+        synchronized (this) {
+            if (!shutdown && (maxUses <= 0 || worker.uses < maxUses)) {
+                Deque<Worker> workers = idle.get(key);
+                if (workers == null) {
+                    workers = new ArrayDeque<Worker>();
+                    idle.put(key, workers);
+                }
+                if (workers.size() < poolSize) {
+                    workers.addFirst(worker);
+                    return;
+                }
+            }
+        }
+        worker.stop();
+    }
+
+    private void kill(Worker worker) {
+        killed.incrementAndGet();
+        worker.process.destroy();
+        worker.stop();
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        try {
+            return Integer.parseInt(Sorcer.getProperty(name));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private class Worker {
+        final Process process;
+        final BufferedReader out;
+        final Writer in;
+        final StringBuilder err = new StringBuilder();
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        int uses;
+
+        Worker(Process process) {
+            this.process = process;
+            out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            drainers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    drainErr();
+                }
+            });
+        }
+
+        ExecUtils.CmdResult exec(String request, LineHandler handler) throws IOException {
+            uses++;
+            if (request != null && !request.isEmpty()) {
+                in.write(request);
+                if (!request.endsWith("\n"))
+                    in.write('\n');
+            }
+            in.write(endMarker);
+            in.write('\n');
+            in.flush();
+
+            StringBuilder sb = handler == null ? new StringBuilder() : null;
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith(endMarker)) {
+                    String status = line.substring(endMarker.length()).trim();
+                    int exitValue;
+                    try {
+                        exitValue = status.isEmpty() ? 0 : Integer.parseInt(status);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Invalid end of response: " + line);
+                    }
+                    String errOut;
+                    synchronized (err) {
+                        errOut = err.toString();
+                        err.setLength(0);
+                    }
+                    return new ExecUtils.CmdResult(exitValue, sb != null ? sb.toString() : null, errOut);
+                }
+                if (handler != null)
+                    handler.line(line);
+                else
+                    sb.append(line).append('\n');
+            }
+            throw new EOFException("Worker exited before the end of response");
+        }
+
+        Runnable killer() {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    timedOut.set(true);
+                    process.destroy();
+                }
+            };
+        }
+
+        void drainErr() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    synchronized (err) {
+                        if (err.length() < MAX_ERR)
+                            err.append(line).append('\n');
+                    }
+                }
+            } catch (IOException e) {
+                // the worker was stopped
+            }
+        }
+
+        void stop() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // already closed by the worker
+            }
+            // give the worker time to exit on the end of input
+            watchdog.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    process.destroyForcibly();
+                }
+            }, 1, TimeUnit.SECONDS);
+        }
+    }
+}
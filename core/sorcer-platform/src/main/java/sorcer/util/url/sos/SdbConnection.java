@@ -16,14 +16,11 @@
  */
 package sorcer.util.url.sos;
 
-import sorcer.core.context.ServiceContext;
 import sorcer.core.provider.DatabaseStorer.Store;
 import sorcer.core.provider.Provider;
 import sorcer.core.provider.StorageManagement;
 import sorcer.service.Accessor;
-import sorcer.service.Context;
 import sorcer.util.bdb.objects.SorcerDatabaseViews;
-import sorcer.util.bdb.objects.UuidObject;
 
 import java.io.IOException;
 import java.net.URL;
@@ -74,31 +71,14 @@ public class SdbConnection extends URLConnection {
         }
 	}
 
+	/**
+	 * Returns a copy of the stored object through the shared
+	 * {@link SosResolver}, which caches stored objects and batches retrievals
+	 * of concurrent requests.
+	 */
 	@Override
 	public Object getContent() throws IOException {
-		Context outContext;
-		if (!connected)
-			connect();
-		if (store == null)
-			throw new IOException("Could not access StorageManagement implementation " + serviceType);
-		try {
-			outContext = null;
-			if (store != null) {
-				Context cxt = new ServiceContext();
-//				TODO
-				cxt.putInValue(StorageManagement.object_type, Store.object);
-//				cxt.putInValue(StorageManagement.object_type, storeType);
-				cxt.putInValue(StorageManagement.object_uuid, uuid);
-				outContext = store.contextRetrieve(cxt);
-			}
-			Object obj =  outContext.getValue(StorageManagement.object_retrieved);
-			if (obj instanceof UuidObject)
-				return ((UuidObject)obj).getObject();
-			else
-				return obj;
-		} catch (Exception e) {
-			throw new IOException(e);
-		}
+		return SosResolver.getInstance().resolve(getURL());
 	}
 
 }
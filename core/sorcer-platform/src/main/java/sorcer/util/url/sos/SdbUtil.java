@@ -20,6 +20,7 @@ package sorcer.util.url.sos;
 import net.jini.id.Uuid;
 import net.jini.id.UuidFactory;
 import sorcer.co.operator;
+import sorcer.co.tuple.Tuple2;
 import sorcer.core.context.ServiceContext;
 import sorcer.core.provider.DatabaseStorer;
 import sorcer.core.provider.DatabaseStorer.Store;
@@ -30,9 +31,10 @@ import sorcer.service.*;
 import sorcer.util.Sorcer;
 import sorcer.util.bdb.objects.SorcerDatabaseViews;
 
+import java.io.IOException;
 import java.net.URL;
 import java.rmi.RemoteException;
-import java.util.List;
+import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -123,6 +125,26 @@ public class SdbUtil {
 		return cxt;
 	}
 
+	/**
+	 * Returns a context to be used with
+	 * {@link StorageManagement#contextRetrieveAll(Context)}
+	 *
+	 * @param uuids
+	 *            {@link Uuid}s of the objects to be retrieved
+	 * @param type
+	 *            one of: exertion, context, var, dataTable, varModel, object
+	 * @return retrieval {@link Context}
+	 * @throws ContextException
+	 */
+	static public Context getRetrieveAllContext(Collection<Uuid> uuids, Store type)
+			throws ContextException {
+		ServiceContext cxt = new ServiceContext("retrieve all context");
+		cxt.putInValue(StorageManagement.object_type, type);
+		cxt.putInValue(StorageManagement.object_uuids, new ArrayList<Uuid>(uuids));
+		cxt.setReturnPath(StorageManagement.objects_retrieved);
+		return cxt;
+	}
+
 	static public Context getUpdateContext(Object object, URL url)
 			throws ContextException {
 		return getUpdateContext(object, getUuid(url));
@@ -173,6 +195,7 @@ public class SdbUtil {
 
 	static public URL update(Uuid storeUuid, Object value)
 			throws MogramException, SignatureException, ContextException {
+		SosResolver.getInstance().invalidate(storeUuid);
 		Task objectUpdateTask = task(
 				"update",
 				sig("contextUpdate", DatabaseStorer.class,
@@ -231,6 +254,8 @@ public class SdbUtil {
 
 	public static URL deleteURL(URL url) throws ExertionException,
 			SignatureException, ContextException {
+		if (isSosIdURL(url))
+			SosResolver.getInstance().invalidate(getUuid(url));
 		String serviceTypeName = getServiceType(url);
 		String storageName = getProviderName(url);
 		Task objectStoreTask = null;
@@ -293,6 +318,62 @@ public class SdbUtil {
 		}
 	}
 
+	/**
+	 * Returns the objects stored at the sos:// URLs by their URLs, retrieved
+	 * with a single call per storage provider.
+	 */
+	static public Map<URL, Object> retrieveAll(Collection<URL> urls)
+			throws ContextException {
+		try {
+			return SosResolver.getInstance().resolveAll(urls);
+		} catch (IOException e) {
+			throw new ContextException(e);
+		}
+	}
+
+	/**
+	 * Returns the objects referred to by sos:// URLs in the context by their
+	 * paths, retrieved with a single call per storage provider.
+	 */
+	static public Map<String, Object> retrieveAll(Context context)
+			throws ContextException {
+		Map<String, URL> urls = new LinkedHashMap<String, URL>();
+		for (String path : (List<String>) context.getPaths()) {
+			Object value = context.asis(path);
+			if (isSosIdURL(value))
+				urls.put(path, (URL) value);
+		}
+		Map<URL, Object> objects = retrieveAll(urls.values());
+		Map<String, Object> values = new LinkedHashMap<String, Object>(urls.size() * 2);
+		for (Map.Entry<String, URL> e : urls.entrySet())
+			values.put(e.getKey(), objects.get(e.getValue()));
+		return values;
+	}
+
+	/**
+	 * Retrieves the objects referred to by sos:// URLs in the context, as
+	 * values or persistent entries, with a single call per storage provider,
+	 * so that the values of the context are then resolved from the cache of
+	 * the {@link SosResolver}. A failed retrieval is logged and left to the
+	 * resolution of each value.
+	 */
+	static public void prefetch(Context context) {
+		List<URL> urls = new ArrayList<URL>();
+		try {
+			for (String path : (List<String>) context.getPaths()) {
+				Object value = context.asis(path);
+				if (value instanceof Tuple2 && ((Tuple2) value).isPersistent())
+					value = ((Tuple2) value).asis();
+				if (isSosIdURL(value))
+					urls.add((URL) value);
+			}
+			if (!urls.isEmpty())
+				SosResolver.getInstance().prefetch(urls);
+		} catch (Exception e) {
+			logger.warn("Could not prefetch {} stored objects of {}", urls.size(), context.getName(), e);
+		}
+	}
+
 	static public List<String> list(URL url) throws ExertionException,
 			SignatureException, ContextException {
 		return list(url, null);
@@ -0,0 +1,403 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util.url.sos;
+
+import net.jini.id.Uuid;
+import net.jini.io.MarshalledInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sorcer.core.context.ContextSharing;
+import sorcer.core.provider.DatabaseStorer.Store;
+import sorcer.core.provider.StorageManagement;
+import sorcer.service.Accessor;
+import sorcer.service.Context;
+import sorcer.util.Sorcer;
+import sorcer.util.bdb.objects.UuidObject;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static sorcer.core.SorcerConstants.*;
+
+/**
+ * Resolves sos:// URLs to the stored objects they refer to. Objects
+ * requested from the same storage provider are retrieved together with
+ * {@link StorageManagement#contextRetrieveAll(Context)}: requests that are
+ * outstanding while a retrieval runs are sent with the next one, so that
+ * dereferencing many stored objects costs one round trip per batch rather
+ * than one per object. The storage providers are looked up once and kept.
+ * <p>
+ * Retrieved objects are cached by their {@link Uuid} in a cache bounded by
+ * <code>sos.cache.size</code> objects that evicts the least recently used
+ * ones. Callers may modify the objects they get, so every caller gets its
+ * own copy, deserialized from the marshalled form kept in the cache; only
+ * immutable values are shared. Objects updated or deleted with
+ * {@link SdbUtil} are invalidated in this JVM, and cached objects expire
+ * after <code>sos.cache.ttl</code> seconds, so that updates made by other
+ * JVMs are seen at most that late.
+ */
+public class SosResolver {
+    private static final Logger logger = LoggerFactory.getLogger(SosResolver.class);
+
+    private static SosResolver instance;
+
+    private final int maxSize;
+
+    private final int batchSize;
+
+    private final long ttl;
+
+    // uuid -> retrieved object, in access order
+    private final LinkedHashMap<Uuid, Retrieved> cache;
+
+    private final ConcurrentMap<String, Source> sources = new ConcurrentHashMap<String, Source>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public SosResolver(int maxSize, int batchSize) {
+        this(maxSize, batchSize, TimeUnit.SECONDS.toMillis(SOS_CACHE_TTL_DEFAULT));
+    }
+
+    /**
+     * @param ttl the milliseconds a cached object is used, 0 for no expiry
+     */
+    public SosResolver(int maxSize, int batchSize, long ttl) {
+        this.maxSize = maxSize;
+        this.batchSize = Math.max(batchSize, 1);
+        this.ttl = ttl;
+        cache = new LinkedHashMap<Uuid, Retrieved>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Uuid, Retrieved> eldest) {
+                return size() > SosResolver.this.maxSize;
+            }
+        };
+    }
+
+    public static synchronized SosResolver getInstance() {
+        if (instance == null)
+            instance = new SosResolver(getIntProperty(P_SOS_CACHE_SIZE, SOS_CACHE_SIZE_DEFAULT),
+                    getIntProperty(P_SOS_BATCH_SIZE, SOS_BATCH_SIZE_DEFAULT),
+                    TimeUnit.SECONDS.toMillis(getIntProperty(P_SOS_CACHE_TTL, SOS_CACHE_TTL_DEFAULT)));
+        return instance;
+    }
+
+    /**
+     * Returns a copy of the object stored at the sos:// URL, or null if there
+     * is none.
+     */
+    public Object resolve(URL url) throws IOException {
+        return resolveAll(Collections.singletonList(url)).get(url);
+    }
+
+    /**
+     * Returns copies of the objects stored at the sos:// URLs by their URLs,
+     * retrieving the ones not cached with a batch per storage provider. URLs
+     * of objects that are not stored map to null.
+     */
+    public Map<URL, Object> resolveAll(Collection<URL> urls) throws IOException {
+        return resolveAll(urls, true);
+    }
+
+    /**
+     * Retrieves the objects stored at the sos:// URLs that are not cached,
+     * with a batch per storage provider, so that resolving the URLs one at a
+     * time afterwards finds them cached.
+     */
+    public void prefetch(Collection<URL> urls) throws IOException {
+        resolveAll(urls, false);
+    }
+
+    private Map<URL, Object> resolveAll(Collection<URL> urls, boolean copy) throws IOException {
+        Map<URL, Object> objects = new LinkedHashMap<URL, Object>(urls.size() * 2);
+        Map<URL, CompletableFuture<Retrieved>> requested = new LinkedHashMap<URL, CompletableFuture<Retrieved>>();
+        Set<Source> used = new LinkedHashSet<Source>();
+        for (URL url : urls) {
+            if (!SdbUtil.isSosIdURL(url))
+                throw new IOException("Not a sos:// object URL: " + url);
+            Uuid uuid = SdbUtil.getUuid(url);
+            Retrieved retrieved = cached(uuid);
+            if (retrieved != null) {
+                if (copy)
+                    objects.put(url, retrieved.copy());
+                continue;
+            }
+            Source source = source(url);
+            requested.put(url, source.request(uuid));
+            used.add(source);
+        }
+        for (Source source : used)
+            source.drain();
+        for (Map.Entry<URL, CompletableFuture<Retrieved>> e : requested.entrySet()) {
+            try {
+                Retrieved retrieved = e.getValue().get();
+                if (copy)
+                    objects.put(e.getKey(), retrieved != null ? retrieved.copy() : null);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while retrieving " + e.getKey(), ie);
+            } catch (ExecutionException ee) {
+                Throwable cause = ee.getCause();
+                throw cause instanceof IOException ? (IOException) cause
+                        : new IOException("Could not retrieve " + e.getKey(), cause);
+            }
+        }
+        return objects;
+    }
+
+    /**
+     * Drops the cached object with the uuid, after it was updated or deleted.
+     */
+    public void invalidate(Uuid uuid) {
+        synchronized (cache) {
+            cache.remove(uuid);
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of retrievals from storage providers.
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    private Retrieved cached(Uuid uuid) {
+        Retrieved retrieved;
+        synchronized (cache) {
+            retrieved = cache.get(uuid);
+            if (retrieved != null && retrieved.isExpired()) {
+                cache.remove(uuid);
+                retrieved = null;
+            }
+        }
+        if (retrieved != null)
+            hits.incrementAndGet();
+        else
+            misses.incrementAndGet();
+        return retrieved;
+    }
+
+    private void cache(Uuid uuid, Retrieved retrieved) {
+        if (retrieved == null || maxSize <= 0)
+            return;
+        synchronized (cache) {
+            cache.put(uuid, retrieved);
+        }
+    }
+
+    private Source source(URL url) {
+        String key = SdbUtil.getServiceType(url) + "/" + SdbUtil.getProviderName(url);
+        Source source = sources.get(key);
+        if (source == null) {
+            Source created = new Source(SdbUtil.getServiceType(url), SdbUtil.getProviderName(url));
+            source = sources.putIfAbsent(key, created);
+            if (source == null)
+                source = created;
+        }
+        return source;
+    }
+
+    /**
+     * Returns the storage provider of the given type and name.
+     */
+    protected StorageManagement lookup(String serviceType, String providerName) throws IOException {
+        try {
+            Object provider = Accessor.get().getService(providerName, Class.forName(serviceType));
+            if (provider == null)
+                throw new IOException("Could not access StorageManagement implementation " + serviceType);
+            return (StorageManagement) provider;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Could not access StorageManagement implementation " + serviceType, e);
+        }
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        try {
+            return Integer.parseInt(Sorcer.getProperty(name));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * A retrieved object, kept marshalled unless it is immutable.
+     */
+    private class Retrieved {
+        final Object object;
+        final MarshalledInstance marshalled;
+        final long expires;
+
+        Retrieved(Object object) throws IOException {
+            if (ContextSharing.isImmutable(object)) {
+                this.object = object;
+                this.marshalled = null;
+            } else {
+                this.object = null;
+                this.marshalled = new MarshalledInstance(object);
+            }
+            expires = ttl > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl) : 0;
+        }
+
+        boolean isExpired() {
+            return ttl > 0 && System.nanoTime() - expires > 0;
+        }
+
+        Object copy() throws IOException {
+            if (marshalled == null)
+                return object;
+            try {
+                return marshalled.get(false);
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Could not copy the retrieved object", e);
+            }
+        }
+    }
+
+    /**
+     * The outstanding requests to a storage provider. The thread that holds
+     * the lock retrieves all requests queued so far in one batch; threads
+     * queuing meanwhile find their requests done or retrieve the rest.
+     */
+    private class Source {
+        final String serviceType;
+        final String providerName;
+        final ReentrantLock lock = new ReentrantLock();
+        final ConcurrentMap<Uuid, CompletableFuture<Retrieved>> requests = new ConcurrentHashMap<Uuid, CompletableFuture<Retrieved>>();
+        final Queue<Uuid> pending = new ConcurrentLinkedQueue<Uuid>();
+        volatile StorageManagement store;
+
+        Source(String serviceType, String providerName) {
+            this.serviceType = serviceType;
+            this.providerName = providerName;
+        }
+
+        CompletableFuture<Retrieved> request(Uuid uuid) {
+            CompletableFuture<Retrieved> request = new CompletableFuture<Retrieved>();
+            CompletableFuture<Retrieved> outstanding = requests.putIfAbsent(uuid, request);
+            if (outstanding != null)
+                return outstanding;
+            pending.add(uuid);
+            return request;
+        }
+
+        void drain() {
+            if (pending.isEmpty())
+                return;
+            lock.lock();
+            try {
+                while (!pending.isEmpty()) {
+                    List<Uuid> batch = new ArrayList<Uuid>();
+                    Uuid uuid;
+                    while (batch.size() < batchSize && (uuid = pending.poll()) != null)
+                        batch.add(uuid);
+                    retrieve(batch);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /*
+         * Completes every request of the batch, exceptionally if the batch
+         * fails in any way, so that no caller waits for a lost request
+         */
+        private void retrieve(List<Uuid> batch) {
+            try {
+                Map<Uuid, Object> objects = retrieveAll(batch);
+                for (Uuid uuid : batch) {
+                    Object object = objects.get(uuid);
+                    if (object instanceof UuidObject)
+                        object = ((UuidObject) object).getObject();
+                    if (object == null) {
+                        requests.remove(uuid).complete(null);
+                        continue;
+                    }
+                    try {
+                        Retrieved retrieved = new Retrieved(object);
+                        cache(uuid, retrieved);
+                        requests.remove(uuid).complete(retrieved);
+                    } catch (IOException e) {
+                        requests.remove(uuid).completeExceptionally(
+                                new IOException("Could not marshal the object stored as " + uuid, e));
+                    }
+                }
+            } catch (Throwable t) {
+                // look the provider up again with the next batch
+                store = null;
+                IOException e = t instanceof IOException ? (IOException) t
+                        : new IOException("Could not retrieve objects from " + providerName, t);
+                for (Uuid uuid : batch) {
+                    CompletableFuture<Retrieved> request = requests.remove(uuid);
+                    if (request != null)
+                        request.completeExceptionally(e);
+                }
+                if (t instanceof Error)
+                    throw (Error) t;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<Uuid, Object> retrieveAll(List<Uuid> batch) throws IOException {
+            try {
+                if (store == null)
+                    store = lookup(serviceType, providerName);
+                batches.incrementAndGet();
+                logger.debug("Retrieving {} objects from {}", batch.size(), providerName);
+                // all stored objects are retrieved as objects, as by SdbConnection
+                Context cxt = SdbUtil.getRetrieveAllContext(batch, Store.object);
+                Object objects = store.contextRetrieveAll(cxt).getValue(StorageManagement.objects_retrieved);
+                if (!(objects instanceof Map))
+                    throw new IOException("No objects retrieved from " + providerName);
+                return (Map<Uuid, Object>) objects;
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Could not retrieve objects from " + providerName, e);
+            }
+        }
+    }
+}
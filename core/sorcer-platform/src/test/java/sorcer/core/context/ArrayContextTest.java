@@ -0,0 +1,169 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import org.junit.Test;
+import sorcer.service.Context;
+import sorcer.util.ObjectCloner;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ArrayContextTest {
+
+    @Test
+    public void presentsElementPaths() throws Exception {
+        ArrayContext cxt = new ArrayContext("array");
+        cxt.iv(1, 20.0);
+        cxt.iv(0, 10.0);
+        cxt.vc(0, "first");
+        cxt.ovd(2, "result");
+        cxt.putValue("other/path", "x");
+
+        assertEquals(20.0, cxt.getValue(ArrayContext.ivp(1)));
+        assertEquals("first", cxt.getValue(ArrayContext.cp(0)));
+        assertEquals("result", cxt.ovd(2));
+        Set<String> paths = new HashSet<String>(cxt.keySet());
+        assertEquals(new HashSet<String>(Arrays.asList("input/[0]/eval", "input/[1]/eval",
+                "[0]/comment", "output/[2]/description", "other/path")), paths);
+
+        // element values put by path are held densely as well
+        cxt.putValue(ArrayContext.ivp(1), "twenty");
+        assertEquals("twenty", cxt.iv(1));
+        assertEquals(10.0, cxt.iv(0));
+    }
+
+    @Test
+    public void marksDirections() throws Exception {
+        ArrayContext cxt = new ArrayContext("array");
+        for (int i = 0; i < 5; i++)
+            cxt.iv(i, (double) i);
+        cxt.ov(5, 0.0);
+        cxt.mark(ArrayContext.ivp(3), Context.DA_OUT);
+
+        assertEquals(Arrays.asList("input/[0]/eval", "input/[1]/eval", "input/[2]/eval", "input/[4]/eval"),
+                Arrays.asList(cxt.getSortedInPaths()));
+        assertEquals(new HashSet<String>(Arrays.asList("input/[3]/eval", "output/[5]/eval")),
+                new HashSet<String>(cxt.getOutPaths()));
+        assertEquals(Context.DA_OUT, cxt.getSingletonAttributeValue(ArrayContext.ivp(3), Context.DIRECTION));
+        assertEquals(Arrays.asList(0.0, 1.0, 2.0, 4.0), cxt.getInValues());
+    }
+
+    @Test
+    public void sortsInputsOfLargeContexts() throws Exception {
+        ArrayContext cxt = new ArrayContext("array");
+        int n = 200000;
+        for (int i = n - 1; i >= 0; i--)
+            cxt.v(i, i * 0.5);
+        String[] paths = cxt.getSortedInPaths();
+        assertEquals(n, paths.length);
+        for (int i = 0; i < n; i++)
+            assertEquals(i, cxt.getIndex(paths[i]));
+        assertEquals(n - 1, cxt.getMaxIndex());
+        assertEquals(n, cxt.keySet().size());
+        // filled from the end, the elements are moved to the arrays once dense
+        assertFalse(cxt.getArrayData().isSparse(ArrayData.VALUES, n - 1));
+        double[] values = cxt.getDoubles("v");
+        assertEquals(n, values.length);
+        assertEquals(100.0, values[200], 0);
+    }
+
+    @Test
+    public void holdsSparseIndicesInPaths() throws Exception {
+        ArrayContext cxt = new ArrayContext("array");
+        int far = 1000000000;
+        cxt.iv(0, 1.0);
+        cxt.iv(far, 2.0);
+        cxt.ivc(far / 2, "half");
+        cxt.ov(far, "result");
+
+        ArrayData data = cxt.getArrayData();
+        assertTrue(data.isSparse(ArrayData.INPUTS, far));
+        assertFalse(data.isSparse(ArrayData.INPUTS, 1));
+        assertEquals(2.0, cxt.iv(far));
+        assertEquals("half", cxt.ivc(far / 2));
+        assertEquals("result", cxt.ov(far));
+        assertEquals(new HashSet<String>(Arrays.asList("input/[0]/eval", "input/[1000000000]/eval",
+                "input/[500000000]/comment", "output/[1000000000]/eval")), new HashSet<String>(cxt.keySet()));
+        assertEquals(Arrays.asList("input/[0]/eval", "input/[1000000000]/eval"),
+                Arrays.asList(cxt.getSortedInPaths()));
+        assertEquals(Arrays.asList("output/[1000000000]/eval"), cxt.getOutPaths());
+
+        cxt.mark(ArrayContext.ivp(far), Context.DA_OUT);
+        assertEquals(Context.DA_OUT, cxt.getSingletonAttributeValue(ArrayContext.ivp(far), Context.DIRECTION));
+        assertEquals(Arrays.asList("input/[0]/eval"), Arrays.asList(cxt.getSortedInPaths()));
+
+        cxt.iv(far, 3.0);
+        assertEquals(3.0, cxt.iv(far));
+        cxt.remove(ArrayContext.ivp(far));
+        assertNull(cxt.getValue(ArrayContext.ivp(far)));
+        assertEquals(3, cxt.keySet().size());
+
+        ArrayContext copy = (ArrayContext) ObjectCloner.copy(cxt);
+        assertNotNull(copy);
+        assertEquals("half", copy.ivc(far / 2));
+        assertEquals("result", copy.ov(far));
+    }
+
+    @Test
+    public void serializesDenseData() throws Exception {
+        ArrayContext cxt = new ArrayContext("array");
+        for (int i = 0; i < 1000; i++)
+            cxt.iv(i, (double) i);
+        cxt.ov(0, "text");
+        cxt.ivc(7, "seven");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(cxt);
+        out.close();
+        ArrayContext copy = (ArrayContext) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        assertEquals(999.0, copy.iv(999));
+        assertEquals("text", copy.ov(0));
+        assertEquals("seven", copy.ivc(7));
+        assertEquals(1000, copy.getSortedInPaths().length);
+        assertEquals(Arrays.asList("output/[0]/eval"), copy.getOutPaths());
+    }
+
+    @Test
+    public void copiesDenseData() throws Exception {
+        ArrayContext cxt = new ArrayContext("array");
+        for (int i = 0; i < 100; i++)
+            cxt.iv(i, (double) i);
+        cxt.ov(0, "text");
+        ServiceContext outer = new ServiceContext("outer");
+        outer.putValue("arg/x", 1.0);
+        outer.putValue("arg/array", cxt);
+
+        ArrayContext copy = (ArrayContext) ObjectCloner.copy(cxt);
+        assertNotNull(copy);
+        assertEquals(99.0, copy.iv(99));
+        assertEquals("text", copy.ov(0));
+        copy.iv(0, 10.0);
+        assertEquals(0.0, cxt.iv(0));
+
+        // array contexts within other contexts
+        ServiceContext outerCopy = (ServiceContext) ObjectCloner.copy(outer);
+        assertNotNull(outerCopy);
+        assertEquals(1.0, outerCopy.getValue("arg/x"));
+        assertEquals(99.0, ((ArrayContext) outerCopy.getValue("arg/array")).iv(99));
+    }
+}
@@ -0,0 +1,124 @@
+package sorcer.core.context;
+
+import org.junit.Test;
+import sorcer.core.context.model.ent.ProcModel;
+import sorcer.util.ObjectCloner;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static sorcer.po.operator.ent;
+import static sorcer.po.operator.ents;
+import static sorcer.po.operator.invoker;
+import static sorcer.po.operator.procModel;
+
+public class ContextSharingTest {
+
+    @Test
+    public void testChangesNotShared() throws Exception {
+        ServiceContext<Object> original = new ServiceContext<Object>("data");
+        original.putValue("arg/x1", 1.0);
+        original.putValue("arg/name", "x");
+        ServiceContext<Object> copy = (ServiceContext<Object>) ObjectCloner.copy(original);
+
+        copy.putValue("arg/x1", 2.0);
+        copy.remove("arg/name");
+        original.putValue("arg/x2", 3.0);
+
+        assertEquals(1.0, original.getValue("arg/x1"));
+        assertEquals("x", original.getValue("arg/name"));
+        assertEquals(2.0, copy.getValue("arg/x1"));
+        assertFalse(copy.containsPath("arg/name"));
+        assertFalse(copy.containsPath("arg/x2"));
+        // immutable values are shared
+        ServiceContext<Object> another = (ServiceContext<Object>) ObjectCloner.copy(original);
+        assertSame(original.get("arg/name"), another.get("arg/name"));
+    }
+
+    @Test
+    public void testDataSharedUntilWritten() throws Exception {
+        ServiceContext<Object> original = new ServiceContext<Object>("data");
+        for (int i = 0; i < 1000; i++)
+            original.putValue("arg/x" + i, (double) i);
+        Set<String> paths = original.keySet();
+        ServiceContext<Object> copy = (ServiceContext<Object>) ObjectCloner.copy(original);
+        assertTrue(((ContextData) original.getData()).isShared());
+        assertTrue(((ContextData) copy.getData()).isShared());
+
+        copy.putValue("arg/x0", -1.0);
+        assertFalse(((ContextData) copy.getData()).isShared());
+        assertTrue(((ContextData) original.getData()).isShared());
+        assertEquals(0.0, original.getValue("arg/x0"));
+        // views obtained before the copy do not change the shared data
+        paths.remove("arg/x1");
+        assertFalse(original.containsPath("arg/x1"));
+        assertTrue(copy.containsPath("arg/x1"));
+        assertEquals(1000, copy.size());
+    }
+
+    @Test
+    public void testEntriesNotShared() throws Exception {
+        ServiceContext<Object> original = new ServiceContext<Object>("data");
+        original.putValue("arg/x1", ent("x1", 1.0));
+        ServiceContext<Object> copy = (ServiceContext<Object>) ObjectCloner.copy(original);
+        assertFalse(((ContextData) original.getData()).isShared());
+        assertNotSame(original.get("arg/x1"), copy.get("arg/x1"));
+
+        // shared again once the entry is removed
+        original.remove("arg/x1");
+        ObjectCloner.copy(original);
+        assertTrue(((ContextData) original.getData()).isShared());
+    }
+
+    @Test
+    public void testArraysCopiedOnce() throws Exception {
+        double[] values = { 1.0, 2.0 };
+        ServiceContext<Object> original = new ServiceContext<Object>("data");
+        original.putValue("arg/values", values);
+        original.putValue("arg/alias", values);
+        ServiceContext<Object> copy = (ServiceContext<Object>) ObjectCloner.copy(original);
+
+        double[] copied = (double[]) copy.getValue("arg/values");
+        assertNotSame(values, copied);
+        assertSame(copied, copy.getValue("arg/alias"));
+        // the original keeps its values
+        assertSame(values, original.getValue("arg/values"));
+
+        copied[0] = 10.0;
+        values[1] = 20.0;
+        assertEquals(1.0, values[0], 0.0);
+        assertEquals(2.0, copied[1], 0.0);
+    }
+
+    @Test
+    public void testKeysOfCopyLive() throws Exception {
+        ServiceContext<Object> original = new ServiceContext<Object>("data");
+        original.putValue("arg/x1", 1.0);
+        ServiceContext<Object> copy = (ServiceContext<Object>) ObjectCloner.copy(original);
+
+        Set<String> paths = copy.keySet();
+        copy.putValue("arg/x2", 2.0);
+        assertTrue(paths.contains("arg/x2"));
+        paths.remove("arg/x1");
+        assertFalse(copy.containsPath("arg/x1"));
+        assertTrue(original.containsPath("arg/x1"));
+    }
+
+    @Test
+    public void testModelEntriesKeepScope() throws Exception {
+        ProcModel model = procModel("model", ent("x1", 1.0), ent("x3", 3.0),
+                ent("f", invoker("x1 + x3", ents("x1", "x3"))));
+        Object f = model.asis("f");
+        ProcModel copy = (ProcModel) ObjectCloner.copy(model);
+
+        // the entries of the original are neither replaced nor detached
+        assertSame(f, model.asis("f"));
+        assertNotSame(f, copy.asis("f"));
+
+        copy.putValue("x1", 2.0);
+        assertEquals(5.0, copy.getValue("f"));
+        assertEquals(4.0, model.getValue("f"));
+        model.putValue("x3", 5.0);
+        assertEquals(6.0, model.getValue("f"));
+    }
+}
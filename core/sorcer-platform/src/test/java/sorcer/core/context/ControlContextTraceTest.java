@@ -0,0 +1,86 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import org.junit.Test;
+import sorcer.util.BoundedList;
+
+import static org.junit.Assert.*;
+
+public class ControlContextTraceTest {
+
+    @Test
+    public void nestsSpans() {
+        ControlContext job = new ControlContext();
+        job.setTracable(true);
+        TraceSpan dispatch = job.startSpan(TraceSpan.DISPATCHER, "job", null);
+        assertNull(dispatch.parentId);
+
+        // a dispatched exertion continues the trace of its job
+        ControlContext task = new ControlContext();
+        task.joinTrace(job, dispatch);
+        TraceSpan exertion = task.startSpan(TraceSpan.EXERTION, "task", null);
+        TraceSpan call = task.startSpan(TraceSpan.PROVIDER, "task", "Adder");
+        assertEquals(dispatch.traceId, exertion.traceId);
+        assertEquals(dispatch.id, exertion.parentId);
+        assertEquals(exertion.id, call.parentId);
+
+        task.endSpan(call, false);
+        // the ended span's parent is the parent of the next one
+        TraceSpan retry = task.startSpan(TraceSpan.PROVIDER, "task", "Adder");
+        assertEquals(exertion.id, retry.parentId);
+        task.endSpan(retry, true);
+        task.endSpan(exertion, true);
+        job.endSpan(dispatch, false);
+
+        assertTrue(call.isEnded());
+        assertTrue(retry.failed);
+        assertEquals(3, task.getSpans().size());
+        assertEquals(1, job.getSpans().size());
+        assertEquals(job.getTraceId(), task.getTraceId());
+    }
+
+    @Test
+    public void recordsNoSpansOfUntracedExertions() {
+        // not tracable, and not sampled at the default rate
+        ControlContext cc = new ControlContext();
+        assertNull(cc.startSpan(TraceSpan.EXERTION, "task", null));
+        cc.endSpan(null, false);
+        assertTrue(cc.getSpans().isEmpty());
+
+        ControlContext child = new ControlContext();
+        child.joinTrace(cc, null);
+        assertFalse(child.isSampled());
+        assertNull(child.startSpan(TraceSpan.PROVIDER, "task", "Adder"));
+    }
+
+    @Test
+    public void boundsTraceAndSpans() {
+        ControlContext cc = new ControlContext();
+        cc.setTracable(true);
+        int max = TraceSink.getMaxEntries();
+        for (int i = 0; i < max + 5; i++) {
+            cc.appendTrace("step " + i);
+            cc.endSpan(cc.startSpan(TraceSpan.EXERTION, "step " + i, null), false);
+        }
+        assertEquals(max, cc.getTrace().size());
+        assertEquals("step " + (max + 4), cc.getTrace().get(max - 1));
+        assertEquals(5, ((BoundedList) cc.getTrace()).getDropped());
+        assertEquals(max, cc.getSpans().size());
+        assertEquals(5, ((BoundedList) cc.getSpans()).getDropped());
+    }
+}
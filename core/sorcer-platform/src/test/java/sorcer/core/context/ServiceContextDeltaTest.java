@@ -0,0 +1,98 @@
+package sorcer.core.context;
+
+import org.junit.Test;
+import sorcer.core.context.model.ent.Entry;
+
+import java.io.*;
+
+import static org.junit.Assert.*;
+
+public class ServiceContextDeltaTest {
+
+    @Test
+    public void testDeltaCreatedByProvider() throws Exception {
+        ServiceContext<Object> sent = new ServiceContext<Object>("delta");
+        sent.putInValue("arg/x", new double[10000]);
+        sent.putValue("arg/y", 2.0);
+        sent.putValue("arg/z", 3.0);
+
+        ServiceContext<Object> received = (ServiceContext<Object>) copy(sent);
+        received.startChangeTracking();
+        received.putValue("result/value", 5.0);
+        received.remove("arg/z");
+        ServiceContext<Object> created = received.createDelta();
+        assertTrue(created.isDelta());
+        assertFalse(received.isChangeTracked());
+
+        ServiceContext<Object> delta = (ServiceContext<Object>) copy(created);
+        assertTrue(delta.isDelta());
+        assertTrue(delta.containsPath("result/value"));
+        assertFalse(delta.containsPath("arg/x"));
+        assertFalse(delta.containsPath("arg/y"));
+
+        // the provider side context is left whole
+        assertTrue(received.containsPath("arg/x"));
+        assertFalse(((ServiceContext) copy(received)).isDelta());
+        // the delta is written as such by every serialization
+        assertTrue(((ServiceContext) copy(created)).isDelta());
+
+        delta.mergeDelta(sent);
+        assertFalse(delta.isDelta());
+        assertEquals(5.0, delta.getValue("result/value"));
+        assertEquals(2.0, delta.getValue("arg/y"));
+        assertEquals(10000, ((double[]) delta.getValue("arg/x")).length);
+        assertFalse(delta.containsPath("arg/z"));
+    }
+
+    @Test
+    public void testUntrackedContextWrittenWhole() throws Exception {
+        ServiceContext<Object> cxt = new ServiceContext<Object>("whole");
+        cxt.putValue("arg/x", 1.0);
+        assertNull(cxt.createDelta());
+        ServiceContext<Object> out = (ServiceContext<Object>) copy(cxt);
+        assertFalse(out.isDelta());
+        assertTrue(out.containsPath("arg/x"));
+    }
+
+    @Test
+    public void testEntriesAndRemovalsTracked() throws Exception {
+        ServiceContext<Object> cxt = new ServiceContext<Object>("tracked");
+        cxt.putValue("arg/entry", new Entry<Double>("x", 1.0));
+        cxt.putValue("arg/y", 2.0);
+        cxt.startChangeTracking();
+        // set in place on the entry, and removed by the operator
+        cxt.putValue("arg/entry", 5.0);
+        sorcer.co.operator.remove(cxt, "arg/y");
+        ServiceContext<Object> delta = (ServiceContext<Object>) copy(cxt.createDelta());
+        assertEquals(5.0, ((Entry) delta.get("arg/entry")).asis());
+        delta.mergeDelta(new ServiceContext<Object>("sent"));
+        assertFalse(delta.containsPath("arg/y"));
+    }
+
+    @Test
+    public void testDeltaMergedInProviderJvm() throws Exception {
+        ServiceContext<Object> cxt = new ServiceContext<Object>("local");
+        cxt.putValue("arg/x", 1.0);
+        cxt.putValue("arg/y", 2.0);
+        cxt.startChangeTracking();
+        cxt.putValue("result/value", 3.0);
+        cxt.remove("arg/x");
+
+        // returned without serialization, the task holds the delta only
+        ServiceContext<Object> delta = cxt.createDelta();
+        delta.mergeDelta(delta);
+        assertFalse(delta.isDelta());
+        assertEquals(2.0, delta.getValue("arg/y"));
+        assertEquals(3.0, delta.getValue("result/value"));
+        assertFalse(delta.containsPath("arg/x"));
+    }
+
+    private Object copy(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(object);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        return in.readObject();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import net.jini.core.event.RemoteEventListener;
+import org.junit.Before;
+import org.junit.Test;
+import sorcer.service.SpaceContext;
+import sorcer.space.array.DistribArray05;
+import sorcer.space.array.Element;
+import sorcer.space.array.ElementCache;
+import sorcer.space.array.FakeSpace;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SpaceValuesTest {
+    private ServiceContext<Object> context;
+    private FakeSpace space;
+    private DistribArray05 array;
+
+    @Before
+    public void setUp() {
+        context = new ServiceContext<Object>("shared");
+        space = new FakeSpace();
+        array = new DistribArray05(space, "values");
+    }
+
+    @Test
+    public void buffersWrites() throws Exception {
+        SpaceValues values = new SpaceValues(context, array, null, 3);
+        values.write("arg/a", 1.0);
+        values.write("arg/b", 2.0);
+        assertEquals(0, space.writes);
+        assertEquals(2.0, values.read("arg/b"));
+
+        // the array is created, then the batch appended with its tail
+        values.write("arg/c", 3.0);
+        assertEquals(2, space.writes);
+        assertTrue(((String) context.getValue("arg/a")).startsWith(SpaceContext.spacePrefix));
+        assertEquals(3, space.entries(new Element("values")).size());
+
+        int contents = space.contents;
+        Map<String, Object> read = values.readAll(Arrays.asList("arg/a", "arg/b", "arg/c"));
+        assertEquals(contents + 1, space.contents);
+        assertEquals(Arrays.<Object>asList(1.0, 2.0, 3.0), new ArrayList<Object>(read.values()));
+    }
+
+    @Test
+    public void replacesSpaceBackedValues() throws Exception {
+        SpaceValues values = new SpaceValues(context, array, null, 10);
+        values.writeAll(values("arg/a", 1.0, "arg/b", 2.0));
+        Object position = context.getValue("arg/a");
+
+        values.writeAll(values("arg/a", 10.0));
+        assertEquals(position, context.getValue("arg/a"));
+        assertEquals(10.0, values.read("arg/a"));
+        assertEquals(2, space.entries(new Element("values")).size());
+    }
+
+    @Test
+    public void takesValues() throws Exception {
+        SpaceValues values = new SpaceValues(context, array, null, 10);
+        values.writeAll(values("arg/a", 1.0, "arg/b", 2.0, "arg/c", 3.0));
+        assertEquals(3.0, values.take("arg/c"));
+
+        // pending values are flushed before they are taken
+        values.write("arg/d", 4.0);
+        Map<String, Object> taken = values.takeAll(Arrays.asList("arg/a", "arg/b", "arg/d"));
+        assertEquals(1.0, taken.get("arg/a"));
+        assertEquals(4.0, taken.get("arg/d"));
+        assertTrue(space.entries(new Element("values")).isEmpty());
+    }
+
+    @Test
+    public void readsThroughCache() throws Exception {
+        ElementCache cache = new ElementCache(array, 0) {
+            @Override
+            protected RemoteEventListener export() {
+                return this;
+            }
+        };
+        SpaceValues values = new SpaceValues(context, array, cache, 10);
+        assertTrue(cache.isEnabled());
+        values.writeAll(values("arg/a", 1.0, "arg/b", 2.0));
+
+        int reads = space.reads;
+        int contents = space.contents;
+        assertEquals(1.0, values.read("arg/a"));
+        assertEquals(2, values.readAll(Arrays.asList("arg/a", "arg/b")).size());
+        assertEquals(reads, space.reads);
+        assertEquals(contents, space.contents);
+
+        // a replacement written elsewhere is read from the space
+        Integer position = Integer.valueOf(((String) context.getValue("arg/b"))
+                .substring(SpaceContext.spacePrefix.length()));
+        array.writeElements(Collections.singletonMap(position, 20.0), null);
+        assertEquals(20.0, values.read("arg/b"));
+        values.close();
+        assertFalse(cache.isEnabled());
+    }
+
+    private static Map<String, Object> values(Object... pathsAndValues) {
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < pathsAndValues.length; i += 2)
+            values.put((String) pathsAndValues[i], pathsAndValues[i + 1]);
+        return values;
+    }
+}
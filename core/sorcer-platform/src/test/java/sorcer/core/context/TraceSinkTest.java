@@ -0,0 +1,115 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TraceSinkTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("trace", ".json");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        TraceSink.setFile(null);
+        file.delete();
+    }
+
+    @Test
+    public void exportsSpansAsJsonLines() throws IOException {
+        TraceSink.setFile(file.getPath());
+        TraceSpan span = span("job \"a\"\n");
+        span.end = span.start + 5;
+        span.failed = true;
+        TraceSink.export(span);
+
+        List<String> lines = read();
+        assertEquals(1, lines.size());
+        String line = lines.get(0);
+        assertTrue(line.startsWith("{\"traceId\":\"t1\",\"id\":\"s1\",\"parentId\":null,"));
+        assertTrue(line.contains("\"name\":\"job \\\"a\\\"\\u000a\""));
+        assertTrue(line.contains("\"duration\":5,\"failed\":true}"));
+    }
+
+    @Test
+    public void reopensClosedFile() throws IOException {
+        TraceSink.setFile(file.getPath());
+        TraceSink.export(span("first"));
+        TraceSink.close();
+        // the next export creates the file again
+        assertTrue(file.delete());
+
+        TraceSink.export(span("second"));
+        List<String> lines = read();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"second\""));
+        TraceSink.close();
+        TraceSink.close();
+    }
+
+    @Test
+    public void exportsNothingWithoutFile() {
+        TraceSink.setFile(null);
+        TraceSink.export(span("none"));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void samplesAtRate() {
+        assertFalse(TraceSink.sample(0));
+        assertTrue(TraceSink.sample(1));
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (TraceSink.sample(0.1))
+                sampled++;
+        }
+        assertTrue(sampled > 700 && sampled < 1300);
+    }
+
+    @Test
+    public void measuresSpans() {
+        TraceSpan span = span("step");
+        assertFalse(span.isEnded());
+        assertTrue(span.getDuration() >= 0);
+        span.end = span.start + 42;
+        assertTrue(span.isEnded());
+        assertEquals(42, span.getDuration());
+        assertTrue(span.toString().endsWith("t1/s1"));
+    }
+
+    private static TraceSpan span(String name) {
+        return new TraceSpan("t1", "s1", null, TraceSpan.EXERTION, name, "Adder", "host");
+    }
+
+    private List<String> read() throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
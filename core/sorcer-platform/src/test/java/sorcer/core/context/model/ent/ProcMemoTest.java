@@ -0,0 +1,237 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.context.model.ent;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import sorcer.core.context.ServiceContext;
+import sorcer.core.context.model.srv.Srv;
+import sorcer.core.context.model.srv.SrvModel;
+import sorcer.core.invoker.GroovyInvoker;
+import sorcer.core.invoker.ServiceInvoker;
+import sorcer.service.*;
+import sorcer.service.modeling.Variability;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.rmi.RemoteException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ProcMemoTest {
+
+    private static final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void keysArgumentsAndInputs() throws Exception {
+        String key = ProcMemo.key("f", invoker(), new Arg[] { new Entry<Double>("x", 1.0) }, scope(2.0));
+
+        assertNotNull(key);
+        assertEquals(key, ProcMemo.key("f", invoker(), new Arg[] { new Entry<Double>("x", 1.0) }, scope(2.0)));
+        assertNotEquals(key, ProcMemo.key("f", invoker(), new Arg[] { new Entry<Double>("x", 1.5) }, scope(2.0)));
+        assertNotEquals(key, ProcMemo.key("f", invoker(), new Arg[] { new Entry<Double>("x", 1.0) }, scope(3.0)));
+        assertNotEquals(key, ProcMemo.key("g", invoker(), new Arg[] { new Entry<Double>("x", 1.0) }, scope(2.0)));
+        // values the invoker does not depend on are not keyed
+        ServiceContext other = scope(2.0);
+        other.putValue("y", 6.0);
+        assertEquals(key, ProcMemo.key("f", invoker(), new Arg[] { new Entry<Double>("x", 1.0) }, other));
+    }
+
+    @Test
+    public void keysDefinitions() throws Exception {
+        String key = ProcMemo.key("f", new GroovyInvoker("a + y"), new Arg[0], scope(2.0));
+
+        assertEquals(key, ProcMemo.key("f", new GroovyInvoker("a + y"), new Arg[0], scope(2.0)));
+        assertNotEquals(key, ProcMemo.key("f", new GroovyInvoker("a * y"), new Arg[0], scope(2.0)));
+        // edited expressions the evaluation depends on change the key as well
+        ServiceContext edited = scope(2.0);
+        edited.putValue("g", new Proc("g", new GroovyInvoker("a - y")));
+        ServiceContext other = scope(2.0);
+        other.putValue("g", new Proc("g", new GroovyInvoker("a / y")));
+        GroovyInvoker f = new GroovyInvoker("g + 1", new Proc("g"));
+        assertNotEquals(ProcMemo.key("f", f, new Arg[0], edited), ProcMemo.key("f", f, new Arg[0], other));
+    }
+
+    @Test
+    public void skipsOutputs() throws Exception {
+        SrvModel model = model(3.0);
+        String key = ProcMemo.key("y", model.asis("y"), new Arg[0], model);
+
+        // written back by the evaluation
+        ((Srv) model.asis("y")).setSrvValue(6.0);
+        model.putValue("out/y", 6.0);
+        assertEquals(key, ProcMemo.key("y", model.asis("y"), new Arg[0], model));
+        model.putValue("x", 4.0);
+        assertNotEquals(key, ProcMemo.key("y", model.asis("y"), new Arg[0], model));
+    }
+
+    @Test
+    public void skipsValuesThatCannotBeKeyed() throws Exception {
+        assertNull(ProcMemo.key("f", invoker(), new Arg[] { new Entry<Object>("x", new Object()) }));
+    }
+
+    @Test
+    public void procSkipsMemoizedEvaluations() throws Exception {
+        calls.set(0);
+        Proc y = new Proc("y", invoker());
+        y.setMemo(new ProcMemo(10, null));
+
+        assertEquals(6.0, y.getValue(scope(3.0)));
+        assertEquals(8.0, y.getValue(scope(4.0)));
+        assertEquals(6.0, y.getValue(scope(3.0)));
+        assertEquals(2, calls.get());
+        assertEquals(1, y.getMemo().getHits());
+    }
+
+    @Test
+    public void procSkipsStoredEvaluations() throws Exception {
+        File dir = Files.createTempDirectory("proc-memo").toFile();
+        try {
+            calls.set(0);
+            Proc y = new Proc("y", invoker());
+            y.setMemo(new ProcMemo(10, dir));
+            assertEquals(6.0, y.getValue(scope(3.0)));
+
+            y = new Proc("y", invoker());
+            y.setMemo(new ProcMemo(10, dir));
+            assertEquals(6.0, y.getValue(scope(3.0)));
+            assertEquals(1, calls.get());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void procModelSkipsMemoizedEvaluations() throws Exception {
+        calls.set(0);
+        ProcModel model = new ProcModel("model");
+        model.putValue("y", new Proc("y", invoker()));
+        model.setMemo(new ProcMemo(10, null));
+
+        assertEquals(6.0, model.getValue("y", new Entry<Double>("x", 3.0)));
+        assertEquals(8.0, model.getValue("y", new Entry<Double>("x", 4.0)));
+        assertEquals(6.0, model.getValue("y", new Entry<Double>("x", 3.0)));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void procModelSkipsStoredEvaluations() throws Exception {
+        File dir = Files.createTempDirectory("proc-memo").toFile();
+        try {
+            calls.set(0);
+            for (int run = 0; run < 2; run++) {
+                ProcModel model = new ProcModel("model");
+                model.putValue("y", new Proc("y", invoker()));
+                model.setMemo(new ProcMemo(10, dir));
+                assertEquals(6.0, model.getValue("y", new Entry<Double>("x", 3.0)));
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void srvModelSkipsMemoizedEvaluations() throws Exception {
+        calls.set(0);
+        SrvModel model = model(3.0);
+        model.setMemo(new ProcMemo(10, null));
+
+        assertEquals(6.0, model.getValue("y", new Entry<Double>("x", 3.0)));
+        assertEquals(8.0, model.getValue("y", new Entry<Double>("x", 4.0)));
+        assertEquals(6.0, model.getValue("y", new Entry<Double>("x", 3.0)));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void srvModelSkipsStoredEvaluations() throws Exception {
+        File dir = Files.createTempDirectory("proc-memo").toFile();
+        try {
+            calls.set(0);
+            for (int run = 0; run < 2; run++) {
+                SrvModel model = model(3.0);
+                model.setMemo(new ProcMemo(10, dir));
+                assertEquals(6.0, model.getValue("y"));
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void boundsAndInvalidatesValues() throws Exception {
+        ProcMemo memo = new ProcMemo(2, null);
+        memo.put("a", 1.0);
+        memo.put("b", 2.0);
+        memo.get("a");
+        memo.put("c", 3.0);
+
+        assertEquals(2, memo.size());
+        assertEquals(1.0, memo.get("a"));
+        assertNull(memo.get("b"));
+        memo.invalidate("a");
+        assertNull(memo.get("a"));
+        assertEquals(2, memo.getHits());
+        assertEquals(2, memo.getMisses());
+    }
+
+    @Test
+    public void storesValuesAcrossRuns() throws Exception {
+        File dir = Files.createTempDirectory("proc-memo").toFile();
+        try {
+            new ProcMemo(1, dir).put("point", new double[] { 1.0, 2.0 });
+
+            ProcMemo memo = new ProcMemo(1, dir);
+            assertArrayEquals(new double[] { 1.0, 2.0 }, (double[]) memo.get("point"), 0);
+            memo.clear();
+            assertNull(new ProcMemo(1, dir).get("point"));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private static ServiceContext scope(double x) throws Exception {
+        ServiceContext cxt = new ServiceContext("scope");
+        cxt.putValue("a", x);
+        cxt.putValue("x", x);
+        cxt.putValue("y", 5.0);
+        return cxt;
+    }
+
+    private static ServiceInvoker invoker() throws Exception {
+        return new ServiceInvoker("twice", new Twice(), new ArgSet(new Proc("x")));
+    }
+
+    private static SrvModel model(double x) throws Exception {
+        SrvModel model = new SrvModel("model");
+        model.putValue("x", x);
+        Srv y = new Srv("y", new Twice(), new Signature.ReturnPath("out/y"));
+        y.setType(Variability.Type.LAMBDA);
+        model.putValue("y", y);
+        return model;
+    }
+
+    private static class Twice implements ValueCallable<Double> {
+        @Override
+        public Double call(Context<Double> context) throws ContextException, RemoteException {
+            calls.incrementAndGet();
+            return 2 * context.getValue("x");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package sorcer.core.deploy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class DeploymentTrackerTest {
+
+    @Test(timeout = 10000)
+    public void testReadyOnEvents() throws Exception {
+        DeploymentTracker tracker = new DeploymentTracker();
+        CompletableFuture<Boolean> ready = tracker.whenReady("f1", 2, 60000);
+        LocalMonitor monitor = new LocalMonitor(tracker, "f1", 2);
+        monitor.start();
+
+        Assert.assertTrue(ready.get());
+        Assert.assertEquals(2, tracker.count("f1"));
+        // already deployed
+        Assert.assertTrue(tracker.whenReady("f1", 2, 0).isDone());
+        monitor.join();
+    }
+
+    @Test(timeout = 10000)
+    public void testTimedOut() throws Exception {
+        DeploymentTracker tracker = new DeploymentTracker();
+        tracker.serviceAdded("f1", "a");
+        CompletableFuture<Boolean> ready = tracker.whenReady("f1", 2, 100);
+
+        Assert.assertFalse(ready.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void testTypeReady() throws Exception {
+        DeploymentTracker tracker = new DeploymentTracker();
+        CompletableFuture<Boolean> ready = tracker.whenReady("f1", Runnable.class.getName(), 1, 60000);
+        tracker.serviceAdded("f1", "a", "not runnable");
+        Assert.assertFalse(ready.isDone());
+        tracker.serviceAdded("f1", "b", new Thread());
+
+        Assert.assertTrue(ready.get());
+        Assert.assertEquals(1, tracker.count("f1", Runnable.class.getName()));
+        Assert.assertEquals(2, tracker.count("f1"));
+        // the whole deployment is not ready
+        Assert.assertFalse(tracker.whenReady("f1", 3, 0).isDone());
+    }
+
+    @Test(timeout = 10000)
+    public void testRemoved() throws Exception {
+        DeploymentTracker tracker = new DeploymentTracker();
+        tracker.serviceAdded("f1", "a");
+        tracker.serviceAdded("f1", "b");
+        CompletableFuture<Boolean> removed = tracker.whenRemoved("f1", 60000);
+        tracker.serviceRemoved("f1", "a");
+        Assert.assertFalse(removed.isDone());
+        tracker.serviceRemoved("f1", "b");
+
+        Assert.assertTrue(removed.get());
+        Assert.assertEquals(0, tracker.count("f1"));
+    }
+
+    /**
+     * Stands in for the Rio monitor, registering the services of a deployment one by one
+     */
+    private static class LocalMonitor extends Thread {
+        final DeploymentTracker tracker;
+        final String name;
+        final int instances;
+
+        LocalMonitor(DeploymentTracker tracker, String name, int instances) {
+            this.tracker = tracker;
+            this.name = name;
+            this.instances = instances;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < instances; i++) {
+                tracker.serviceAdded(name, name + "-" + i);
+                // a duplicate event of the same service
+                tracker.serviceAdded(name, name + "-" + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package sorcer.core.loki.crypt;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import javax.crypto.interfaces.DHPublicKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Random;
+
+public class EncryptionManagerTest {
+    private KeyPair alice;
+    private KeyPair bob;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("DH");
+        generator.initialize(1024);
+        alice = generator.generateKeyPair();
+        generator.initialize(((DHPublicKey) alice.getPublic()).getParams());
+        bob = generator.generateKeyPair();
+    }
+
+    private KeyAgreement agreement(KeyPair own, KeyPair other) throws Exception {
+        KeyAgreement agreement = KeyAgreement.getInstance("DH");
+        agreement.init(own.getPrivate());
+        agreement.doPhase(other.getPublic(), true);
+        return agreement;
+    }
+
+    private EncryptionManager manager(KeyPair own, KeyPair other) throws Exception {
+        EncryptionManager manager = new EncryptionManager();
+        manager.init(agreement(own, other));
+        return manager;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        byte[] data = new byte[200 * 1024 + 7];
+        new Random(1).nextBytes(data);
+        byte[] encrypted = manager(alice, bob).encrypt(data);
+        Assert.assertArrayEquals(data, manager(bob, alice).decrypt(encrypted));
+        Assert.assertArrayEquals(new byte[0], manager(bob, alice).decrypt(manager(alice, bob).encrypt(new byte[0])));
+    }
+
+    @Test
+    public void testStreams() throws Exception {
+        byte[] data = new byte[64 * 1024];
+        new Random(2).nextBytes(data);
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        manager(alice, bob).encryptStream(new ByteArrayInputStream(data), encrypted);
+        ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        manager(bob, alice).decryptStream(new ByteArrayInputStream(encrypted.toByteArray()), decrypted);
+        Assert.assertArrayEquals(data, decrypted.toByteArray());
+    }
+
+    @Test
+    public void testPipes() throws Exception {
+        String text = "Gr\u00fc\u00dfe\nza\u017c\u00f3\u0142\u0107 \u20ac\n";
+        Reader encrypted = manager(alice, bob).encryptPipe(text.getBytes(StandardCharsets.UTF_8));
+        StringWriter lines = new StringWriter();
+        char[] buf = new char[1024];
+        for (int n; (n = encrypted.read(buf)) != -1; )
+            lines.write(buf, 0, n);
+        Reader decrypted = manager(bob, alice).decryptPipe(lines.toString().getBytes(StandardCharsets.UTF_8));
+        StringWriter plain = new StringWriter();
+        for (int n; (n = decrypted.read(buf)) != -1; )
+            plain.write(buf, 0, n);
+        Assert.assertEquals(text, plain.toString());
+        Assert.assertEquals("\u20ac", new String(manager(bob, alice).decrypt(manager(alice, bob).encrypt("\u20ac")),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = SecurityException.class)
+    public void testModifiedRejected() throws Exception {
+        byte[] encrypted = manager(alice, bob).encrypt("exertion".getBytes());
+        encrypted[encrypted.length - 1] ^= 1;
+        manager(bob, alice).decrypt(encrypted);
+    }
+
+    @Test
+    public void testLegacyDecrypted() throws Exception {
+        byte[] secret = agreement(alice, bob).generateSecret();
+        Cipher des = Cipher.getInstance("DES");
+        des.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(secret, 0, 8, "DES"));
+        byte[] encrypted = des.doFinal("exertion".getBytes());
+        Assert.assertEquals("exertion", new String(manager(bob, alice).decrypt(encrypted)));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider;
+
+import org.junit.Test;
+import sorcer.core.exertion.NetJob;
+import sorcer.core.exertion.NetTask;
+import sorcer.service.AdmissionException;
+import sorcer.service.Exec;
+import sorcer.service.Exertion;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class AdmissionControllerTest {
+
+    @Test
+    public void limitsRunningJobs() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 0, 0, 0);
+        AdmissionController.Permit first = admission.admit(job("first", 1));
+
+        assertRejected(admission, job("second", 1));
+        assertEquals(1, admission.getRunningJobs());
+        first.release();
+        // a permit is released once
+        first.release();
+        assertEquals(0, admission.getRunningJobs());
+        admission.admit(job("second", 1)).release();
+        assertEquals(2, admission.getAdmittedCount());
+        assertEquals(1, admission.getRejectedCount());
+    }
+
+    @Test
+    public void limitsInFlightTasks() throws Exception {
+        AdmissionController admission = new AdmissionController(0, 4, 0, 0);
+        // larger than the limit, but nothing else is running
+        AdmissionController.Permit large = admission.admit(job("large", 5));
+        assertEquals(5, admission.getInFlightTasks());
+        assertRejected(admission, job("small", 1));
+        large.release();
+
+        AdmissionController.Permit three = admission.admit(job("three", 3));
+        AdmissionController.Permit one = admission.admit(job("one", 1));
+        assertRejected(admission, job("two", 2));
+        three.release();
+        one.release();
+        assertEquals(0, admission.getInFlightTasks());
+    }
+
+    @Test
+    public void rejectsAfterTimeout() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 0, 0, 200);
+        AdmissionController.Permit first = admission.admit(job("first", 1));
+
+        long start = System.currentTimeMillis();
+        assertRejected(admission, job("second", 1));
+        assertTrue(System.currentTimeMillis() - start >= 200);
+        assertEquals(0, admission.getQueuedJobs());
+        first.release();
+    }
+
+    @Test
+    public void queuesUntilReleased() throws Exception {
+        final AdmissionController admission = new AdmissionController(1, 0, 0, 10000);
+        AdmissionController.Permit first = admission.admit(job("first", 1));
+        final Exertion second = job("second", 1);
+        final int status = second.getStatus();
+        final AtomicReference<Object> result = new AtomicReference<Object>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.set(admission.admit(second));
+                } catch (AdmissionException e) {
+                    result.set(e);
+                }
+            }
+        });
+        thread.start();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (admission.getQueuedJobs() == 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(1, admission.getQueuedJobs());
+        assertEquals(Exec.QUEUED, second.getStatus());
+        first.release();
+        thread.join(5000);
+
+        assertTrue(result.get() instanceof AdmissionController.Permit);
+        assertEquals(0, admission.getQueuedJobs());
+        assertEquals(status, second.getStatus());
+        assertEquals(1, admission.getRunningJobs());
+        ((AdmissionController.Permit) result.get()).release();
+    }
+
+    @Test
+    public void admitsInnerExertionsOfRunningJobs() throws Exception {
+        AdmissionController admission = new AdmissionController(1, 3, 0, 0);
+        NetJob outer = job("outer", 1);
+        NetJob inner = job("inner", 2);
+        outer.addMogram(inner);
+        AdmissionController.Permit permit = admission.admit(outer);
+        assertEquals(3, admission.getInFlightTasks());
+
+        // dispatched back to the provider while the outer job holds its permit
+        AdmissionController.Permit innerPermit = admission.admit(inner);
+        assertTrue(innerPermit.isNested());
+        AdmissionController.Permit taskPermit = admission.admit((Exertion) inner.getMograms().get(0));
+        assertTrue(taskPermit.isNested());
+        assertEquals(1, admission.getRunningJobs());
+        assertEquals(3, admission.getInFlightTasks());
+        assertRejected(admission, job("other", 1));
+
+        taskPermit.release();
+        innerPermit.release();
+        assertEquals(1, admission.getRunningJobs());
+        permit.release();
+        assertEquals(0, admission.getRunningJobs());
+        assertEquals(0, admission.getInFlightTasks());
+        // inner exertions of completed jobs take a share again
+        assertFalse(admission.admit(inner).isNested());
+    }
+
+    private static NetJob job(String name, int tasks) throws Exception {
+        NetJob job = new NetJob(name);
+        for (int i = 0; i < tasks; i++)
+            job.addMogram(new NetTask(name + "-" + i));
+        return job;
+    }
+
+    private static void assertRejected(AdmissionController admission, Exertion exertion) {
+        try {
+            admission.admit(exertion).release();
+            fail("admitted " + exertion.getName());
+        } catch (AdmissionException e) {
+            assertSame(exertion, e.getExertion());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class CallAccountingTest {
+
+    @Test
+    public void accountsForCallsPerOperation() {
+        CallAccounting accounting = new CallAccounting();
+        long first = accounting.begin("add");
+        long second = accounting.begin("add");
+        long third = accounting.begin("multiply");
+        assertEquals(3, accounting.getTotal().getRunning());
+        assertEquals(3, accounting.getInFlightIds().size());
+
+        assertTrue(accounting.end(first, false) >= 0);
+        accounting.end(third, true);
+        // a call ends only once
+        assertEquals(-1, accounting.end(first, false));
+
+        CallAccounting.OperationStats add = accounting.getStats("add");
+        assertEquals(1, add.getCalls());
+        assertEquals(1, add.getRunning());
+        assertEquals(2, add.getPeakRunning());
+        assertEquals(1, accounting.getStats("multiply").getFailures());
+        assertEquals(2, accounting.getTotal().getCalls());
+        assertEquals(3, accounting.getTotal().getPeakRunning());
+
+        accounting.end(second, false);
+        assertEquals(0, accounting.getTotal().getRunning());
+        assertEquals(2, accounting.getOperationStats().size());
+    }
+
+    @Test
+    public void accountsForConcurrentCalls() throws InterruptedException {
+        final CallAccounting accounting = new CallAccounting();
+        final int threads = 8, calls = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < calls; i++)
+                        accounting.end(accounting.begin("op" + (i % 4)), i % 10 == 0);
+                }
+            };
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+
+        assertEquals(threads * calls, accounting.getTotal().getCalls());
+        assertEquals(threads * calls / 10, accounting.getTotal().getFailures());
+        assertEquals(0, accounting.getTotal().getRunning());
+        assertTrue(accounting.getTotal().getPeakRunning() <= threads);
+        assertEquals(threads * calls / 4, accounting.getStats("op1").getCalls());
+        assertTrue(accounting.getInFlightIds().isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider;
+
+import net.jini.config.Configuration;
+import net.jini.config.ConfigurationFile;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ProviderExecutorTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ProviderExecutor executor;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    @Test
+    public void boundsQueuedTasks() throws Exception {
+        executor = ServiceProvider.createExecutor("queued", config(
+                "executorPoolSize=1", "executorQueuePolicy=\"queue\"", "executorQueueSize=2"));
+        ServiceProvider provider = new ServiceProvider();
+        provider.executor = executor;
+        ProviderAdmin admin = new ProviderAdmin(provider);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(blocking(started));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        executor.execute(blocking(null));
+        executor.execute(blocking(null));
+        assertEquals(2, executor.getQueueDepth());
+        assertEquals(2, admin.getExecutorQueueDepth());
+
+        // the queue is full, the task runs in the submitting thread
+        AtomicReference<Thread> runner = new AtomicReference<Thread>();
+        executor.execute(recording(runner));
+        assertSame(Thread.currentThread(), runner.get());
+        assertEquals(1, executor.getCallerRunsCount());
+        assertEquals(2, executor.getQueueDepth());
+
+        release.countDown();
+        awaitCompleted(4);
+        assertEquals(0, admin.getExecutorQueueDepth());
+    }
+
+    @Test
+    public void runsInCallerWithoutIdleWorker() throws Exception {
+        executor = ServiceProvider.createExecutor("callerRuns", config("executorPoolSize=1"));
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(blocking(started));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<Thread> runner = new AtomicReference<Thread>();
+        executor.execute(recording(runner));
+        assertSame(Thread.currentThread(), runner.get());
+        assertEquals(1, executor.getCallerRunsCount());
+        // tasks are never queued by the default policy
+        assertEquals(0, executor.getQueueDepth());
+        assertEquals(1, executor.getActiveCount());
+    }
+
+    @Test
+    public void spawnsThreadsWithoutIdleWorker() throws Exception {
+        executor = ServiceProvider.createExecutor("spawn", config("executorPoolSize=1"));
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(blocking(started));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        final AtomicReference<Thread> runner = new AtomicReference<Thread>();
+        final CountDownLatch spawned = new CountDownLatch(1);
+        executor.spawn(new Runnable() {
+            @Override
+            public void run() {
+                runner.set(Thread.currentThread());
+                spawned.countDown();
+            }
+        });
+        assertTrue(spawned.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), runner.get());
+        assertEquals(1, executor.getOverflowCount());
+        assertEquals(0, executor.getCallerRunsCount());
+    }
+
+    @Test
+    public void rejectsTasksAfterShutdown() throws Exception {
+        executor = ServiceProvider.createExecutor("shutdown", config("executorPoolSize=1"));
+        executor.shutdown();
+        try {
+            executor.execute(blocking(null));
+            fail("executed after shutdown");
+        } catch (RejectedExecutionException e) {
+            // not run in the caller either
+        }
+        assertEquals(0, executor.getCallerRunsCount());
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void usesDefaultsForInvalidEntries() throws Exception {
+        executor = ServiceProvider.createExecutor("defaults", config("executorPoolSize=\"many\""));
+        AtomicReference<Thread> runner = new AtomicReference<Thread>();
+        executor.submit(recording(runner)).get(5, TimeUnit.SECONDS);
+        assertNotNull(runner.get());
+        assertEquals(0, executor.getQueueDepth());
+    }
+
+    private Runnable blocking(final CountDownLatch started) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                if (started != null)
+                    started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private static Runnable recording(final AtomicReference<Thread> runner) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                runner.set(Thread.currentThread());
+            }
+        };
+    }
+
+    private void awaitCompleted(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getCompletedCount() < count && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(count, executor.getCompletedCount());
+    }
+
+    private static Configuration config(String... entries) throws Exception {
+        String[] options = new String[entries.length + 1];
+        // no configuration file, the entries are overrides
+        options[0] = "-";
+        for (int i = 0; i < entries.length; i++)
+            options[i + 1] = ServiceProvider.COMPONENT + "." + entries[i];
+        return new ConfigurationFile(options);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider;
+
+import net.jini.id.Uuid;
+import net.jini.id.UuidFactory;
+import org.junit.Test;
+import sorcer.service.ContextException;
+import sorcer.service.ServiceSession;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SessionMapTest {
+
+    @Test
+    public void expiresInactiveSessions() throws Exception {
+        SessionMap sessions = new SessionMap(1000);
+        long now = System.currentTimeMillis();
+        Uuid idle = UuidFactory.generate();
+        Uuid eternal = UuidFactory.generate();
+        sessions.put(idle, new TestSession(now, 10));
+        sessions.put(eternal, new TestSession(now, 0));
+
+        assertEquals(0, sessions.expire(now + 5000));
+        assertEquals(2, sessions.size());
+        assertEquals(1, sessions.expire(now + 12000));
+        assertFalse(sessions.containsKey(idle));
+        assertTrue(sessions.containsKey(eternal));
+        assertEquals(1, sessions.getEvictions());
+    }
+
+    @Test
+    public void reschedulesAccessedSessions() throws Exception {
+        SessionMap sessions = new SessionMap(1000);
+        long now = System.currentTimeMillis();
+        Uuid id = UuidFactory.generate();
+        TestSession session = new TestSession(now, 10);
+        sessions.put(id, session);
+
+        session.lastAccessed = now + 8000;
+        assertEquals(0, sessions.expire(now + 12000));
+        assertTrue(sessions.containsKey(id));
+        assertEquals(1, sessions.expire(now + 20000));
+        assertFalse(sessions.containsKey(id));
+    }
+
+    @Test
+    public void releasesEvictedSessions() throws Exception {
+        SessionMap sessions = new SessionMap(1000);
+        final List<ServiceSession> evicted = new ArrayList<ServiceSession>();
+        sessions.addEvictionListener(new SessionMap.EvictionListener() {
+            @Override
+            public void evicted(ServiceSession session) {
+                evicted.add(session);
+            }
+        });
+        long now = System.currentTimeMillis();
+        Uuid id = UuidFactory.generate();
+        TestSession session = new TestSession(now, 1);
+        Resource resource = new Resource();
+        session.setAttribute("resource", resource);
+        sessions.put(id, session);
+
+        assertSame(session, sessions.get(id));
+        assertNull(sessions.get(UuidFactory.generate()));
+        assertEquals(1, sessions.getHits());
+        assertEquals(1, sessions.getMisses());
+
+        sessions.expire(now + 3000);
+        assertTrue(resource.closed);
+        assertTrue(session.invalid);
+        assertEquals(Arrays.asList(session), evicted);
+    }
+
+    @Test
+    public void skipsRemovedSessions() throws Exception {
+        SessionMap sessions = new SessionMap(1000);
+        long now = System.currentTimeMillis();
+        Uuid id = UuidFactory.generate();
+        TestSession session = new TestSession(now, 1);
+        sessions.put(id, session);
+        sessions.remove(id);
+
+        assertEquals(0, sessions.expire(now + 3000));
+        assertFalse(session.invalid);
+        assertEquals(0, sessions.getEvictions());
+    }
+
+    static class Resource implements AutoCloseable {
+        boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    static class TestSession implements ServiceSession {
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        long lastAccessed;
+        int maxInactiveInterval;
+        boolean invalid;
+
+        TestSession(long lastAccessed, int maxInactiveInterval) {
+            this.lastAccessed = lastAccessed;
+            this.maxInactiveInterval = maxInactiveInterval;
+        }
+
+        @Override
+        public long getLastAccessedTime() throws ContextException {
+            if (invalid)
+                throw new ContextException("Invalid session");
+            return lastAccessed;
+        }
+
+        @Override
+        public void setMaxInactiveInterval(int interval) {
+            maxInactiveInterval = interval;
+        }
+
+        @Override
+        public int getMaxInactiveInterval() {
+            return maxInactiveInterval;
+        }
+
+        @Override
+        public Object getAttribute(String name) throws ContextException {
+            return attributes.get(name);
+        }
+
+        @Override
+        public Iterator<String> getAttributeNames() throws ContextException {
+            return attributes.keySet().iterator();
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) throws ContextException {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name) throws ContextException {
+            attributes.remove(name);
+        }
+
+        @Override
+        public void invalidate() {
+            invalid = true;
+        }
+
+        @Override
+        public boolean isNew() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.file;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ChunkedDownloadTest {
+    private static final int CHUNK = 1000;
+
+    private HttpServer server;
+    private byte[] content;
+    private boolean ranges = true;
+    // chunks answered with a server error
+    private final Set<Long> failing = Collections.synchronizedSet(new HashSet<Long>());
+    private final AtomicInteger requests = new AtomicInteger();
+    private File target;
+
+    @Before
+    public void setUp() throws IOException {
+        content = new byte[10 * CHUNK + 123];
+        new Random(7).nextBytes(content);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                serve(exchange);
+            }
+        });
+        server.start();
+        target = File.createTempFile("chunked", ".dat");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        target.delete();
+        ChunkedDownload.getStateFile(target).delete();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        if (ranges)
+            exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.getResponseHeaders().add("Content-Length", "" + content.length);
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        requests.incrementAndGet();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        int first = 0;
+        int last = content.length - 1;
+        int code = 200;
+        if (ranges && range != null) {
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            first = Integer.parseInt(bounds[0]);
+            last = Integer.parseInt(bounds[1]);
+            if (failing.contains((long) first / CHUNK)) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            code = 206;
+            exchange.getResponseHeaders().add("Content-Range",
+                                              "bytes " + first + "-" + last + "/" + content.length);
+        }
+        exchange.sendResponseHeaders(code, last - first + 1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content, first, last - first + 1);
+        }
+    }
+
+    private ChunkedDownload download() throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/data.bin");
+        ChunkedDownload download = new ChunkedDownload(url, target);
+        download.setChunkSize(CHUNK);
+        download.setRetries(0);
+        return download;
+    }
+
+    @Test
+    public void downloadsChunksInParallel() throws IOException {
+        ChunkedDownload download = download();
+        download.setParallelism(4);
+        assertEquals(content.length, download.download());
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(11, requests.get());
+        assertFalse(ChunkedDownload.getStateFile(target).exists());
+    }
+
+    @Test
+    public void resumesFailedDownload() throws IOException {
+        failing.add(4L);
+        try {
+            download().download();
+            fail("Chunk 4 should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertTrue(ChunkedDownload.getStateFile(target).exists());
+        assertEquals(5, requests.get());
+
+        failing.clear();
+        requests.set(0);
+        assertEquals(content.length, download().download());
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        // chunks 0 to 3 are not fetched again
+        assertEquals(7, requests.get());
+    }
+
+    @Test
+    public void fetchesDamagedChunkAgain() throws IOException {
+        failing.add(10L);
+        try {
+            download().download();
+            fail("Chunk 10 should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        try (RandomAccessFile file = new RandomAccessFile(target, "rw")) {
+            file.seek(2 * CHUNK + 5);
+            file.write(content[2 * CHUNK + 5] + 1);
+        }
+
+        failing.clear();
+        requests.set(0);
+        download().download();
+        assertArrayEquals(content, Files.readAllBytes(target.toPath()));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void copiesStreamWithoutRanges() throws IOException {
+        ranges = false;
+        assertEquals(content.length, download().download());
+        assertTrue(Arrays.equals(content, Files.readAllBytes(target.toPath())));
+        assertEquals(1, requests.get());
+    }
+}
@@ -0,0 +1,199 @@
+package sorcer.file;
+
+import com.google.common.hash.Hashing;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class FileCacheTest {
+
+    @Test
+    public void testCopiedOnce() throws Exception {
+        Path root = Files.createTempDirectory("file-cache");
+        try (FileCache cache = new FileCache(root, 1024)) {
+            CountingSource source = new CountingSource("content");
+            File first = cache.get(source.checksum, source);
+            File second = cache.get(source.checksum, source);
+
+            Assert.assertEquals(first, second);
+            Assert.assertEquals(1, source.copies);
+            Assert.assertEquals("content", FileUtils.readFileToString(first, StandardCharsets.UTF_8));
+            Assert.assertEquals(1, cache.getHits());
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        Path root = Files.createTempDirectory("file-cache");
+        try (FileCache cache = new FileCache(root, 10, 0)) {
+            CountingSource a = new CountingSource("aaaa");
+            CountingSource b = new CountingSource("bbbb");
+            CountingSource c = new CountingSource("cccc");
+            cache.get(a.checksum, a);
+            cache.get(b.checksum, b);
+            cache.get(a.checksum, a);
+            cache.get(c.checksum, c);
+
+            Assert.assertEquals(8, cache.getSize());
+            Assert.assertTrue(new File(root.toFile(), a.checksum).exists());
+            Assert.assertFalse(new File(root.toFile(), b.checksum).exists());
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testSharedBetweenProcesses() throws Exception {
+        Path root = Files.createTempDirectory("file-cache");
+        // caches of two processes sharing the directory
+        try (FileCache first = new FileCache(root, 10, 0); FileCache second = new FileCache(root, 10, 0)) {
+            CountingSource a = new CountingSource("aaaa");
+            CountingSource b = new CountingSource("bbbb");
+            CountingSource c = new CountingSource("cccc");
+            first.get(a.checksum, a);
+            second.get(a.checksum, a);
+            Assert.assertEquals(1, a.copies);
+            Assert.assertEquals(1, second.getHits());
+
+            second.get(b.checksum, b);
+            first.get(c.checksum, c);
+            // the files of both are accounted for
+            Assert.assertEquals(8, second.getSize());
+            Assert.assertFalse(new File(root.toFile(), a.checksum).exists());
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testRecentlyUsedKept() throws Exception {
+        Path root = Files.createTempDirectory("file-cache");
+        try (FileCache cache = new FileCache(root, 4, 60000)) {
+            CountingSource a = new CountingSource("aaaa");
+            CountingSource b = new CountingSource("bbbb");
+            File file = cache.get(a.checksum, a);
+            cache.get(b.checksum, b);
+
+            // still may be read by another process
+            Assert.assertTrue(file.exists());
+            Assert.assertEquals(8, cache.getSize());
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidChecksum() throws Exception {
+        Path root = Files.createTempDirectory("file-cache");
+        try (FileCache cache = new FileCache(root, 1024)) {
+            cache.get("0000", new CountingSource("content"));
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testClosed() throws Exception {
+        Path root = Files.createTempDirectory("file-cache");
+        try {
+            FileCache cache = new FileCache(root, 1024);
+            CountingSource source = new CountingSource("content");
+            File file = cache.get(source.checksum, source);
+            cache.close();
+
+            try {
+                cache.get(source.checksum, source);
+                Assert.fail("used after close");
+            } catch (IOException e) {
+                // the lock file is closed
+            }
+            Assert.assertTrue(file.exists());
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testFailedDownloadResumed() throws Exception {
+        Path root = Files.createTempDirectory("file-cache");
+        try (FileCache cache = new FileCache(root, 1024)) {
+            final CountingSource source = new CountingSource("content");
+            final File part = new File(root.toFile(), source.checksum + ".part");
+            final File journal = ChunkedDownload.getStateFile(part);
+            try {
+                cache.get(source.checksum, new FileCache.Source() {
+                    @Override
+                    public void copyTo(File target) throws IOException {
+                        FileUtils.writeStringToFile(target, "cont", StandardCharsets.UTF_8);
+                        FileUtils.writeStringToFile(ChunkedDownload.getStateFile(target), "chunks",
+                                                    StandardCharsets.UTF_8);
+                        throw new IOException("connection reset");
+                    }
+                });
+                Assert.fail("downloaded");
+            } catch (IOException e) {
+                Assert.assertEquals("connection reset", e.getMessage());
+            }
+            // kept for the next download
+            Assert.assertEquals("cont", FileUtils.readFileToString(part, StandardCharsets.UTF_8));
+            Assert.assertTrue(journal.exists());
+            Assert.assertEquals(0, cache.getSize());
+
+            File file = cache.get(source.checksum, new FileCache.Source() {
+                @Override
+                public void copyTo(File target) throws IOException {
+                    Assert.assertEquals(part, target);
+                    Assert.assertTrue(ChunkedDownload.getStateFile(target).exists());
+                    source.copyTo(target);
+                }
+            });
+            Assert.assertEquals("content", FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+            Assert.assertFalse(part.exists());
+            Assert.assertFalse(journal.exists());
+            Assert.assertFalse(new File(root.toFile(), source.checksum + ".part.lock").exists());
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    @Test
+    public void testInvalidPartRemoved() throws Exception {
+        Path root = Files.createTempDirectory("file-cache");
+        try (FileCache cache = new FileCache(root, 1024)) {
+            try {
+                cache.get("0000", new CountingSource("content"));
+                Assert.fail("checksum not verified");
+            } catch (IOException e) {
+                // the content does not match
+            }
+            Assert.assertFalse(new File(root.toFile(), "0000.part").exists());
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+
+    private static class CountingSource implements FileCache.Source {
+        final String content;
+        final String checksum;
+        int copies;
+
+        CountingSource(String content) {
+            this.content = content;
+            this.checksum = Hashing.sha1().hashString(content, StandardCharsets.UTF_8).toString();
+        }
+
+        @Override
+        public void copyTo(File target) throws IOException {
+            copies++;
+            FileUtils.writeStringToFile(target, content, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.space.array;
+
+import net.jini.core.entry.Entry;
+import net.jini.core.lease.Lease;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class DistribArray05Test {
+
+    @Test
+    public void appendsBatchesToOneStripe() throws Exception {
+        FakeSpace space = new FakeSpace();
+        DistribArray05 array = created(space, "bulk", 4);
+        int writes = space.writes;
+
+        int[] positions = array.appendAll(Arrays.asList("a", "b", "c"), null);
+        // the elements and the tail in one write
+        assertEquals(writes + 1, space.writes);
+        assertEquals(positions[0] + 4, positions[1]);
+        assertEquals(positions[1] + 4, positions[2]);
+        assertEquals(3, array.size(null));
+        for (int i = 0; i < positions.length; i++)
+            assertEquals("abc".substring(i, i + 1), array.readElement(positions[i]));
+    }
+
+    @Test
+    public void readsElementsOrderedByPosition() throws Exception {
+        FakeSpace space = new FakeSpace();
+        DistribArray05 array = created(space, "ordered", 4);
+        Map<Integer, Object> appended = new HashMap<Integer, Object>();
+        for (int i = 0; i < 10; i++) {
+            int[] positions = array.appendAll(Arrays.asList("x" + i, "y" + i), null);
+            appended.put(positions[0], "x" + i);
+            appended.put(positions[1], "y" + i);
+        }
+        assertEquals(20, appended.size());
+        assertEquals(20, array.size(null));
+
+        int contents = space.contents;
+        SortedMap<Integer, Object> read = array.readElements(null, Long.MAX_VALUE);
+        assertEquals(contents + 1, space.contents);
+        assertEquals(appended, read);
+        assertEquals(new TreeSet<Integer>(appended.keySet()), read.keySet());
+
+        // a range skips the positions of stripes not filled yet
+        int last = read.lastKey();
+        SortedMap<Integer, Object> range = array.readElements(0, last + 1, null);
+        assertEquals(read, range);
+        assertNull(array.readElement(last + 4));
+    }
+
+    @Test
+    public void allocatesUniquePositionsToConcurrentAppends() throws Exception {
+        FakeSpace space = new FakeSpace();
+        created(space, "concurrent", 8);
+        final int producers = 4;
+        final int appends = 50;
+        final Set<Integer> positions = Collections.synchronizedSet(new HashSet<Integer>());
+        final List<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int p = 0; p < producers; p++) {
+            // each producer with its own instance, reading the layout from the space
+            final DistribArray05 array = new DistribArray05(space, "concurrent", 1);
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < appends; i++) {
+                            for (int position : array.appendAll(Arrays.asList("a", "b"), null))
+                                positions.add(position);
+                        }
+                    } catch (Exception e) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join(10000);
+
+        assertEquals(Collections.emptyList(), failures);
+        assertEquals(producers * appends * 2, positions.size());
+        DistribArray05 array = new DistribArray05(space, "concurrent");
+        assertEquals(positions.size(), array.size(null));
+        assertEquals(positions, array.readElements(null, Long.MAX_VALUE).keySet());
+    }
+
+    @Test
+    public void appendsToArraysWithoutStripes() throws Exception {
+        FakeSpace space = new FakeSpace();
+        // the layout of arrays created before stripes
+        Start start = new Start();
+        start.name = "single";
+        start.position = 0;
+        End end = new End();
+        end.name = "single";
+        end.position = 0;
+        space.write(Arrays.<Entry>asList(start, end), null, Arrays.asList(Lease.FOREVER, Lease.FOREVER));
+
+        DistribArray05 array = new DistribArray05(space, "single");
+        assertArrayEquals(new int[]{0, 1, 2}, array.appendAll(Arrays.asList("a", "b", "c"), null));
+        assertEquals(3, array.append("d"));
+        assertEquals(4, array.size(null));
+        assertEquals("c", array.readElement(2));
+    }
+
+    @Test
+    public void takesElementsLeftByPartialBatches() throws Exception {
+        // the space returns two entries per batch take
+        FakeSpace space = new FakeSpace(2);
+        DistribArray05 array = created(space, "take", 1);
+        int[] positions = array.appendAll(Arrays.asList("a", "b", "c", "d", "e"), null);
+
+        Map<Integer, Object> taken = array.takeElements(list(positions), null, 0);
+        assertEquals(5, taken.size());
+        assertEquals("c", taken.get(positions[2]));
+        assertTrue(space.entries(new Element("take")).isEmpty());
+    }
+
+    @Test
+    public void replacesAllElements() throws Exception {
+        FakeSpace space = new FakeSpace(2);
+        DistribArray05 array = created(space, "replace", 1);
+        int[] positions = array.appendAll(Arrays.asList("a", "b", "c", "d", "e"), null);
+
+        Map<Integer, Object> replacements = new HashMap<Integer, Object>();
+        for (int position : positions)
+            replacements.put(position, "x" + position);
+        array.writeElements(replacements, null);
+
+        List<Entry> elements = space.entries(new Element("replace"));
+        assertEquals(5, elements.size());
+        for (Entry entry : elements) {
+            Element element = (Element) entry;
+            assertEquals("x" + element.index, element.data);
+        }
+    }
+
+    @Test
+    public void deletesAllElementsAndTails() throws Exception {
+        FakeSpace space = new FakeSpace(2);
+        DistribArray05 array = created(space, "delete", 4);
+        array.appendAll(Arrays.asList("a", "b", "c", "d", "e"), null);
+        array.appendAll(Arrays.asList("f", "g"), null);
+
+        assertFalse(array.delete(null));
+        assertTrue(array.delete(null, true));
+        Start start = new Start();
+        start.name = "delete";
+        End end = new End();
+        end.name = "delete";
+        assertTrue(space.entries(new Element("delete")).isEmpty());
+        assertTrue(space.entries(start).isEmpty());
+        assertTrue(space.entries(end).isEmpty());
+    }
+
+    static DistribArray05 created(FakeSpace space, String name, int stripes) throws Exception {
+        DistribArray05 array = new DistribArray05(space, name, stripes);
+        array.create();
+        return array;
+    }
+
+    static List<Integer> list(int[] positions) {
+        List<Integer> list = new ArrayList<Integer>(positions.length);
+        for (int position : positions)
+            list.add(position);
+        return list;
+    }
+}
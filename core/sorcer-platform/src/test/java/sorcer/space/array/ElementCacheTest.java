@@ -0,0 +1,134 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.space.array;
+
+import net.jini.core.event.RemoteEventListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ElementCacheTest {
+    private FakeSpace space;
+    private DistribArray05 array;
+
+    @Before
+    public void setUp() throws Exception {
+        space = new FakeSpace();
+        array = new DistribArray05(space, "cached", 1);
+        array.create();
+    }
+
+    @Test
+    public void servesCachedReads() throws Exception {
+        int position = array.append("a");
+        ElementCache cache = listening(0);
+
+        assertEquals("a", cache.read(position));
+        int reads = space.reads;
+        assertEquals("a", cache.read(position));
+        assertEquals(reads, space.reads);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void readsMissingElementsInOneBatch() throws Exception {
+        int[] positions = array.appendAll(Arrays.asList("a", "b", "c"), null);
+        ElementCache cache = listening(0);
+        cache.read(positions[0]);
+
+        int contents = space.contents;
+        Map<Integer, Object> read = cache.readAll(Arrays.asList(positions[0], positions[1], positions[2]));
+        assertEquals(contents + 1, space.contents);
+        assertEquals("b", read.get(positions[1]));
+        // all of them cached now
+        cache.readAll(Arrays.asList(positions[0], positions[1], positions[2]));
+        assertEquals(contents + 1, space.contents);
+    }
+
+    @Test
+    public void returnsCopiesOfMutableElements() throws Exception {
+        int position = array.append(new ArrayList<String>(Arrays.asList("a")));
+        ElementCache cache = listening(0);
+
+        ((List<String>) cache.read(position)).add("b");
+        assertEquals(Arrays.asList("a"), cache.read(position));
+
+        List<String> written = new ArrayList<String>(Arrays.asList("x"));
+        cache.put(position, written);
+        written.add("y");
+        assertEquals(Arrays.asList("x"), cache.read(position));
+        assertNotSame(cache.read(position), cache.read(position));
+    }
+
+    @Test
+    public void dropsReplacedElements() throws Exception {
+        int position = array.append("a");
+        ElementCache cache = listening(0);
+        assertEquals("a", cache.read(position));
+
+        // the replacement becomes available in the space
+        array.writeElements(Collections.singletonMap(position, "b"), null);
+        assertEquals(0, cache.size());
+        assertEquals("b", cache.read(position));
+    }
+
+    @Test
+    public void expiresElements() throws Exception {
+        int position = array.append("a");
+        ElementCache cache = listening(1);
+        cache.read(position);
+
+        Thread.sleep(10);
+        int reads = space.reads;
+        assertEquals("a", cache.read(position));
+        assertTrue(space.reads > reads);
+    }
+
+    @Test
+    public void readsSpaceWithoutEvents() throws Exception {
+        int position = array.append("a");
+        ElementCache cache = new ElementCache(array, 0) {
+            @Override
+            protected RemoteEventListener export() throws IOException {
+                throw new IOException("no exporter");
+            }
+        };
+
+        assertFalse(cache.listen());
+        cache.read(position);
+        int reads = space.reads;
+        assertEquals("a", cache.read(position));
+        assertTrue(space.reads > reads);
+        assertEquals(0, cache.size());
+    }
+
+    // a cache notified in the writing thread of the space
+    private ElementCache listening(long ttl) {
+        ElementCache cache = new ElementCache(array, ttl) {
+            @Override
+            protected RemoteEventListener export() {
+                return this;
+            }
+        };
+        assertTrue(cache.listen());
+        return cache;
+    }
+}
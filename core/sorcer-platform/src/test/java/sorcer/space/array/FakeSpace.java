@@ -0,0 +1,305 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.space.array;
+
+import net.jini.core.entry.Entry;
+import net.jini.core.event.EventRegistration;
+import net.jini.core.event.RemoteEventListener;
+import net.jini.core.lease.Lease;
+import net.jini.core.lease.LeaseMap;
+import net.jini.core.transaction.Transaction;
+import net.jini.space.AvailabilityEvent;
+import net.jini.space.JavaSpace05;
+import net.jini.space.MatchSet;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.rmi.MarshalledObject;
+import java.util.*;
+
+/**
+ * An in-memory space for tests. Entries are copied when written and read,
+ * as by a remote space, and reads and takes do not wait. A batch take
+ * returns at most <code>takeLimit</code> entries, as a space may return fewer
+ * entries than requested. Availability listeners are notified of written
+ * entries in the writing thread.
+ */
+public class FakeSpace implements JavaSpace05 {
+    private final List<Entry> entries = new ArrayList<Entry>();
+    private final List<Registration> registrations = new ArrayList<Registration>();
+    private final int takeLimit;
+
+    // space calls by kind
+    public int writes;
+    public int reads;
+    public int takes;
+    public int contents;
+
+    public FakeSpace() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public FakeSpace(int takeLimit) {
+        this.takeLimit = takeLimit;
+    }
+
+    /**
+     * Returns copies of the entries matching the template.
+     */
+    public synchronized List<Entry> entries(Entry tmpl) {
+        List<Entry> found = new ArrayList<Entry>();
+        for (Entry entry : entries) {
+            if (matches(tmpl, entry))
+                found.add(copy(entry));
+        }
+        return found;
+    }
+
+    @Override
+    public Lease write(Entry entry, Transaction txn, long lease) {
+        write(Collections.singletonList(entry), txn, Collections.singletonList(lease));
+        return new FakeLease();
+    }
+
+    @Override
+    public List write(List entries, Transaction txn, List leaseDurations) {
+        List<Entry> written = new ArrayList<Entry>();
+        List<Registration> listeners;
+        synchronized (this) {
+            writes++;
+            for (Object entry : entries)
+                written.add(copy((Entry) entry));
+            this.entries.addAll(written);
+            listeners = new ArrayList<Registration>(registrations);
+        }
+        for (Entry entry : written) {
+            for (Registration registration : listeners)
+                registration.notify(entry);
+        }
+        List<Lease> leases = new ArrayList<Lease>(written.size());
+        for (int i = 0; i < written.size(); i++)
+            leases.add(new FakeLease());
+        return leases;
+    }
+
+    @Override
+    public synchronized Entry read(Entry tmpl, Transaction txn, long timeout) {
+        reads++;
+        return copy(find(tmpl, false));
+    }
+
+    @Override
+    public synchronized Entry readIfExists(Entry tmpl, Transaction txn, long timeout) {
+        reads++;
+        return copy(find(tmpl, false));
+    }
+
+    @Override
+    public synchronized Entry take(Entry tmpl, Transaction txn, long timeout) {
+        takes++;
+        return find(tmpl, true);
+    }
+
+    @Override
+    public synchronized Entry takeIfExists(Entry tmpl, Transaction txn, long timeout) {
+        takes++;
+        return find(tmpl, true);
+    }
+
+    @Override
+    public synchronized Collection take(Collection tmpls, Transaction txn, long timeout, long maxEntries) {
+        takes++;
+        long max = Math.min(maxEntries, takeLimit);
+        List<Entry> taken = new ArrayList<Entry>();
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext() && taken.size() < max; ) {
+            Entry entry = it.next();
+            if (matchesAny(tmpls, entry)) {
+                it.remove();
+                taken.add(entry);
+            }
+        }
+        return taken;
+    }
+
+    @Override
+    public synchronized MatchSet contents(Collection tmpls, Transaction txn, long leaseDuration, long maxEntries) {
+        contents++;
+        final List<Entry> found = new ArrayList<Entry>();
+        for (Entry entry : entries) {
+            if (found.size() < maxEntries && matchesAny(tmpls, entry))
+                found.add(copy(entry));
+        }
+        final Iterator<Entry> it = found.iterator();
+        return new MatchSet() {
+            @Override
+            public Entry next() {
+                return it.hasNext() ? it.next() : null;
+            }
+
+            @Override
+            public Lease getLease() {
+                return null;
+            }
+
+            @Override
+            public Entry getSnapshot() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public synchronized EventRegistration registerForAvailabilityEvent(Collection tmpls, Transaction txn,
+            boolean visibilityOnly, RemoteEventListener listener, long leaseDuration, MarshalledObject handback) {
+        Registration registration = new Registration(new ArrayList<Entry>(tmpls), listener, registrations.size());
+        registrations.add(registration);
+        return new EventRegistration(registration.id, this, new FakeLease(), 0);
+    }
+
+    @Override
+    public EventRegistration notify(Entry tmpl, Transaction txn, RemoteEventListener listener, long lease,
+            MarshalledObject handback) {
+        return registerForAvailabilityEvent(Collections.singletonList(tmpl), txn, true, listener, lease, handback);
+    }
+
+    @Override
+    public Entry snapshot(Entry entry) {
+        return entry;
+    }
+
+    private Entry find(Entry tmpl, boolean take) {
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (matches(tmpl, entry)) {
+                if (take)
+                    it.remove();
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesAny(Collection tmpls, Entry entry) {
+        for (Object tmpl : tmpls) {
+            if (matches((Entry) tmpl, entry))
+                return true;
+        }
+        return false;
+    }
+
+    // the entry is of the template class and has the fields set in the template
+    private static boolean matches(Entry tmpl, Entry entry) {
+        if (tmpl == null)
+            return true;
+        if (!tmpl.getClass().isInstance(entry))
+            return false;
+        try {
+            for (Field field : tmpl.getClass().getFields()) {
+                if (Modifier.isStatic(field.getModifiers()))
+                    continue;
+                Object value = field.get(tmpl);
+                if (value != null && !value.equals(field.get(entry)))
+                    return false;
+            }
+            return true;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Entry copy(Entry entry) {
+        if (entry == null)
+            return null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(entry);
+            out.close();
+            return (Entry) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class Registration {
+        final List<Entry> tmpls;
+        final RemoteEventListener listener;
+        final long id;
+        long sequence;
+
+        Registration(List<Entry> tmpls, RemoteEventListener listener, long id) {
+            this.tmpls = tmpls;
+            this.listener = listener;
+            this.id = id;
+        }
+
+        void notify(final Entry entry) {
+            if (!matchesAny(tmpls, entry))
+                return;
+            try {
+                listener.notify(new AvailabilityEvent(FakeSpace.this, id, ++sequence, null, true) {
+                    @Override
+                    public Entry getEntry() {
+                        return copy(entry);
+                    }
+
+                    @Override
+                    public Entry getSnapshot() {
+                        return entry;
+                    }
+                });
+            } catch (Exception e) {
+                // as with a remote listener, a failed notification is dropped
+            }
+        }
+    }
+
+    private static class FakeLease implements Lease {
+        @Override
+        public long getExpiration() {
+            return Lease.FOREVER;
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public void renew(long duration) {
+        }
+
+        @Override
+        public void setSerialFormat(int format) {
+        }
+
+        @Override
+        public int getSerialFormat() {
+            return Lease.DURATION;
+        }
+
+        @Override
+        public LeaseMap createLeaseMap(long duration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean canBatch(Lease lease) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BoundedListTest {
+
+    @Test
+    public void keepsLatestElements() {
+        BoundedList<Integer> list = new BoundedList<Integer>(3);
+        for (int i = 0; i < 5; i++)
+            list.add(i);
+        assertEquals(Arrays.asList(2, 3, 4), list);
+        assertEquals(2, list.getDropped());
+
+        list.addAll(Arrays.asList(5, 6));
+        assertEquals(Arrays.asList(4, 5, 6), list);
+        assertEquals(4, list.getDropped());
+
+        // inserted elements are bounded as well
+        list.add(1, 7);
+        assertEquals(Arrays.asList(7, 5, 6), list);
+        assertEquals(5, list.getDropped());
+        list.addAll(1, Arrays.asList(8, 9, 10, 11));
+        assertEquals(3, list.size());
+        assertEquals(9, list.getDropped());
+    }
+
+    @Test
+    public void resetsDroppedWhenCleared() {
+        BoundedList<String> list = new BoundedList<String>(1);
+        list.add("a");
+        list.add("b");
+        assertEquals(1, list.getDropped());
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.getDropped());
+    }
+
+    @Test
+    public void unboundedWithoutMaxSize() {
+        BoundedList<Integer> list = new BoundedList<Integer>(0);
+        for (int i = 0; i < 100; i++)
+            list.add(i);
+        assertEquals(100, list.size());
+        assertEquals(0, list.getDropped());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static sorcer.util.DataTable.Cell.*;
+
+public class ColumnarDataTableTest {
+
+    private static DataTable rowTable() {
+        DataTable table = new DataTable(Arrays.asList("x", "n", "kind", "id"), 0);
+        for (int i = 0; i < 100; i++)
+            table.addRow(Arrays.<Object>asList(i * 0.5, i % 7, i % 2 == 0 ? "even" : "odd", (long) i));
+        return table;
+    }
+
+    @Test
+    public void convertsRowTable() {
+        DataTable rows = rowTable();
+        ColumnarDataTable table = new ColumnarDataTable(rows);
+        assertEquals(DOUBLE, table.getColumnType("x"));
+        assertEquals(INTEGER, table.getColumnType("n"));
+        assertEquals(STRING, table.getColumnType("kind"));
+        assertEquals(LONG, table.getColumnType("id"));
+        assertEquals(100, table.getRowCount());
+        assertTrue(table.equals(rows));
+        assertEquals(rows.getColumn("n"), table.getColumn("n"));
+        assertEquals(3.5, table.getValueAtAsDouble(7, 0), 0);
+    }
+
+    @Test
+    public void aggregatesAndFilters() {
+        ColumnarDataTable table = new ColumnarDataTable(new String[] { "a", "b" }, DOUBLE, DOUBLE);
+        for (int i = 0; i < 1000; i++)
+            table.addRow(new double[] { i, -i });
+        assertEquals(499500.0, table.getSum("a"), 0);
+        assertEquals(499.5, table.getMean("a"), 0);
+        assertEquals(-999.0, table.getMin("b"), 0);
+        Double[] minMax = table.getMinMaxValuesAsDouble("a");
+        assertEquals(0.0, minMax[0], 0);
+        assertEquals(999.0, minMax[1], 0);
+
+        BitSet rows = table.select("a", 10, 19.5);
+        assertEquals(10, rows.cardinality());
+        ColumnarDataTable selected = table.getRows(rows);
+        assertEquals(10, selected.getRowCount());
+        assertEquals(-19.0, selected.getValueAt(9, 1));
+    }
+
+    @Test
+    public void queriesMatchRowTable() {
+        DataTable rows = rowTable();
+        ColumnarDataTable table = new ColumnarDataTable(rows);
+        assertTrue(rows.getValuesSuchThat("kind", "odd").equals(table.getValuesSuchThat("kind", "odd")));
+        assertTrue(rows.getValuesSuchThat("n", 3).equals(table.getValuesSuchThat("n", 3)));
+        DataTable expected = rows.getValuesSuchThat("n", "3", "x", "5.0");
+        DataTable actual = table.getValuesSuchThat("n", "3", "x", "5.0");
+        assertEquals(1, actual.getRowCount());
+        assertTrue(expected.equals(actual));
+        assertFalse(table.hasValueSuchThat("n", "3", "x", "5"));
+        assertEquals(0, table.getValuesSuchThat("kind", 3).getRowCount());
+    }
+
+    @Test
+    public void editsRows() {
+        ColumnarDataTable table = new ColumnarDataTable(rowTable());
+        table.insertRow(1, Arrays.<Object>asList(null, 5, "new", null));
+        assertEquals(101, table.getRowCount());
+        assertNull(table.getValueAt(1, 0));
+        assertEquals(1L, table.getValueAt(2, 3));
+        table.removeRow(0);
+        assertNull(table.getValueAt(0, 3));
+        assertEquals("new", table.getValue(0, "kind"));
+
+        table.moveRow(0, 1, 5);
+        assertEquals("new", table.getValueAt(5, 2));
+        assertEquals(2L, table.getValueAt(0, 3));
+
+        table.setValueAt("7", 0, 1);
+        assertEquals(7, table.getValueAt(0, 1));
+        table.addColumn("y", table.getDoubles("x"));
+        assertEquals(table.getValueAt(3, 0), table.getValueAt(3, 4));
+    }
+
+    @Test
+    public void writesAndReadsBinary() throws IOException {
+        ColumnarDataTable table = new ColumnarDataTable(rowTable());
+        table.setValueAt(null, 3, 1);
+        table.setRowIdentifiers("kind");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.writeBinary(out);
+        ColumnarDataTable copy = ColumnarDataTable.readBinary(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue(table.equals(copy));
+        assertNull(copy.getValueAt(3, 1));
+        assertEquals(table.getColumnNames(), copy.getColumnNames());
+        assertEquals(table.getRowIdentifiers(), copy.getRowIdentifiers());
+    }
+
+    @Test
+    public void serializes() throws Exception {
+        ColumnarDataTable table = new ColumnarDataTable(rowTable());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(table);
+        out.close();
+        ColumnarDataTable copy = (ColumnarDataTable) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertTrue(table.equals(copy));
+        copy.addRow(Arrays.<Object>asList(1.0, 1, "even", 100L));
+        List<?> row = copy.getRow(100);
+        assertEquals("even", row.get(2));
+        assertEquals(50, copy.selectEqual("kind", "odd").cardinality());
+        assertEquals(51, copy.selectEqual("kind", "even").cardinality());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+public class FileTableTest {
+
+    private File dir;
+    private FileTable<Object, Object> table;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("filetable").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (table != null)
+            table.close();
+        File[] files = dir.listFiles();
+        if (files != null)
+            for (File file : files)
+                file.delete();
+        dir.delete();
+    }
+
+    private FileTable<Object, Object> open() throws IOException {
+        if (table != null)
+            table.close();
+        table = new FileTable<Object, Object>(dir.getPath(), "table");
+        return table;
+    }
+
+    private File file(String suffix) {
+        return new File(dir, "table" + suffix);
+    }
+
+    @Test
+    public void replaysJournalOnOpen() throws IOException {
+        open();
+        for (int i = 0; i < 100; i++)
+            table.put(i, "row " + i);
+        table.put("key", 1.5);
+        table.put(3, "row 3 again");
+        table.remove(4);
+        table.put(7L, new int[] { 7 });
+
+        open();
+        assertEquals(101, table.getRowCount());
+        assertEquals("row 3 again", table.get(3));
+        assertNull(table.get(4));
+        assertEquals(1.5, table.get("key"));
+        assertEquals(7, ((int[]) table.getLastValue())[0]);
+    }
+
+    @Test
+    public void dropsTornTail() throws IOException {
+        open();
+        table.put(1, "one");
+        table.put(2, "two");
+        table.close();
+        long dataLength = file(".obf").length();
+        long indexLength = file("-index.obf").length();
+        // a value and half of its index entry written before a crash
+        try (RandomAccessFile data = new RandomAccessFile(file(".obf"), "rw");
+             RandomAccessFile index = new RandomAccessFile(file("-index.obf"), "rw")) {
+            data.seek(dataLength);
+            data.write(new byte[50]);
+            index.seek(indexLength);
+            index.write(new byte[] { 0, 0, 0, 20, 1, 2 });
+        }
+
+        open();
+        assertEquals(2, table.getRowCount());
+        assertEquals("two", table.get(2));
+        assertEquals(dataLength, file(".obf").length());
+        assertEquals(indexLength, file("-index.obf").length());
+        table.put(3, "three");
+        open();
+        assertEquals("three", table.get(3));
+    }
+
+    @Test
+    public void compactsGarbage() throws IOException {
+        open();
+        byte[] value = new byte[100 * 1024];
+        for (int i = 0; i < 60; i++) {
+            value[0] = (byte) i;
+            table.put(i % 2, value);
+        }
+        // superseded values beyond the 4 MB minimum were reclaimed
+        assertTrue(file(".obf").length() < 5 << 20);
+        table.remove(0);
+        table.cleanup();
+        assertTrue(file(".obf").length() < 2 * value.length);
+        assertEquals(59, ((byte[]) table.get(1))[0]);
+
+        open();
+        assertEquals(1, table.getRowCount());
+        assertEquals(59, ((byte[]) table.getLastValue())[0]);
+        assertFalse(file("-temp.obf").exists());
+    }
+
+    @Test
+    public void convertsObjectFiles() throws IOException {
+        FileTable.ObjectFile data = new FileTable.ObjectFile(file(".obf").getPath());
+        FileTable.ObjectFile index = new FileTable.ObjectFile(file("-index.obf").getPath());
+        ConcurrentHashMap<Object, Long> positions = new ConcurrentHashMap<Object, Long>();
+        positions.put("a", data.writeObject("first"));
+        positions.put("b", data.writeObject(2));
+        index.rewriteObject(0, positions);
+        data.close();
+        index.close();
+
+        open();
+        assertEquals(2, table.getRowCount());
+        assertEquals("first", table.get("a"));
+        assertEquals(2, table.get("b"));
+        table.put("c", "third");
+        open();
+        assertEquals("third", table.get("c"));
+    }
+}
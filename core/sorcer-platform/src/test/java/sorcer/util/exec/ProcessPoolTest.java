@@ -0,0 +1,109 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util.exec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ProcessPoolTest {
+    // echoes request lines, sleeps on "slow" and ends responses with exit value 3
+    private static final String[] WORKER = { "/bin/sh", "-c",
+            "while read l; do if [ \"$l\" = '#end' ]; then echo '#end 3'; "
+                    + "else [ \"$l\" = slow ] && sleep 10; echo \"got $l\"; echo \"err $l\" >&2; fi; done" };
+
+    private ProcessPool pool;
+
+    @Before
+    public void setUp() {
+        assumeTrue(new File(WORKER[0]).canExecute());
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    @Test
+    public void reusesWorkers() throws Exception {
+        pool = new ProcessPool(2, 0, ProcessPool.END_MARKER);
+        for (int i = 0; i < 3; i++) {
+            ExecUtils.CmdResult result = pool.exec(WORKER, "x=" + i + "\ny", 0);
+            assertEquals("got x=" + i + "\ngot y\n", result.getOut());
+            assertEquals(3, result.getExitValue());
+        }
+        assertEquals(1, pool.getStartedCount());
+        assertEquals(3, pool.getRequestCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void streamsResponseLines() throws Exception {
+        pool = new ProcessPool(2, 0, ProcessPool.END_MARKER);
+        final List<String> lines = new ArrayList<String>();
+        ExecUtils.CmdResult result = pool.exec(WORKER, "a\nb", new ProcessPool.LineHandler() {
+            @Override
+            public void line(String line) {
+                lines.add(line);
+            }
+        }, 0);
+        assertNull(result.getOut());
+        assertEquals(2, lines.size());
+        assertEquals("got a", lines.get(0));
+        assertEquals("got b", lines.get(1));
+    }
+
+    @Test
+    public void killsWorkersTimingOut() throws Exception {
+        pool = new ProcessPool(2, 0, ProcessPool.END_MARKER);
+        try {
+            pool.exec(WORKER, "slow", 300);
+            fail("The request should time out");
+        } catch (InterruptedIOException e) {
+            // expected
+        }
+        assertEquals(1, pool.getKilledCount());
+        assertEquals(0, pool.getIdleCount());
+        // the next request is served by a new worker
+        assertEquals("got z\n", pool.exec(WORKER, "z", 0).getOut());
+        assertEquals(2, pool.getStartedCount());
+    }
+
+    @Test
+    public void recyclesWorkersAfterMaxUses() throws Exception {
+        pool = new ProcessPool(2, 2, ProcessPool.END_MARKER);
+        for (int i = 0; i < 3; i++)
+            pool.exec(WORKER, "x", 0);
+        assertEquals(2, pool.getStartedCount());
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void refusesRequestsAfterShutdown() throws Exception {
+        pool = new ProcessPool(2, 0, ProcessPool.END_MARKER);
+        pool.shutdown();
+        pool.exec(WORKER, "x", 0);
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.util.url.sos;
+
+import net.jini.id.Uuid;
+import net.jini.id.UuidFactory;
+import org.junit.Test;
+import sorcer.core.provider.StorageManagement;
+import sorcer.service.Context;
+import sorcer.service.ContextException;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SosResolverTest {
+    private static final URLStreamHandler HANDLER = new URLStreamHandler() {
+        @Override
+        protected URLConnection openConnection(URL url) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    @Test
+    public void retrievesObjectsInBatches() throws Exception {
+        FakeStore store = new FakeStore();
+        SosResolver resolver = new TestResolver(store, 1000, 40);
+        List<URL> urls = new ArrayList<URL>();
+        for (int i = 0; i < 100; i++)
+            urls.add(url(store.store("object-" + i)));
+        urls.add(url(UuidFactory.generate()));
+
+        Map<URL, Object> objects = resolver.resolveAll(urls);
+        assertEquals(101, objects.size());
+        assertEquals("object-7", objects.get(urls.get(7)));
+        assertNull(objects.get(urls.get(100)));
+        assertEquals(3, store.calls);
+        assertEquals(3, resolver.getBatches());
+    }
+
+    @Test
+    public void cachesRetrievedObjects() throws Exception {
+        FakeStore store = new FakeStore();
+        SosResolver resolver = new TestResolver(store, 2, 10);
+        URL first = url(store.store("first"));
+        URL second = url(store.store("second"));
+        URL third = url(store.store("third"));
+
+        assertEquals("first", resolver.resolve(first));
+        assertEquals("first", resolver.resolve(first));
+        assertEquals(1, store.calls);
+        assertEquals(1, resolver.getHits());
+
+        resolver.resolveAll(Arrays.asList(second, third));
+        assertEquals(2, resolver.size());
+        // the least recently used object was evicted
+        assertEquals("first", resolver.resolve(first));
+        assertEquals(3, store.calls);
+
+        resolver.invalidate(SdbUtil.getUuid(first));
+        assertEquals("first", resolver.resolve(first));
+        assertEquals(4, store.calls);
+    }
+
+    @Test
+    public void returnsCopies() throws Exception {
+        FakeStore store = new FakeStore();
+        SosResolver resolver = new TestResolver(store, 10, 10);
+        URL url = url(store.store(new ArrayList<String>(Arrays.asList("a", "b"))));
+
+        List<String> first = (List<String>) resolver.resolve(url);
+        first.add("c");
+        List<String> second = (List<String>) resolver.resolve(url);
+        assertNotSame(first, second);
+        assertEquals(Arrays.asList("a", "b"), second);
+        assertEquals(1, store.calls);
+    }
+
+    @Test
+    public void expiresCachedObjects() throws Exception {
+        FakeStore store = new FakeStore();
+        SosResolver resolver = new TestResolver(store, 10, 10, 1);
+        URL url = url(store.store("object"));
+
+        assertEquals("object", resolver.resolve(url));
+        Thread.sleep(10);
+        assertEquals("object", resolver.resolve(url));
+        assertEquals(2, store.calls);
+    }
+
+    @Test(expected = IOException.class)
+    public void reportsFailedRetrievals() throws Exception {
+        FakeStore store = new FakeStore();
+        store.failing = true;
+        new TestResolver(store, 10, 10).resolve(url(store.store("object")));
+    }
+
+    @Test
+    public void prefetchesObjects() throws Exception {
+        FakeStore store = new FakeStore();
+        SosResolver resolver = new TestResolver(store, 10, 10);
+        URL first = url(store.store("first"));
+        URL second = url(store.store("second"));
+
+        resolver.prefetch(Arrays.asList(first, second));
+        assertEquals(1, store.calls);
+        assertEquals("first", resolver.resolve(first));
+        assertEquals("second", resolver.resolve(second));
+        assertEquals(1, store.calls);
+    }
+
+    @Test
+    public void reportsFailedLookups() throws Exception {
+        FakeStore store = new FakeStore();
+        SosResolver resolver = new TestResolver(store, 10, 10) {
+            @Override
+            protected StorageManagement lookup(String serviceType, String providerName) {
+                throw new IllegalStateException("No registrar");
+            }
+        };
+        URL url = url(store.store("object"));
+        for (int i = 0; i < 2; i++) {
+            try {
+                resolver.resolve(url);
+                fail("resolved without a storage provider");
+            } catch (IOException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertEquals(0, store.calls);
+    }
+
+    private static URL url(Uuid uuid) throws Exception {
+        return new URL(null, "sos://sorcer.core.provider.DatabaseStorer/Database_Storer#object=" + uuid, HANDLER);
+    }
+
+    static class TestResolver extends SosResolver {
+        final StorageManagement store;
+
+        TestResolver(StorageManagement store, int maxSize, int batchSize) {
+            this(store, maxSize, batchSize, 0);
+        }
+
+        TestResolver(StorageManagement store, int maxSize, int batchSize, long ttl) {
+            super(maxSize, batchSize, ttl);
+            this.store = store;
+        }
+
+        @Override
+        protected StorageManagement lookup(String serviceType, String providerName) {
+            return store;
+        }
+    }
+
+    static class FakeStore implements StorageManagement {
+        final Map<Uuid, Object> objects = new HashMap<Uuid, Object>();
+        int calls;
+        boolean failing;
+
+        Uuid store(Object object) {
+            Uuid uuid = UuidFactory.generate();
+            objects.put(uuid, object);
+            return uuid;
+        }
+
+        @Override
+        public Context contextRetrieveAll(Context context) throws ContextException {
+            calls++;
+            if (failing)
+                throw new ContextException("Storage failure");
+            Map<Uuid, Object> found = new HashMap<Uuid, Object>();
+            for (Object uuid : (Collection) context.getValue(object_uuids)) {
+                if (objects.containsKey(uuid))
+                    found.put((Uuid) uuid, objects.get(uuid));
+            }
+            context.putOutValue(objects_retrieved, found);
+            return context;
+        }
+
+        @Override
+        public Context contextRetrieve(Context context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Context contextStore(Context context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Context contextUpdate(Context context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Context contextDelete(Context context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Context contextClear(Context context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Context contextList(Context context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Context contextRecords(Context context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Context contextSize(Context context) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
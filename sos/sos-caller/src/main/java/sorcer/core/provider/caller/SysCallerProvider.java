@@ -18,6 +18,7 @@
 package sorcer.core.provider.caller;
 
 import com.sun.jini.start.LifeCycle;
+import net.jini.config.ConfigurationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sorcer.core.context.model.ent.SysCall;
@@ -32,6 +33,14 @@ public class SysCallerProvider extends ServiceProvider implements SysCaller {
 
 	private static Logger logger = LoggerFactory.getLogger(SysCallerProvider.class);
 
+	/**
+	 * Config entry: run calls by default on persistent workers of the process
+	 * pool, see {@link sorcer.util.exec.ProcessPool}
+	 */
+	public final static String POOLED_CALLS = "pooledCalls";
+
+	private Boolean pooledCalls;
+
 	public SysCallerProvider() throws Exception {
 		// do nothing
 	}
@@ -45,7 +54,23 @@ public class SysCallerProvider extends ServiceProvider implements SysCaller {
         String name = (String)context.getValue("name");
 		if (name == null)
 			name = context.getName();
+		// calls not choosing themselves run on pooled workers if configured
+		if (!context.containsPath("pooled") && isPooledCalls())
+			context.putValue("pooled", true);
         SysCall caller = new SysCall(name, context);
         return caller.getValue();
 	}
+
+	private boolean isPooledCalls() {
+		if (pooledCalls == null) {
+			try {
+				pooledCalls = (Boolean) getDeploymentConfig().getEntry(COMPONENT,
+						POOLED_CALLS, boolean.class, false);
+			} catch (ConfigurationException e) {
+				logger.warn("Could not read {}", POOLED_CALLS, e);
+				pooledCalls = false;
+			}
+		}
+		return pooledCalls;
+	}
 }
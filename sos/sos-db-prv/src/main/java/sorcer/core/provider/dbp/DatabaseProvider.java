@@ -423,6 +423,38 @@ public class DatabaseProvider extends ServiceProvider implements DatabaseStorer
 		return context;
 	}
 
+	/* (non-Javadoc)
+	 * @see sorcer.core.provider.StorageManagement#contextRetrieveAll(sorcer.service.Context)
+	 */
+	@Override
+	public Context contextRetrieveAll(Context context) throws RemoteException,
+			ContextException {
+		Object ids = context.getValue(object_uuids);
+		if (!(ids instanceof Collection))
+			throw new ContextException("No stored object Uuids: " + ids);
+		Map<Uuid, Object> objects = new HashMap<Uuid, Object>();
+		for (Object id : (Collection) ids) {
+			Uuid uuid;
+			if (id instanceof String) {
+				uuid = UuidFactory.create((String)id);
+			} else if (id instanceof Uuid) {
+				uuid = (Uuid)id;
+			} else {
+				throw new ContextException("No valid stored object Uuid: " + id);
+			}
+			Object obj = retrieve(uuid, Store.object);
+			if (obj != null)
+				objects.put(uuid, obj);
+		}
+		context.remove(object_uuids);
+		if (((ServiceContext)context).getReturnPath() != null)
+			context.putOutValue(((ServiceContext)context).getReturnPath().path, objects);
+
+		// default returned path
+		context.putOutValue(objects_retrieved, objects);
+		return context;
+	}
+
 	/* (non-Javadoc)
 	 * @see sorcer.core.StorageManagement#update(sorcer.service.Context)
 	 */
@@ -33,18 +33,35 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.rmi.RemoteException;
 import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Sends {@link MonitorEvent}s to registered listeners. Events are filtered on
+ * the caller's thread and queued per listener; a delivery executor notifies
+ * each listener in order, so a slow or dead listener never blocks the
+ * monitored providers. When a listener falls behind and its queue is full, a
+ * new event replaces a queued event of the same identifier and owner, or
+ * else the oldest queued event is dropped.
+ *
  * @author Dennis Reedy
  */
 public class MonitorEventHandler {
+    static final int EVENT_QUEUE_SIZE_DEFAULT = 256;
     private LeasedListManager resourceMgr;
     private LandlordLessor landlord;
     private final AtomicInteger sequenceNumber = new AtomicInteger(1);
     private static final SecureRandom idGen = new SecureRandom();
     private ProxyPreparer listenerPreparer = new BasicProxyPreparer();
+    private int eventQueueSize = EVENT_QUEUE_SIZE_DEFAULT;
+    private final ExecutorService deliveryExecutor;
     private static Logger logger = LoggerFactory.getLogger(MonitorEventHandler.class);
 
     MonitorEventHandler(Configuration config) throws IOException {
@@ -60,6 +77,25 @@ public class MonitorEventHandler {
             logger.warn("Failed getting the sorcer.modeling.monitor.eventListenerPreparer " +
                         "from configuration, use default");
         }
+        try {
+            eventQueueSize = (Integer) config.getEntry("sorcer.modeling.monitor",
+                                                       "eventQueueSize",
+                                                       int.class,
+                                                       EVENT_QUEUE_SIZE_DEFAULT);
+        } catch (ConfigurationException e) {
+            logger.warn("Failed getting the sorcer.modeling.monitor.eventQueueSize " +
+                        "from configuration, use default");
+        }
+        // at most one thread per listener with pending events
+        deliveryExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger(1);
+
+            @Override public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "MonitorEventDelivery-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     /**
@@ -78,7 +114,9 @@ public class MonitorEventHandler {
                                MonitorEventFilter eventFilter,
                                long duration) throws LeaseDeniedException, RemoteException {
         RemoteEventListener preparedListener = (RemoteEventListener)listenerPreparer.prepareProxy(listener);
-        EventRegistrationResource resource = new EventRegistrationResource(preparedListener, eventFilter);
+        EventRegistrationResource resource = new EventRegistrationResource(preparedListener,
+                                                                           eventFilter,
+                                                                           eventQueueSize);
         ServiceResource sr = new ServiceResource(resource);
         Lease lease = landlord.newLease(sr, duration);
         EventRegistration registration = new EventRegistration(nextID(),
@@ -103,22 +141,50 @@ public class MonitorEventHandler {
             EventRegistrationResource er = (EventRegistrationResource) sr.getResource();
             MonitorEventFilter eventFilter = er.getEventFilter();
             if (eventFilter == null || eventFilter.accept(monitorEvent)) {
-                RemoteEventListener listener = er.getListener();
+                if (er.enqueue(monitorEvent))
+                    deliveryExecutor.execute(new Delivery(sr));
+            } else {
+                if(logger.isDebugEnabled())
+                    logger.debug("Failed to match MonitorEvent, filtered with {}", eventFilter);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listener of a registration of its queued events, and
+     * cancels the registration if the listener fails.
+     */
+    private class Delivery implements Runnable {
+        private final ServiceResource sr;
+
+        Delivery(ServiceResource sr) {
+            this.sr = sr;
+        }
+
+        @Override public void run() {
+            EventRegistrationResource er = (EventRegistrationResource) sr.getResource();
+            MonitorEvent queued;
+            while ((queued = er.next()) != null) {
+                // each listener sees its own sequence numbers
+                MonitorEvent monitorEvent = new MonitorEvent(queued.getSource(),
+                                                             queued.getIdentifier(),
+                                                             queued.getOwner(),
+                                                             queued.getStatus(),
+                                                             queued.getAnalytics());
                 try {
                     monitorEvent.setSequenceNumber(er.sequenceNumber.incrementAndGet());
-                    listener.notify(monitorEvent);
+                    er.getListener().notify(monitorEvent);
                 } catch (UnknownEventException | RemoteException e) {
                     logger.warn("Failed notifying listener", e);
+                    er.close();
                     try {
                         resourceMgr.removeResource(sr);
                         landlord.cancel(sr.getCookie());
                     } catch (Exception ex) {
                         logger.warn("Removing/Cancelling an EventConsumer from UnknownEventException", ex);
                     }
+                    return;
                 }
-            } else {
-                if(logger.isDebugEnabled())
-                    logger.debug("Failed to match MonitorEvent, filtered with {}", eventFilter);
             }
         }
     }
@@ -132,6 +198,7 @@ public class MonitorEventHandler {
     public void terminate() {
         landlord.removeAll();
         landlord.stop(true);
+        deliveryExecutor.shutdownNow();
     }
 
     private int getRegistrantCount() {
@@ -157,12 +224,21 @@ public class MonitorEventHandler {
         private RemoteEventListener listener;
         private MonitorEventFilter eventFilter;
         private AtomicLong sequenceNumber = new AtomicLong(0);
+        // events waiting for delivery, guarded by itself
+        private final Deque<MonitorEvent> queue = new ArrayDeque<>();
+        private final int capacity;
+        private boolean delivering;
+        private boolean closed;
+        private long dropped;
 
         EventRegistrationResource(RemoteEventListener listener,
-                                         MonitorEventFilter eventFilter) {
+                                  MonitorEventFilter eventFilter,
+                                  int capacity) {
             this.listener = listener;
             this.eventFilter = eventFilter;
+            this.capacity = Math.max(capacity, 1);
         }
+
         RemoteEventListener getListener() {
             return (listener);
         }
@@ -170,5 +246,63 @@ public class MonitorEventHandler {
         MonitorEventFilter getEventFilter() {
             return eventFilter;
         }
+
+        /**
+         * Queues the event for delivery.
+         *
+         * @return true if no delivery is running and one has to be started
+         */
+        boolean enqueue(MonitorEvent event) {
+            synchronized (queue) {
+                if (closed)
+                    return false;
+                if (queue.size() >= capacity && !supersede(event)) {
+                    queue.poll();
+                    if (dropped++ % capacity == 0)
+                        logger.warn("Listener is falling behind, dropped {} events", dropped);
+                }
+                queue.add(event);
+                if (delivering)
+                    return false;
+                delivering = true;
+                return true;
+            }
+        }
+
+        /**
+         * Removes a queued event with the same identifier and owner.
+         */
+        private boolean supersede(MonitorEvent event) {
+            Iterator<MonitorEvent> it = queue.iterator();
+            while (it.hasNext()) {
+                MonitorEvent queued = it.next();
+                if (Objects.equals(queued.getIdentifier(), event.getIdentifier())
+                    && Objects.equals(queued.getOwner(), event.getOwner())) {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the next event to deliver, or null, ending the delivery,
+         * if there is none.
+         */
+        MonitorEvent next() {
+            synchronized (queue) {
+                MonitorEvent event = closed ? null : queue.poll();
+                if (event == null)
+                    delivering = false;
+                return event;
+            }
+        }
+
+        void close() {
+            synchronized (queue) {
+                closed = true;
+                queue.clear();
+            }
+        }
     }
 }
@@ -26,6 +26,7 @@ import net.jini.id.UuidFactory;
 import org.rioproject.annotation.SetConfiguration;
 import org.rioproject.annotation.SetProxy;
 import org.rioproject.impl.service.LandlordLessor;
+import org.rioproject.impl.service.LeaseListener;
 import org.rioproject.impl.service.ServiceResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +38,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Dennis Reedy
@@ -47,6 +50,9 @@ public class MonitorImpl implements Monitor {
     private MonitorEventHandler eventHandler;
     private Monitor monitorProxy;
     private Configuration config;
+    // leased registrations, kept current by the landlord's lease events
+    private final Map<Uuid, MonitorRegistrationResource> registrations = new ConcurrentHashMap<>();
+    private final Map<RegistrationKey, MonitorRegistrationResource> registrationsByName = new ConcurrentHashMap<>();
     private static final Logger logger = LoggerFactory.getLogger(MonitorImpl.class);
 
     @SetConfiguration
@@ -62,6 +68,7 @@ public class MonitorImpl implements Monitor {
     @PostConstruct
     public void setup() throws IOException {
         landlord = new LandlordLessor(config);
+        landlord.addLeaseListener(new RegistrationIndexer());
         eventHandler = new MonitorEventHandler(config);
     }
 
@@ -73,6 +80,8 @@ public class MonitorImpl implements Monitor {
             try {
                 Lease lease = landlord.newLease(sr, duration);
                 registrationResource.lease = lease;
+                registrations.put(registrationResource.uuid, registrationResource);
+                registrationsByName.put(new RegistrationKey(owner, identifier), registrationResource);
                 if (logger.isDebugEnabled())
                     logger.debug("Created new MonitorRegistration identifier: {}, owner: {}, proxy: {}",
                                  identifier, owner, monitorProxy);
@@ -101,29 +110,11 @@ public class MonitorImpl implements Monitor {
     }
 
     private boolean isValid(MonitorRegistration registration) {
-        boolean valid = false;
-        for(LeasedResource resource : landlord.getLeasedResources()) {
-            ServiceResource sR = (ServiceResource) resource;
-            MonitorRegistrationResource registrationResource = (MonitorRegistrationResource) sR.getResource();
-            if (registrationResource.uuid.equals(registration.getUuid())) {
-                valid = true;
-                break;
-            }
-        }
-        return valid;
+        return registrations.containsKey(registration.getUuid());
     }
 
     private MonitorRegistrationResource findMonitorRegistrationResource(String identifier, String owner) {
-        MonitorRegistrationResource monitorRegistrationResource = null;
-        for(LeasedResource resource : landlord.getLeasedResources()) {
-            ServiceResource sR = (ServiceResource) resource;
-            MonitorRegistrationResource registrationResource = (MonitorRegistrationResource) sR.getResource();
-            if(registrationResource.owner.equals(owner) && registrationResource.identifier.equals(identifier)) {
-                monitorRegistrationResource = registrationResource;
-                break;
-            }
-        }
-        return monitorRegistrationResource;
+        return registrationsByName.get(new RegistrationKey(owner, identifier));
     }
 
     @Override
@@ -140,9 +131,7 @@ public class MonitorImpl implements Monitor {
 
     @Override public Map<String, List<String>> getRegisteredIdentifiers() {
         Map<String, List<String>> registeredIdentifiers = new HashMap<>();
-        for(LeasedResource resource : landlord.getLeasedResources()) {
-            ServiceResource sR = (ServiceResource) resource;
-            MonitorRegistrationResource registrationResource = (MonitorRegistrationResource) sR.getResource();
+        for(MonitorRegistrationResource registrationResource : registrations.values()) {
             List<String> identifiers = registeredIdentifiers.get(registrationResource.owner);
             if(identifiers==null) {
                 identifiers = new ArrayList<>();
@@ -171,6 +160,55 @@ public class MonitorImpl implements Monitor {
         }
     }
 
+    private static class RegistrationKey {
+        final String owner;
+        final String identifier;
+
+        RegistrationKey(String owner, String identifier) {
+            this.owner = owner;
+            this.identifier = identifier;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof RegistrationKey))
+                return false;
+            RegistrationKey other = (RegistrationKey) o;
+            return Objects.equals(owner, other.owner) && Objects.equals(identifier, other.identifier);
+        }
+
+        @Override public int hashCode() {
+            return Objects.hash(owner, identifier);
+        }
+    }
+
+    /**
+     * Drops registrations from the indexes when their leases expire or are
+     * cancelled.
+     */
+    private class RegistrationIndexer implements LeaseListener {
+        public void register(LeasedResource resource) {
+        }
+
+        public void renewed(LeasedResource resource) {
+        }
+
+        public void expired(LeasedResource resource) {
+            remove(resource);
+        }
+
+        public void removed(LeasedResource resource) {
+            remove(resource);
+        }
+
+        private void remove(LeasedResource resource) {
+            MonitorRegistrationResource registrationResource =
+                (MonitorRegistrationResource) ((ServiceResource) resource).getResource();
+            registrations.remove(registrationResource.uuid, registrationResource);
+            registrationsByName.remove(new RegistrationKey(registrationResource.owner, registrationResource.identifier),
+                                       registrationResource);
+        }
+    }
+
     /*
      * Opened up for testing
      */
@@ -0,0 +1,67 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sorcer.core.monitoring;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MonitorEventHandlerTest {
+
+    private static MonitorEvent event(String identifier, Monitor.Status status) {
+        return new MonitorEvent("source", identifier, "owner", status, null);
+    }
+
+    @Test
+    public void startsOneDeliveryPerBacklog() {
+        MonitorEventHandler.EventRegistrationResource er =
+            new MonitorEventHandler.EventRegistrationResource(null, null, 4);
+        assertTrue(er.enqueue(event("a", Monitor.Status.SUBMITTED)));
+        assertFalse(er.enqueue(event("a", Monitor.Status.COMPLETED)));
+        assertEquals(Monitor.Status.SUBMITTED, er.next().getStatus());
+        assertEquals(Monitor.Status.COMPLETED, er.next().getStatus());
+        assertNull(er.next());
+        // the delivery ended, the next event starts another one
+        assertTrue(er.enqueue(event("b", Monitor.Status.SUBMITTED)));
+    }
+
+    @Test
+    public void coalescesSupersededEventsWhenFull() {
+        MonitorEventHandler.EventRegistrationResource er =
+            new MonitorEventHandler.EventRegistrationResource(null, null, 2);
+        er.enqueue(event("a", Monitor.Status.SUBMITTED));
+        er.enqueue(event("b", Monitor.Status.SUBMITTED));
+        er.enqueue(event("a", Monitor.Status.COMPLETED));
+        // no event of "c" is queued, the oldest one is dropped
+        er.enqueue(event("c", Monitor.Status.SUBMITTED));
+
+        MonitorEvent first = er.next();
+        assertEquals("a", first.getIdentifier());
+        assertEquals(Monitor.Status.COMPLETED, first.getStatus());
+        assertEquals("c", er.next().getIdentifier());
+        assertNull(er.next());
+    }
+
+    @Test
+    public void dropsEventsOfClosedRegistrations() {
+        MonitorEventHandler.EventRegistrationResource er =
+            new MonitorEventHandler.EventRegistrationResource(null, null, 2);
+        er.enqueue(event("a", Monitor.Status.SUBMITTED));
+        er.close();
+        assertNull(er.next());
+        assertFalse(er.enqueue(event("a", Monitor.Status.COMPLETED)));
+    }
+}
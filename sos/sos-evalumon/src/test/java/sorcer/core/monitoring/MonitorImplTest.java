@@ -17,6 +17,7 @@ import org.rioproject.deploy.ServiceBeanInstantiationException;
 import java.rmi.RemoteException;
 import java.rmi.server.ExportException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -45,7 +46,7 @@ public class MonitorImplTest {
     }
 
     @Test
-    public void testRegistration() throws MonitorException, ExportException {
+    public void testRegistration() throws MonitorException, ExportException, InterruptedException {
         MonitorRegistration registration = monitor.register("spacely-sprockets",
                                                             System.getProperty("user.name"),
                                                             TimeUnit.MINUTES.toMillis(5));
@@ -64,6 +65,7 @@ public class MonitorImplTest {
                                         TimeUnit.MINUTES.toMillis(5));
         monitor.update(registration, Monitor.Status.SUBMITTED, null);
         monitor.update(registration, Monitor.Status.FAILED, null);
+        monitorListener.await(4);
         assertTrue(monitorListener.states.size()==4);
 
         Map<String, List<String>> info = monitor.getRegisteredIdentifiers();
@@ -93,7 +95,7 @@ public class MonitorImplTest {
     }
 
     @Test
-    public void testRegistrationWithNames() throws MonitorException, ExportException {
+    public void testRegistrationWithNames() throws MonitorException, ExportException, InterruptedException {
         MonitorRegistration registration = monitor.register("spacely-sprockets",
                                                             System.getProperty("user.name"),
                                                             TimeUnit.MINUTES.toMillis(5));
@@ -111,6 +113,7 @@ public class MonitorImplTest {
 
         monitor.update(registration, Monitor.Status.SUBMITTED, null);
         monitor.update(registration, Monitor.Status.FAILED, null);
+        monitorListener.await(4);
         assertTrue(monitorListener.states.size()==4);
     }
 
@@ -140,7 +143,7 @@ public class MonitorImplTest {
         Exporter exporter;
         RemoteEventListener remoteEventListener;
         int notified = 0;
-        List<String> states = new LinkedList<>();
+        List<String> states = Collections.synchronizedList(new LinkedList<String>());
 
         RemoteEventListener getRemoteEventListener() throws ExportException {
             if (remoteEventListener == null) {
@@ -153,6 +156,15 @@ public class MonitorImplTest {
             return remoteEventListener;
         }
 
+        /*
+         * Events are delivered asynchronously, wait for the expected count
+         */
+        void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (states.size() < count && System.currentTimeMillis() < deadline)
+                Thread.sleep(10);
+        }
+
         void unexport() {
             if (exporter != null) {
                 exporter.unexport(true);
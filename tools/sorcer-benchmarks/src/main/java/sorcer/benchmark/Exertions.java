@@ -0,0 +1,78 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.benchmark;
+
+import sorcer.service.*;
+
+import java.math.BigDecimal;
+import java.net.URL;
+import java.util.*;
+
+import static sorcer.co.operator.inVal;
+import static sorcer.co.operator.outVal;
+import static sorcer.eo.operator.*;
+
+/**
+ * Builds realistic exertions used by the benchmarks: net tasks with contexts holding values of many classes.
+ */
+public class Exertions {
+
+    public static Task task(int index, int arraySize) throws Exception {
+        Map<String, Object> table = new HashMap<String, Object>();
+        table.put("material", "Ti-6Al-4V");
+        table.put("density", 4.43);
+        List<Double> series = new ArrayList<Double>();
+        for (int i = 0; i < 16; i++)
+            series.add(i * 0.5);
+        return sorcer.eo.operator.task("task-" + index, sig("compute", BenchmarkService.class),
+                cxt("compute",
+                        inVal("arg/x", (double) index),
+                        inVal("arg/array", new double[arraySize]),
+                        inVal("arg/series", series),
+                        inVal("arg/table", table),
+                        inVal("arg/id", UUID.randomUUID()),
+                        inVal("arg/date", new Date()),
+                        inVal("arg/decimal", new BigDecimal("1234.5678")),
+                        inVal("arg/url", new URL("http://localhost:9010/data/task-" + index)),
+                        inVal("arg/flags", new BitSet(64)),
+                        outVal("result/value", null),
+                        result("result/value")));
+    }
+
+    public static Job job(int tasks, int arraySize) throws Exception {
+        Object[] items = new Object[tasks + 1];
+        items[0] = "job-" + tasks;
+        for (int i = 0; i < tasks; i++)
+            items[i + 1] = task(i, arraySize);
+        return sorcer.eo.operator.job(items);
+    }
+
+    /**
+     * Returns a job of tasks piped in the reverse order of their listing, so that sorting reorders all of them.
+     */
+    public static Job pipedJob(int tasks, int arraySize) throws Exception {
+        Task[] list = new Task[tasks];
+        for (int i = 0; i < tasks; i++)
+            list[i] = task(i, arraySize);
+        List<Object> items = new ArrayList<Object>();
+        items.add("piped-job-" + tasks);
+        items.addAll(Arrays.asList(list));
+        for (int i = tasks - 1; i > 0; i--)
+            items.add(pipe(outPoint(list[i], "result/value"), inPoint(list[i - 1], "arg/x")));
+        return sorcer.eo.operator.job(items.toArray());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.benchmark.context;
+
+import org.openjdk.jmh.annotations.*;
+import sorcer.core.context.ServiceContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of short lived {@link ServiceContext}s as made by expressions and invokers;
+ * run with <code>-prof gc</code> for the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextCreationBenchmark {
+
+    @Benchmark
+    public Object create() throws Exception {
+        ServiceContext<Object> cxt = new ServiceContext<Object>("args");
+        cxt.putValue("arg/x1", 1.0);
+        cxt.putValue("arg/x2", 2.0);
+        return cxt.getValue("arg/x1");
+    }
+
+    @Benchmark
+    public Object createWithId() throws Exception {
+        ServiceContext<Object> cxt = new ServiceContext<Object>("args");
+        cxt.putValue("arg/x1", 1.0);
+        return cxt.getId();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.benchmark.context;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sorcer.core.context.ServiceContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ServiceContext} path operations on contexts of 10 to 100k entries, a tenth of them tagged.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceContextBenchmark {
+
+    private static final int GROUPS = 10;
+
+    @Param({"10", "1000", "100000"})
+    public int entries;
+
+    private ServiceContext<Object> context;
+    private String[] paths;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        paths = new String[entries];
+        for (int i = 0; i < entries; i++)
+            paths[i] = "arg/group" + (i % GROUPS) + "/x" + i;
+        context = populate();
+    }
+
+    private ServiceContext<Object> populate() throws Exception {
+        ServiceContext<Object> cxt = new ServiceContext<Object>("benchmark");
+        for (int i = 0; i < entries; i++) {
+            cxt.putValue(paths[i], (double) i);
+            if (i % GROUPS == 0)
+                cxt.mark(paths[i], "tag|group" + (i % (GROUPS * GROUPS) / GROUPS));
+        }
+        return cxt;
+    }
+
+    private String nextPath() {
+        if (++next == paths.length)
+            next = 0;
+        return paths[next];
+    }
+
+    @Benchmark
+    public Object put() throws Exception {
+        return context.putValue(nextPath(), 1.0);
+    }
+
+    @Benchmark
+    public Object get() throws Exception {
+        return context.getValue(nextPath());
+    }
+
+    @Benchmark
+    public Object getPaths() throws Exception {
+        return context.getPaths();
+    }
+
+    @Benchmark
+    public Object getMarkedPaths() throws Exception {
+        return context.getMarkedPaths("tag|group1");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public void populate(Blackhole blackhole) throws Exception {
+        blackhole.consume(populate());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.benchmark.dispatch;
+
+import org.openjdk.jmh.annotations.*;
+import sorcer.benchmark.Exertions;
+import sorcer.core.dispatch.ExertionSorter;
+import sorcer.service.Job;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sorting large jobs by the data flow of their pipes, as done by dispatchers before running a job.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExertionSorterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int tasks;
+
+    private Job piped;
+    private Job independent;
+
+    @Setup
+    public void setup() throws Exception {
+        piped = Exertions.pipedJob(tasks, 16);
+        independent = Exertions.job(tasks, 16);
+    }
+
+    @Benchmark
+    public Object sortPiped() throws Exception {
+        return new ExertionSorter(piped).getSortedJob();
+    }
+
+    @Benchmark
+    public Object sortIndependent() throws Exception {
+        return new ExertionSorter(independent).getSortedJob();
+    }
+}
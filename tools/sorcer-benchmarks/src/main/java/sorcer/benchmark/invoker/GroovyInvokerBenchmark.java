@@ -0,0 +1,58 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.benchmark.invoker;
+
+import org.openjdk.jmh.annotations.*;
+import sorcer.core.context.model.ent.Proc;
+import sorcer.core.invoker.GroovyInvoker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures evaluating Groovy expressions of invokers, with and without context bound arguments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroovyInvokerBenchmark {
+
+    private GroovyInvoker<Double> constant;
+    private GroovyInvoker<Double> expression;
+    private Proc<Double> x;
+
+    @Setup
+    public void setup() throws Exception {
+        constant = new GroovyInvoker<Double>("2.0 * 21.0");
+        x = new Proc<Double>("x", 10.0);
+        Proc<Double> y = new Proc<Double>("y", 20.0);
+        expression = new GroovyInvoker<Double>("expression", "x * x + Math.sqrt(y)", x, y);
+    }
+
+    @Benchmark
+    public Object evaluateConstant() throws Exception {
+        return constant.getValue();
+    }
+
+    @Benchmark
+    public Object evaluateWithArgs() throws Exception {
+        x.setValue(x.getValue() + 1.0);
+        return expression.getValue();
+    }
+}
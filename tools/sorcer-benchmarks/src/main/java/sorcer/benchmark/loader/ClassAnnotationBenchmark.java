@@ -0,0 +1,98 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.benchmark.loader;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sorcer.benchmark.Exertions;
+import sorcer.rio.rmi.SorcerResolvingLoader;
+import sorcer.service.Job;
+
+import java.rmi.MarshalledObject;
+import java.rmi.server.RMIClassLoader;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the marshalling overhead of {@link SorcerResolvingLoader}: class annotations requested by serialization
+ * for every class written, with a number of artifact codebases already resolved by the JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Djava.rmi.server.RMIClassLoaderSpi=sorcer.rio.rmi.SorcerResolvingLoader",
+        "-Dsorcer.resolver.class=sorcer.benchmark.loader.StandInResolver",
+        "-Djava.rmi.server.codebase=http://localhost:9010/sorcer-dl.jar http://localhost:9010/sorcer-platform.jar"})
+public class ClassAnnotationBenchmark {
+
+    @Param({"10", "100"})
+    public int artifacts;
+
+    @Param({"10", "50"})
+    public int tasks;
+
+    private Job job;
+    private Class<?>[] classes;
+
+    @Setup
+    public void setup() throws Exception {
+        for (int i = 0; i < artifacts; i++)
+            RMIClassLoader.getClassLoader("artifact:org.sorcer/benchmark-" + i + ":1.0");
+        job = Exertions.job(tasks, 64);
+        classes = collectClasses(job);
+    }
+
+    @Benchmark
+    public void annotateClasses(Blackhole blackhole) {
+        for (Class<?> c : classes)
+            blackhole.consume(RMIClassLoader.getClassAnnotation(c));
+    }
+
+    @Benchmark
+    public Object marshalJob() throws Exception {
+        return new MarshalledObject<Job>(job);
+    }
+
+    @Benchmark
+    public Object marshalRoundTrip() throws Exception {
+        return new MarshalledObject<Job>(job).get();
+    }
+
+    /*
+     * The classes of the job graph, as written by serialization.
+     */
+    private static Class<?>[] collectClasses(Object root) throws Exception {
+        final Set<Class<?>> found = new LinkedHashSet<Class<?>>();
+        java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(new java.io.ByteArrayOutputStream()) {
+            @Override
+            protected void annotateClass(Class<?> cl) {
+                found.add(cl);
+            }
+
+            @Override
+            protected void annotateProxyClass(Class<?> cl) {
+                found.add(cl);
+            }
+        };
+        out.writeObject(root);
+        out.close();
+        return found.toArray(new Class<?>[found.size()]);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.benchmark.loader;
+
+import sorcer.resolver.SorcerResolver;
+import sorcer.resolver.SorcerResolverException;
+
+import java.io.File;
+import java.net.URL;
+
+/**
+ * Resolves artifacts to local jar paths without a Maven repository, so that loader benchmarks run offline. Set it
+ * with the <tt>sorcer.resolver.class</tt> system property.
+ */
+public class StandInResolver extends SorcerResolver {
+    private static final String REPOSITORY = System.getProperty("java.io.tmpdir") + File.separator + "sorcer-bench-repo";
+    private static final int DEPENDENCIES = 8;
+
+    @Override
+    public String[] resolveUrl(String artifact) {
+        return resolveCoords(artifact.substring(artifact.indexOf(':') + 1));
+    }
+
+    @Override
+    public String[] resolveCoords(String coords) {
+        String name = coords.replace(':', '-').replace('/', '-').replace(';', '-');
+        String[] cp = new String[DEPENDENCIES + 1];
+        cp[0] = REPOSITORY + File.separator + name + ".jar";
+        for (int i = 1; i <= DEPENDENCIES; i++)
+            cp[i] = REPOSITORY + File.separator + "dependency-" + i + ".jar";
+        return cp;
+    }
+
+    @Override
+    public URL getLocation(String path) throws SorcerResolverException {
+        throw new SorcerResolverException("NOT IMPLEMENTED in this Resolver");
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.benchmark.serial;
+
+import org.openjdk.jmh.annotations.*;
+import sorcer.benchmark.Exertions;
+import sorcer.service.Job;
+import sorcer.util.ObjectCloner;
+
+import java.rmi.MarshalledObject;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures copying a job by {@link ObjectCloner} and by a {@link MarshalledObject} round trip, the way exertions
+ * are copied locally and passed to providers, and the structural copy sharing context data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloningBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int tasks;
+
+    @Param({"64", "8192"})
+    public int arraySize;
+
+    private Job job;
+
+    @Setup
+    public void setup() throws Exception {
+        job = Exertions.job(tasks, arraySize);
+    }
+
+    @Benchmark
+    public Object cloneJob() {
+        return ObjectCloner.clone(job);
+    }
+
+    @Benchmark
+    public Object cloneJobWithNewIDs() {
+        return ObjectCloner.cloneWithNewIDs(job);
+    }
+
+    @Benchmark
+    public Object copyJob() {
+        return ObjectCloner.copy(job);
+    }
+
+    @Benchmark
+    public Object marshalledRoundTrip() throws Exception {
+        return new MarshalledObject<Job>(job).get();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.benchmark.webster;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.*;
+import sorcer.tools.webster.Webster;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serving files of 1 KB to 16 MB by a {@link Webster} started in process on a local port.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebsterBenchmark {
+
+    @Param({"1024", "1048576", "16777216"})
+    public int fileSize;
+
+    private File root;
+    private Webster webster;
+    private URL url;
+
+    @Setup
+    public void setup() throws Exception {
+        root = Files.createTempDirectory("webster-benchmark").toFile();
+        byte[] content = new byte[fileSize];
+        new Random(1).nextBytes(content);
+        FileUtils.writeByteArrayToFile(new File(root, "data.bin"), content);
+        webster = new Webster(0, root.getPath(), "127.0.0.1", true);
+        url = new URL("http://127.0.0.1:" + webster.getPort() + "/data.bin");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        webster.terminate();
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long get() throws Exception {
+        return fetch();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long getConcurrent() throws Exception {
+        return fetch();
+    }
+
+    private long fetch() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            return IOUtils.copyLarge(in, new NullOutputStream());
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.core.provider.cataloger;
+
+import net.jini.core.entry.Entry;
+import net.jini.core.lookup.ServiceID;
+import net.jini.core.lookup.ServiceItem;
+import net.jini.id.ReferentUuid;
+import net.jini.id.Uuid;
+import net.jini.id.UuidFactory;
+import net.jini.lookup.entry.Name;
+import org.openjdk.jmh.annotations.*;
+import sorcer.core.provider.cataloger.ServiceCataloger.CatalogerInfo;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cataloger lookups by interfaces and by service ID, with stand-in service proxies implementing distinct
+ * sets of interfaces. In the cataloger package to access the {@link CatalogerInfo} of {@link ServiceCataloger}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogerInfoBenchmark {
+
+    private static final Class<?>[] TYPES = {Runnable.class, Comparable.class, Cloneable.class, Serializable.class,
+            Closeable.class, Flushable.class, Iterable.class, Appendable.class, Readable.class, CharSequence.class};
+
+    @Param({"10", "100", "1000"})
+    public int services;
+
+    private CatalogerInfo info;
+    private List<Class<?>[]> lookups = new ArrayList<Class<?>[]>();
+    private List<ServiceID> ids = new ArrayList<ServiceID>();
+    private int next;
+
+    @Setup
+    public void setup() {
+        info = new CatalogerInfo();
+        Random random = new Random(1);
+        for (int i = 0; i < services; i++) {
+            // each subset of the types is a different service type
+            int mask = (i % ((1 << TYPES.length) - 1)) + 1;
+            List<Class<?>> types = new ArrayList<Class<?>>();
+            for (int t = 0; t < TYPES.length; t++) {
+                if ((mask & (1 << t)) != 0)
+                    types.add(TYPES[t]);
+            }
+            lookups.add(types.toArray(new Class<?>[types.size()]));
+            types.add(ReferentUuid.class);
+            final Uuid uuid = UuidFactory.generate();
+            Object service = Proxy.newProxyInstance(getClass().getClassLoader(),
+                    types.toArray(new Class<?>[types.size()]), new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            if (method.getName().equals("getReferentUuid"))
+                                return uuid;
+                            if (method.getName().equals("equals"))
+                                return proxy == args[0];
+                            if (method.getName().equals("hashCode"))
+                                return uuid.hashCode();
+                            return null;
+                        }
+                    });
+            ServiceID id = new ServiceID(random.nextLong(), random.nextLong());
+            ids.add(id);
+            info.addServiceItem(new ServiceItem(id, service, new Entry[]{new Name("service-" + i)}));
+        }
+    }
+
+    private int nextIndex() {
+        if (++next == services)
+            next = 0;
+        return next;
+    }
+
+    @Benchmark
+    public Object lookupByInterfaces() {
+        return info.getServiceItem(lookups.get(nextIndex()), null);
+    }
+
+    @Benchmark
+    public Object lookupByName() {
+        int i = nextIndex();
+        return info.getServiceItem(lookups.get(i), "service-" + i);
+    }
+
+    @Benchmark
+    public Object lookupByServiceID() {
+        return info.getServiceItem(ids.get(nextIndex()));
+    }
+}
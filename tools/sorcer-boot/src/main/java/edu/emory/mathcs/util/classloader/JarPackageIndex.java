@@ -0,0 +1,212 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.emory.mathcs.util.classloader;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Package index of a local JAR file: the sorted package (directory) names of
+ * its entries and its manifest Class-Path. A JAR with an index is opened by
+ * the {@link ResourceLoader} only when it may contain a requested resource,
+ * so class lookups go straight to the owning JAR instead of probing every JAR
+ * on the search path.
+ * <p>
+ * Indexes are built the first time a JAR is opened and cached in memory and
+ * on disk, keyed by the JAR path, size and modification time. The directory
+ * is set by the <code>sorcer.classloader.index.dir</code> system property
+ * and defaults to <code>~/.sorcer/classloader-index</code>; indexing is
+ * disabled with <code>sorcer.classloader.index=false</code>.
+ */
+class JarPackageIndex {
+    static final String INDEX = "sorcer.classloader.index";
+    static final String INDEX_DIR = "sorcer.classloader.index.dir";
+    private static final String VERSION = "package-index 1";
+
+    private static final boolean enabled = !"false".equals(System.getProperty(INDEX));
+    private static final File dir = System.getProperty(INDEX_DIR) != null
+        ? new File(System.getProperty(INDEX_DIR))
+        : new File(System.getProperty("user.home"), ".sorcer" + File.separator + "classloader-index");
+    private static final Map<String, JarPackageIndex> indexes = new ConcurrentHashMap<String, JarPackageIndex>();
+
+    final String[] packages;
+    final String classPath;
+    final boolean hasJarIndex;
+    private final long length;
+    private final long modified;
+
+    private JarPackageIndex(String[] packages, String classPath, boolean hasJarIndex,
+                            long length, long modified) {
+        this.packages = packages;
+        this.classPath = classPath;
+        this.hasJarIndex = hasJarIndex;
+        this.length = length;
+        this.modified = modified;
+    }
+
+    /**
+     * Returns the cached index of the local JAR file, or null if it has not
+     * been indexed yet, has changed since, or is not a local file.
+     */
+    static JarPackageIndex get(URL source) {
+        File file = toFile(source);
+        if (file == null) return null;
+        long length = file.length();
+        long modified = file.lastModified();
+        JarPackageIndex index = indexes.get(file.getPath());
+        if (index != null && index.length == length && index.modified == modified) {
+            return index;
+        }
+        index = read(file, length, modified);
+        if (index != null) indexes.put(file.getPath(), index);
+        return index;
+    }
+
+    /**
+     * Builds and caches the index of the opened local JAR file.
+     */
+    static JarPackageIndex build(URL source, JarFile jar) throws IOException {
+        File file = toFile(source);
+        if (file == null) return null;
+        JarPackageIndex index = indexes.get(file.getPath());
+        if (index != null && index.length == file.length() && index.modified == file.lastModified()) {
+            return index;
+        }
+        SortedSet<String> names = new TreeSet<String>();
+        boolean hasJarIndex = false;
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            if (name.equals("META-INF/INDEX.LIST")) hasJarIndex = true;
+            names.add(packageOf(name));
+        }
+        String classPath = null;
+        Manifest man = jar.getManifest();
+        if (man != null && man.getMainAttributes() != null) {
+            classPath = man.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+        }
+        index = new JarPackageIndex(names.toArray(new String[names.size()]), classPath,
+                                    hasJarIndex, file.length(), file.lastModified());
+        indexes.put(file.getPath(), index);
+        write(file, index);
+        return index;
+    }
+
+    /**
+     * Returns the index entry for the given resource name: the path up to the
+     * last '/', or the name itself for top-level resources.
+     */
+    static String packageOf(String name) {
+        int pos = name.lastIndexOf('/');
+        return (pos > 0) ? name.substring(0, pos) : name;
+    }
+
+    private static File toFile(URL source) {
+        if (!enabled || !"file".equals(source.getProtocol())) return null;
+        try {
+            File file = new File(source.toURI());
+            return file.isFile() ? file : null;
+        }
+        catch (URISyntaxException e) {
+            return null;
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static JarPackageIndex read(File jar, long length, long modified) {
+        File file = getFile(jar);
+        if (!file.exists()) return null;
+        try (BufferedReader reader = new BufferedReader(
+                 new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            if (!VERSION.equals(reader.readLine())) return null;
+            if (!jar.getPath().equals(reader.readLine())) return null;
+            if (length != Long.parseLong(reader.readLine())) return null;
+            if (modified != Long.parseLong(reader.readLine())) return null;
+            boolean hasJarIndex = Boolean.parseBoolean(reader.readLine());
+            String classPath = reader.readLine();
+            if (classPath.length() == 0) classPath = null;
+            List<String> packages = new ArrayList<String>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                packages.add(line);
+            }
+            return new JarPackageIndex(packages.toArray(new String[packages.size()]), classPath,
+                                       hasJarIndex, length, modified);
+        }
+        catch (IOException e) {
+            return null;
+        }
+        catch (RuntimeException e) {
+            // corrupted index, rebuilt when the JAR is opened
+            return null;
+        }
+    }
+
+    private static void write(File jar, JarPackageIndex index) {
+        try {
+            if (!dir.exists() && !dir.mkdirs() && !dir.exists()) return;
+            File file = getFile(jar);
+            File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+            try (Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+                writer.write(VERSION + "\n");
+                writer.write(jar.getPath() + "\n");
+                writer.write(index.length + "\n");
+                writer.write(index.modified + "\n");
+                writer.write(index.hasJarIndex + "\n");
+                writer.write((index.classPath == null ? "" : index.classPath) + "\n");
+                for (String p : index.packages) {
+                    writer.write(p + "\n");
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            // the index is an optimization only
+        }
+    }
+
+    private static File getFile(File jar) {
+        try {
+            byte[] bytes = MessageDigest.getInstance("SHA-1")
+                .digest(jar.getPath().getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(String.format("%02x", b & 0xff));
+            }
+            return new File(dir, sb.append(".idx").toString());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
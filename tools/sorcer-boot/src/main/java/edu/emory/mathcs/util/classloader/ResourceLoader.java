@@ -15,6 +15,7 @@ import java.net.*;
 import java.security.Permission;
 import java.security.cert.Certificate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -65,6 +66,8 @@ public class ResourceLoader {
 
     final Map url2jarInfo = new HashMap();
 
+    final AtomicInteger openedJars = new AtomicInteger();
+
     /**
      * Constructs new ResourceLoadeer with default JAR caching policy, that is,
      * to create and use separate cache for this ResourceLoader instance.
@@ -350,6 +353,29 @@ public class ResourceLoader {
 
     }
 
+    /**
+     * Returns the number of JAR files known to this loader, that is, the JAR
+     * files on the search paths and their dependencies visited so far.
+     *
+     * @return the number of known JAR files
+     */
+    public int getJarCount() {
+        synchronized (url2jarInfo) {
+            return url2jarInfo.size();
+        }
+    }
+
+    /**
+     * Returns the number of JAR files opened by this loader. JAR files with a
+     * {@link JarPackageIndex generated package index} are opened only when
+     * they contain a requested resource.
+     *
+     * @return the number of opened JAR files
+     */
+    public int getOpenedJarCount() {
+        return openedJars.get();
+    }
+
     /**
      * Test whether given URL points to a directory. URL is deemed to point
      * to a directory if has non-null "file" component ending with "/".
@@ -372,11 +398,24 @@ public class ResourceLoader {
         URL[] classPath;
         String[] index;
         Map package2url;
+        boolean generatedIndex;
 
         JarInfo(ResourceLoader loader, URL source) throws MalformedURLException {
             this.loader = loader;
             this.source = source;
             this.base = new URL("jar", "", -1, source + "!/", loader.jarHandler);
+            // JARs with INDEX.LIST are opened eagerly to resolve their index
+            JarPackageIndex generated = JarPackageIndex.get(source);
+            if (generated != null && !generated.hasJarIndex) {
+                try {
+                    this.classPath = parseClassPath(generated.classPath, source);
+                    this.index = generated.packages;
+                    this.generatedIndex = true;
+                }
+                catch (IOException e) {
+                    // malformed Class-Path; open the JAR to find out
+                }
+            }
         }
 
         public ResourceHandle getResource(String name) {
@@ -473,6 +512,10 @@ public class ResourceLoader {
                 // already loaded; no need for index
                 return;
             }
+            if (generatedIndex) {
+                // generated from the JAR content; at least as accurate
+                return;
+            }
             if (index != null) {
                 // verification - previously declared content must remain there
                 Set violating = new HashSet(Arrays.asList(index));
@@ -520,6 +563,7 @@ public class ResourceLoader {
                 JarURLConnection conn = (JarURLConnection)base.openConnection();
                 this.perm = conn.getPermission();
                 JarFile jar = conn.getJarFile();
+                loader.openedJars.incrementAndGet();
                 // conservatively check if index is accurate, that is, does not
                 // contain args which are not in the JAR file
                 if (index != null) {
@@ -544,6 +588,14 @@ public class ResourceLoader {
                 this.jar = jar;
 
                 this.classPath = parseClassPath(jar, source);
+                if (!generatedIndex) {
+                    try {
+                        JarPackageIndex.build(source, jar);
+                    }
+                    catch (IOException e) {
+                        // the index is an optimization only
+                    }
+                }
 
                 indexes = parseJarIndex(this.source, jar);
                 indexes.remove(this.source.toExternalForm());
@@ -694,7 +746,10 @@ public class ResourceLoader {
         if (man == null) return new URL[0];
         Attributes attr = man.getMainAttributes();
         if (attr == null) return new URL[0];
-        String cp = attr.getValue(Attributes.Name.CLASS_PATH);
+        return parseClassPath(attr.getValue(Attributes.Name.CLASS_PATH), source);
+    }
+
+    private static URL[] parseClassPath(String cp, URL source) throws IOException {
         if (cp == null) return new URL[0];
         StringTokenizer tokenizer = new StringTokenizer(cp);
         List cpList = new ArrayList();
@@ -359,6 +359,22 @@ public class URIClassLoader extends URLClassLoader {
         return finder.loader.jarHandler;
     }
 
+    /**
+     * Returns the number of JAR files on the search path, including their
+     * Class-Path dependencies, visited so far.
+     */
+    protected int getJarCount() {
+        return finder.loader.getJarCount();
+    }
+
+    /**
+     * Returns the number of JAR files opened so far. JAR files with a known
+     * package index are opened only when they contain a requested resource.
+     */
+    protected int getOpenedJarCount() {
+        return finder.loader.getOpenedJarCount();
+    }
+
     private static class URIResourceFinder implements ResourceFinder {
         URL[] urls;
         final ResourceLoader loader;
@@ -25,6 +25,8 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.MalformedURLException;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The ServiceClassLoader overrides getURLs(), ensuring all classes that need to
@@ -38,6 +40,10 @@ public class ServiceClassLoader extends URIClassLoader implements ClassAnnotatio
     private ClassAnnotator annotator;
     /** Meta data associated with the classloader */
     private Properties metaData = new Properties();
+    /** Number of classes defined by this classloader */
+    private final AtomicInteger classCount = new AtomicInteger();
+    /** Time spent finding and defining classes, in nanoseconds */
+    private final AtomicLong classTime = new AtomicLong();
 
     /**
      * Constructs a new ServiceClassLoader for the specified URLs having the
@@ -162,6 +168,33 @@ public class ServiceClassLoader extends URIClassLoader implements ClassAnnotatio
             super.addURI(uri);
     }
 
+    /**
+     * Finds and defines the class, recording the time it takes
+     */
+    @Override
+    protected Class findClass(String name) throws ClassNotFoundException {
+        long start = System.nanoTime();
+        try {
+            Class cls = super.findClass(name);
+            classCount.incrementAndGet();
+            return cls;
+        } finally {
+            classTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Get the load statistics of this classloader: the number of classes
+     * defined, the time spent finding classes, including failed lookups, and
+     * the number of JAR files opened out of the JAR files on the search path
+     *
+     * @return The load statistics
+     */
+    public String getLoadStatistics() {
+        return classCount.get() + " classes loaded in " + (classTime.get() / 1000000) + " ms, "
+               + getOpenedJarCount() + " of " + getJarCount() + " JARs opened";
+    }
+
     /**
      * Get the class annotations as determined by the
      * {@link sorcer.provider.boot.ClassAnnotator}
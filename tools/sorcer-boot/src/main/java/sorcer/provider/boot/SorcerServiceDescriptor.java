@@ -266,6 +266,7 @@ public class SorcerServiceDescriptor implements ServiceDescriptor {
      * @see com.sun.jini.start.ServiceDescriptor#create
      */
     public Object create(Configuration config) throws Exception {
+        long start = System.nanoTime();
         ensureSecurityManager();
         Object proxy = null;
 
@@ -384,6 +385,8 @@ public class SorcerServiceDescriptor implements ServiceDescriptor {
 
             if (logger.isTraceEnabled())
                 logger.trace("Obtained implementation instance: {}", impl);
+            logger.info("Created {} in {} ms: {}", getImplClassName(),
+                        (System.nanoTime() - start) / 1000000, jsbCL.getLoadStatistics());
             if (impl instanceof ServiceProxyAccessor) {
                 proxy = ((ServiceProxyAccessor) impl).getServiceProxy();
             } else if (impl instanceof ProxyAccessor) {
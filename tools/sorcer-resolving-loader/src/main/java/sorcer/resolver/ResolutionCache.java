@@ -0,0 +1,193 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.resolver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An on-disk cache of artifact to classpath resolutions shared by all JVMs of a user, so that warm starts of
+ * providers skip Maven resolution. Each artifact is stored in its own file, named by the digest of the artifact,
+ * with the path, size and modification time of every classpath element. An entry is used only if all of its files
+ * are unchanged in the local repository.
+ * <p>
+ * The cache directory is set by the <tt>sorcer.resolver.cache.dir</tt> system property and defaults to
+ * <tt>~/.sorcer/resolver-cache</tt>. The cache is disabled with <tt>sorcer.resolver.cache=false</tt>; snapshot
+ * artifacts are cached only if <tt>sorcer.resolver.cache.snapshots=true</tt>, since a newer snapshot may be
+ * available remotely.
+ */
+public class ResolutionCache {
+    private static final Logger logger = LoggerFactory.getLogger(ResolutionCache.class);
+    public static final String CACHE = "sorcer.resolver.cache";
+    public static final String CACHE_DIR = "sorcer.resolver.cache.dir";
+    public static final String CACHE_SNAPSHOTS = "sorcer.resolver.cache.snapshots";
+    private static final String ARTIFACT = "artifact";
+    private static final String ELEMENTS = "elements";
+
+    private final File dir;
+    private final boolean snapshots;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public ResolutionCache(File dir, boolean snapshots) {
+        this.dir = dir;
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Returns the cache configured by system properties, or null if the cache is disabled.
+     */
+    public static ResolutionCache getDefault() {
+        if ("false".equals(System.getProperty(CACHE)))
+            return null;
+        String dirName = System.getProperty(CACHE_DIR);
+        File dir = dirName != null ? new File(dirName)
+                : new File(System.getProperty("user.home"), ".sorcer" + File.separator + "resolver-cache");
+        return new ResolutionCache(dir, Boolean.getBoolean(CACHE_SNAPSHOTS));
+    }
+
+    /**
+     * Returns the cached classpath of the artifact, or null if it is not cached or any of its files has changed.
+     */
+    public String[] get(String artifact) {
+        if (!isCacheable(artifact))
+            return null;
+        File file = getFile(artifact);
+        if (!file.exists()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            logger.warn("Unable to read resolution cache entry {}", file, e);
+            misses.incrementAndGet();
+            return null;
+        }
+        if (!artifact.equals(props.getProperty(ARTIFACT))) {
+            misses.incrementAndGet();
+            return null;
+        }
+        String[] cp;
+        try {
+            cp = new String[Integer.parseInt(props.getProperty(ELEMENTS, "0"))];
+            for (int i = 0; i < cp.length; i++) {
+                cp[i] = props.getProperty("path." + i);
+                File element = cp[i] == null ? null : new File(cp[i]);
+                if (element == null || !element.exists()
+                        || element.length() != Long.parseLong(props.getProperty("length." + i, "-1"))
+                        || element.lastModified() != Long.parseLong(props.getProperty("modified." + i, "-1"))) {
+                    logger.debug("Resolution cache entry for {} is stale: {}", artifact, cp[i]);
+                    misses.incrementAndGet();
+                    return null;
+                }
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Corrupted resolution cache entry {}", file);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return cp;
+    }
+
+    /**
+     * Stores the resolved classpath of the artifact. The entry is written to a temporary file and moved in place,
+     * so concurrently starting JVMs never read a partial entry.
+     */
+    public void put(String artifact, String[] cp) {
+        if (!isCacheable(artifact) || cp == null || cp.length == 0)
+            return;
+        Properties props = new Properties();
+        props.setProperty(ARTIFACT, artifact);
+        props.setProperty(ELEMENTS, Integer.toString(cp.length));
+        for (int i = 0; i < cp.length; i++) {
+            File element = new File(cp[i]);
+            if (!element.exists())
+                return;
+            props.setProperty("path." + i, cp[i]);
+            props.setProperty("length." + i, Long.toString(element.length()));
+            props.setProperty("modified." + i, Long.toString(element.lastModified()));
+        }
+        File file = getFile(artifact);
+        try {
+            if (!dir.exists() && !dir.mkdirs() && !dir.exists())
+                throw new IOException("Unable to create " + dir);
+            File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                props.store(out, artifact);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Unable to write resolution cache entry for {}", artifact, e);
+        }
+    }
+
+    public void remove(String artifact) {
+        File file = getFile(artifact);
+        if (file.exists() && !file.delete())
+            logger.warn("Unable to remove resolution cache entry {}", file);
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public File getDirectory() {
+        return dir;
+    }
+
+    @Override
+    public String toString() {
+        return "resolution cache " + dir + " hits: " + hits.get() + ", misses: " + misses.get();
+    }
+
+    private boolean isCacheable(String artifact) {
+        return snapshots || !artifact.contains("SNAPSHOT");
+    }
+
+    private File getFile(String artifact) {
+        return new File(dir, digest(artifact) + ".properties");
+    }
+
+    private static String digest(String artifact) {
+        try {
+            byte[] bytes = MessageDigest.getInstance("SHA-1").digest(artifact.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes)
+                sb.append(String.format("%02x", b & 0xff));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -20,6 +20,9 @@ public abstract class SorcerResolver {
 
     private static SorcerResolver instance;
 
+    /* artifact resolutions persisted between JVM starts, null when disabled */
+    private static final ResolutionCache resolutionCache = ResolutionCache.getDefault();
+
     static {
         String sorcerResolvingLoaderClassName = null;
 
@@ -44,8 +47,19 @@ public abstract class SorcerResolver {
         return instance;
     }
 
+    public static ResolutionCache getResolutionCache() {
+        return resolutionCache;
+    }
+
     public String[] doResolve(String artifact) throws SorcerResolverException {
         String[] cp = null;
+        if (resolutionCache != null) {
+            cp = resolutionCache.get(artifact);
+            if (cp != null) {
+                logger.debug("Resolved {} from the {}", artifact, resolutionCache);
+                return cp;
+            }
+        }
 
         if (artifact.startsWith("artifact:")) {
             cp = resolveUrl(artifact);
@@ -54,6 +68,8 @@ public abstract class SorcerResolver {
         }
         if (cp == null || cp.length == 0)
             throw new SorcerResolverException("Failed to resolve: " + artifact + " after 5 attempts");
+        if (resolutionCache != null)
+            resolutionCache.put(artifact, cp);
         return cp;
     }
 
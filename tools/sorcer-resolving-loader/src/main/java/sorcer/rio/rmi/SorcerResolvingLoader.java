@@ -41,10 +41,25 @@ public class SorcerResolvingLoader extends RMIClassLoaderSpi {
      */
     private final Map<String, Set<String>> artifactToCodebase = new ConcurrentHashMap<String, Set<String>>();
     /**
-     * A table of classes to artifact: codebase. This will ensure that if the annotation is requested for a class that
-     * has it's classpath resolved from an artifact, that the artifact URL is passed back instead of the resolved
-     * (local) classpath.
+     * A table of resolved codebases to the artifact codebases they were resolved from. Class loaders created for an
+     * artifact codebase are annotated with the resolved (local) classpath, this table maps it back to the artifacts
+     * so that the artifact URL is passed back instead of the resolved classpath.
      */
+    private final Map<String, String> resolvedToCodebase = new ConcurrentHashMap<String, String>();
+    /**
+     * A table of artifact codebases to resolved codebases. This avoids splitting the codebase and joining the
+     * resolved classpath for every class loaded.
+     */
+    private final Map<String, String> codebaseToResolved = new ConcurrentHashMap<String, String>();
+    /**
+     * Class annotations computed once per class, serialization asks for the annotation of every class it writes.
+     */
+    private final ClassValue<String> classAnnotations = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return computeClassAnnotation(type);
+        }
+    };
     private static final Logger logger = LoggerFactory.getLogger(SorcerResolvingLoader.class);
     private static SorcerResolver sorcerResolver;
     static {
@@ -99,17 +114,14 @@ public class SorcerResolvingLoader extends RMIClassLoaderSpi {
 
     @Override
     public String getClassAnnotation(final Class<?> aClass) {
+        return classAnnotations.get(aClass);
+    }
+
+    private String computeClassAnnotation(final Class<?> aClass) {
         String loaderAnnotation = loader.getClassAnnotation(aClass);
         String artifact = null;
-        if(loaderAnnotation!=null) {
-            for(Map.Entry<String, Set<String>> entry : artifactToCodebase.entrySet()) {
-                String resolvedCodebase = join(entry.getValue(), CODEBASE_SEPARATOR);
-                if(resolvedCodebase.equals(loaderAnnotation)) {
-                    artifact = entry.getKey();
-                    break;
-                }
-            }
-        }
+        if(loaderAnnotation!=null)
+            artifact = resolvedToCodebase.get(loaderAnnotation);
         String annotation = artifact==null?loaderAnnotation:artifact;
         if(logger.isDebugEnabled())
             logger.debug("Annotation for {} is {}", aClass.getName(), annotation);
@@ -117,43 +129,51 @@ public class SorcerResolvingLoader extends RMIClassLoaderSpi {
     }
 
     private String resolveCodebase(final String codebase) {
-        String adaptedCodebase;
-        if(codebase!=null && codebase.startsWith("artifact:")) {
-            String[] artifacts = codebase.split(CODEBASE_SEPARATOR);
-            Set<String> jarsSet = new HashSet<String>();
-            for (String artf : artifacts) {
-                if (artf != null) {
-                    Set<String> adaptedCodebaseSet;
-                    synchronized (artf.intern()) {
-                        adaptedCodebaseSet = artifactToCodebase.get(artf);
-                        if (adaptedCodebaseSet == null)
-                            try {
-                                adaptedCodebaseSet = new HashSet<String>();
-                                for (String path : sorcerResolver.doResolve(artf)) {
-                                    // ignore pom files
-                                    if (path.endsWith(".pom"))
-                                        continue;
-                                    adaptedCodebaseSet.add(new File(path).toURI().toURL().toExternalForm());
-                                }
-                                artifactToCodebase.put(artf, adaptedCodebaseSet);
-                                logger.debug("Resolved {} to {}", artf, adaptedCodebaseSet);
-                            } catch (SorcerResolverException e) {
-                                logger.warn("Unable to resolve {}", artf, e);
-                            } catch (MalformedURLException e) {
-                                logger.warn("The codebase {} is malformed", artf, e);
+        if(codebase==null || !codebase.startsWith("artifact:"))
+            return codebase;
+        String adaptedCodebase = codebaseToResolved.get(codebase);
+        if(adaptedCodebase!=null)
+            return adaptedCodebase;
+        String[] artifacts = codebase.split(CODEBASE_SEPARATOR);
+        Set<String> jarsSet = new LinkedHashSet<String>();
+        boolean resolved = true;
+        for (String artf : artifacts) {
+            if (artf != null) {
+                Set<String> adaptedCodebaseSet;
+                synchronized (artf.intern()) {
+                    adaptedCodebaseSet = artifactToCodebase.get(artf);
+                    if (adaptedCodebaseSet == null)
+                        try {
+                            adaptedCodebaseSet = new LinkedHashSet<String>();
+                            for (String path : sorcerResolver.doResolve(artf)) {
+                                // ignore pom files
+                                if (path.endsWith(".pom"))
+                                    continue;
+                                adaptedCodebaseSet.add(new File(path).toURI().toURL().toExternalForm());
                             }
-                    }
-                    jarsSet.addAll(adaptedCodebaseSet);
+                            artifactToCodebase.put(artf, adaptedCodebaseSet);
+                            logger.debug("Resolved {} to {}", artf, adaptedCodebaseSet);
+                        } catch (SorcerResolverException e) {
+                            resolved = false;
+                            logger.warn("Unable to resolve {}", artf, e);
+                        } catch (MalformedURLException e) {
+                            resolved = false;
+                            logger.warn("The codebase {} is malformed", artf, e);
+                        }
                 }
+                jarsSet.addAll(adaptedCodebaseSet);
             }
-            adaptedCodebase = join(jarsSet, CODEBASE_SEPARATOR);
-        }  else {
-            adaptedCodebase = codebase;
+        }
+        adaptedCodebase = join(jarsSet, CODEBASE_SEPARATOR);
+        // partially resolved codebases are resolved again next time
+        if (resolved) {
+            codebaseToResolved.put(codebase, adaptedCodebase);
+            if (!resolvedToCodebase.containsKey(adaptedCodebase))
+                resolvedToCodebase.put(adaptedCodebase, codebase);
         }
         return adaptedCodebase;
     }
 
-
     /**
      * Copied from StringUtils to avoid dependency on sorcer-platform
      */
@@ -0,0 +1,107 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.resolver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ResolutionCacheTest {
+    private static final String ARTIFACT = "org.sorcersoft:sorcer-api:1.0";
+
+    private File dir;
+    private File jar;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("resolution-cache").toFile();
+        jar = new File(dir, "sorcer-api-1.0.jar");
+        write(jar, 10);
+    }
+
+    @After
+    public void tearDown() {
+        delete(dir);
+    }
+
+    @Test
+    public void resolvesStoredClasspath() {
+        ResolutionCache cache = new ResolutionCache(new File(dir, "cache"), false);
+        assertNull(cache.get(ARTIFACT));
+        cache.put(ARTIFACT, new String[] { jar.getPath() });
+
+        // another JVM reads the same directory
+        ResolutionCache other = new ResolutionCache(new File(dir, "cache"), false);
+        assertArrayEquals(new String[] { jar.getPath() }, other.get(ARTIFACT));
+        assertEquals(1, other.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void dropsChangedFiles() throws IOException {
+        ResolutionCache cache = new ResolutionCache(new File(dir, "cache"), false);
+        cache.put(ARTIFACT, new String[] { jar.getPath() });
+        write(jar, 20);
+        assertNull(cache.get(ARTIFACT));
+
+        cache.put(ARTIFACT, new String[] { jar.getPath() });
+        assertTrue(jar.delete());
+        assertNull(cache.get(ARTIFACT));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void skipsSnapshots() {
+        String snapshot = "org.sorcersoft:sorcer-api:1.1-SNAPSHOT";
+        ResolutionCache cache = new ResolutionCache(new File(dir, "cache"), false);
+        cache.put(snapshot, new String[] { jar.getPath() });
+        assertNull(cache.get(snapshot));
+
+        ResolutionCache snapshots = new ResolutionCache(new File(dir, "cache"), true);
+        snapshots.put(snapshot, new String[] { jar.getPath() });
+        assertArrayEquals(new String[] { jar.getPath() }, snapshots.get(snapshot));
+    }
+
+    @Test
+    public void removesEntries() {
+        ResolutionCache cache = new ResolutionCache(new File(dir, "cache"), false);
+        cache.put(ARTIFACT, new String[] { jar.getPath() });
+        cache.remove(ARTIFACT);
+        assertNull(cache.get(ARTIFACT));
+    }
+
+    private static void write(File file, int size) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[size]);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null)
+            for (File f : files)
+                delete(f);
+        file.delete();
+    }
+}
@@ -24,6 +24,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.net.*;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -70,6 +74,8 @@ public class Webster implements Runnable {
     private boolean debug = false;
     private boolean isDaemon = false;
     private static String SERVER_DESCRIPTION = Webster.class.getName();
+    // buffer used to send files
+    private static final int BUFFER_SIZE = 64 * 1024;
     private String tempDir;
     // Shared class server (webster) 
     private static Webster webster;
@@ -608,11 +614,7 @@ public class Webster implements Runnable {
                         if (lineBuilder.length() > 0)
                             lineBuilder.append("\n");
                         lineBuilder.append(line);
-                        tokenizer = new StringTokenizer(line, ":");
-                        String aToken = tokenizer.nextToken().trim();
-                        if (tokenizer.hasMoreTokens()) {
-                            header.setProperty(aToken, tokenizer.nextToken().trim());
-                        }
+                        putHeaderField(header, line);
                     }
                     line = lineBuilder.toString();
                     int port = s.getPort();
@@ -659,7 +661,7 @@ public class Webster implements Runnable {
                             }
                         }
                         if (header.getProperty("GET") != null) {
-                            pool.execute(new GetFile(s, fileName));
+                            pool.execute(new GetFile(s, fileName, header));
                         } else if (header.getProperty("PUT") != null) {
                             if(tempDir==null) {
                                 DataOutputStream clientStream = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
@@ -840,6 +842,76 @@ public class Webster implements Runnable {
         return (wildcarded);
     }
 
+    /**
+     * Puts the field of a header line, <tt>name: value</tt>, into the header. The value may
+     * contain colons, as dates do.
+     */
+    static void putHeaderField(Properties header, String line) {
+        int colon = line.indexOf(':');
+        if (colon > 0)
+            header.setProperty(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+    }
+
+    static String ignoreCaseProperty(Properties props, String field) {
+        Enumeration<?> names = props.propertyNames();
+        while (names.hasMoreElements()) {
+            String propName = (String) names.nextElement();
+            if (field.equalsIgnoreCase(propName)) {
+                return (props.getProperty(propName));
+            }
+        }
+        return (null);
+    }
+
+    /**
+     * Parses a single byte range of a <tt>Range</tt> header, <tt>bytes=first-last</tt>,
+     * <tt>bytes=first-</tt> or <tt>bytes=-suffix</tt>.
+     *
+     * @return the first and last byte of the range, an empty array if the range is not
+     * satisfiable, or null if the whole file is to be sent
+     */
+    static long[] parseRange(String range, long length) {
+        if (range == null || !range.startsWith("bytes=") || range.indexOf(',') != -1)
+            return null;
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash == -1)
+            return null;
+        try {
+            long first, last;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1).trim());
+                if (suffix <= 0)
+                    return new long[0];
+                first = Math.max(0, length - suffix);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash).trim());
+                String end = spec.substring(dash + 1).trim();
+                last = end.isEmpty() ? length - 1 : Math.min(Long.parseLong(end), length - 1);
+            }
+            if (first < 0 || first > last)
+                return new long[0];
+            return new long[]{first, last};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the range of a request is to be sent: the request has no <tt>If-Range</tt>
+     * validator, or the validator is the last modification time of the file. Otherwise the file
+     * changed since the client fetched its other ranges, and the whole file is sent.
+     */
+    static boolean isRangeValid(String ifRange, long lastModified) {
+        return ifRange == null || ifRange.trim().equals(formatDate(lastModified));
+    }
+
+    static String formatDate(long time) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC));
+    }
+
     class Head implements Runnable {
         private Socket client;
         private String fileName;
@@ -859,10 +931,10 @@ public class Webster implements Runnable {
                        .append(", " + "parsed=")
                        .append(getFile)
                        .append(", ");
-                int fileLength;
                 String header;
                 if (getFile.isDirectory()) {
                     logData.append("directory located");
+                    int fileLength;
                     String files[] = getFile.list();
                     for (String file : files) {
                         File f = new File(getFile, file);
@@ -889,9 +961,7 @@ public class Webster implements Runnable {
                             "Content-Type: " + fileType + "\n" +
                             "Content-Length: " + fileLength + "\r\n\r\n";
                 } else if (getFile.exists()) {
-                    DataInputStream requestedFile = new DataInputStream(
-                            new BufferedInputStream(new FileInputStream(getFile)));
-                    fileLength = requestedFile.available();
+                    long fileLength = getFile.length();
                     String fileType =
                             fileName.substring(fileName.lastIndexOf(".") + 1,
                                                fileName.length());
@@ -903,6 +973,8 @@ public class Webster implements Runnable {
                             + "Content-Type: "
                             + fileType
                             + "\n"
+                            + "Accept-Ranges: bytes\n"
+                            + "Last-Modified: " + formatDate(getFile.lastModified()) + "\n"
                             + "Content-Length: "
                             + fileLength
                             + "\r\n\r\n";
@@ -939,12 +1011,12 @@ public class Webster implements Runnable {
     class GetFile implements Runnable {
         private Socket client;
         private String fileName;
-        private DataInputStream requestedFile;
-        private int fileLength;
+        private Properties rheader;
 
-        GetFile(Socket s, String fileName) {
+        GetFile(Socket s, String fileName, Properties header) {
             client = s;
             this.fileName = fileName;
+            rheader = header;
         }
 
         public void run() {
@@ -958,6 +1030,9 @@ public class Webster implements Runnable {
                        .append(getFile)
                        .append(", ");
                 String header;
+                // the first and last byte of the file to send
+                long first = 0;
+                long last = -1;
                 if (getFile.isDirectory()) {
                     logData.append("directory located");
                     String files[] = getFile.list();
@@ -976,7 +1051,7 @@ public class Webster implements Runnable {
                         dirData.append(f.lastModified());
                         dirData.append("\n");
                     }
-                    fileLength = dirData.length();
+                    int fileLength = dirData.length();
                     String fileType = MimeTypes.getProperty("txt");
                     if (fileType == null)
                         fileType = "application/java";
@@ -990,43 +1065,61 @@ public class Webster implements Runnable {
                             + fileLength
                             + "\r\n\r\n";
                 } else if (getFile.exists()) {
-                    requestedFile =
-                            new DataInputStream(
-                                    new BufferedInputStream(new FileInputStream(getFile)));
-                    fileLength = requestedFile.available();
+                    long fileLength = getFile.length();
                     String fileType =
                             fileName.substring(fileName.lastIndexOf(".") + 1,
                                                fileName.length());
                     fileType = MimeTypes.getProperty(fileType);
-                    header = "HTTP/1.0 200 OK\n"
-                            + "Allow: GET\nMIME-Version: 1.0\n"
+                    String common = "Allow: GET\nMIME-Version: 1.0\n"
                             + "Server: " + SERVER_DESCRIPTION + "\n"
                             + "Content-Type: "
                             + fileType
                             + "\n"
-                            + "Content-Length: "
-                            + fileLength
-                            + "\r\n\r\n";
+                            + "Accept-Ranges: bytes\n"
+                            + "Last-Modified: " + formatDate(getFile.lastModified()) + "\n";
+                    long[] range = null;
+                    if (isRangeValid(ignoreCaseProperty(rheader, "If-Range"), getFile.lastModified()))
+                        range = parseRange(ignoreCaseProperty(rheader, "Range"), fileLength);
+                    if (range == null) {
+                        last = fileLength - 1;
+                        header = "HTTP/1.0 200 OK\n"
+                                + common
+                                + "Content-Length: "
+                                + fileLength
+                                + "\r\n\r\n";
+                    } else if (range.length == 0) {
+                        header = "HTTP/1.0 416 Requested Range Not Satisfiable\n"
+                                + "Content-Range: bytes */" + fileLength + "\r\n\r\n";
+                        logData.append("range not satisfiable");
+                    } else {
+                        first = range[0];
+                        last = range[1];
+                        header = "HTTP/1.0 206 Partial Content\n"
+                                + common
+                                + "Content-Range: bytes " + first + "-" + last + "/" + fileLength + "\n"
+                                + "Content-Length: "
+                                + (last - first + 1)
+                                + "\r\n\r\n";
+                        logData.append("range: [").append(first).append("-").append(last).append("], ");
+                    }
                 } else {
                     header = "HTTP/1.0 404 Not Found\r\n\r\n";
                 }
                 DataOutputStream clientStream =
                         new DataOutputStream(
-                                new BufferedOutputStream(client.getOutputStream()));
+                                new BufferedOutputStream(client.getOutputStream(), BUFFER_SIZE));
                 clientStream.writeBytes(header);
 
                 if (getFile.isDirectory()) {
                     clientStream.writeBytes(dirData.toString());
                 } else if (getFile.exists()) {
-                    byte[] buffer = new byte[fileLength];
-                    requestedFile.readFully(buffer);
-                    logData.append("file size: [").append(fileLength).append("]");
+                    logData.append("file size: [").append(getFile.length()).append("]");
                     try {
-                        clientStream.write(buffer);
+                        send(getFile, first, last, clientStream);
                     } catch (Exception e) {
                         String s = "Sending [" +
                                 getFile.getAbsolutePath() + "], " +
-                                "size [" + fileLength + "], " +
+                                "bytes [" + first + "-" + last + "], " +
                                 "to client at " +
                                 "[" +
                                 client.getInetAddress().getHostAddress() +
@@ -1038,7 +1131,6 @@ public class Webster implements Runnable {
                             e.printStackTrace();
                         }
                     }
-                    requestedFile.close();
                 } else {
                     logData.append("not found");
                 }
@@ -1060,6 +1152,26 @@ public class Webster implements Runnable {
                 }
             }
         } // end of GetFile
+
+        /*
+         * Copies the bytes of the file from first to last, so that large files are not read in memory
+         */
+        private void send(File file, long first, long last, OutputStream out) throws IOException {
+            if (last < first)
+                return;
+            try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+                in.seek(first);
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long remaining = last - first + 1;
+                while (remaining > 0) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read == -1)
+                        throw new EOFException("File " + file + " truncated while sending");
+                    out.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+        }
     }
 
     class PutFile implements Runnable {
@@ -1184,17 +1296,6 @@ public class Webster implements Runnable {
             clientStream.flush();
             clientStream.close();
         }
-
-        public String ignoreCaseProperty(Properties props, String field) {
-            Enumeration<?> names = props.propertyNames();
-            while (names.hasMoreElements()) {
-                String propName = (String) names.nextElement();
-                if (field.equalsIgnoreCase(propName)) {
-                    return (props.getProperty(propName));
-                }
-            }
-            return (null);
-        }
     } // end of PutFile
 
     class DelFile implements Runnable {
@@ -0,0 +1,80 @@
+/*
+ * Copyright to the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sorcer.tools.webster;
+
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class WebsterTest {
+
+    @Test
+    public void parsesRanges() {
+        assertArrayEquals(new long[]{0, 99}, Webster.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[]{900, 999}, Webster.parseRange("bytes=900-", 1000));
+        assertArrayEquals(new long[]{950, 999}, Webster.parseRange("bytes=-50", 1000));
+        // the last byte is clipped to the length, a suffix to the whole file
+        assertArrayEquals(new long[]{900, 999}, Webster.parseRange("bytes=900-2000", 1000));
+        assertArrayEquals(new long[]{0, 999}, Webster.parseRange("bytes=-2000", 1000));
+    }
+
+    @Test
+    public void sendsWholeFileForUnsupportedRanges() {
+        assertNull(Webster.parseRange(null, 1000));
+        assertNull(Webster.parseRange("items=0-99", 1000));
+        assertNull(Webster.parseRange("bytes=0-9,20-29", 1000));
+        assertNull(Webster.parseRange("bytes=a-b", 1000));
+    }
+
+    @Test
+    public void rejectsUnsatisfiableRanges() {
+        // answered with 416 Requested Range Not Satisfiable
+        assertEquals(0, Webster.parseRange("bytes=1000-", 1000).length);
+        assertEquals(0, Webster.parseRange("bytes=50-10", 1000).length);
+        assertEquals(0, Webster.parseRange("bytes=-0", 1000).length);
+        assertEquals(0, Webster.parseRange("bytes=0-", 0).length);
+    }
+
+    @Test
+    public void sendsRangesOfUnchangedFiles() {
+        long modified = 1444000000000L;
+        Properties header = header("Range: bytes=0-99\nIf-Range: " + Webster.formatDate(modified) + "\n");
+
+        assertTrue(Webster.isRangeValid(Webster.ignoreCaseProperty(header, "if-range"), modified));
+        assertTrue(Webster.isRangeValid(null, modified));
+        // changed files, and entity tags, are sent whole
+        assertFalse(Webster.isRangeValid(Webster.ignoreCaseProperty(header, "If-Range"), modified + 1000));
+        assertFalse(Webster.isRangeValid("\"etag\"", modified));
+    }
+
+    @Test
+    public void keepsColonsOfHeaderValues() {
+        Properties header = header("Host: localhost:9000\nIf-Range: Mon, 05 Oct 2015 00:26:40 GMT\n");
+
+        assertEquals("localhost:9000", header.getProperty("Host"));
+        assertEquals("Mon, 05 Oct 2015 00:26:40 GMT", header.getProperty("If-Range"));
+    }
+
+    private static Properties header(String text) {
+        Properties header = new Properties();
+        for (String line : text.split("\n"))
+            Webster.putHeaderField(header, line);
+        return header;
+    }
+}